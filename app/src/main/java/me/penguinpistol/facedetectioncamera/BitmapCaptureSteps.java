@@ -0,0 +1,74 @@
+package me.penguinpistol.facedetectioncamera;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+// CapturePipeline 의 Bitmap 구현
+public class BitmapCaptureSteps implements CapturePipeline.Steps<Bitmap> {
+
+    private static final int JPEG_QUALITY = 90;
+
+    private final int maxWidth;
+    private final int maxHeight;
+
+    // 저장 크기 (화면 기준), 이보다 크면 비율을 유지해서 축소
+    public BitmapCaptureSteps(int maxWidth, int maxHeight) {
+        this.maxWidth = maxWidth;
+        this.maxHeight = maxHeight;
+    }
+
+    @Override
+    public Bitmap decode(CapturedImage image) throws IOException {
+        Bitmap bitmap = CaptureDecoder.decodeSampled(image, maxWidth, maxHeight);
+        if(bitmap == null) {
+            throw new IOException("JPEG decode failed");
+        }
+        return bitmap;
+    }
+
+    @Override
+    public Bitmap orient(Bitmap decoded, CapturedImage image) {
+        return CaptureDecoder.orient(decoded, image);
+    }
+
+    @Override
+    public Bitmap downscale(Bitmap oriented) {
+        float scale = Math.min((float)maxWidth / oriented.getWidth(), (float)maxHeight / oriented.getHeight());
+        if(scale >= 1f) {
+            return oriented;
+        }
+
+        Bitmap scaled = Bitmap.createScaledBitmap(oriented, Math.round(oriented.getWidth() * scale), Math.round(oriented.getHeight() * scale), true);
+        if(scaled != oriented) {
+            oriented.recycle();
+        }
+        return scaled;
+    }
+
+    // 축소하지 않은 경우 원본 JPEG 을 그대로 저장 (회전, 반전은 값으로 남기고 재인코딩 화질 손실 없음)
+    @Override
+    public CapturedImage encode(Bitmap image, CapturedImage source) {
+        if(isFullSize(image, source)) {
+            return source;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(image.getWidth() * image.getHeight() / 4);
+        image.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, out);
+        return new CapturedImage(out.toByteArray(), 0, false);
+    }
+
+    // 회전 적용된 이미지가 원본 JPEG 과 같은 크기인지 (크기만 읽음)
+    private static boolean isFullSize(Bitmap image, CapturedImage source) {
+        byte[] jpeg = source.getJpeg();
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(jpeg, 0, jpeg.length, options);
+
+        boolean isRotated = source.getRotationDegrees() == 90 || source.getRotationDegrees() == 270;
+        int width = isRotated ? options.outHeight : options.outWidth;
+        int height = isRotated ? options.outWidth : options.outHeight;
+        return width > 0 && image.getWidth() == width && image.getHeight() == height;
+    }
+}
@@ -0,0 +1,176 @@
+package me.penguinpistol.facedetectioncamera;
+
+// 눈 깜빡임(뜸 -> 감음 -> 뜸) 으로 실제 사람인지 확인
+// 프레임마다 두 눈의 열림 확률 중 작은 값을 히스테리시스 기준으로 뜸/감음 분류하고, 고정 크기 링버퍼에서 구간을 확인
+// 방향이 바뀌어도 세션 동안 누적 (한 스레드에서만 호출)
+public class BlinkLivenessDetector {
+
+    public enum State {
+        WAITING,        // 뜬 눈을 아직 보지 못함
+        OPEN,
+        CLOSED,
+    }
+
+    // 기본 기준 (ML Kit 눈 열림 확률)
+    public static final float DEFAULT_OPEN_THRESHOLD = 0.6f;        // 이 값 이상이면 뜸
+    public static final float DEFAULT_CLOSED_THRESHOLD = 0.25f;     // 이 값 이하이면 감음, 사이 값은 이전 상태 유지
+    public static final long DEFAULT_MIN_CLOSED_MS = 40;            // 검출 오차 한 프레임은 깜빡임으로 보지 않음
+    public static final long DEFAULT_MAX_CLOSED_MS = 500;           // 더 길면 눈을 감고 있던 것
+    public static final long DEFAULT_WINDOW_MS = 1500;              // 마지막 뜸 ~ 다시 뜸
+    public static final int DEFAULT_CAPACITY = 64;                  // 30fps 기준 약 2초
+
+    private final float openThreshold;
+    private final float closedThreshold;
+    private final long minClosedMs;
+    private final long maxClosedMs;
+    private final long windowMs;
+
+    // 고정 크기 링버퍼 (시각, 눈 열림, 분류)
+    private final int capacity;
+    private final long[] timestamps;
+    private final float[] openness;
+    private final boolean[] isClosed;
+    private int head = 0;                   // 가장 오래된 샘플 위치
+    private int count = 0;
+
+    private State state = State.WAITING;
+    private int blinkCount = 0;
+    private long lastBlinkMs = -1;
+    private long lastClosedDurationMs = -1;
+
+    public BlinkLivenessDetector() {
+        this(DEFAULT_OPEN_THRESHOLD, DEFAULT_CLOSED_THRESHOLD, DEFAULT_MIN_CLOSED_MS, DEFAULT_MAX_CLOSED_MS, DEFAULT_WINDOW_MS, DEFAULT_CAPACITY);
+    }
+
+    public BlinkLivenessDetector(float openThreshold, float closedThreshold, long minClosedMs, long maxClosedMs, long windowMs, int capacity) {
+        if(closedThreshold >= openThreshold) {
+            throw new IllegalArgumentException("closedThreshold must be < openThreshold : " + closedThreshold + " >= " + openThreshold);
+        }
+        if(capacity < 3) {
+            throw new IllegalArgumentException("capacity must be >= 3 : " + capacity);
+        }
+        this.openThreshold = openThreshold;
+        this.closedThreshold = closedThreshold;
+        this.minClosedMs = minClosedMs;
+        this.maxClosedMs = maxClosedMs;
+        this.windowMs = windowMs;
+        this.capacity = capacity;
+        timestamps = new long[capacity];
+        openness = new float[capacity];
+        isClosed = new boolean[capacity];
+    }
+
+    // 프레임 1개 반영, 이번 프레임에서 깜빡임이 완성되면 true
+    // 눈 열림 값이 음수(검출 실패)인 프레임은 무시
+    public boolean update(long timestampMs, float leftEyeOpen, float rightEyeOpen) {
+        if(leftEyeOpen < 0 || rightEyeOpen < 0) {
+            return false;
+        }
+        float value = Math.min(leftEyeOpen, rightEyeOpen);
+
+        State next;
+        if(value >= openThreshold) {
+            next = State.OPEN;
+        } else if(value <= closedThreshold) {
+            // 뜬 눈을 본 뒤의 감음만 의미 있음
+            next = state == State.WAITING ? State.WAITING : State.CLOSED;
+        } else {
+            next = state;
+        }
+
+        // WAITING 은 감음이 아닌 것으로 기록
+        push(timestampMs, value, next == State.CLOSED);
+
+        boolean blinked = state == State.CLOSED && next == State.OPEN && isBlink(timestampMs);
+        if(blinked) {
+            blinkCount++;
+            lastBlinkMs = timestampMs;
+        }
+        state = next;
+        return blinked;
+    }
+
+    // 방금 추가한 뜸 샘플 앞의 감음 구간, 그 앞의 뜸 샘플 확인
+    private boolean isBlink(long reopenMs) {
+        // 가장 최근(뜸) 샘플 바로 앞부터 과거로
+        int i = count - 2;
+        long closedStartMs = -1;
+        while(i >= 0 && isClosed[index(i)]) {
+            closedStartMs = timestamps[index(i)];
+            i--;
+        }
+        if(closedStartMs < 0 || i < 0) {
+            // 감음 구간이 링버퍼보다 길거나 앞의 뜸 샘플이 밀려남
+            return false;
+        }
+
+        long closedMs = reopenMs - closedStartMs;
+        long openBeforeMs = timestamps[index(i)];
+        if(closedMs < minClosedMs || closedMs > maxClosedMs || reopenMs - openBeforeMs > windowMs) {
+            return false;
+        }
+        lastClosedDurationMs = closedMs;
+        return true;
+    }
+
+    private void push(long timestampMs, float value, boolean closed) {
+        int slot;
+        if(count < capacity) {
+            slot = (head + count) % capacity;
+            count++;
+        } else {
+            slot = head;
+            head = (head + 1) % capacity;
+        }
+        timestamps[slot] = timestampMs;
+        openness[slot] = value;
+        isClosed[slot] = closed;
+    }
+
+    // 오래된 순서 i 번째 샘플의 배열 위치
+    private int index(int i) {
+        return (head + i) % capacity;
+    }
+
+    // 세션 시작
+    public void reset() {
+        head = 0;
+        count = 0;
+        state = State.WAITING;
+        blinkCount = 0;
+        lastBlinkMs = -1;
+        lastClosedDurationMs = -1;
+    }
+
+    // 깜빡임을 한 번 이상 확인했는지
+    public boolean isLive() {
+        return blinkCount > 0;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public int getBlinkCount() {
+        return blinkCount;
+    }
+
+    // 마지막 깜빡임 완료 시각 (없으면 -1)
+    public long getLastBlinkMs() {
+        return lastBlinkMs;
+    }
+
+    // 마지막 깜빡임의 감은 시간 (없으면 -1)
+    public long getLastClosedDurationMs() {
+        return lastClosedDurationMs;
+    }
+
+    public int getSampleCount() {
+        return count;
+    }
+
+    // 가장 최근 샘플의 눈 열림 값 (없으면 -1)
+    public float getLastOpenness() {
+        return count == 0 ? -1f : openness[index(count - 1)];
+    }
+}
@@ -1,33 +1,231 @@
 package me.penguinpistol.facedetectioncamera;
 
+import android.app.Application;
 import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
-import androidx.lifecycle.ViewModel;
+import androidx.lifecycle.SavedStateHandle;
 
+import com.google.mlkit.vision.common.InputImage;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayDeque;
 import java.util.Arrays;
-import java.util.Deque;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class CameraViewModel extends AndroidViewModel {
+    private static final String TAG = "CameraViewModel";
+
+    // 프로세스 종료 후 복원용 키
+    private static final String KEY_SESSION_ID = "capture_session_id";
+    private static final String KEY_PLAN = "capture_plan";
+    private static final String KEY_LIVE = "capture_live";
+    private static final String KEY_SIGNATURE_PREFIX = "capture_signature_";
+
+    private static final String CAPTURE_DIRECTORY = "captures";
+    private static final long CAPTURE_MEMORY_BUDGET_BYTES = 2L * 1024 * 1024;      // 메모리에 유지할 JPEG 최대 크기
+    private static final int THUMBNAIL_CACHE_BYTES = 4 * 1024 * 1024;              // 썸네일 Bitmap 캐시 크기 (방향 + 표시 크기별)
+    private static final String MANIFEST_ENTRY = "manifest.txt";
+
+    // 업로드 진행률 (0 ~ 100) 외의 상태
+    public static final int UPLOAD_IDLE = -1;
+    public static final int UPLOAD_FAILED = -2;
+
+    public interface ThumbnailCallback {
+        // 메인 스레드에서 호출 (없거나 디코딩 실패 시 null)
+        void onThumbnail(FaceChecker.Direction dir, @Nullable Bitmap thumbnail);
+    }
 
-public class CameraViewModel extends ViewModel {
+    private final SavedStateHandle savedState;
+    private final String sessionId;
+    private final SessionArchive archive;
+    private final File manifestFile;
 
-    private final Deque<FaceChecker.Direction> takePictureOrder;
-    private final Map<FaceChecker.Direction, Bitmap> takePictures;
+    private final CaptureStore captureStore;
+    private final LruCache<String, Bitmap> thumbnailCache;
+    // 저장, 썸네일 디코딩 (파일 IO 스레드 1개, 결과만 메인 스레드로 전달)
+    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
 
+    private CapturePlan capturePlan;
+    private ThresholdTable thresholdTable;
+    private final TimeToCapture timeToCapture = new TimeToCapture();
+    private final SessionMetrics sessionMetrics = new SessionMetrics();
+    private final BlinkLivenessDetector livenessDetector = new BlinkLivenessDetector();
+    private final IdentityConsistency identityConsistency = new IdentityConsistency();
+    private int nextIndex = 0;
+    // 후처리, 저장에 실패해서 계획 뒤에 다시 촬영할 방향
+    private final ArrayDeque<FaceChecker.Direction> retakeQueue = new ArrayDeque<>();
+    // 분석이 끝난 뒤 다시 촬영할 방향이 생김 (화면에서 분석을 다시 시작)
+    private final MutableLiveData<Boolean> observableRetake = new MutableLiveData<>(false);
+    // 화면이 유지되는 동안 공유 검출기를 잡아둠 (회전 시 재생성 방지), 예열 스레드와 onCleared 사이는 this 로 동기화
+    private FaceDetectorBackend<InputImage> detectorLease;
+    private boolean isWarmUpRequested = false;
+    private boolean isCleared = false;
     private boolean isLastOrder;
 
+    // Direction.ordinal() 인덱스 (제한시간 초과로 다시 시도한 횟수, 건너뛴 방향)
+    private final int[] retryCounts = new int[FaceChecker.Direction.values().length];
+    private final boolean[] skipped = new boolean[FaceChecker.Direction.values().length];
+    // 촬영 판정 프레임의 각도 x/y/z, 판정 점수 (기록 없으면 NaN)
+    private final float[] captureAngles = new float[FaceChecker.Direction.values().length * 3];
+    private final float[] captureScores = new float[FaceChecker.Direction.values().length];
+    // 촬영 판정 프레임의 얼굴 영역 선명도, 평균 밝기 (화질 기준값 보정용, 없으면 NaN)
+    private final float[] captureQuality = new float[FaceChecker.Direction.values().length * 2];
+    // 얼굴형 비교 결과 (이전 방향과의 평균 거리, 일치 여부), 기준값 검증용으로 기록만 함
+    private final float[] identityDistances = new float[FaceChecker.Direction.values().length];
+    private final boolean[] identityMismatches = new boolean[FaceChecker.Direction.values().length];
+    private int identityMismatchCount = 0;
+
+    // 세션 업로드 (업로드 스레드 1개, 끊기면 다음 호출에서 이어 올림)
+    private ExecutorService uploadExecutor;
+    private SessionUploader uploader;
+    private String uploadBaseUrl;
+    // 진행률 LiveData 는 업로드 스레드에서 늦게 반영될 수 있으므로 따로 관리 (메인 스레드)
+    private boolean isUploading = false;
+    // 이전 실행에서 업로드가 끝나지 않은 세션 (IO 스레드에서 채우고 업로드 스레드에서 꺼냄)
+    private final ConcurrentLinkedQueue<String> pendingSessions = new ConcurrentLinkedQueue<>();
+    private final MutableLiveData<Integer> observableUploadProgress = new MutableLiveData<>(UPLOAD_IDLE);
+
+    // 후처리 중인 촬영 수, 마지막 방향 촬영 여부 (메인 스레드에서만 접근)
+    private int processingCount = 0;
+    private boolean isCaptureCompleted = false;
+
     private final MutableLiveData<Boolean> observableFinished;
 
-    public CameraViewModel() {
-        takePictures = new HashMap<>();
-        takePictureOrder = new ArrayDeque<>();
+    public CameraViewModel(@NonNull Application application, @NonNull SavedStateHandle savedState) {
+        super(application);
+        this.savedState = savedState;
         observableFinished = new MutableLiveData<>(false);
+        thumbnailCache = new LruCache<String, Bitmap>(THUMBNAIL_CACHE_BYTES) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getByteCount();
+            }
+        };
+
+        String savedSessionId = savedState.get(KEY_SESSION_ID);
+        boolean isRestored = savedSessionId != null;
+        if(!isRestored) {
+            savedSessionId = String.valueOf(System.currentTimeMillis());
+            savedState.set(KEY_SESSION_ID, savedSessionId);
+        }
+        sessionId = savedSessionId;
+        Arrays.fill(captureAngles, Float.NaN);
+        Arrays.fill(captureScores, Float.NaN);
+        Arrays.fill(captureQuality, Float.NaN);
+        Arrays.fill(identityDistances, Float.NaN);
+
+        archive = new SessionArchive(new File(application.getNoBackupFilesDir(), CAPTURE_DIRECTORY));
+        manifestFile = archive.getManifestFile(sessionId);
+        try {
+            captureStore = new CaptureStore(archive.getSessionDirectory(sessionId), CAPTURE_MEMORY_BUDGET_BYTES, false);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        // 이전 세션 정리, 저장된 결과 복원은 IO 스레드에서 (이후 저장, 업로드도 같은 스레드 순서로 실행)
+        ioExecutor.execute(() -> {
+            if(!isRestored) {
+                // 업로드가 끝나지 않은 세션은 남겨서 이번 세션 업로드 후 이어 올림
+                pendingSessions.addAll(archive.cleanUp(sessionId));
+                Log.d(TAG, "session cleanup >> pending=" + pendingSessions);
+            }
+            try {
+                captureStore.open();
+            } catch (IOException e) {
+                Log.e(TAG, "capture store ERROR >> " + e);
+            }
+            mainHandler.post(this::onStoreOpened);
+        });
 
-        // 전체방향
-        setTakePictureOrder(FaceChecker.Direction.values());
+        String savedPlan = savedState.get(KEY_PLAN);
+        if(savedPlan != null) {
+            capturePlan = CapturePlan.fromState(savedPlan);
+            thresholdTable = new ThresholdTable(capturePlan);
+        } else {
+            // 전체방향
+            setCapturePlan(CapturePlan.full());
+        }
+    }
+
+    // 저장된 결과 복원 후 (메인 스레드), 저장된 방향의 얼굴형 특징값과 남은 촬영 방향 반영
+    private void onStoreOpened() {
+        for(FaceChecker.Direction dir : captureStore.getDirections()) {
+            float[] signature = savedState.get(KEY_SIGNATURE_PREFIX + dir.name());
+            if(signature != null) {
+                identityConsistency.put(dir, signature);
+            }
+        }
+        if(nextIndex == 0 && !isCaptureCompleted && !hasNextOrder()) {
+            // 복원된 세션의 모든 방향이 이미 저장됨
+            isLastOrder = true;
+            isCaptureCompleted = true;
+            setFinished(true);
+        }
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        thumbnailCache.evictAll();
+        // 진행 중인 저장은 끝까지 실행
+        ioExecutor.shutdown();
+        mainHandler.removeCallbacksAndMessages(null);
+        if(uploader != null) {
+            uploader.cancel();
+        }
+        if(uploadExecutor != null) {
+            uploadExecutor.shutdownNow();
+            uploadExecutor = null;
+        }
+        synchronized (this) {
+            isCleared = true;
+            if(detectorLease != null) {
+                detectorLease.close();
+                detectorLease = null;
+            }
+        }
+    }
+
+    // 카메라 권한을 받은 뒤 카메라 준비 동안 검출기 예열 (한 번만)
+    // 검출기 생성, 예열 이미지 생성은 IO 스레드에서 (세션 정리, 저장소 복원 다음)
+    public void warmUpDetector() {
+        if(isWarmUpRequested) {
+            return;
+        }
+        isWarmUpRequested = true;
+        ioExecutor.execute(() -> {
+            synchronized (this) {
+                if(isCleared) {
+                    return;
+                }
+            }
+            FaceDetectorBackend<InputImage> lease = MlKitFaceDetectorBackend.PROVIDER.warmUp();
+            synchronized (this) {
+                if(isCleared) {
+                    // 예열 중에 화면이 종료됨
+                    lease.close();
+                } else {
+                    detectorLease = lease;
+                }
+            }
+        });
     }
 
     public void setFinished(boolean finished) {
@@ -38,26 +236,452 @@ public class CameraViewModel extends ViewModel {
         return observableFinished;
     }
 
+    public LiveData<Boolean> getIsRetakePending() {
+        return observableRetake;
+    }
+
     public boolean isLastOrder() {
         return isLastOrder;
     }
 
-    public void setPicture(FaceChecker.Direction dir, Bitmap picture) {
-        takePictures.put(dir, picture);
+    // 촬영 직후 (후처리 시작 전) 호출
+    public void onCaptureQueued() {
+        processingCount++;
+        if(livenessDetector.isLive()) {
+            savedState.set(KEY_LIVE, true);
+        }
+        if(isLastOrder) {
+            isCaptureCompleted = true;
+        }
+    }
+
+    // 후처리 완료 (메인 스레드), 파일 저장은 IO 스레드에서 하고 끝나면 메인 스레드에서 onStored 호출
+    // 저장에 실패하면 후처리 실패와 같이 처리
+    public void setPicture(FaceChecker.Direction dir, CapturedImage picture, @Nullable Runnable onStored) {
+        ioExecutor.execute(() -> {
+            try {
+                long startNs = System.nanoTime();
+                captureStore.put(dir, picture);
+                invalidateManifest();
+                sessionMetrics.recordSince(SessionMetrics.Metric.CAPTURE_STORE, startNs);
+                removeThumbnails(dir);
+                mainHandler.post(() -> {
+                    if(onStored != null) {
+                        onStored.run();
+                    }
+                    onCaptureProcessed();
+                });
+            } catch (IOException e) {
+                Log.e(TAG, "setPicture ERROR >> " + dir + " " + e);
+                mainHandler.post(() -> onCaptureFailed(dir));
+            }
+        });
+    }
+
+    // 후처리 실패, 재시도 횟수가 남았으면 계획 뒤에 다시 촬영 (제한시간 초과와 같은 횟수 사용)
+    public void onCaptureFailed(FaceChecker.Direction dir) {
+        identityConsistency.remove(dir);
+        savedState.remove(KEY_SIGNATURE_PREFIX + dir.name());
+        if(tryRetry(dir)) {
+            Log.d(TAG, "capture failed >> retake " + dir);
+            retakeQueue.add(dir);
+            if(isLastOrder) {
+                // 분석이 이미 끝났으면 화면에서 다시 시작
+                if(isCaptureCompleted) {
+                    observableRetake.setValue(true);
+                }
+                isLastOrder = false;
+                isCaptureCompleted = false;
+            }
+        } else {
+            Log.d(TAG, "capture failed >> skip " + dir);
+            skipped[dir.ordinal()] = true;
+        }
+        onCaptureProcessed();
     }
 
-    public Map<FaceChecker.Direction, Bitmap> getTakePictures() {
-        return takePictures;
+    // 후처리에 넘기기 전에 촬영 자체가 실패한 경우 (ImageCapture 오류 등), 후처리 실패와 같이 재촬영 또는 건너뜀
+    public void onCaptureTakeFailed(FaceChecker.Direction dir) {
+        onCaptureQueued();
+        onCaptureFailed(dir);
     }
 
+    // 촬영 판정 직후 이전 방향들과 같은 얼굴형인지 확인, 일치하면 보관하고 true
+    // false 면 같은 방향을 다시 촬영 (결과는 로그, 업로드 메타데이터에도 기록)
+    public boolean checkIdentity(FaceChecker.Direction dir, float[] signature) {
+        boolean consistent = identityConsistency.add(dir, signature);
+        int compared = identityConsistency.getLastComparedCount();
+        Log.d(TAG, "identity >> " + dir + " consistent=" + consistent
+                + " distance=" + identityConsistency.getLastMeanDistance()
+                + " mismatch=" + identityConsistency.getLastMismatchCount() + "/" + compared);
+        if(consistent) {
+            savedState.set(KEY_SIGNATURE_PREFIX + dir.name(), signature.clone());
+        } else {
+            identityMismatchCount++;
+        }
+        identityDistances[dir.ordinal()] = compared > 0 ? identityConsistency.getLastMeanDistance() : Float.NaN;
+        identityMismatches[dir.ordinal()] = !consistent;
+        return consistent;
+    }
+
+    // 세션 중 얼굴형이 다르다고 판정된 횟수
+    public int getIdentityMismatchCount() {
+        return identityMismatchCount;
+    }
+
+    // 제한시간 초과, 재시도 가능하면 true (횟수 증가)
+    public boolean tryRetry(FaceChecker.Direction dir) {
+        if(retryCounts[dir.ordinal()] >= capturePlan.getMaxRetries(dir)) {
+            return false;
+        }
+        retryCounts[dir.ordinal()]++;
+        return true;
+    }
+
+    public int getRetryCount(FaceChecker.Direction dir) {
+        return retryCounts[dir.ordinal()];
+    }
+
+    // 재시도 횟수를 모두 쓴 방향은 건너뜀
+    public void onCaptureSkipped(FaceChecker.Direction dir) {
+        skipped[dir.ordinal()] = true;
+        if(isLastOrder) {
+            isCaptureCompleted = true;
+            updateFinished();
+        }
+    }
+
+    public boolean isSkipped(FaceChecker.Direction dir) {
+        return skipped[dir.ordinal()];
+    }
+
+    // 마지막 촬영의 후처리까지 끝나면 완료
+    private void onCaptureProcessed() {
+        processingCount--;
+        updateFinished();
+    }
+
+    private void updateFinished() {
+        if(isCaptureCompleted && processingCount == 0) {
+            Log.d(TAG, "session metrics >>\n" + sessionMetrics.dump());
+            Log.d(TAG, "liveness >> live=" + isLive() + " blinks=" + livenessDetector.getBlinkCount());
+            Log.d(TAG, "identity >> mismatches=" + identityMismatchCount);
+            setFinished(true);
+        }
+    }
+
+    public Set<FaceChecker.Direction> getTakePictureDirections() {
+        return captureStore.getDirections();
+    }
+
+    // 저장된 JPEG (없거나 읽기 실패 시 null)
+    @Nullable
+    public CapturedImage getPicture(FaceChecker.Direction dir) {
+        try {
+            return captureStore.get(dir);
+        } catch (IOException e) {
+            Log.e(TAG, "getPicture ERROR >> " + dir + " " + e);
+            return null;
+        }
+    }
+
+    // 표시 크기로 디코딩한 썸네일 (메인 스레드에서 호출)
+    // 캐시에 있으면 바로, 없으면 IO 스레드에서 읽고 디코딩한 뒤 callback
+    public void loadThumbnail(FaceChecker.Direction dir, int width, int height, ThumbnailCallback callback) {
+        String key = thumbnailKey(dir, width, height);
+        Bitmap cached = thumbnailCache.get(key);
+        if(cached != null) {
+            callback.onThumbnail(dir, cached);
+            return;
+        }
+        ioExecutor.execute(() -> {
+            CapturedImage picture = getPicture(dir);
+            Bitmap thumbnail = picture == null ? null : CaptureDecoder.decode(picture, width, height);
+            if(thumbnail != null) {
+                thumbnailCache.put(key, thumbnail);
+            }
+            mainHandler.post(() -> callback.onThumbnail(dir, thumbnail));
+        });
+    }
+
+    // 같은 방향이라도 표시 크기가 다르면 따로 보관
+    private static String thumbnailKey(FaceChecker.Direction dir, int width, int height) {
+        return dir.name() + "@" + width + "x" + height;
+    }
+
+    // 다시 촬영된 방향의 썸네일 (모든 크기)
+    private void removeThumbnails(FaceChecker.Direction dir) {
+        String prefix = dir.name() + "@";
+        for(String key : thumbnailCache.snapshot().keySet()) {
+            if(key.startsWith(prefix)) {
+                thumbnailCache.remove(key);
+            }
+        }
+    }
+
+    // 메모리 사용량 (JPEG + 썸네일)
+    public long getMemoryFootprintBytes() {
+        return captureStore.getMemoryBytes() + thumbnailCache.size();
+    }
+
+    // 파일 사용량
+    public long getDiskFootprintBytes() {
+        return captureStore.getDiskBytes();
+    }
+
+    // 지정한 방향만 기본값으로 촬영 (이전 순서는 지움)
     public void setTakePictureOrder(FaceChecker.Direction... order) {
-        takePictureOrder.addAll(Arrays.asList(order.clone()));
+        setCapturePlan(CapturePlan.of(order));
+    }
+
+    // 촬영 계획 변경 (진행 상태 초기화, 이미 저장된 결과는 유지)
+    public void setCapturePlan(CapturePlan plan) {
+        capturePlan = plan;
+        thresholdTable = new ThresholdTable(plan);
+        timeToCapture.clear();
+        sessionMetrics.reset();
+        livenessDetector.reset();
+        savedState.set(KEY_LIVE, false);
+        identityMismatchCount = 0;
+        nextIndex = 0;
+        retakeQueue.clear();
+        observableRetake.setValue(false);
         isLastOrder = false;
+        isCaptureCompleted = false;
+        Arrays.fill(retryCounts, 0);
+        Arrays.fill(skipped, false);
+        hasNextOrder();
+        savedState.set(KEY_PLAN, plan.toState());
+        ioExecutor.execute(this::invalidateManifest);
+    }
+
+    public CapturePlan getCapturePlan() {
+        return capturePlan;
+    }
+
+    // 계획을 정할 때 만든 방향별 판정 기준표
+    public ThresholdTable getThresholdTable() {
+        return thresholdTable;
+    }
+
+    public void recordTimeToCapture(FaceChecker.Direction dir, long elapsedMs, boolean isRelaxed) {
+        timeToCapture.record(dir, elapsedMs, isRelaxed);
+        Log.d(TAG, "time to capture >> " + timeToCapture.format());
+    }
+
+    // 촬영 판정 프레임의 각도, 점수 (세션 업로드 메타데이터)
+    public void recordCaptureFace(FaceChecker.Direction dir, FaceObservation face, float score) {
+        int index = dir.ordinal();
+        captureAngles[index * 3] = face.getEulerX();
+        captureAngles[index * 3 + 1] = face.getEulerY();
+        captureAngles[index * 3 + 2] = face.getEulerZ();
+        captureScores[index] = score;
+    }
+
+    public void recordCaptureQuality(FaceChecker.Direction dir, float sharpness, float meanLuma) {
+        captureQuality[dir.ordinal() * 2] = sharpness;
+        captureQuality[dir.ordinal() * 2 + 1] = meanLuma;
+    }
+
+    public TimeToCapture getTimeToCapture() {
+        return timeToCapture;
+    }
+
+    // 세션 구간별 지연시간 (분석기, 촬영 화면에서 기록)
+    public SessionMetrics getSessionMetrics() {
+        return sessionMetrics;
     }
 
+    // 세션 동안 눈 깜빡임 확인 (분석기에서 갱신)
+    public BlinkLivenessDetector getLivenessDetector() {
+        return livenessDetector;
+    }
+
+    // 세션 중 눈 깜빡임을 확인했는지 (복원된 세션은 이전 촬영까지의 결과 포함)
+    public boolean isLive() {
+        return livenessDetector.isLive() || Boolean.TRUE.equals(savedState.get(KEY_LIVE));
+    }
+
+    // 촬영이 끝난 세션을 청크 단위로 업로드 (이미 올린 청크는 건너뜀), 진행 중이면 무시
+    // 이어서 이전 실행에서 끝나지 않은 세션을 같은 서버로 올림 (진행률에는 포함하지 않음)
+    public void uploadSession(URL baseUrl) {
+        if(isUploading) {
+            return;
+        }
+        isUploading = true;
+        if(uploadExecutor == null) {
+            uploadExecutor = Executors.newSingleThreadExecutor();
+        }
+        // 서버가 바뀌면 새로 만듦 (URL.equals 는 호스트 이름을 조회하므로 문자열로 비교)
+        String url = baseUrl.toExternalForm();
+        if(uploader == null || !url.equals(uploadBaseUrl)) {
+            uploader = new SessionUploader(baseUrl);
+            uploadBaseUrl = url;
+        }
+        observableUploadProgress.setValue(0);
+        SessionUploader sessionUploader = uploader;
+        // 세션 상태는 메인 스레드에서 읽음
+        String manifest = buildManifest();
+        uploadExecutor.execute(() -> {
+            try {
+                if(!manifestFile.isFile()) {
+                    writeManifest(manifest);
+                }
+                SessionPackage sessionPackage = createSessionPackage(sessionId, manifestFile, captureStore);
+                sessionUploader.upload(sessionPackage, (acked, count) ->
+                        observableUploadProgress.postValue(count == 0 ? 100 : acked * 100 / count));
+                markUploaded(sessionId);
+                Log.d(TAG, "upload >> done " + sessionPackage.getLength() + "bytes resumed=" + sessionUploader.getResumedChunks()
+                        + " sent=" + sessionUploader.getSentChunks() + " retries=" + sessionUploader.getRetryCount());
+                uploadPendingSessions(sessionUploader);
+            } catch (IOException e) {
+                Log.e(TAG, "upload ERROR >> " + e);
+                observableUploadProgress.postValue(UPLOAD_FAILED);
+            } finally {
+                mainHandler.post(() -> isUploading = false);
+            }
+        });
+    }
+
+    // 이전 실행에서 끊긴 세션을 처음 만든 manifest 그대로 이어 올리고 삭제 (업로드 스레드)
+    // 실패하면 남겨두고 다음 업로드에서 다시 시도 (이번 세션 진행률에는 반영하지 않음)
+    private void uploadPendingSessions(SessionUploader sessionUploader) {
+        String id;
+        while((id = pendingSessions.peek()) != null) {
+            try {
+                if(archive.isPendingUpload(id)) {
+                    CaptureStore store = new CaptureStore(archive.getSessionDirectory(id), 0);
+                    SessionPackage sessionPackage = createSessionPackage(id, archive.getManifestFile(id), store);
+                    sessionUploader.upload(sessionPackage, null);
+                    Log.d(TAG, "upload >> pending " + id + " done resumed=" + sessionUploader.getResumedChunks()
+                            + " sent=" + sessionUploader.getSentChunks());
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "upload ERROR >> pending " + id + " " + e);
+                return;
+            }
+            archive.delete(id);
+            pendingSessions.poll();
+        }
+    }
+
+    public LiveData<Integer> getUploadProgress() {
+        return observableUploadProgress;
+    }
+
+    // 메타데이터 + 저장된 JPEG 파일 (업로드 스레드)
+    // 메타데이터는 처음 업로드할 때 파일로 고정 (프로세스가 재시작되어도 같은 바이트열로 이어 올리기 위함)
+    // 끊긴 업로드를 이어 올릴 수 있도록 촬영 결과가 바뀌기 전까지 처음 만든 manifest 를 사용
+    private static SessionPackage createSessionPackage(String id, File manifest, CaptureStore store) throws IOException {
+        SessionPackage sessionPackage = new SessionPackage(id);
+        sessionPackage.addFile(MANIFEST_ENTRY, manifest);
+        for(FaceChecker.Direction dir : store.getDirections()) {
+            File file = store.getFile(dir);
+            if(file != null) {
+                sessionPackage.addFile(file.getName(), file);
+            }
+        }
+        return sessionPackage;
+    }
+
+    // key=value 줄 단위
+    private String buildManifest() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("session.id=").append(sessionId).append('\n');
+        sb.append("session.plan=").append(capturePlan.toState()).append('\n');
+        sb.append("session.live=").append(isLive()).append('\n');
+        sb.append("session.blinks=").append(livenessDetector.getBlinkCount()).append('\n');
+        sb.append("session.identityMismatches=").append(identityMismatchCount).append('\n');
+        for(FaceChecker.Direction dir : FaceChecker.Direction.values()) {
+            String prefix = "capture." + dir.name() + ".";
+            File file = captureStore.getFile(dir);
+            if(file == null) {
+                if(skipped[dir.ordinal()]) {
+                    sb.append(prefix).append("skipped=true\n");
+                }
+                continue;
+            }
+            int index = dir.ordinal();
+            sb.append(prefix).append("file=").append(file.getName()).append('\n');
+            sb.append(prefix).append("rotation=").append(captureStore.getRotationDegrees(dir)).append('\n');
+            sb.append(prefix).append("mirrored=").append(captureStore.isMirrored(dir)).append('\n');
+            sb.append(prefix).append("retries=").append(retryCounts[index]).append('\n');
+            if(timeToCapture.get(dir) >= 0) {
+                sb.append(prefix).append("timeToCaptureMs=").append(timeToCapture.get(dir)).append('\n');
+                sb.append(prefix).append("relaxed=").append(timeToCapture.isRelaxed(dir)).append('\n');
+            }
+            if(!Float.isNaN(captureScores[index])) {
+                sb.append(String.format(Locale.US, "%sangleX=%.2f\n%sangleY=%.2f\n%sangleZ=%.2f\n%sscore=%.3f\n",
+                        prefix, captureAngles[index * 3], prefix, captureAngles[index * 3 + 1], prefix, captureAngles[index * 3 + 2],
+                        prefix, captureScores[index]));
+            }
+            if(!Float.isNaN(captureQuality[index * 2])) {
+                sb.append(String.format(Locale.US, "%ssharpness=%.1f\n%smeanLuma=%.1f\n",
+                        prefix, captureQuality[index * 2], prefix, captureQuality[index * 2 + 1]));
+            }
+            if(!Float.isNaN(identityDistances[index])) {
+                sb.append(String.format(Locale.US, "%sidentityDistance=%.4f\n", prefix, identityDistances[index]));
+                sb.append(prefix).append("identityMismatch=").append(identityMismatches[index]).append('\n');
+            }
+        }
+        for(SessionMetrics.Metric metric : SessionMetrics.Metric.values()) {
+            LatencyHistogram h = sessionMetrics.get(metric);
+            if(h.getCount() == 0) {
+                continue;
+            }
+            sb.append(String.format(Locale.US, "metric.%s.us=n:%d p50:%d p90:%d p99:%d max:%d\n",
+                    metric.name(), h.getCount(),
+                    h.getValueAtPercentile(50) / 1000, h.getValueAtPercentile(90) / 1000,
+                    h.getValueAtPercentile(99) / 1000, h.getMax() / 1000));
+        }
+        return sb.toString();
+    }
+
+    // 업로드 완료 표시 (다음 실행에서 정리해도 되는 세션), 표시하지 못하면 다음 실행에서 다시 올림
+    private void markUploaded(String id) {
+        try {
+            archive.markUploaded(id);
+        } catch (IOException e) {
+            Log.e(TAG, "markUploaded ERROR >> " + e);
+        }
+    }
+
+    // 촬영 결과나 계획이 바뀌면 다음 업로드에서 새로 만듦 (IO 스레드)
+    private void invalidateManifest() {
+        if(!archive.invalidate(sessionId)) {
+            Log.e(TAG, "invalidateManifest ERROR >> " + manifestFile);
+        }
+    }
+
+    // 임시 파일에 쓴 뒤 이름 변경 (쓰는 중에 종료되면 다음에 다시 만듦)
+    private void writeManifest(String manifest) throws IOException {
+        File temp = new File(manifestFile.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.write(manifest.getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        }
+        if(!temp.renameTo(manifestFile)) {
+            temp.delete();
+            throw new IOException("cannot rename " + temp);
+        }
+    }
+
+    // 계획 순서대로, 계획이 끝나면 실패한 방향 순서대로
     public FaceChecker.Direction getNextOrder() {
-        FaceChecker.Direction direction = takePictureOrder.pop();
-        isLastOrder = takePictureOrder.isEmpty();
+        FaceChecker.Direction direction = nextIndex < capturePlan.size() ? capturePlan.get(nextIndex++) : retakeQueue.poll();
+        isLastOrder = !hasNextOrder();
+        if(Boolean.TRUE.equals(observableRetake.getValue())) {
+            observableRetake.setValue(false);
+        }
         return direction;
     }
+
+    // 계획 중 아직 촬영 결과가 없는 방향이 남았는지 (복원된 세션은 저장된 방향을 건너뜀)
+    private boolean hasNextOrder() {
+        while(nextIndex < capturePlan.size() && captureStore.contains(capturePlan.get(nextIndex))) {
+            nextIndex++;
+        }
+        return nextIndex < capturePlan.size() || !retakeQueue.isEmpty();
+    }
+
 }
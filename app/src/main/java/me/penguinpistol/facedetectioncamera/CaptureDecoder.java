@@ -0,0 +1,56 @@
+package me.penguinpistol.facedetectioncamera;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+
+import androidx.annotation.Nullable;
+
+// CapturedImage -> 표시용 Bitmap
+// 필요한 크기로 샘플링해서 디코딩하고 회전, 좌우반전은 작아진 Bitmap 에만 적용
+public final class CaptureDecoder {
+
+    private CaptureDecoder() {
+    }
+
+    // reqWidth, reqHeight: 표시할 크기 (0 이하면 원본 크기)
+    @Nullable
+    public static Bitmap decode(CapturedImage image, int reqWidth, int reqHeight) {
+        Bitmap result = decodeSampled(image, reqWidth, reqHeight);
+        return result == null ? null : orient(result, image);
+    }
+
+    // 회전, 반전 적용 전 디코딩
+    @Nullable
+    public static Bitmap decodeSampled(CapturedImage image, int reqWidth, int reqHeight) {
+        byte[] jpeg = image.getJpeg();
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(jpeg, 0, jpeg.length, options);
+
+        options.inSampleSize = CapturedImage.computeSampleSize(options.outWidth, options.outHeight, image.getRotationDegrees(), reqWidth, reqHeight);
+        options.inJustDecodeBounds = false;
+        return BitmapFactory.decodeByteArray(jpeg, 0, jpeg.length, options);
+    }
+
+    // 회전, 좌우반전 적용 (새로 만든 경우 원본은 recycle)
+    public static Bitmap orient(Bitmap source, CapturedImage image) {
+        int degrees = image.getRotationDegrees();
+        if(degrees == 0 && !image.isMirrored()) {
+            return source;
+        }
+
+        // 이미지 회전처리
+        Matrix matrix = new Matrix();
+        if(image.isMirrored()) {
+            matrix.setScale(-1, 1);
+        }
+        matrix.postRotate(image.isMirrored() ? 360 - degrees : degrees);
+        Bitmap transformed = Bitmap.createBitmap(source, 0, 0, source.getWidth(), source.getHeight(), matrix, true);
+        if(transformed != source) {
+            source.recycle();
+        }
+        return transformed;
+    }
+}
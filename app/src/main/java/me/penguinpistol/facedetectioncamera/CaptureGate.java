@@ -0,0 +1,145 @@
+package me.penguinpistol.facedetectioncamera;
+
+// 프레임별 자동촬영 판정 (기준 완화 -> FaceChecker -> StabilityFilter)
+// FaceDetectionAnalyzer 와 오프라인 재생(FrameReplayer) 에서 같은 로직을 사용
+// 한 스레드에서만 호출
+public final class CaptureGate {
+
+    // 촬영 전 안정화 조건 (5프레임 또는 300ms 동안 유지)
+    public static final int STABLE_FRAME_COUNT = 5;
+    public static final long STABLE_DURATION_MS = 300;
+    public static final float STABLE_SMOOTHING_ALPHA = 0f;
+
+    private final FaceChecker faceChecker;
+    private final StabilityFilter stabilityFilter;
+
+    private ThresholdTable thresholdTable;
+    private long analysisStartMs = -1;
+    private boolean isRelaxed = false;
+
+    // 마지막 프레임 판정 결과, 점수 (ZSL 프레임 선택용)
+    private boolean isLastPassed = false;
+    private float lastScore = 0f;
+
+    public CaptureGate(FaceChecker faceChecker) {
+        this(faceChecker, new StabilityFilter(STABLE_FRAME_COUNT, STABLE_DURATION_MS, STABLE_SMOOTHING_ALPHA));
+    }
+
+    public CaptureGate(FaceChecker faceChecker, StabilityFilter stabilityFilter) {
+        this.faceChecker = faceChecker;
+        this.stabilityFilter = stabilityFilter;
+    }
+
+    // table: 방향별 판정 기준표 (null 이면 기본 기준, 완화 없음)
+    // 완화 시간은 start 이후 처음 분석한 프레임(onFrame 또는 update) 부터 측정
+    public void start(FaceChecker.Direction direction, ThresholdTable table) {
+        thresholdTable = table;
+        analysisStartMs = -1;
+        isRelaxed = false;
+        isLastPassed = false;
+        lastScore = 0f;
+        if(table != null) {
+            faceChecker.setThresholds(table.get(direction));
+        } else {
+            faceChecker.setDirection(direction);
+        }
+        stabilityFilter.reset();
+    }
+
+    // 분석을 마친 프레임마다 호출 (얼굴이 없거나 빠른 검출 단계만 거친 프레임 포함)
+    public void onFrame(long timestampMs) {
+        if(analysisStartMs < 0) {
+            analysisStartMs = timestampMs;
+        }
+    }
+
+    // 얼굴이 검출되지 않은 프레임, 연속 조건이 끊겼으므로 안정화 판정을 처음부터 다시
+    public void onNoFace(long timestampMs) {
+        onFrame(timestampMs);
+        isLastPassed = false;
+        stabilityFilter.reset();
+    }
+
+    // 안정화 조건까지 만족하면 true
+    public boolean update(FaceObservation face, long timestampMs, SessionMetrics metrics) {
+        updateThresholds(timestampMs);
+
+        long checkStartNs = System.nanoTime();
+        boolean passed = faceChecker.check(face);
+        metrics.recordSince(SessionMetrics.Metric.FACE_CHECK, checkStartNs);
+        isLastPassed = passed;
+        lastScore = passed ? computeScore(
+                faceChecker.getThresholds(),
+                face.getEulerX(), face.getEulerY(), face.getEulerZ(),
+                faceChecker.getLastDistanceSq(),
+                faceChecker.getLastWidthRatio(),
+                Math.min(face.getLeftEyeOpen(), face.getRightEyeOpen())
+        ) : 0f;
+
+        return stabilityFilter.update(
+                timestampMs,
+                passed,
+                face.getEulerX(),
+                face.getEulerY(),
+                face.getEulerZ(),
+                faceChecker.getLastOffsetX(),
+                faceChecker.getLastOffsetY(),
+                faceChecker.getLastWidthRatio(),
+                Math.min(face.getLeftEyeOpen(), face.getRightEyeOpen())
+        );
+    }
+
+    // 분석 시작 후 일정 시간 동안 촬영하지 못하면 완화된 기준으로 전환 (프레임 타임스탬프 기준)
+    private void updateThresholds(long timestampMs) {
+        onFrame(timestampMs);
+        if(!isRelaxed && thresholdTable != null) {
+            FaceChecker.Direction direction = faceChecker.getDirection();
+            if(thresholdTable.shouldRelax(direction, timestampMs - analysisStartMs)) {
+                isRelaxed = true;
+                faceChecker.setThresholds(thresholdTable.getRelaxed(direction));
+            }
+        }
+    }
+
+    // 판정 기준 안에서 목표값에 얼마나 가까운지 (0 ~ 1, 각도/위치/크기 여유와 눈 열림의 평균)
+    // 위치는 제곱 거리 비율 (판정과 같은 값, 제곱근 없음)
+    static float computeScore(FaceThresholds t, float angleX, float angleY, float angleZ, float distanceSq, float widthRatio, float eyeOpen) {
+        if(t == null) {
+            return 0f;
+        }
+        float angleOffset = Math.max(Math.abs(angleY - t.direction.angle), Math.max(Math.abs(angleX), Math.abs(angleZ)));
+        float angle = 1f - angleOffset / t.angleError;
+        float position = 1f - distanceSq / t.maxDistanceSq;
+        float ratio = 1f - Math.abs(widthRatio - 1f) / t.ratioError;
+        float eyes = Math.min(1f, eyeOpen);
+
+        return (clamp01(angle) + clamp01(position) + clamp01(ratio) + clamp01(eyes)) * 0.25f;
+    }
+
+    private static float clamp01(float value) {
+        return Math.max(0f, Math.min(1f, value));
+    }
+
+    // 마지막 프레임이 판정 기준을 만족했는지 (안정화 전)
+    public boolean isLastPassed() {
+        return isLastPassed;
+    }
+
+    // 마지막 프레임 점수 (기준을 만족하지 못했으면 0)
+    public float getLastScore() {
+        return lastScore;
+    }
+
+    // 현재 방향이 완화된 기준으로 판정 중인지
+    public boolean isRelaxed() {
+        return isRelaxed;
+    }
+
+    public FaceChecker.Direction getDirection() {
+        return faceChecker.getDirection();
+    }
+
+    public FaceChecker getFaceChecker() {
+        return faceChecker;
+    }
+}
@@ -0,0 +1,124 @@
+package me.penguinpistol.facedetectioncamera;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// 촬영 후처리 (디코딩 -> 회전/반전 -> 축소 -> 저장용 인코딩) 를 전용 스레드에서 처리
+// 대기열 크기를 제한하고, 결과는 callbackExecutor 로 전달
+public class CapturePipeline<B> {
+
+    public enum Stage {
+        DECODE,
+        ORIENT,
+        DOWNSCALE,
+        ENCODE,
+    }
+
+    // 단계별 실제 처리 (B: Bitmap 등 디코딩된 이미지)
+    public interface Steps<B> {
+        B decode(CapturedImage image) throws Exception;
+
+        // 회전, 좌우반전 적용
+        B orient(B decoded, CapturedImage image) throws Exception;
+
+        // 저장 크기보다 크면 축소, 아니면 그대로 반환
+        B downscale(B oriented) throws Exception;
+
+        // 저장용 이미지, 픽셀이 원본과 같으면 source 를 그대로 반환해도 됨 (회전, 반전은 값으로 유지)
+        CapturedImage encode(B image, CapturedImage source) throws Exception;
+    }
+
+    public interface Callback<B> {
+        // stored: 저장용 (재인코딩한 경우 회전 0, 반전 없음), image: 표시용 (회전, 반전 적용)
+        void onProcessed(FaceChecker.Direction direction, CapturedImage stored, B image);
+
+        void onError(FaceChecker.Direction direction, Exception e);
+    }
+
+    private static final int STAGE_COUNT = Stage.values().length;
+
+    private final Steps<B> steps;
+    private final Executor callbackExecutor;
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLongArray stageNanos = new AtomicLongArray(STAGE_COUNT);
+    private final AtomicLongArray stageCounts = new AtomicLongArray(STAGE_COUNT);
+
+    public CapturePipeline(Steps<B> steps, Executor callbackExecutor, int queueCapacity) {
+        this.steps = steps;
+        this.callbackExecutor = callbackExecutor;
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), r -> {
+            Thread thread = new Thread(r, "CapturePipeline");
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+    }
+
+    // 호출 스레드는 바로 반환, 대기열이 가득 찬 경우 onError
+    public void submit(FaceChecker.Direction direction, CapturedImage image, Callback<B> callback) {
+        try {
+            executor.execute(() -> process(direction, image, callback));
+        } catch (RejectedExecutionException e) {
+            callbackExecutor.execute(() -> callback.onError(direction, e));
+        }
+    }
+
+    // 대기 중인 작업까지 처리하고 종료
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    // 처리 중 + 대기 중인 작업 수
+    public int getPendingCount() {
+        return executor.getQueue().size() + executor.getActiveCount();
+    }
+
+    public long getTotalNanos(Stage stage) {
+        return stageNanos.get(stage.ordinal());
+    }
+
+    public long getCount(Stage stage) {
+        return stageCounts.get(stage.ordinal());
+    }
+
+    public long getAverageNanos(Stage stage) {
+        long count = getCount(stage);
+        return count == 0 ? 0 : getTotalNanos(stage) / count;
+    }
+
+    private void process(FaceChecker.Direction direction, CapturedImage image, Callback<B> callback) {
+        try {
+            long start = System.nanoTime();
+            B decoded = steps.decode(image);
+            start = record(Stage.DECODE, start);
+
+            B oriented = steps.orient(decoded, image);
+            start = record(Stage.ORIENT, start);
+
+            B scaled = steps.downscale(oriented);
+            start = record(Stage.DOWNSCALE, start);
+
+            CapturedImage stored = steps.encode(scaled, image);
+            record(Stage.ENCODE, start);
+
+            callbackExecutor.execute(() -> callback.onProcessed(direction, stored, scaled));
+        } catch (Exception e) {
+            callbackExecutor.execute(() -> callback.onError(direction, e));
+        }
+    }
+
+    private long record(Stage stage, long start) {
+        long now = System.nanoTime();
+        stageNanos.addAndGet(stage.ordinal(), now - start);
+        stageCounts.incrementAndGet(stage.ordinal());
+        return now;
+    }
+}
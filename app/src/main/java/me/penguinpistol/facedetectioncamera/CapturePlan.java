@@ -0,0 +1,192 @@
+package me.penguinpistol.facedetectioncamera;
+
+import java.util.Arrays;
+
+// 촬영 계획 (촬영할 방향, 순서, 방향별 각도 오차값/재시도 횟수/제한시간/기준 완화 시간)
+// 방향별 값은 Direction.ordinal() 인덱스 배열로 보관
+public final class CapturePlan {
+
+    public static final float DEFAULT_ANGLE_TOLERANCE = FaceThresholds.DEFAULT_ANGLE_ERROR;   // 각도 오차값
+    public static final int DEFAULT_MAX_RETRIES = 2;                // 제한시간 초과 시 재시도 횟수
+    public static final long DEFAULT_TIMEOUT_MS = 15_000;           // 방향별 제한시간
+    public static final long DEFAULT_RELAX_AFTER_MS = 6_000;        // 이 시간 동안 촬영하지 못하면 기준 완화 (0: 사용 안함)
+
+    private static final int DIRECTION_COUNT = FaceChecker.Direction.values().length;
+
+    private final String name;
+    private final FaceChecker.Direction[] order;
+    private final float[] angleTolerances;
+    private final int[] maxRetries;
+    private final long[] timeoutsMs;
+    private final long[] relaxAfterMs;
+    // ordinal -> 순서, 포함되지 않으면 -1
+    private final int[] indexOf;
+
+    private CapturePlan(Builder builder) {
+        name = builder.name;
+        order = Arrays.copyOf(builder.order, builder.size);
+        angleTolerances = builder.angleTolerances.clone();
+        maxRetries = builder.maxRetries.clone();
+        timeoutsMs = builder.timeoutsMs.clone();
+        relaxAfterMs = builder.relaxAfterMs.clone();
+        indexOf = new int[DIRECTION_COUNT];
+        Arrays.fill(indexOf, -1);
+        for(int i = 0; i < order.length; i++) {
+            indexOf[order[i].ordinal()] = i;
+        }
+    }
+
+    // 전체 5방향
+    public static CapturePlan full() {
+        Builder builder = new Builder("full");
+        for(FaceChecker.Direction dir : FaceChecker.Direction.values()) {
+            builder.add(dir);
+        }
+        return builder.build();
+    }
+
+    // 정면만 촬영하는 간편 인증
+    public static CapturePlan express() {
+        return new Builder("express")
+                .add(FaceChecker.Direction.FRONT)
+                .build();
+    }
+
+    // 기본값으로 지정한 방향만 촬영
+    public static CapturePlan of(FaceChecker.Direction... directions) {
+        Builder builder = new Builder("custom");
+        for(FaceChecker.Direction dir : directions) {
+            builder.add(dir);
+        }
+        return builder.build();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        return order.length;
+    }
+
+    public FaceChecker.Direction get(int index) {
+        return order[index];
+    }
+
+    // 포함되지 않으면 -1
+    public int indexOf(FaceChecker.Direction dir) {
+        return indexOf[dir.ordinal()];
+    }
+
+    public boolean contains(FaceChecker.Direction dir) {
+        return indexOf[dir.ordinal()] >= 0;
+    }
+
+    public float getAngleTolerance(FaceChecker.Direction dir) {
+        return angleTolerances[dir.ordinal()];
+    }
+
+    public int getMaxRetries(FaceChecker.Direction dir) {
+        return maxRetries[dir.ordinal()];
+    }
+
+    public long getTimeoutMs(FaceChecker.Direction dir) {
+        return timeoutsMs[dir.ordinal()];
+    }
+
+    public long getRelaxAfterMs(FaceChecker.Direction dir) {
+        return relaxAfterMs[dir.ordinal()];
+    }
+
+    // 상태 저장용 문자열 (이름|방향,각도,재시도,제한시간,완화시간;...)
+    public String toState() {
+        StringBuilder sb = new StringBuilder(name).append('|');
+        for(int i = 0; i < order.length; i++) {
+            FaceChecker.Direction dir = order[i];
+            if(i > 0) {
+                sb.append(';');
+            }
+            sb.append(dir.name()).append(',')
+                    .append(getAngleTolerance(dir)).append(',')
+                    .append(getMaxRetries(dir)).append(',')
+                    .append(getTimeoutMs(dir)).append(',')
+                    .append(getRelaxAfterMs(dir));
+        }
+        return sb.toString();
+    }
+
+    public static CapturePlan fromState(String state) {
+        int separator = state.indexOf('|');
+        if(separator < 0) {
+            throw new IllegalArgumentException("invalid plan state : " + state);
+        }
+
+        Builder builder = new Builder(state.substring(0, separator));
+        String body = state.substring(separator + 1);
+        if(!body.isEmpty()) {
+            for(String item : body.split(";")) {
+                String[] values = item.split(",");
+                if(values.length != 5) {
+                    throw new IllegalArgumentException("invalid plan item : " + item);
+                }
+                builder.add(FaceChecker.Direction.valueOf(values[0]),
+                        Float.parseFloat(values[1]),
+                        Integer.parseInt(values[2]),
+                        Long.parseLong(values[3]),
+                        Long.parseLong(values[4]));
+            }
+        }
+        return builder.build();
+    }
+
+    public static final class Builder {
+        private final String name;
+        private final FaceChecker.Direction[] order = new FaceChecker.Direction[DIRECTION_COUNT];
+        private final float[] angleTolerances = new float[DIRECTION_COUNT];
+        private final int[] maxRetries = new int[DIRECTION_COUNT];
+        private final long[] timeoutsMs = new long[DIRECTION_COUNT];
+        private final long[] relaxAfterMs = new long[DIRECTION_COUNT];
+        private final boolean[] added = new boolean[DIRECTION_COUNT];
+        private int size = 0;
+
+        public Builder(String name) {
+            this.name = name;
+            Arrays.fill(angleTolerances, DEFAULT_ANGLE_TOLERANCE);
+            Arrays.fill(maxRetries, DEFAULT_MAX_RETRIES);
+            Arrays.fill(timeoutsMs, DEFAULT_TIMEOUT_MS);
+            Arrays.fill(relaxAfterMs, DEFAULT_RELAX_AFTER_MS);
+        }
+
+        public Builder add(FaceChecker.Direction dir) {
+            return add(dir, DEFAULT_ANGLE_TOLERANCE, DEFAULT_MAX_RETRIES, DEFAULT_TIMEOUT_MS);
+        }
+
+        public Builder add(FaceChecker.Direction dir, float angleTolerance, int retries, long timeoutMs) {
+            return add(dir, angleTolerance, retries, timeoutMs, DEFAULT_RELAX_AFTER_MS);
+        }
+
+        // 같은 방향을 두 번 추가할 수 없음, relaxAfterMs 0 이면 기준 완화 없음
+        public Builder add(FaceChecker.Direction dir, float angleTolerance, int retries, long timeoutMs, long relaxAfter) {
+            if(added[dir.ordinal()]) {
+                throw new IllegalArgumentException("duplicate direction : " + dir);
+            }
+            if(angleTolerance <= 0 || retries < 0 || timeoutMs <= 0 || relaxAfter < 0) {
+                throw new IllegalArgumentException("invalid options for " + dir);
+            }
+            added[dir.ordinal()] = true;
+            order[size++] = dir;
+            angleTolerances[dir.ordinal()] = angleTolerance;
+            maxRetries[dir.ordinal()] = retries;
+            timeoutsMs[dir.ordinal()] = timeoutMs;
+            relaxAfterMs[dir.ordinal()] = relaxAfter;
+            return this;
+        }
+
+        public CapturePlan build() {
+            if(size == 0) {
+                throw new IllegalStateException("empty capture plan");
+            }
+            return new CapturePlan(this);
+        }
+    }
+}
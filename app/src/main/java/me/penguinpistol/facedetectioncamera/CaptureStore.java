@@ -0,0 +1,254 @@
+package me.penguinpistol.facedetectioncamera;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+// 방향별 촬영 결과 저장소
+// 인코딩된 JPEG 을 항상 파일로 저장하고 (프로세스 종료 후 복원용), 메모리 예산 안에서만 바이트를 메모리에 유지
+public class CaptureStore {
+
+    private static final String FILE_EXTENSION = ".jpg";
+    private static final String TEMP_EXTENSION = ".tmp";
+
+    // 파일 이름 : <방향>_<회전>_<m|n>.jpg
+    private static final class Entry {
+        final File file;
+        final int rotationDegrees;
+        final boolean isMirrored;
+        final int byteCount;
+
+        Entry(File file, int rotationDegrees, boolean isMirrored, int byteCount) {
+            this.file = file;
+            this.rotationDegrees = rotationDegrees;
+            this.isMirrored = isMirrored;
+            this.byteCount = byteCount;
+        }
+    }
+
+    private final File directory;
+    private final long memoryBudgetBytes;
+
+    private final EnumMap<FaceChecker.Direction, Entry> entries = new EnumMap<>(FaceChecker.Direction.class);
+    // 메모리에 유지 중인 JPEG (접근 순서, 가장 오래된 것부터 내보냄)
+    private final LinkedHashMap<FaceChecker.Direction, byte[]> memory = new LinkedHashMap<>(8, 0.75f, true);
+    private long memoryBytes = 0;
+
+    private long diskReadCount = 0;
+    private boolean isOpen = false;
+
+    // directory 에 이미 저장된 결과가 있으면 복원
+    public CaptureStore(File directory, long memoryBudgetBytes) throws IOException {
+        this(directory, memoryBudgetBytes, true);
+    }
+
+    // open 이 false 면 파일에 접근하지 않음, 사용 전에 open() 호출 (메인 스레드에서 만들고 IO 스레드에서 여는 경우)
+    public CaptureStore(File directory, long memoryBudgetBytes, boolean open) throws IOException {
+        this.directory = directory;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        if(open) {
+            open();
+        }
+    }
+
+    // 디렉토리를 만들고 저장된 결과 복원 (한 번만)
+    public synchronized void open() throws IOException {
+        if(isOpen) {
+            return;
+        }
+        if(!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("cannot create " + directory);
+        }
+        restore();
+        isOpen = true;
+    }
+
+    public synchronized void put(FaceChecker.Direction direction, CapturedImage image) throws IOException {
+        remove(direction);
+
+        File file = new File(directory, fileName(direction, image.getRotationDegrees(), image.isMirrored()));
+        File temp = new File(directory, file.getName() + TEMP_EXTENSION);
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.write(image.getJpeg());
+            out.getFD().sync();
+        }
+        if(!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("cannot rename " + temp);
+        }
+
+        entries.put(direction, new Entry(file, image.getRotationDegrees(), image.isMirrored(), image.getByteCount()));
+        keepInMemory(direction, image.getJpeg());
+    }
+
+    // 없으면 null
+    public synchronized CapturedImage get(FaceChecker.Direction direction) throws IOException {
+        Entry entry = entries.get(direction);
+        if(entry == null) {
+            return null;
+        }
+
+        byte[] jpeg = memory.get(direction);
+        if(jpeg == null) {
+            jpeg = readFile(entry.file, entry.byteCount);
+            diskReadCount++;
+            keepInMemory(direction, jpeg);
+        }
+        return new CapturedImage(jpeg, entry.rotationDegrees, entry.isMirrored);
+    }
+
+    // 저장된 JPEG 파일 (업로드 시 메모리에 올리지 않고 파일에서 바로 읽음), 없으면 null
+    public synchronized File getFile(FaceChecker.Direction direction) {
+        Entry entry = entries.get(direction);
+        return entry == null ? null : entry.file;
+    }
+
+    // 없으면 -1
+    public synchronized int getRotationDegrees(FaceChecker.Direction direction) {
+        Entry entry = entries.get(direction);
+        return entry == null ? -1 : entry.rotationDegrees;
+    }
+
+    public synchronized boolean isMirrored(FaceChecker.Direction direction) {
+        Entry entry = entries.get(direction);
+        return entry != null && entry.isMirrored;
+    }
+
+    public synchronized boolean contains(FaceChecker.Direction direction) {
+        return entries.containsKey(direction);
+    }
+
+    public synchronized Set<FaceChecker.Direction> getDirections() {
+        return entries.isEmpty() ? EnumSet.noneOf(FaceChecker.Direction.class) : EnumSet.copyOf(entries.keySet());
+    }
+
+    public synchronized void remove(FaceChecker.Direction direction) {
+        Entry entry = entries.remove(direction);
+        if(entry != null) {
+            entry.file.delete();
+        }
+        byte[] jpeg = memory.remove(direction);
+        if(jpeg != null) {
+            memoryBytes -= jpeg.length;
+        }
+    }
+
+    // 저장된 파일까지 모두 삭제
+    public synchronized void clear() {
+        for(FaceChecker.Direction direction : FaceChecker.Direction.values()) {
+            remove(direction);
+        }
+        File[] files = directory.listFiles();
+        if(files != null) {
+            for(File file : files) {
+                file.delete();
+            }
+        }
+    }
+
+    // 메모리에 유지 중인 JPEG 크기
+    public synchronized long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    // 파일로 저장된 JPEG 크기
+    public synchronized long getDiskBytes() {
+        long total = 0;
+        for(Entry entry : entries.values()) {
+            total += entry.byteCount;
+        }
+        return total;
+    }
+
+    public long getMemoryBudgetBytes() {
+        return memoryBudgetBytes;
+    }
+
+    // 메모리에 없어서 파일에서 읽은 횟수
+    public synchronized long getDiskReadCount() {
+        return diskReadCount;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    private void keepInMemory(FaceChecker.Direction direction, byte[] jpeg) {
+        if(jpeg.length > memoryBudgetBytes) {
+            return;
+        }
+
+        Iterator<Map.Entry<FaceChecker.Direction, byte[]>> iterator = memory.entrySet().iterator();
+        while(memoryBytes + jpeg.length > memoryBudgetBytes && iterator.hasNext()) {
+            memoryBytes -= iterator.next().getValue().length;
+            iterator.remove();
+        }
+        memory.put(direction, jpeg);
+        memoryBytes += jpeg.length;
+    }
+
+    private void restore() {
+        File[] files = directory.listFiles();
+        if(files == null) {
+            return;
+        }
+
+        for(File file : files) {
+            String name = file.getName();
+            if(!name.endsWith(FILE_EXTENSION)) {
+                // 저장 중에 종료된 임시 파일
+                file.delete();
+                continue;
+            }
+
+            String[] parts = name.substring(0, name.length() - FILE_EXTENSION.length()).split("_");
+            try {
+                int count = parts.length;
+                FaceChecker.Direction direction = FaceChecker.Direction.valueOf(joinDirection(parts, count - 2));
+                int rotationDegrees = Integer.parseInt(parts[count - 2]);
+                boolean isMirrored = "m".equals(parts[count - 1]);
+                entries.put(direction, new Entry(file, rotationDegrees, isMirrored, (int)file.length()));
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                file.delete();
+            }
+        }
+    }
+
+    private static String fileName(FaceChecker.Direction direction, int rotationDegrees, boolean isMirrored) {
+        return direction.name() + "_" + rotationDegrees + "_" + (isMirrored ? "m" : "n") + FILE_EXTENSION;
+    }
+
+    // 방향 이름에도 '_' 가 들어감 (LEFT_30)
+    private static String joinDirection(String[] parts, int count) {
+        StringBuilder sb = new StringBuilder();
+        for(int i = 0; i < count; i++) {
+            if(i > 0) {
+                sb.append('_');
+            }
+            sb.append(parts[i]);
+        }
+        return sb.toString();
+    }
+
+    private static byte[] readFile(File file, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        try (FileInputStream in = new FileInputStream(file)) {
+            int offset = 0;
+            while(offset < length) {
+                int read = in.read(bytes, offset, length - offset);
+                if(read < 0) {
+                    throw new IOException("unexpected end of " + file);
+                }
+                offset += read;
+            }
+        }
+        return bytes;
+    }
+}
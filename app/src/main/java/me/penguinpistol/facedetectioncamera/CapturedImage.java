@@ -0,0 +1,86 @@
+package me.penguinpistol.facedetectioncamera;
+
+import java.nio.ByteBuffer;
+
+// 촬영 결과 (인코딩된 JPEG 그대로 보관)
+// 회전, 좌우반전은 픽셀에 적용하지 않고 값으로만 기록 -> 표시할 때 필요한 크기로 디코딩하면서 적용
+public final class CapturedImage {
+
+    // EXIF Orientation 값 (ExifInterface.ORIENTATION_*)
+    public static final int ORIENTATION_NORMAL = 1;
+    public static final int ORIENTATION_FLIP_HORIZONTAL = 2;
+    public static final int ORIENTATION_ROTATE_180 = 3;
+    public static final int ORIENTATION_FLIP_VERTICAL = 4;
+    public static final int ORIENTATION_TRANSPOSE = 5;
+    public static final int ORIENTATION_ROTATE_90 = 6;
+    public static final int ORIENTATION_TRANSVERSE = 7;
+    public static final int ORIENTATION_ROTATE_270 = 8;
+
+    private final byte[] jpeg;
+    private final int rotationDegrees;
+    private final boolean isMirrored;
+
+    public CapturedImage(byte[] jpeg, int rotationDegrees, boolean isMirrored) {
+        if(rotationDegrees % 90 != 0) {
+            throw new IllegalArgumentException("rotationDegrees must be a multiple of 90 : " + rotationDegrees);
+        }
+        this.jpeg = jpeg;
+        this.rotationDegrees = ((rotationDegrees % 360) + 360) % 360;
+        this.isMirrored = isMirrored;
+    }
+
+    // JPEG 평면 버퍼를 한 번만 복사 (capacity 가 아닌 remaining 만큼, 버퍼 position 은 유지)
+    public static CapturedImage fromBuffer(ByteBuffer buffer, int rotationDegrees, boolean isMirrored) {
+        ByteBuffer source = buffer.duplicate();
+        byte[] jpeg = new byte[source.remaining()];
+        source.get(jpeg);
+        return new CapturedImage(jpeg, rotationDegrees, isMirrored);
+    }
+
+    // 디코딩 결과가 req 크기 이상이 되는 가장 큰 2의 거듭제곱 (BitmapFactory.Options.inSampleSize)
+    // req 는 화면 기준 크기이므로 90/270 회전이면 가로/세로를 바꿔서 비교
+    public static int computeSampleSize(int srcWidth, int srcHeight, int rotationDegrees, int reqWidth, int reqHeight) {
+        if(reqWidth <= 0 || reqHeight <= 0) {
+            return 1;
+        }
+        boolean isRotated = rotationDegrees == 90 || rotationDegrees == 270;
+        int width = isRotated ? srcHeight : srcWidth;
+        int height = isRotated ? srcWidth : srcHeight;
+
+        int sampleSize = 1;
+        while(width / (sampleSize * 2) >= reqWidth && height / (sampleSize * 2) >= reqHeight) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    // 시계방향 회전 후 좌우반전 기준 EXIF Orientation
+    public int getExifOrientation() {
+        switch(rotationDegrees) {
+            case 90:
+                return isMirrored ? ORIENTATION_TRANSPOSE : ORIENTATION_ROTATE_90;
+            case 180:
+                return isMirrored ? ORIENTATION_FLIP_VERTICAL : ORIENTATION_ROTATE_180;
+            case 270:
+                return isMirrored ? ORIENTATION_TRANSVERSE : ORIENTATION_ROTATE_270;
+            default:
+                return isMirrored ? ORIENTATION_FLIP_HORIZONTAL : ORIENTATION_NORMAL;
+        }
+    }
+
+    public byte[] getJpeg() {
+        return jpeg;
+    }
+
+    public int getByteCount() {
+        return jpeg.length;
+    }
+
+    public int getRotationDegrees() {
+        return rotationDegrees;
+    }
+
+    public boolean isMirrored() {
+        return isMirrored;
+    }
+}
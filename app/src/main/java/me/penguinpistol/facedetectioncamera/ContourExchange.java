@@ -0,0 +1,61 @@
+package me.penguinpistol.facedetectioncamera;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 검출 스레드 -> UI 스레드 윤곽선 전달 (락 없음, 쓰는 쪽/읽는 쪽 각각 한 스레드)
+// 쓰기/공유/읽기 3개 버퍼를 교환해서 읽는 중인 버퍼를 덮어쓰지 않음
+public final class ContourExchange {
+
+    // 공유 슬롯 인덱스 (하위 2비트) + 새 데이터 표시
+    private static final int INDEX_MASK = 3;
+    private static final int DIRTY = 4;
+
+    private final float[][] buffers = new float[3][];
+    private final int[] pointCounts = new int[3];
+    private final AtomicInteger shared = new AtomicInteger(1);
+
+    private int writeIndex = 0;      // 쓰는 쪽 전용
+    private int readIndex = 2;       // 읽는 쪽 전용
+
+    public ContourExchange(int pointCapacity) {
+        for(int i = 0; i < buffers.length; i++) {
+            buffers[i] = new float[pointCapacity * 2];
+        }
+    }
+
+    // points: x, y 순서로 packed 된 좌표 (포인트 수가 용량을 넘을 때만 재할당)
+    public void publish(float[] points, int pointCount) {
+        float[] dst = buffers[writeIndex];
+        if(dst.length < pointCount * 2) {
+            dst = new float[pointCount * 2];
+            buffers[writeIndex] = dst;
+        }
+        System.arraycopy(points, 0, dst, 0, pointCount * 2);
+        pointCounts[writeIndex] = pointCount;
+        writeIndex = shared.getAndSet(writeIndex | DIRTY) & INDEX_MASK;
+    }
+
+    // 윤곽선 없음
+    public void publishEmpty() {
+        pointCounts[writeIndex] = 0;
+        writeIndex = shared.getAndSet(writeIndex | DIRTY) & INDEX_MASK;
+    }
+
+    // 새 데이터가 있으면 읽기 버퍼로 가져오고 true
+    public boolean acquire() {
+        if((shared.get() & DIRTY) == 0) {
+            return false;
+        }
+        readIndex = shared.getAndSet(readIndex) & INDEX_MASK;
+        return true;
+    }
+
+    // 마지막으로 acquire 한 윤곽선 (다음 acquire 전까지 유효)
+    public float[] getPoints() {
+        return buffers[readIndex];
+    }
+
+    public int getPointCount() {
+        return pointCounts[readIndex];
+    }
+}
@@ -0,0 +1,43 @@
+package me.penguinpistol.facedetectioncamera;
+
+// 윤곽선 좌표 계산 유틸 (x, y 순서로 packed 된 float[] 기준)
+public final class ContourUtils {
+
+    public static final int LEFT    = 0;
+    public static final int TOP     = 1;
+    public static final int RIGHT   = 2;
+    public static final int BOTTOM  = 3;
+
+    private ContourUtils() {
+    }
+
+    // 윤곽선 -> 외곽 사각형 [left, top, right, bottom] (1회 순회)
+    public static void computeBounds(float[] points, int pointCount, float[] outBounds) {
+        if(pointCount <= 0) {
+            outBounds[LEFT] = 0;
+            outBounds[TOP] = 0;
+            outBounds[RIGHT] = 0;
+            outBounds[BOTTOM] = 0;
+            return;
+        }
+
+        float minX = points[0];
+        float minY = points[1];
+        float maxX = minX;
+        float maxY = minY;
+
+        for(int i = 1; i < pointCount; i++) {
+            float x = points[i * 2];
+            float y = points[i * 2 + 1];
+            if(x < minX) minX = x;
+            if(x > maxX) maxX = x;
+            if(y < minY) minY = y;
+            if(y > maxY) maxY = y;
+        }
+
+        outBounds[LEFT] = minX;
+        outBounds[TOP] = minY;
+        outBounds[RIGHT] = maxX;
+        outBounds[BOTTOM] = maxY;
+    }
+}
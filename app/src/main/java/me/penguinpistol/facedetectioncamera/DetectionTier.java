@@ -0,0 +1,7 @@
+package me.penguinpistol.facedetectioncamera;
+
+// 얼굴 검출 단계
+public enum DetectionTier {
+    FAST,           // 윤곽선/분류 없이 위치, 각도만 빠르게 확인
+    ACCURATE,       // 윤곽선, 눈 열림까지 포함한 최종 판정용
+}
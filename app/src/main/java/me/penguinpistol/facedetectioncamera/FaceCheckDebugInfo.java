@@ -0,0 +1,223 @@
+package me.penguinpistol.facedetectioncamera;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// FaceChecker 디버그 정보
+// 판정 시에는 숫자값만 기록하고, 문자열은 화면 갱신 주기에 맞춰 필요할 때만 만듦
+// 판정 스레드에서 기록한 값은 publish 할 때 한 프레임 단위로 복사해서 넘김 (ContourExchange 와 같은 3버퍼 교환, 락/할당 없음)
+public final class FaceCheckDebugInfo {
+
+    public static final long DEFAULT_FORMAT_INTERVAL_MS = 200;      // 최대 5Hz
+
+    private static final int MAX_LINES = 16;
+    private static final int FRACTION_DIGITS = 2;
+
+    // 판정값 인덱스
+    private static final int ANGLE_X = 0;
+    private static final int ANGLE_Y = 1;
+    private static final int ANGLE_Z = 2;
+    private static final int DISTANCE = 3;
+    private static final int TARGET_CENTER_X = 4;
+    private static final int TARGET_CENTER_Y = 5;
+    private static final int FACE_CENTER_X = 6;
+    private static final int FACE_CENTER_Y = 7;
+    private static final int FACE_WIDTH = 8;
+    private static final int TARGET_WIDTH = 9;
+    private static final int RATIO = 10;
+    private static final int LEFT_EYE_OPEN = 11;
+    private static final int RIGHT_EYE_OPEN = 12;
+    private static final int VALUE_COUNT = 13;
+
+    // 공유 슬롯 인덱스 (하위 2비트) + 새 데이터 표시
+    private static final int INDEX_MASK = 3;
+    private static final int DIRTY = 4;
+
+    private final long formatIntervalMs;
+
+    // 판정 스레드 전용 (기록 중인 값)
+    private FaceChecker.Direction direction;
+    private final float[] values = new float[VALUE_COUNT];
+    private int writeIndex = 0;
+
+    // 교환 버퍼 (쓰기/공유/읽기)
+    private final float[][] snapshots = new float[3][VALUE_COUNT];
+    private final FaceChecker.Direction[] snapshotDirections = new FaceChecker.Direction[3];
+    private final AtomicInteger shared = new AtomicInteger(1);
+
+    // UI 스레드 전용
+    private int readIndex = 2;
+    private long lastFormatAt = Long.MIN_VALUE;
+
+    // 출력용 버퍼 (재사용)
+    private final StringBuilder builder = new StringBuilder(256);
+    private char[] chars = new char[256];
+    private final int[] lineStarts = new int[MAX_LINES];
+    private final int[] lineLengths = new int[MAX_LINES];
+    private int lineCount = 0;
+
+    public FaceCheckDebugInfo() {
+        this(DEFAULT_FORMAT_INTERVAL_MS);
+    }
+
+    public FaceCheckDebugInfo(long formatIntervalMs) {
+        this.formatIntervalMs = formatIntervalMs;
+    }
+
+    //===============================================================================
+    // 값 기록 (판정 스레드), publish 전까지는 화면에 반영되지 않음
+    //===============================================================================
+
+    public void setDirection(FaceChecker.Direction direction) {
+        this.direction = direction;
+    }
+
+    public void setAngle(float x, float y, float z) {
+        values[ANGLE_X] = x;
+        values[ANGLE_Y] = y;
+        values[ANGLE_Z] = z;
+    }
+
+    public void setPosition(float distance, float targetCenterX, float targetCenterY, float faceCenterX, float faceCenterY) {
+        values[DISTANCE] = distance;
+        values[TARGET_CENTER_X] = targetCenterX;
+        values[TARGET_CENTER_Y] = targetCenterY;
+        values[FACE_CENTER_X] = faceCenterX;
+        values[FACE_CENTER_Y] = faceCenterY;
+    }
+
+    public void setWidthRatio(float faceWidth, float targetWidth, float ratio) {
+        values[FACE_WIDTH] = faceWidth;
+        values[TARGET_WIDTH] = targetWidth;
+        values[RATIO] = ratio;
+    }
+
+    public void setEyesOpen(float left, float right) {
+        values[LEFT_EYE_OPEN] = left;
+        values[RIGHT_EYE_OPEN] = right;
+    }
+
+    // 지금까지 기록한 값을 한 번에 넘김 (한 프레임 판정이 끝난 뒤)
+    public void publish() {
+        System.arraycopy(values, 0, snapshots[writeIndex], 0, VALUE_COUNT);
+        snapshotDirections[writeIndex] = direction;
+        writeIndex = shared.getAndSet(writeIndex | DIRTY) & INDEX_MASK;
+    }
+
+    //===============================================================================
+    // 출력 (UI 스레드)
+    //===============================================================================
+
+    // 새로 넘어온 값이 있고 갱신주기가 지난 경우에만 다시 만듦, 다시 만들었으면 true
+    public boolean format(long nowMillis) {
+        if(lastFormatAt != Long.MIN_VALUE && nowMillis - lastFormatAt < formatIntervalMs) {
+            return false;
+        }
+        if((shared.get() & DIRTY) == 0) {
+            return false;
+        }
+        readIndex = shared.getAndSet(readIndex) & INDEX_MASK;
+        lastFormatAt = nowMillis;
+
+        float[] v = snapshots[readIndex];
+        FaceChecker.Direction dir = snapshotDirections[readIndex];
+        StringBuilder sb = builder;
+        sb.setLength(0);
+        lineCount = 0;
+
+        sb.append("current dir: ").append(dir == null ? "-" : dir.name());
+        endLine();
+        sb.append("Angle[");
+        appendFixed(sb, v[ANGLE_X]).append(", ");
+        appendFixed(sb, v[ANGLE_Y]).append(", ");
+        appendFixed(sb, v[ANGLE_Z]).append(']');
+        endLine();
+        sb.append("distance: ");
+        appendFixed(sb, v[DISTANCE]);
+        endLine();
+        sb.append("target center[");
+        appendFixed(sb, v[TARGET_CENTER_X]).append(", ");
+        appendFixed(sb, v[TARGET_CENTER_Y]).append(']');
+        endLine();
+        sb.append("face center [");
+        appendFixed(sb, v[FACE_CENTER_X]).append(", ");
+        appendFixed(sb, v[FACE_CENTER_Y]).append(']');
+        endLine();
+        sb.append("face width: ");
+        appendFixed(sb, v[FACE_WIDTH]);
+        endLine();
+        sb.append("target width: ");
+        appendFixed(sb, v[TARGET_WIDTH]);
+        endLine();
+        sb.append("face ratio:");
+        appendFixed(sb, v[RATIO]);
+        endLine();
+        sb.append("eyes open[");
+        appendFixed(sb, v[LEFT_EYE_OPEN]).append(", ");
+        appendFixed(sb, v[RIGHT_EYE_OPEN]).append(']');
+        endLine();
+
+        if(chars.length < sb.length()) {
+            chars = new char[sb.length()];
+        }
+        sb.getChars(0, sb.length(), chars, 0);
+        return true;
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    // Canvas.drawText(char[], index, count, ...) 에 그대로 사용
+    public char[] getChars() {
+        return chars;
+    }
+
+    public int getLineStart(int line) {
+        return lineStarts[line];
+    }
+
+    public int getLineLength(int line) {
+        return lineLengths[line];
+    }
+
+    // 디버그 확인용 (할당 발생)
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for(int i = 0; i < lineCount; i++) {
+            sb.append(chars, lineStarts[i], lineLengths[i]).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private void endLine() {
+        int start = lineCount == 0 ? 0 : lineStarts[lineCount - 1] + lineLengths[lineCount - 1];
+        lineStarts[lineCount] = start;
+        lineLengths[lineCount] = builder.length() - start;
+        lineCount++;
+    }
+
+    // 소수점 고정자리 출력 (String.format 대체, 할당 없음)
+    static StringBuilder appendFixed(StringBuilder sb, float value) {
+        if(Float.isNaN(value)) {
+            return sb.append("NaN");
+        }
+        if(value < 0) {
+            sb.append('-');
+            value = -value;
+        }
+
+        long scale = 1;
+        for(int i = 0; i < FRACTION_DIGITS; i++) {
+            scale *= 10;
+        }
+        long scaled = Math.round((double)value * scale);
+        sb.append(scaled / scale).append('.');
+
+        long fraction = scaled % scale;
+        for(long d = scale / 10; d > 0; d /= 10) {
+            sb.append((char)('0' + (fraction / d) % 10));
+        }
+        return sb;
+    }
+}
@@ -1,17 +1,5 @@
 package me.penguinpistol.facedetectioncamera;
 
-import android.graphics.PointF;
-import android.graphics.RectF;
-
-import androidx.annotation.NonNull;
-
-import com.google.android.material.math.MathUtils;
-import com.google.mlkit.vision.face.Face;
-import com.google.mlkit.vision.face.FaceContour;
-
-import java.util.List;
-import java.util.Locale;
-
 public class FaceChecker {
 
     public enum Direction {
@@ -33,24 +21,44 @@ public class FaceChecker {
         }
     }
 
-    private static final float RATIO_ERROR_VALUE    = 0.2f;         // 가로비율 오차값
-    private static final float ANGLE_ERROR_VALUE    = 7f;           // 각도 오차값(xyz 공통)
-    private static final float POSITION_ERROR_VALUE = 35f;          // 위치 오차값
-    private static final float EYE_OPEN_ERROR_VALUE = 0.65f;        // 눈열림 오차값
+    private final float targetCenterX;
+    private final float targetCenterY;
+    private final float targetWidth;
 
-    private final RectF mTargetRect;
+    // 프레임마다 재사용하는 버퍼
+    private final float[] faceBounds = new float[4];
+
+    // 마지막 판정값 (안정화 판정용), 얼굴 중심 - 목표 중심
+    private float lastOffsetX;
+    private float lastOffsetY;
+    private float lastDistanceSq;
+    private float lastWidthRatio;
 
     private Direction mDirection;
+    private FaceThresholds thresholds;
 
     private boolean isDebug = false;
-    private String debugText;
+    private final FaceCheckDebugInfo debugInfo = new FaceCheckDebugInfo();
 
-    public FaceChecker(@NonNull RectF targetRect) {
-        mTargetRect = targetRect;
+    public FaceChecker(float targetLeft, float targetTop, float targetRight, float targetBottom) {
+        targetCenterX = (targetLeft + targetRight) * 0.5f;
+        targetCenterY = (targetTop + targetBottom) * 0.5f;
+        targetWidth = targetRight - targetLeft;
     }
 
+    // 기본 판정 기준으로 방향 설정
     public void setDirection(Direction dir) {
-        mDirection = dir;
+        setThresholds(dir == null ? null : FaceThresholds.defaults(dir));
+    }
+
+    // 방향별 판정 기준 (ThresholdTable)
+    public void setThresholds(FaceThresholds thresholds) {
+        this.thresholds = thresholds;
+        mDirection = thresholds == null ? null : thresholds.direction;
+    }
+
+    public FaceThresholds getThresholds() {
+        return thresholds;
     }
 
     public Direction getDirection() {
@@ -58,97 +66,120 @@ public class FaceChecker {
     }
 
     // 자동촬영 판정
-    public boolean check(Face face) {
-        FaceContour contour = face.getContour(FaceContour.FACE);
-
-        if(contour == null) {
+    public boolean check(FaceObservation face) {
+        if(!face.hasContour()) {
             return false;
         }
 
-        RectF faceRect = getFaceRect(contour.getPoints());
-
         // 정면카메라의 경우 좌우반전
-        float leftEyeOpen = face.getRightEyeOpenProbability() == null ? 0 : face.getRightEyeOpenProbability();
-        float rightEyeOpen = face.getLeftEyeOpenProbability() == null ? 0 : face.getLeftEyeOpenProbability();
+        return check(face.getContour(), face.getContourPointCount(),
+                face.getEulerX(), face.getEulerY(), face.getEulerZ(),
+                face.getRightEyeOpen(), face.getLeftEyeOpen());
+    }
+
+    // 자동촬영 판정 (contour: x, y 순서의 packed 배열, 프레임당 할당 없음)
+    public boolean check(float[] contour, int pointCount, float angleX, float angleY, float angleZ, float leftEyeOpen, float rightEyeOpen) {
+        ContourUtils.computeBounds(contour, pointCount, faceBounds);
+
+        float faceCenterX = (faceBounds[ContourUtils.LEFT] + faceBounds[ContourUtils.RIGHT]) * 0.5f;
+        float faceCenterY = (faceBounds[ContourUtils.TOP] + faceBounds[ContourUtils.BOTTOM]) * 0.5f;
+        float faceWidth = faceBounds[ContourUtils.RIGHT] - faceBounds[ContourUtils.LEFT];
+
+        lastOffsetX = faceCenterX - targetCenterX;
+        lastOffsetY = faceCenterY - targetCenterY;
+        lastDistanceSq = lastOffsetX * lastOffsetX + lastOffsetY * lastOffsetY;
+        lastWidthRatio = faceWidth / targetWidth;
 
         if(isDebug) {
-            debugText = "current dir: " + mDirection.name() + "\n";
+            debugInfo.setDirection(mDirection);
 
-            // debugText 출력을 위해 각각 따로 호출
-            boolean checkAngle = checkAngle(face.getHeadEulerAngleX(), face.getHeadEulerAngleY(), face.getHeadEulerAngleZ());
-            boolean checkPosition = checkPosition(faceRect);
-            boolean checkWidthRatio = checkWidthRatio(faceRect.width());
+            // debugInfo 기록을 위해 각각 따로 호출
+            boolean checkAngle = checkAngle(angleX, angleY, angleZ);
+            boolean checkPosition = checkPosition(lastDistanceSq, faceCenterX, faceCenterY);
+            boolean checkWidthRatio = checkWidthRatio(faceWidth, lastWidthRatio);
             boolean checkEyesOpen = checkEyesOpen(leftEyeOpen, rightEyeOpen);
+            debugInfo.publish();
 
             return checkAngle && checkPosition && checkWidthRatio && checkEyesOpen;
         }
 
-        return checkAngle(face.getHeadEulerAngleX(), face.getHeadEulerAngleY(), face.getHeadEulerAngleZ())
-                && checkPosition(faceRect)
-                && checkWidthRatio(faceRect.width())
+        return checkAngle(angleX, angleY, angleZ)
+                && checkPosition(lastDistanceSq, faceCenterX, faceCenterY)
+                && checkWidthRatio(faceWidth, lastWidthRatio)
                 && checkEyesOpen(leftEyeOpen, rightEyeOpen)
                 ;
     }
 
     // 얼굴 각도판정
     private boolean checkAngle(float x, float y, float z) {
-        if(mDirection == null) {
+        FaceThresholds t = thresholds;
+        if(t == null) {
             return false;
         }
 
-        boolean checkX = (-ANGLE_ERROR_VALUE < x) && (x < ANGLE_ERROR_VALUE);
-        boolean checkZ = (-ANGLE_ERROR_VALUE < z) && (z < ANGLE_ERROR_VALUE);
-        boolean checkY = mDirection.check(y, ANGLE_ERROR_VALUE);
+        boolean checkX = (-t.maxAngleXZ < x) && (x < t.maxAngleXZ);
+        boolean checkZ = (-t.maxAngleXZ < z) && (z < t.maxAngleXZ);
+        boolean checkY = (t.minAngleY < y) && (y < t.maxAngleY);
 
         if(isDebug) {
-            debugText += String.format(Locale.getDefault(), "Angle[%f, %f, %f]\n", x, y, z);
+            debugInfo.setAngle(x, y, z);
         }
 
         return checkX && checkZ && checkY;
     }
 
-    // 위치판정
-    private boolean checkPosition(RectF face) {
-        float distance = MathUtils.dist(face.centerX(), face.centerY(), mTargetRect.centerX(), mTargetRect.centerY());
+    // 위치판정 (거리 제곱으로 비교)
+    private boolean checkPosition(float distanceSq, float faceCenterX, float faceCenterY) {
         if(isDebug) {
-            debugText += String.format(Locale.getDefault(), "distance: %f\n", distance);
-            debugText += String.format(Locale.getDefault(), "target center[%f, %f]\nface center [%f, %f]\n", mTargetRect.centerX(), mTargetRect.centerY(), face.centerX(), face.centerY());
+            debugInfo.setPosition((float)Math.sqrt(distanceSq), targetCenterX, targetCenterY, faceCenterX, faceCenterY);
         }
-        return distance < POSITION_ERROR_VALUE;
+        return thresholds != null && distanceSq < thresholds.maxDistanceSq;
     }
 
     // 가로길이 비율 판정
-    private boolean checkWidthRatio(float faceWidth) {
-        float ratio = faceWidth / mTargetRect.width();
+    private boolean checkWidthRatio(float faceWidth, float ratio) {
         if(isDebug) {
-            debugText += String.format(Locale.getDefault(), "face width: %f\ntarget width: %f\nface ratio:%f\n", faceWidth, mTargetRect.width(), ratio);
+            debugInfo.setWidthRatio(faceWidth, targetWidth, ratio);
         }
-        return 1 - RATIO_ERROR_VALUE < ratio && ratio < 1 + RATIO_ERROR_VALUE;
+        return thresholds != null && thresholds.minWidthRatio < ratio && ratio < thresholds.maxWidthRatio;
     }
 
     // 눈 열림 판정
     private boolean checkEyesOpen(float left, float right) {
         if(isDebug) {
-            debugText += String.format(Locale.getDefault(), "eyes open[%f, %f]\n", left, right);
+            debugInfo.setEyesOpen(left, right);
         }
-        return left > EYE_OPEN_ERROR_VALUE && right > EYE_OPEN_ERROR_VALUE;
-    }
-
-    // 얼굴 Landmark -> Rect 변환
-    private RectF getFaceRect(List<PointF> landmarks) {
-        return new RectF(
-                (float)landmarks.stream().mapToDouble(x -> x.x).min().orElse(0),
-                (float)landmarks.stream().mapToDouble(x -> x.y).min().orElse(0),
-                (float)landmarks.stream().mapToDouble(x -> x.x).max().orElse(0),
-                (float)landmarks.stream().mapToDouble(x -> x.y).max().orElse(0)
-        );
+        return thresholds != null && left > thresholds.minEyeOpen && right > thresholds.minEyeOpen;
     }
 
     public void setDebug(boolean debug) {
         isDebug = debug;
     }
 
-    public String getDebugText() {
-        return debugText;
+    // 마지막 판정의 얼굴 중심 - 목표 중심 거리 (디버그, 테스트용, 프레임마다 쓰는 곳은 제곱값 사용)
+    public float getLastDistance() {
+        return (float)Math.sqrt(lastDistanceSq);
+    }
+
+    public float getLastDistanceSq() {
+        return lastDistanceSq;
+    }
+
+    // 마지막 판정의 얼굴 중심 - 목표 중심 (가로, 세로)
+    public float getLastOffsetX() {
+        return lastOffsetX;
+    }
+
+    public float getLastOffsetY() {
+        return lastOffsetY;
+    }
+
+    // 마지막 판정의 얼굴 가로길이 / 목표 가로길이
+    public float getLastWidthRatio() {
+        return lastWidthRatio;
+    }
+
+    public FaceCheckDebugInfo getDebugInfo() {
+        return debugInfo;
     }
 }
@@ -1,5 +1,6 @@
 package me.penguinpistol.facedetectioncamera;
 
+import android.graphics.ImageFormat;
 import android.graphics.RectF;
 import android.media.Image;
 import android.util.Log;
@@ -11,97 +12,558 @@ import androidx.camera.core.ImageAnalysis;
 import androidx.camera.core.ImageProxy;
 
 import com.google.mlkit.vision.common.InputImage;
-import com.google.mlkit.vision.face.Face;
-import com.google.mlkit.vision.face.FaceContour;
-import com.google.mlkit.vision.face.FaceDetection;
-import com.google.mlkit.vision.face.FaceDetector;
-import com.google.mlkit.vision.face.FaceDetectorOptions;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class FaceDetectionAnalyzer implements ImageAnalysis.Analyzer {
     private static final String TAG = "FaceDetectionAnalyzer";
 
-    private static final float TARGET_WIDTH_RATIO = 0.48f;
-    private static final float TARGET_HEIGHT_RATIO = 1.4f;
+    // 동시에 검출하는 프레임 수 (1 ~ 2)
+    private static final int MAX_IN_FLIGHT_FRAMES = 2;
+    // ImageAnalysis 에서 분석기가 동시에 들고 있을 수 있는 이미지 수 (처리 중 + 대기 1)
+    public static final int IMAGE_QUEUE_DEPTH = MAX_IN_FLIGHT_FRAMES + 1;
+
+    // ROI 모드: 목표영역 가로/세로 대비 각 방향 여백, 축소 배율
+    private static final float ROI_PADDING_RATIO = 0.35f;
+    private static final int ROI_DOWNSAMPLE = 1;
 
-    private final FaceDetector mDetector;
+    private final TieredFaceDetector<InputImage> mDetector;
     private final GraphicOverlay mGraphic;
     private final FaceDetectionListener mListener;
 
+    private final RectF targetRect;
     private final FaceChecker faceChecker;
+    // 판정 기준 완화, 안정화 (검출 콜백, startAnalysis 모두 메인 스레드)
+    private final CaptureGate captureGate;
+    private final InFlightFrameScheduler<ImageProxy> scheduler;
+
+    private final RoiCropper roiCropper;
+    private volatile FrameBufferPool roiBufferPool;
+    private volatile boolean isRoiEnabled = false;
+    private final AtomicLong roiPixelsSaved = new AtomicLong();
+
+    // 촬영 전 화질 검사 (직전에 검출된 얼굴 영역을 4px 간격으로 샘플링, 얼굴이 없으면 계산하지 않음)
+    // 검출 전에 원본 프레임을 반환하므로 이 프레임의 얼굴 대신 직전 결과를 사용 (안정화 조건에서 위치 변화가 작음)
+    // 기준 미달 프레임은 판정 기준이 완화되기 전까지만 촬영하지 않음, 완화된 뒤에는 ZSL 후보 순위에만 반영
+    private static final int QUALITY_SAMPLE_STEP = 4;
+    private final FrameQualityKernel qualityKernel = new FrameQualityKernel(QUALITY_SAMPLE_STEP);
+    private final float[] qualityRoi = new float[4];
+    // 아래 값은 qualityKernel 잠금 안에서만 접근
+    private final float[] qualityFaceRect = new float[4];
+    private boolean hasQualityFace = false;
+    private float lastSharpness = Float.NaN;
+    private float lastMeanLuma = Float.NaN;
+    private boolean lastQualityPassed = false;
+    // 판정을 통과한 마지막 프레임의 화질 (메인 스레드, 기준값 보정용 기록)
+    private float lastPassedSharpness = Float.NaN;
+    private float lastPassedMeanLuma = Float.NaN;
+    private volatile boolean isQualityGateEnabled = true;
+    private final AtomicLong qualityRejectCount = new AtomicLong();
+
+    // ZSL: 분석 프레임을 NV21 로 보관, 판정 기준을 만족한 프레임에 점수 기록
+    // 점수 = 얼굴 판정 점수 70% + 선명도 30%
+    // 직전 프레임이 판정 기준을 만족한 동안만 복사 (촬영이 가까울 때만 버퍼를 쓰고 할당)
+    private static final float ZSL_FACE_SCORE_WEIGHT = 0.7f;
+    private volatile ZslFrameRing zslRing;
+    private volatile boolean isNearPass = false;
+
+    // 첫 프레임 ~ 첫 검출 결과 (검출기 예열 여부별로 기록)
+    private volatile long firstFrameNs = 0;
+    private volatile boolean isFirstFrameWarm;
+    private final AtomicBoolean isFirstResultRecorded = new AtomicBoolean(false);
+
+    // 같은 사람 확인용 얼굴형 특징값 (판정을 연속으로 통과한 프레임 평균, 검출 콜백, startAnalysis 모두 메인 스레드)
+    private final float[] signatureFrame = FaceSignature.create();
+    private final float[] signatureSum = FaceSignature.create();
+    private int signatureCount = 0;
+    // 판정을 통과한 마지막 프레임 (촬영 메타데이터)
+    private final FaceObservation lastPassedFace = new FaceObservation();
+    private float lastPassedScore = 0;
+
+    // 눈 깜빡임 확인 (세션 단위, 검출 콜백에서만 접근, null 이면 사용 안 함)
+    private volatile BlinkLivenessDetector livenessDetector;
 
-    private boolean isDetected = false;
-    private boolean isDebug = false;
+    // 구간별 지연시간 (세션 단위로 교체 가능)
+    private volatile SessionMetrics metrics = new SessionMetrics();
 
-    public FaceDetectionAnalyzer(Size imageSize, GraphicOverlay graphic, FaceDetectionListener l) {
-        FaceDetectorOptions options = new FaceDetectorOptions.Builder()
-                .setClassificationMode(FaceDetectorOptions.CLASSIFICATION_MODE_ALL)
-                .setContourMode(FaceDetectorOptions.CONTOUR_MODE_ALL)
-                .setLandmarkMode(FaceDetectorOptions.LANDMARK_MODE_ALL)
-                .build();
+    // 검출 결과 기록 (오프라인 재생용), 디스크 반영과 닫기는 recorderExecutor 에서
+    private FrameRecorder frameRecorder;
+    private ExecutorService recorderExecutor;
 
-        mDetector = FaceDetection.getClient(options);
+    // 분석 스레드, 검출 콜백 스레드 양쪽에서 접근
+    private final AtomicBoolean isDetected = new AtomicBoolean(false);
+
+    // analysisExecutor: setAnalyzer 에 넘기는 분석 스레드 (검출 완료 후 대기 프레임도 여기서 처리)
+    public FaceDetectionAnalyzer(Size imageSize, Executor analysisExecutor, GraphicOverlay graphic, FaceDetectionListener l) {
         mGraphic = graphic;
         mListener = l;
 
-        RectF targetRect = new RectF(
-                0,
-                0,
-                imageSize.getWidth() * TARGET_WIDTH_RATIO,
-                imageSize.getWidth() * TARGET_WIDTH_RATIO * TARGET_HEIGHT_RATIO
-        );
-        targetRect.offset(
-                (imageSize.getWidth()  - targetRect.width()) * 0.5f,
-                (imageSize.getHeight()  - targetRect.height()) * 0.5f
-        );
+        // 목표영역 (정방향 이미지 기준, 오버레이와 같은 정의)
+        float[] target = new float[4];
+        ViewportMapper.computeTargetRect(imageSize.getWidth(), imageSize.getHeight(), target);
+        targetRect = new RectF(target[ContourUtils.LEFT], target[ContourUtils.TOP], target[ContourUtils.RIGHT], target[ContourUtils.BOTTOM]);
 
         mGraphic.init(imageSize, targetRect);
-        faceChecker = new FaceChecker(targetRect);
+        faceChecker = new FaceChecker(targetRect.left, targetRect.top, targetRect.right, targetRect.bottom);
+        captureGate = new CaptureGate(faceChecker);
+        mDetector = new TieredFaceDetector<>(MlKitFaceDetectorBackend.PROVIDER.acquire(), targetRect.left, targetRect.top, targetRect.right, targetRect.bottom);
+        roiCropper = new RoiCropper(targetRect.left, targetRect.top, targetRect.right, targetRect.bottom, ROI_PADDING_RATIO, ROI_DOWNSAMPLE);
+        scheduler = new InFlightFrameScheduler<>(MAX_IN_FLIGHT_FRAMES, InFlightFrameScheduler.DropPolicy.KEEP_LATEST, new InFlightFrameScheduler.FrameProcessor<ImageProxy>() {
+            @Override
+            public void process(ImageProxy frame, long sequence) {
+                detect(frame, sequence);
+            }
+
+            @Override
+            public void release(ImageProxy frame) {
+                frame.close();
+            }
+        }, analysisExecutor);
     }
 
-    @OptIn(markerClass = androidx.camera.core.ExperimentalGetImage.class)
     @Override
     public void analyze(@NonNull ImageProxy imageProxy) {
-        if(isDetected) {
+        if(isDetected.get()) {
+            scheduler.drop(imageProxy);
             return;
         }
+        if(firstFrameNs == 0) {
+            isFirstFrameWarm = MlKitFaceDetectorBackend.PROVIDER.isWarm();
+            firstFrameNs = System.nanoTime();
+        }
+        scheduler.submit(imageProxy);
+    }
 
+    @OptIn(markerClass = androidx.camera.core.ExperimentalGetImage.class)
+    private void detect(ImageProxy imageProxy, long sequence) {
+        final long frameStartNs = System.nanoTime();
         Image mediaImage = imageProxy.getImage();
-        if(mediaImage != null) {
-            int rotate = imageProxy.getImageInfo().getRotationDegrees();
-            InputImage inputImage = InputImage.fromMediaImage(mediaImage, rotate);
-
-            mDetector.process(inputImage)
-                    .addOnSuccessListener(faces -> {
-                        if (faces.size() > 0) {
-                            Face face = faces.get(0);
-
-                            if (faceChecker.check(face)) {
-                                isDetected = true;
-                                mListener.onDetected(faceChecker.getDirection());
-                            }
-
-                            FaceContour contour = face.getContour(FaceContour.FACE);
-                            if(contour != null) {
-                                mGraphic.setFaceContour(contour);
-                            }
-
-                            if(isDebug) {
-                                mGraphic.setDebugText(faceChecker.getDebugText());
-                            }
-                        }
-                    })
-                    .addOnFailureListener(Throwable::printStackTrace)
-                    .addOnCompleteListener(task -> imageProxy.close());
-        } else {
+        if(mediaImage == null) {
             Log.e(TAG, "===============================================================");
             Log.e(TAG, "analyze >> mediaImage is NULL");
             Log.e(TAG, "===============================================================");
+            imageProxy.close();
+            scheduler.onComplete(sequence);
+            return;
+        }
+
+        final SessionMetrics sessionMetrics = metrics;
+        int rotate = imageProxy.getImageInfo().getRotationDegrees();
+        long timestampMs = imageProxy.getImageInfo().getTimestamp() / 1_000_000L;
+
+        // 원본 프레임을 반환하기 전에 계산, 복사
+        final float quality;
+        final float sharpness;
+        final float meanLuma;
+        final boolean qualityPassed;
+        synchronized (qualityKernel) {
+            quality = checkQuality(imageProxy, rotate, sessionMetrics);
+            sharpness = lastSharpness;
+            meanLuma = lastMeanLuma;
+            qualityPassed = lastQualityPassed;
+        }
+        final ZslFrameRing ring = zslRing;
+        long zslSequence = ring != null && isNearPass ? copyToRing(ring, imageProxy, timestampMs, rotate, sessionMetrics) : 0;
+
+        // ROI 모드: 목표영역 주변만 복사해서 넘기고 원본 프레임은 바로 반환
+        byte[] roiBuffer = isRoiEnabled && imageProxy.getFormat() == ImageFormat.YUV_420_888 ? cropRoi(imageProxy, rotate) : null;
+
+        final InputImage inputImage;
+        final RoiMapping mapping;
+        if(roiBuffer != null) {
+            imageProxy.close();
+            inputImage = InputImage.fromByteArray(roiBuffer, roiCropper.getOutputWidth(), roiCropper.getOutputHeight(), rotate, InputImage.IMAGE_FORMAT_NV21);
+            mapping = roiCropper.getMapping();
+        } else {
+            inputImage = InputImage.fromMediaImage(mediaImage, rotate);
+            mapping = RoiMapping.IDENTITY;
+        }
+
+        final long processStartNs = System.nanoTime();
+        mDetector.process(inputImage, mapping, new TieredFaceDetector.Listener() {
+            // 이 프레임에서 얼굴이 검출됐는지, 검출 결과를 판정에 반영했는지
+            private boolean isFaceFound = false;
+            private boolean isFaceApplied = false;
+
+            @Override
+            public void onFace(FaceObservation face) {
+                isFaceFound = true;
+                // 더 최근 프레임 결과가 이미 반영된 경우 무시
+                if(isDetected.get() || !scheduler.onResult(sequence)) {
+                    return;
+                }
+                isFaceApplied = true;
+
+                recordFrame(timestampMs, rotate, face);
+                updateLiveness(timestampMs, face);
+
+                boolean wasRelaxed = captureGate.isRelaxed();
+                boolean stable = captureGate.update(face, timestampMs, sessionMetrics);
+                sessionMetrics.recordSince(SessionMetrics.Metric.FRAME_TO_VERDICT, frameStartNs);
+                updateSignature(face, captureGate.isLastPassed());
+                updateQualityFace(face);
+                if(captureGate.isLastPassed()) {
+                    lastPassedSharpness = sharpness;
+                    lastPassedMeanLuma = meanLuma;
+                }
+                if(ring != null && quality >= 0 && captureGate.isLastPassed()) {
+                    ring.score(zslSequence, ZSL_FACE_SCORE_WEIGHT * captureGate.getLastScore() + (1f - ZSL_FACE_SCORE_WEIGHT) * quality);
+                }
+                isNearPass = captureGate.isLastPassed();
+                if(!wasRelaxed && captureGate.isRelaxed()) {
+                    Log.d(TAG, "thresholds relaxed >> " + captureGate.getDirection());
+                }
+
+                if(stable && !qualityPassed && !captureGate.isRelaxed()) {
+                    // 흔들림, 노출 문제로 서버에서 반려될 프레임은 촬영하지 않음 (어두운 환경에서 계속 막지 않도록 완화 전까지만)
+                    qualityRejectCount.incrementAndGet();
+                    Log.d(TAG, "quality reject >> sharpness=" + sharpness + " meanLuma=" + meanLuma);
+                } else if (stable && isDetected.compareAndSet(false, true)) {
+                    scheduler.clearPending();
+                    mListener.onDetected(faceChecker.getDirection());
+                }
+
+                if(face.hasContour()) {
+                    mGraphic.setFaceContour(face.getContour(), face.getContourPointCount());
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+                e.printStackTrace();
+            }
+
+            @Override
+            public void onComplete() {
+                // 얼굴 유무와 관계없이 기록 (onFace 처리시간 포함)
+                sessionMetrics.recordSince(SessionMetrics.Metric.DETECTOR_PROCESS, processStartNs);
+                if(isFirstResultRecorded.compareAndSet(false, true)) {
+                    long elapsedNs = System.nanoTime() - firstFrameNs;
+                    sessionMetrics.record(isFirstFrameWarm ? SessionMetrics.Metric.FIRST_RESULT_WARM : SessionMetrics.Metric.FIRST_RESULT_COLD, elapsedNs);
+                    Log.d(TAG, "first result >> " + (isFirstFrameWarm ? "warm " : "cold ") + elapsedNs / 1_000_000 + "ms");
+                }
+                if(roiBuffer != null) {
+                    roiBufferPool.release(roiBuffer);
+                } else {
+                    imageProxy.close();
+                }
+                // 얼굴이 없던 프레임도 완화 시간에 포함, 안정화 연속 횟수는 초기화 (늦게 도착한 결과는 무시)
+                if(!isDetected.get()) {
+                    if(!isFaceFound && scheduler.onResult(sequence)) {
+                        captureGate.onNoFace(timestampMs);
+                        synchronized (qualityKernel) {
+                            hasQualityFace = false;
+                        }
+                        mGraphic.clearFaceContour();
+                    } else {
+                        captureGate.onFrame(timestampMs);
+                    }
+                }
+                if(ring != null && zslSequence != 0) {
+                    // 후보가 되지 못한 프레임은 바로 비움
+                    ring.discard(zslSequence);
+                }
+                if(!isFaceApplied) {
+                    isNearPass = false;
+                }
+                scheduler.onComplete(sequence);
+            }
+        });
+    }
+
+    // 현재 방향이 완화된 기준으로 판정 중인지
+    public boolean isRelaxed() {
+        return captureGate.isRelaxed();
+    }
+
+    // 판정에 들어가는 검출 결과를 파일로 기록 (메인 스레드에서 호출)
+    public void startRecording(File file) throws IOException {
+        stopRecording();
+        if(recorderExecutor == null) {
+            recorderExecutor = Executors.newSingleThreadExecutor();
+        }
+        frameRecorder = new FrameRecorder(file, targetRect.left, targetRect.top, targetRect.right, targetRect.bottom, recorderExecutor);
+    }
+
+    public void stopRecording() {
+        if(frameRecorder != null) {
+            FrameRecorder recorder = frameRecorder;
+            frameRecorder = null;
+            recorderExecutor.execute(() -> {
+                try {
+                    recorder.close();
+                    Log.d(TAG, "recording closed >> " + recorder.getFile() + " frames=" + recorder.getFrameCount());
+                } catch (IOException e) {
+                    Log.e(TAG, "stopRecording ERROR >> " + e);
+                }
+            });
         }
     }
 
+    private void recordFrame(long timestampMs, int rotate, FaceObservation face) {
+        if(frameRecorder == null) {
+            return;
+        }
+        try {
+            frameRecorder.record(timestampMs, rotate, faceChecker.getDirection(), face);
+        } catch (IOException e) {
+            Log.e(TAG, "recordFrame ERROR >> " + e);
+            stopRecording();
+        }
+    }
+
+    private void updateLiveness(long timestampMs, FaceObservation face) {
+        BlinkLivenessDetector detector = livenessDetector;
+        if(detector != null && detector.update(timestampMs, face.getLeftEyeOpen(), face.getRightEyeOpen())) {
+            Log.d(TAG, "blink >> count=" + detector.getBlinkCount() + " closed=" + detector.getLastClosedDurationMs() + "ms");
+        }
+    }
+
+    // 판정을 통과한 프레임 기록 (특징값 평균, 촬영 메타데이터), 통과하지 못한 프레임이 있으면 평균은 처음부터 다시
+    private void updateSignature(FaceObservation face, boolean passed) {
+        if(!passed) {
+            signatureCount = 0;
+            return;
+        }
+        lastPassedFace.copyFrom(face);
+        lastPassedScore = captureGate.getLastScore();
+        if(!FaceSignature.compute(face, signatureFrame)) {
+            return;
+        }
+        if(signatureCount == 0) {
+            Arrays.fill(signatureSum, 0);
+        }
+        for(int i = 0; i < FaceSignature.SIZE; i++) {
+            signatureSum[i] += signatureFrame[i];
+        }
+        signatureCount++;
+    }
+
+    // 판정을 통과한 마지막 프레임 (메인 스레드, 값은 다음 프레임에서 바뀜)
+    public FaceObservation getLastPassedFace() {
+        return lastPassedFace;
+    }
+
+    // 판정을 통과한 마지막 프레임의 판정 점수 (0 ~ 1)
+    public float getLastPassedScore() {
+        return lastPassedScore;
+    }
+
+    // 판정을 통과한 마지막 프레임의 선명도, 평균 밝기 (화질 검사를 하지 않았으면 NaN)
+    public float getLastPassedSharpness() {
+        return lastPassedSharpness;
+    }
+
+    public float getLastPassedMeanLuma() {
+        return lastPassedMeanLuma;
+    }
+
+    // 촬영 판정 직전 프레임들의 얼굴형 특징값 (메인 스레드), 없으면 false
+    public boolean getSignature(float[] out) {
+        if(signatureCount == 0) {
+            return false;
+        }
+        for(int i = 0; i < FaceSignature.SIZE; i++) {
+            out[i] = signatureSum[i] / signatureCount;
+        }
+        return true;
+    }
+
+    // 얼굴 영역의 선명도, 노출 검사 (Y 평면을 복사 없이 샘플링)
+    // 분석 스레드에서 qualityKernel 잠금 안에서 호출 (얼굴 영역은 메인 스레드에서 갱신)
+    // 화질 점수 (0 ~ 1, 최소 선명도의 2배 이상이면 1, 노출 기준 미달이면 0), 얼굴 위치를 모르면 -1
+    // 기준 통과 여부는 lastQualityPassed
+    private float checkQuality(ImageProxy imageProxy, int rotate, SessionMetrics sessionMetrics) {
+        lastSharpness = Float.NaN;
+        lastMeanLuma = Float.NaN;
+        if(!isQualityGateEnabled || imageProxy.getFormat() != ImageFormat.YUV_420_888) {
+            lastQualityPassed = true;
+            return 1f;
+        }
+        lastQualityPassed = false;
+        if(!hasQualityFace) {
+            return -1f;
+        }
+
+        long startNs = System.nanoTime();
+        ImageProxy.PlaneProxy yPlane = imageProxy.getPlanes()[0];
+        int width = imageProxy.getWidth();
+        int height = imageProxy.getHeight();
+        RoiCropper.toBufferRect(qualityFaceRect[ContourUtils.LEFT], qualityFaceRect[ContourUtils.TOP],
+                qualityFaceRect[ContourUtils.RIGHT], qualityFaceRect[ContourUtils.BOTTOM], width, height, rotate, qualityRoi);
+        qualityKernel.compute(
+                yPlane.getBuffer(), width, height, yPlane.getRowStride(), yPlane.getPixelStride(),
+                (int)qualityRoi[ContourUtils.LEFT], (int)qualityRoi[ContourUtils.TOP],
+                (int)qualityRoi[ContourUtils.RIGHT], (int)qualityRoi[ContourUtils.BOTTOM]
+        );
+        lastSharpness = qualityKernel.getSharpness();
+        lastMeanLuma = qualityKernel.getMeanLuma();
+        lastQualityPassed = qualityKernel.passes();
+        boolean exposed = qualityKernel.isExposed(FrameQualityKernel.DEFAULT_MIN_MEAN_LUMA,
+                FrameQualityKernel.DEFAULT_MAX_MEAN_LUMA, FrameQualityKernel.DEFAULT_MAX_CLIPPED_RATIO);
+        float score = exposed
+                ? Math.min(1f, qualityKernel.getSharpness() / (2f * FrameQualityKernel.DEFAULT_MIN_SHARPNESS))
+                : 0f;
+        sessionMetrics.recordSince(SessionMetrics.Metric.FRAME_QUALITY, startNs);
+        return score;
+    }
+
+    // 다음 프레임의 화질 검사 영역 (정방향 이미지 좌표의 얼굴 윤곽선 범위)
+    private void updateQualityFace(FaceObservation face) {
+        synchronized (qualityKernel) {
+            if(face.hasContour()) {
+                ContourUtils.computeBounds(face.getContour(), face.getContourPointCount(), qualityFaceRect);
+                hasQualityFace = true;
+            } else if(face.hasBounds()) {
+                System.arraycopy(face.getBounds(), 0, qualityFaceRect, 0, 4);
+                hasQualityFace = true;
+            }
+        }
+    }
+
+    // 프레임 전체를 ZSL 링에 복사, 빈 슬롯이 없거나 YUV 가 아니면 0
+    private long copyToRing(ZslFrameRing ring, ImageProxy imageProxy, long timestampMs, int rotate, SessionMetrics sessionMetrics) {
+        if(imageProxy.getFormat() != ImageFormat.YUV_420_888) {
+            return 0;
+        }
+        long startNs = System.nanoTime();
+        ZslFrameRing.Frame frame = ring.obtain(timestampMs, imageProxy.getWidth(), imageProxy.getHeight(), rotate);
+        if(frame == null) {
+            return 0;
+        }
+
+        ImageProxy.PlaneProxy[] planes = imageProxy.getPlanes();
+        YuvConverter.toNv21(
+                planes[0].getBuffer(), planes[0].getRowStride(), planes[0].getPixelStride(),
+                planes[1].getBuffer(), planes[2].getBuffer(), planes[1].getRowStride(), planes[1].getPixelStride(),
+                imageProxy.getWidth(), imageProxy.getHeight(), frame.getData()
+        );
+        ring.commit(frame);
+        sessionMetrics.recordSince(SessionMetrics.Metric.ZSL_COPY, startNs);
+        return frame.getSequence();
+    }
+
+    // 여유 버퍼가 없으면 null (전체 프레임으로 처리)
+    private byte[] cropRoi(ImageProxy imageProxy, int rotate) {
+        synchronized (roiCropper) {
+            if(roiCropper.configure(imageProxy.getWidth(), imageProxy.getHeight(), rotate)) {
+                roiBufferPool = new FrameBufferPool(MAX_IN_FLIGHT_FRAMES, roiCropper.getOutputSize());
+            }
+
+            byte[] buffer = roiBufferPool.acquire();
+            if(buffer == null) {
+                return null;
+            }
+
+            ImageProxy.PlaneProxy[] planes = imageProxy.getPlanes();
+            roiCropper.crop(
+                    planes[0].getBuffer(), planes[0].getRowStride(), planes[0].getPixelStride(),
+                    planes[1].getBuffer(), planes[2].getBuffer(), planes[1].getRowStride(), planes[1].getPixelStride(),
+                    buffer
+            );
+            roiPixelsSaved.addAndGet(roiCropper.getPixelsSavedPerFrame());
+            return buffer;
+        }
+    }
+
+    // 기본 판정 기준으로 분석
     public void startAnalysis(FaceChecker.Direction direction) {
-        faceChecker.setDirection(direction);
-        isDetected = false;
+        startAnalysis(direction, null);
+    }
+
+    // thresholdTable: 방향별 판정 기준표 (null 이면 기본 기준, 완화 없음)
+    public void startAnalysis(FaceChecker.Direction direction, ThresholdTable table) {
+        captureGate.start(direction, table);
+        signatureCount = 0;
+        mDetector.setDirection(direction);
+        ZslFrameRing ring = zslRing;
+        if(ring != null) {
+            // 이전 방향 후보는 사용하지 않음
+            ring.clear();
+        }
+        isNearPass = false;
+        isDetected.set(false);
+    }
+
+    // 단계별 처리 프레임 수
+    public long getFrameCount(DetectionTier tier) {
+        return mDetector.getFrameCount(tier);
+    }
+
+    // 버린 프레임 수 (처리 중 슬롯 초과, 촬영 대기 중)
+    public long getDroppedFrameCount() {
+        return scheduler.getDroppedCount();
+    }
+
+    // 검출을 마친 프레임 수
+    public long getProcessedFrameCount() {
+        return scheduler.getProcessedCount();
+    }
+
+    // 더 최근 프레임보다 늦게 도착해서 무시한 결과 수
+    public long getStaleFrameCount() {
+        return scheduler.getStaleCount();
+    }
+
+    // 목표영역 주변만 검출기에 넘길지 여부
+    public void setRoiEnabled(boolean enabled) {
+        isRoiEnabled = enabled;
+    }
+
+    // 분석 프레임 보관 (null 이면 보관하지 않음)
+    public void setZslRing(ZslFrameRing ring) {
+        zslRing = ring;
+    }
+
+    public ZslFrameRing getZslRing() {
+        return zslRing;
+    }
+
+    // 촬영 전 화질 검사 사용 여부
+    public void setQualityGateEnabled(boolean enabled) {
+        isQualityGateEnabled = enabled;
+    }
+
+    // 안정화 조건은 만족했지만 화질 검사에서 걸러진 프레임 수
+    public long getQualityRejectCount() {
+        return qualityRejectCount.get();
+    }
+
+    // ROI 모드로 검출기에 넘기지 않은 누적 픽셀 수
+    public long getRoiPixelsSaved() {
+        return roiPixelsSaved.get();
+    }
+
+    // 눈 깜빡임 확인 대상 (null 이면 확인하지 않음)
+    public void setLivenessDetector(BlinkLivenessDetector detector) {
+        livenessDetector = detector;
+    }
+
+    // 분석 구간 지연시간 기록 대상
+    public void setSessionMetrics(@NonNull SessionMetrics sessionMetrics) {
+        metrics = sessionMetrics;
+    }
+
+    public SessionMetrics getSessionMetrics() {
+        return metrics;
+    }
+
+    // 공유 검출기 참조 해제, 기록 종료 (메인 스레드)
+    public void close() {
+        stopRecording();
+        if(recorderExecutor != null) {
+            // 남은 반영, 닫기 작업은 끝까지 실행
+            recorderExecutor.shutdown();
+            recorderExecutor = null;
+        }
+        mDetector.close();
     }
 
     public void setDebug(boolean debug) {
@@ -109,9 +571,9 @@ public class FaceDetectionAnalyzer implements ImageAnalysis.Analyzer {
         Log.d(TAG, "FaceDetection DEBUG >>> " + debug);
         Log.d(TAG, "===============================================================");
 
-        isDebug = debug;
         if(mGraphic != null) {
             mGraphic.setDebug(debug);
+            mGraphic.setDebugInfo(debug ? faceChecker.getDebugInfo() : null);
         }
         if(faceChecker != null) {
             faceChecker.setDebug(debug);
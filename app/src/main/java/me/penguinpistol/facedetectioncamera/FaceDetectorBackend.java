@@ -0,0 +1,17 @@
+package me.penguinpistol.facedetectioncamera;
+
+// 단계별 얼굴 검출기 (ML Kit 구현 / 테스트용 가짜 구현)
+public interface FaceDetectorBackend<I> {
+
+    interface Callback {
+        // face == null 이면 얼굴 없음
+        void onResult(DetectionTier tier, FaceObservation face);
+
+        void onError(DetectionTier tier, Exception e);
+    }
+
+    // process 1회당 callback 은 반드시 한 번만 호출
+    void process(DetectionTier tier, I image, Callback callback);
+
+    void close();
+}
@@ -0,0 +1,173 @@
+package me.penguinpistol.facedetectioncamera;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 프로세스 전체에서 검출기 하나를 참조 카운트로 공유
+// acquire/warmUp 으로 받은 검출기를 close 하면 참조 해제, 마지막 참조가 해제되면 실제 검출기를 닫음
+public final class FaceDetectorProvider<I> {
+
+    public interface Factory<I> {
+        FaceDetectorBackend<I> create();
+    }
+
+    // 예열용 빈 이미지
+    public interface ImageFactory<I> {
+        I create();
+    }
+
+    private final Factory<I> factory;
+    private final ImageFactory<I> warmUpImageFactory;
+
+    private FaceDetectorBackend<I> backend;
+    private int refCount = 0;
+    // 검출기를 새로 만들 때마다 증가 (이전 검출기의 늦은 콜백 무시)
+    private int generation = 0;
+    private boolean isWarmingUp = false;
+    private volatile boolean isWarm = false;
+    private volatile long warmUpNanos = -1;
+
+    public FaceDetectorProvider(Factory<I> factory, ImageFactory<I> warmUpImageFactory) {
+        this.factory = factory;
+        this.warmUpImageFactory = warmUpImageFactory;
+    }
+
+    // 공유 검출기 참조 (사용 후 close)
+    public synchronized FaceDetectorBackend<I> acquire() {
+        if(backend == null) {
+            backend = factory.create();
+            generation++;
+            isWarm = false;
+            isWarmingUp = false;
+            warmUpNanos = -1;
+        }
+        refCount++;
+        return new Lease(backend, generation);
+    }
+
+    // 참조를 받으면서 모든 단계에 빈 이미지를 한 번씩 넘겨 모델을 미리 올림 (결과를 기다리지 않음)
+    public FaceDetectorBackend<I> warmUp() {
+        FaceDetectorBackend<I> lease = acquire();
+        FaceDetectorBackend<I> target;
+        int warmUpGeneration;
+        synchronized (this) {
+            if(isWarm || isWarmingUp) {
+                return lease;
+            }
+            isWarmingUp = true;
+            target = backend;
+            warmUpGeneration = generation;
+        }
+
+        long startNs = System.nanoTime();
+        DetectionTier[] tiers = DetectionTier.values();
+        AtomicInteger remaining = new AtomicInteger(tiers.length);
+        FaceDetectorBackend.Callback callback = new FaceDetectorBackend.Callback() {
+            @Override
+            public void onResult(DetectionTier tier, FaceObservation face) {
+                onWarmUpResult();
+            }
+
+            @Override
+            public void onError(DetectionTier tier, Exception e) {
+                onWarmUpResult();
+            }
+
+            private void onWarmUpResult() {
+                if(remaining.decrementAndGet() == 0) {
+                    markWarm(warmUpGeneration, System.nanoTime() - startNs);
+                }
+            }
+        };
+
+        I image = warmUpImageFactory.create();
+        for(DetectionTier tier : tiers) {
+            target.process(tier, image, callback);
+        }
+        return lease;
+    }
+
+    private synchronized void markWarm(int warmGeneration, long elapsedNanos) {
+        if(warmGeneration != generation || backend == null || isWarm) {
+            return;
+        }
+        isWarm = true;
+        isWarmingUp = false;
+        warmUpNanos = elapsedNanos;
+    }
+
+    private synchronized void release() {
+        if(refCount == 0) {
+            throw new IllegalStateException("release without acquire");
+        }
+        if(--refCount == 0) {
+            backend.close();
+            backend = null;
+            isWarm = false;
+            isWarmingUp = false;
+        }
+    }
+
+    // 현재 검출기가 한 번 이상 결과를 낸 상태인지
+    public boolean isWarm() {
+        return isWarm;
+    }
+
+    // 예열에 걸린 시간 (예열로 준비되지 않았으면 -1)
+    public long getWarmUpNanos() {
+        return warmUpNanos;
+    }
+
+    public synchronized int getRefCount() {
+        return refCount;
+    }
+
+    // 참조 하나, close 는 한 번만 반영
+    private final class Lease implements FaceDetectorBackend<I> {
+        private final FaceDetectorBackend<I> target;
+        private final int leaseGeneration;
+        private volatile boolean isReleased = false;
+
+        Lease(FaceDetectorBackend<I> target, int leaseGeneration) {
+            this.target = target;
+            this.leaseGeneration = leaseGeneration;
+        }
+
+        @Override
+        public void process(DetectionTier tier, I image, Callback callback) {
+            // 해제 후 늦게 들어온 프레임은 닫힌 검출기로 보내지 않음
+            if(isReleased) {
+                callback.onError(tier, new IllegalStateException("detector released"));
+                return;
+            }
+            if(isWarm) {
+                target.process(tier, image, callback);
+                return;
+            }
+
+            // 예열 전에 들어온 첫 결과로도 준비 완료 처리
+            target.process(tier, image, new Callback() {
+                @Override
+                public void onResult(DetectionTier tier, FaceObservation face) {
+                    markWarm(leaseGeneration, -1);
+                    callback.onResult(tier, face);
+                }
+
+                @Override
+                public void onError(DetectionTier tier, Exception e) {
+                    callback.onError(tier, e);
+                }
+            });
+        }
+
+        @Override
+        public void close() {
+            synchronized (FaceDetectorProvider.this) {
+                if(isReleased) {
+                    return;
+                }
+                isReleased = true;
+                release();
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package me.penguinpistol.facedetectioncamera;
+
+// 한 프레임의 얼굴 검출 결과 (ML Kit 비의존)
+// 프레임마다 새로 만들지 않고 재사용하는 것을 전제로 함
+public final class FaceObservation {
+
+    public static final int DEFAULT_CONTOUR_POINTS = 36;           // FACE 윤곽선 포인트 수
+    public static final float UNKNOWN_EYE_OPEN = -1f;              // 눈 열림 확률을 얻지 못한 경우
+
+    private float eulerX;
+    private float eulerY;
+    private float eulerZ;
+
+    private float leftEyeOpen;
+    private float rightEyeOpen;
+
+    // 검출 사각형 (윤곽선이 없는 FAST 단계에서도 제공)
+    private final float[] bounds = new float[4];
+    private boolean hasBounds;
+
+    // x, y 순서로 packed 된 FACE 윤곽선
+    private float[] contour = new float[DEFAULT_CONTOUR_POINTS * 2];
+    private int contourPointCount;
+
+    public FaceObservation() {
+    }
+
+    public FaceObservation set(float eulerX, float eulerY, float eulerZ, float leftEyeOpen, float rightEyeOpen) {
+        this.eulerX = eulerX;
+        this.eulerY = eulerY;
+        this.eulerZ = eulerZ;
+        this.leftEyeOpen = leftEyeOpen;
+        this.rightEyeOpen = rightEyeOpen;
+        return this;
+    }
+
+    public FaceObservation setBounds(float left, float top, float right, float bottom) {
+        bounds[ContourUtils.LEFT] = left;
+        bounds[ContourUtils.TOP] = top;
+        bounds[ContourUtils.RIGHT] = right;
+        bounds[ContourUtils.BOTTOM] = bottom;
+        hasBounds = true;
+        return this;
+    }
+
+    public FaceObservation setContour(float[] points, int pointCount) {
+        System.arraycopy(points, 0, obtainContour(pointCount), 0, pointCount * 2);
+        return this;
+    }
+
+    // pointCount 만큼 채울 수 있는 내부 버퍼 반환 (부족할 때만 재할당)
+    public float[] obtainContour(int pointCount) {
+        if(contour.length < pointCount * 2) {
+            contour = new float[pointCount * 2];
+        }
+        contourPointCount = pointCount;
+        return contour;
+    }
+
+    public FaceObservation copyFrom(FaceObservation other) {
+        set(other.eulerX, other.eulerY, other.eulerZ, other.leftEyeOpen, other.rightEyeOpen);
+        System.arraycopy(other.bounds, 0, bounds, 0, bounds.length);
+        hasBounds = other.hasBounds;
+        return setContour(other.contour, other.contourPointCount);
+    }
+
+    public void clear() {
+        set(0, 0, 0, 0, 0);
+        hasBounds = false;
+        contourPointCount = 0;
+    }
+
+    public float getEulerX() {
+        return eulerX;
+    }
+
+    public float getEulerY() {
+        return eulerY;
+    }
+
+    public float getEulerZ() {
+        return eulerZ;
+    }
+
+    public float getLeftEyeOpen() {
+        return leftEyeOpen;
+    }
+
+    public float getRightEyeOpen() {
+        return rightEyeOpen;
+    }
+
+    // [left, top, right, bottom] (ContourUtils 인덱스)
+    public float[] getBounds() {
+        return bounds;
+    }
+
+    public boolean hasBounds() {
+        return hasBounds;
+    }
+
+    public float[] getContour() {
+        return contour;
+    }
+
+    public int getContourPointCount() {
+        return contourPointCount;
+    }
+
+    public boolean hasContour() {
+        return contourPointCount > 0;
+    }
+}
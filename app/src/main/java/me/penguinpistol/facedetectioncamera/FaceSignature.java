@@ -0,0 +1,129 @@
+package me.penguinpistol.facedetectioncamera;
+
+// FACE 윤곽선으로 만든 얼굴형 특징값 (방향별 촬영이 같은 사람인지 가볍게 비교하는 용도, 생체 인증 아님)
+// 기울기(Z)를 되돌린 윤곽선을 가로로 ROWS 등분해서 각 높이의 폭을 최대 폭 대비 비율로 기록하고, 마지막에 세로/가로 비율을 기록
+// 폭 비율은 고개를 좌우로 돌려서 가로로 눌린 만큼 상쇄되고, 세로/가로 비율은 각도로 대략 보정
+public final class FaceSignature {
+
+    public static final int ROWS = 8;
+    public static final int ASPECT = ROWS;              // 세로/가로 비율 인덱스
+    public static final int SIZE = ROWS + 1;
+
+    // 옆모습 윤곽선은 머리 옆면까지 포함하므로 cos(yaw) 만큼 줄지는 않음 (보정 비율)
+    // 먼 쪽 볼만 눌리는 옆모습 근사(FaceSignatureTest.turn) 에서 45도 거리가 가장 작은 값
+    private static final float YAW_COMPENSATION = 0.7f;
+    // 비교 가능한 최소 윤곽선 포인트 수
+    private static final int MIN_POINTS = 8;
+
+    private FaceSignature() {
+    }
+
+    public static float[] create() {
+        return new float[SIZE];
+    }
+
+    // 특징값 계산 (할당 없음), 윤곽선이 없거나 너무 작으면 false
+    public static boolean compute(FaceObservation face, float[] out) {
+        if(face.getContourPointCount() < MIN_POINTS) {
+            return false;
+        }
+        return compute(face.getContour(), face.getContourPointCount(), face.getEulerX(), face.getEulerY(), face.getEulerZ(), out);
+    }
+
+    // contour: x, y 순서의 packed 배열 (닫힌 다각형), eulerZ 만큼 화면에서 반시계 방향으로 기울어진 것으로 보고 되돌림
+    public static boolean compute(float[] contour, int pointCount, float eulerX, float eulerY, float eulerZ, float[] out) {
+        if(pointCount < MIN_POINTS) {
+            return false;
+        }
+
+        double rad = Math.toRadians(eulerZ);
+        float cos = (float)Math.cos(rad);
+        float sin = (float)Math.sin(rad);
+
+        // 중심 기준 회전 후 세로 범위
+        float cx = 0;
+        float cy = 0;
+        for(int i = 0; i < pointCount; i++) {
+            cx += contour[i * 2];
+            cy += contour[i * 2 + 1];
+        }
+        cx /= pointCount;
+        cy /= pointCount;
+
+        float top = Float.MAX_VALUE;
+        float bottom = -Float.MAX_VALUE;
+        for(int i = 0; i < pointCount; i++) {
+            float y = uprightY(contour, i, cx, cy, cos, sin);
+            if(y < top) top = y;
+            if(y > bottom) bottom = y;
+        }
+        float height = bottom - top;
+        if(height <= 0) {
+            return false;
+        }
+
+        // 각 높이(구간 중앙)에서 다각형 변과의 교점 중 가장 왼쪽 ~ 가장 오른쪽
+        float maxWidth = 0;
+        for(int row = 0; row < ROWS; row++) {
+            float level = top + height * (row + 0.5f) / ROWS;
+            float left = Float.MAX_VALUE;
+            float right = -Float.MAX_VALUE;
+            for(int i = 0; i < pointCount; i++) {
+                int j = (i + 1) % pointCount;
+                float y0 = uprightY(contour, i, cx, cy, cos, sin);
+                float y1 = uprightY(contour, j, cx, cy, cos, sin);
+                if((y0 <= level) == (y1 <= level)) {
+                    continue;
+                }
+                float x0 = uprightX(contour, i, cx, cy, cos, sin);
+                float x1 = uprightX(contour, j, cx, cy, cos, sin);
+                float x = x0 + (x1 - x0) * (level - y0) / (y1 - y0);
+                if(x < left) left = x;
+                if(x > right) right = x;
+            }
+            float width = right > left ? right - left : 0;
+            out[row] = width;
+            if(width > maxWidth) maxWidth = width;
+        }
+        if(maxWidth <= 0) {
+            return false;
+        }
+        for(int row = 0; row < ROWS; row++) {
+            out[row] /= maxWidth;
+        }
+
+        // 좌우(Y), 상하(X) 각도로 눌린 만큼 대략 보정
+        float yawScale = 1f - YAW_COMPENSATION * (1f - (float)Math.cos(Math.toRadians(eulerY)));
+        float pitchScale = 1f - YAW_COMPENSATION * (1f - (float)Math.cos(Math.toRadians(eulerX)));
+        out[ASPECT] = (height / pitchScale) / (maxWidth / yawScale);
+        return true;
+    }
+
+    // 가중 RMS 거리 (세로/가로 비율은 각도 보정 오차가 커서 절반만 반영)
+    public static float distance(float[] a, float[] b) {
+        return distance(a, 0, b, 0);
+    }
+
+    static float distance(float[] a, int aOffset, float[] b, int bOffset) {
+        float sum = 0;
+        for(int i = 0; i < ROWS; i++) {
+            float d = a[aOffset + i] - b[bOffset + i];
+            sum += d * d;
+        }
+        float d = 0.5f * (a[aOffset + ASPECT] - b[bOffset + ASPECT]);
+        sum += d * d;
+        return (float)Math.sqrt(sum / SIZE);
+    }
+
+    private static float uprightX(float[] contour, int i, float cx, float cy, float cos, float sin) {
+        float x = contour[i * 2] - cx;
+        float y = contour[i * 2 + 1] - cy;
+        return x * cos - y * sin;
+    }
+
+    private static float uprightY(float[] contour, int i, float cx, float cy, float cos, float sin) {
+        float x = contour[i * 2] - cx;
+        float y = contour[i * 2 + 1] - cy;
+        return x * sin + y * cos;
+    }
+}
@@ -0,0 +1,68 @@
+package me.penguinpistol.facedetectioncamera;
+
+// 방향별 자동촬영 판정 기준 (범위를 미리 계산해서 프레임마다 다시 계산하지 않음)
+public final class FaceThresholds {
+
+    public static final float DEFAULT_ANGLE_ERROR       = 7f;       // 각도 오차값(xyz 공통)
+    public static final float DEFAULT_POSITION_ERROR    = 35f;      // 위치 오차값
+    public static final float DEFAULT_RATIO_ERROR       = 0.2f;     // 가로비율 오차값
+    public static final float DEFAULT_EYE_OPEN          = 0.65f;    // 눈열림 기준값
+
+    final FaceChecker.Direction direction;
+    final float angleError;
+    final float positionError;
+    final float ratioError;
+
+    // 미리 계산한 판정 범위
+    final float minAngleY;
+    final float maxAngleY;
+    final float maxAngleXZ;
+    final float maxDistanceSq;
+    final float minWidthRatio;
+    final float maxWidthRatio;
+    final float minEyeOpen;
+
+    public FaceThresholds(FaceChecker.Direction direction, float angleError, float positionError, float ratioError, float minEyeOpen) {
+        this.direction = direction;
+        this.angleError = angleError;
+        this.positionError = positionError;
+        this.ratioError = ratioError;
+
+        minAngleY = direction.angle - angleError;
+        maxAngleY = direction.angle + angleError;
+        maxAngleXZ = angleError;
+        maxDistanceSq = positionError * positionError;
+        minWidthRatio = 1 - ratioError;
+        maxWidthRatio = 1 + ratioError;
+        this.minEyeOpen = minEyeOpen;
+    }
+
+    public static FaceThresholds defaults(FaceChecker.Direction direction) {
+        return new FaceThresholds(direction, DEFAULT_ANGLE_ERROR, DEFAULT_POSITION_ERROR, DEFAULT_RATIO_ERROR, DEFAULT_EYE_OPEN);
+    }
+
+    // 완화된 기준 (각도, 비율은 더하고 위치는 곱함, 눈열림은 그대로)
+    public FaceThresholds relax(float extraAngle, float positionScale, float extraRatio) {
+        return new FaceThresholds(direction, angleError + extraAngle, positionError * positionScale, ratioError + extraRatio, minEyeOpen);
+    }
+
+    public FaceChecker.Direction getDirection() {
+        return direction;
+    }
+
+    public float getAngleError() {
+        return angleError;
+    }
+
+    public float getPositionError() {
+        return positionError;
+    }
+
+    public float getRatioError() {
+        return ratioError;
+    }
+
+    public float getMinEyeOpen() {
+        return minEyeOpen;
+    }
+}
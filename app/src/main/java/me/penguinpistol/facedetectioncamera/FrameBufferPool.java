@@ -0,0 +1,37 @@
+package me.penguinpistol.facedetectioncamera;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+// 고정 크기 byte[] 풀 (프레임마다 새로 할당하지 않기 위함)
+public class FrameBufferPool {
+
+    private final ArrayBlockingQueue<byte[]> buffers;
+    private final int bufferSize;
+
+    public FrameBufferPool(int count, int bufferSize) {
+        this.bufferSize = bufferSize;
+        buffers = new ArrayBlockingQueue<>(count);
+        for(int i = 0; i < count; i++) {
+            buffers.add(new byte[bufferSize]);
+        }
+    }
+
+    // 남은 버퍼가 없으면 null
+    public byte[] acquire() {
+        return buffers.poll();
+    }
+
+    public void release(byte[] buffer) {
+        if(buffer != null && buffer.length == bufferSize) {
+            buffers.offer(buffer);
+        }
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public int getAvailableCount() {
+        return buffers.size();
+    }
+}
@@ -0,0 +1,144 @@
+package me.penguinpistol.facedetectioncamera;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Y 평면에서 얼굴 영역의 선명도(Laplacian 분산), 밝기 분포를 계산 (복사 없이 step 간격으로 샘플링)
+// 결과와 히스토그램은 인스턴스에 보관하므로 한 번에 한 스레드에서만 사용
+public final class FrameQualityKernel {
+
+    public static final int HISTOGRAM_BINS = 256;
+
+    // 자동촬영 최소 조건, 실측으로 보정하기 전의 초기값 (ThresholdTable 완화 시간이 지나면 적용하지 않음)
+    // 선명도: 4px 간격 샘플의 Laplacian 분산 (얼굴 윤곽선 범위 기준)
+    // 밝기: 8bit Y 평균이 약 20% ~ 82%, 노출 부족/과다 픽셀이 각각 1/4 이하
+    // 촬영마다 manifest 에 capture.<방향>.sharpness, meanLuma 를 남기므로 서버 반려 결과와 비교해서 조정
+    public static final float DEFAULT_MIN_SHARPNESS = 50f;
+    public static final float DEFAULT_MIN_MEAN_LUMA = 50f;
+    public static final float DEFAULT_MAX_MEAN_LUMA = 210f;
+    public static final float DEFAULT_MAX_CLIPPED_RATIO = 0.25f;
+
+    // 이 값 이하/이상은 노출 부족/과다 픽셀
+    public static final int DARK_LUMA = 16;
+    public static final int BRIGHT_LUMA = 240;
+
+    private final int step;
+    private final int[] histogram = new int[HISTOGRAM_BINS];
+
+    private int sampleCount;
+    private float sharpness;
+    private float meanLuma;
+    private float darkRatio;
+    private float brightRatio;
+
+    // step: 샘플링 간격 (px)
+    public FrameQualityKernel(int step) {
+        if(step < 1) {
+            throw new IllegalArgumentException("step must be >= 1 : " + step);
+        }
+        this.step = step;
+    }
+
+    // [left, right) x [top, bottom) 버퍼 좌표, 버퍼 범위를 벗어나면 잘라서 사용
+    public void compute(ByteBuffer yPlane, int width, int height, int rowStride, int pixelStride,
+                        int left, int top, int right, int bottom) {
+        Arrays.fill(histogram, 0);
+
+        // Laplacian 계산을 위해 가장자리 1px 제외
+        int x0 = Math.max(1, left);
+        int y0 = Math.max(1, top);
+        int x1 = Math.min(width - 1, right);
+        int y1 = Math.min(height - 1, bottom);
+
+        int base = yPlane.position();
+        int count = 0;
+        long lumaSum = 0;
+        long lapSum = 0;
+        long lapSqSum = 0;
+
+        for(int y = y0; y < y1; y += step) {
+            int row = base + y * rowStride;
+            for(int x = x0; x < x1; x += step) {
+                int index = row + x * pixelStride;
+                int c = yPlane.get(index) & 0xFF;
+                int l = yPlane.get(index - pixelStride) & 0xFF;
+                int r = yPlane.get(index + pixelStride) & 0xFF;
+                int u = yPlane.get(index - rowStride) & 0xFF;
+                int d = yPlane.get(index + rowStride) & 0xFF;
+
+                int lap = 4 * c - l - r - u - d;
+                lapSum += lap;
+                lapSqSum += lap * lap;
+                lumaSum += c;
+                histogram[c]++;
+                count++;
+            }
+        }
+
+        sampleCount = count;
+        if(count == 0) {
+            sharpness = 0;
+            meanLuma = 0;
+            darkRatio = 0;
+            brightRatio = 0;
+            return;
+        }
+
+        double lapMean = (double)lapSum / count;
+        sharpness = (float)((double)lapSqSum / count - lapMean * lapMean);
+        meanLuma = (float)lumaSum / count;
+
+        int dark = 0;
+        for(int i = 0; i <= DARK_LUMA; i++) {
+            dark += histogram[i];
+        }
+        int bright = 0;
+        for(int i = BRIGHT_LUMA; i < HISTOGRAM_BINS; i++) {
+            bright += histogram[i];
+        }
+        darkRatio = (float)dark / count;
+        brightRatio = (float)bright / count;
+    }
+
+    public boolean isSharp(float minSharpness) {
+        return sampleCount > 0 && sharpness >= minSharpness;
+    }
+
+    public boolean isExposed(float minMeanLuma, float maxMeanLuma, float maxClippedRatio) {
+        return sampleCount > 0
+                && meanLuma >= minMeanLuma && meanLuma <= maxMeanLuma
+                && darkRatio <= maxClippedRatio && brightRatio <= maxClippedRatio;
+    }
+
+    // 기본 조건으로 판정
+    public boolean passes() {
+        return isSharp(DEFAULT_MIN_SHARPNESS)
+                && isExposed(DEFAULT_MIN_MEAN_LUMA, DEFAULT_MAX_MEAN_LUMA, DEFAULT_MAX_CLIPPED_RATIO);
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    // Laplacian 분산 (클수록 선명)
+    public float getSharpness() {
+        return sharpness;
+    }
+
+    public float getMeanLuma() {
+        return meanLuma;
+    }
+
+    public float getDarkRatio() {
+        return darkRatio;
+    }
+
+    public float getBrightRatio() {
+        return brightRatio;
+    }
+
+    // 마지막 compute 의 밝기 히스토그램 (재사용 배열)
+    public int[] getHistogram() {
+        return histogram;
+    }
+}
@@ -0,0 +1,164 @@
+package me.penguinpistol.facedetectioncamera;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.Executor;
+
+// 프레임별 검출 결과를 바이너리 파일에 기록 (오프라인 재생용, FrameReplayer 로 읽음)
+// 파일 구조: [헤더][길이 + 프레임]...[0]
+//  헤더: MAGIC, VERSION, 목표영역 left, top, right, bottom
+//  프레임: timestampMs, 방향, flags, 회전, euler x/y/z, 왼쪽/오른쪽 눈, (bounds), 윤곽선 포인트 수, 윤곽선
+// 메모리 매핑으로 이어쓰기만 하고, 비정상 종료 시에는 0 길이에서 읽기가 끝남
+// 디스크 반영(force)은 flushExecutor 에서 실행 (record 를 부르는 검출 콜백 스레드를 막지 않도록)
+public final class FrameRecorder implements Closeable {
+
+    static final int MAGIC = 0x46444652;            // "FDFR"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 4 + 4 + 4 * 4;
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    static final int FLAG_BOUNDS = 1;
+
+    // 고정 길이 부분 (timestamp, 방향, flags, 회전, euler 3, 눈 2, 포인트 수)
+    static final int FIXED_FRAME_BYTES = 8 + 1 + 1 + 2 + 5 * 4 + 2;
+    static final int BOUNDS_BYTES = 4 * 4;
+
+    // 한 번에 매핑하는 크기
+    private static final int MAP_CHUNK_BYTES = 1 << 20;
+
+    private final File file;
+    private final RandomAccessFile raf;
+    private final FileChannel channel;
+    private final Executor flushExecutor;
+    private MappedByteBuffer buffer;
+    private long position;
+    private int frameCount;
+    private boolean isClosed = false;
+
+    // 기존 파일이 있으면 마지막 프레임 뒤에 이어씀 (목표영역이 다르면 IOException)
+    public FrameRecorder(File file, float targetLeft, float targetTop, float targetRight, float targetBottom) throws IOException {
+        this(file, targetLeft, targetTop, targetRight, targetBottom, Runnable::run);
+    }
+
+    public FrameRecorder(File file, float targetLeft, float targetTop, float targetRight, float targetBottom, Executor flushExecutor) throws IOException {
+        this.file = file;
+        this.flushExecutor = flushExecutor;
+        boolean exists = file.length() >= HEADER_BYTES;
+        raf = new RandomAccessFile(file, "rw");
+        channel = raf.getChannel();
+
+        try {
+            if(exists) {
+                ByteBuffer existing = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(BYTE_ORDER);
+                FrameReplayer.Header header = FrameReplayer.readHeader(existing);
+                if(header.targetLeft != targetLeft || header.targetTop != targetTop
+                        || header.targetRight != targetRight || header.targetBottom != targetBottom) {
+                    throw new IOException("target mismatch >> " + file);
+                }
+                frameCount = FrameReplayer.skipFrames(existing);
+                position = existing.position();
+                map(position, 0);
+            } else {
+                map(0, 0);
+                buffer.putInt(MAGIC);
+                buffer.putInt(VERSION);
+                buffer.putFloat(targetLeft);
+                buffer.putFloat(targetTop);
+                buffer.putFloat(targetRight);
+                buffer.putFloat(targetBottom);
+                position = HEADER_BYTES;
+            }
+        } catch (IOException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    // 분석 스레드 또는 검출 콜백 스레드 어디서나 호출 가능
+    public synchronized void record(long timestampMs, int rotationDegrees, FaceChecker.Direction direction, FaceObservation face) throws IOException {
+        if(isClosed) {
+            return;
+        }
+
+        int pointCount = face.getContourPointCount();
+        int length = FIXED_FRAME_BYTES + (face.hasBounds() ? BOUNDS_BYTES : 0) + pointCount * 8;
+        // 길이 + 프레임 + 끝 표시(0)
+        ensureCapacity(4 + length + 4);
+
+        // 길이는 마지막에 기록 (기록 중 종료되면 0 길이로 남음)
+        int start = buffer.position();
+        buffer.position(start + 4);
+        buffer.putLong(timestampMs);
+        buffer.put((byte)direction.ordinal());
+        buffer.put((byte)(face.hasBounds() ? FLAG_BOUNDS : 0));
+        buffer.putShort((short)rotationDegrees);
+        buffer.putFloat(face.getEulerX());
+        buffer.putFloat(face.getEulerY());
+        buffer.putFloat(face.getEulerZ());
+        buffer.putFloat(face.getLeftEyeOpen());
+        buffer.putFloat(face.getRightEyeOpen());
+        if(face.hasBounds()) {
+            float[] bounds = face.getBounds();
+            for(int i = 0; i < 4; i++) {
+                buffer.putFloat(bounds[i]);
+            }
+        }
+        buffer.putShort((short)pointCount);
+        float[] contour = face.getContour();
+        for(int i = 0; i < pointCount * 2; i++) {
+            buffer.putFloat(contour[i]);
+        }
+        buffer.putInt(start, length);
+
+        position += 4 + length;
+        frameCount++;
+    }
+
+    public synchronized int getFrameCount() {
+        return frameCount;
+    }
+
+    // 헤더 포함 기록한 크기
+    public synchronized long getByteCount() {
+        return position;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    // 매핑을 위해 늘린 파일 크기를 기록한 만큼으로 줄임 (디스크 반영을 기다리므로 flushExecutor 에서 호출)
+    @Override
+    public synchronized void close() throws IOException {
+        if(isClosed) {
+            return;
+        }
+        isClosed = true;
+        buffer.force();
+        buffer = null;
+        channel.truncate(position + 4);
+        raf.close();
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+        if(buffer.remaining() < bytes) {
+            map(position, bytes);
+        }
+    }
+
+    private void map(long start, int minBytes) throws IOException {
+        if(buffer != null) {
+            // 다 쓴 구간은 더 이상 건드리지 않으므로 다른 스레드에서 반영
+            MappedByteBuffer written = buffer;
+            flushExecutor.execute(written::force);
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, start, Math.max(MAP_CHUNK_BYTES, minBytes));
+        buffer.order(BYTE_ORDER);
+    }
+}
@@ -0,0 +1,240 @@
+package me.penguinpistol.facedetectioncamera;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+// FrameRecorder 로 기록한 파일을 읽어 카메라 없이 판정 로직(CaptureGate) 을 재생
+// 기록된 타임스탬프와 관계없이 최대 속도로 처리
+public final class FrameReplayer {
+
+    public static final class Header {
+        public final float targetLeft;
+        public final float targetTop;
+        public final float targetRight;
+        public final float targetBottom;
+
+        Header(float targetLeft, float targetTop, float targetRight, float targetBottom) {
+            this.targetLeft = targetLeft;
+            this.targetTop = targetTop;
+            this.targetRight = targetRight;
+            this.targetBottom = targetBottom;
+        }
+    }
+
+    // 재사용하는 프레임 (next 호출마다 덮어씀)
+    public static final class Frame {
+        private long timestampMs;
+        private int rotationDegrees;
+        private FaceChecker.Direction direction;
+        private final FaceObservation face = new FaceObservation();
+
+        public long getTimestampMs() {
+            return timestampMs;
+        }
+
+        public int getRotationDegrees() {
+            return rotationDegrees;
+        }
+
+        public FaceChecker.Direction getDirection() {
+            return direction;
+        }
+
+        public FaceObservation getFace() {
+            return face;
+        }
+    }
+
+    // 자동촬영 판정
+    public static final class Decision {
+        public final int frameIndex;
+        public final long timestampMs;
+        public final FaceChecker.Direction direction;
+        public final boolean isRelaxed;
+
+        Decision(int frameIndex, long timestampMs, FaceChecker.Direction direction, boolean isRelaxed) {
+            this.frameIndex = frameIndex;
+            this.timestampMs = timestampMs;
+            this.direction = direction;
+            this.isRelaxed = isRelaxed;
+        }
+
+        @Override
+        public String toString() {
+            return direction + "@" + frameIndex + "(" + timestampMs + "ms" + (isRelaxed ? ", relaxed" : "") + ")";
+        }
+    }
+
+    public static final class Result {
+        private final int frameCount;
+        private final long elapsedNanos;
+        private final List<Decision> decisions;
+        private final SessionMetrics metrics;
+
+        Result(int frameCount, long elapsedNanos, List<Decision> decisions, SessionMetrics metrics) {
+            this.frameCount = frameCount;
+            this.elapsedNanos = elapsedNanos;
+            this.decisions = Collections.unmodifiableList(decisions);
+            this.metrics = metrics;
+        }
+
+        public int getFrameCount() {
+            return frameCount;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getFramesPerSecond() {
+            return elapsedNanos == 0 ? 0 : frameCount * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        public List<Decision> getDecisions() {
+            return decisions;
+        }
+
+        // FACE_CHECK 구간 지연시간
+        public SessionMetrics getMetrics() {
+            return metrics;
+        }
+
+        public String format() {
+            return String.format(Locale.US, "frames=%d elapsed=%.2fms fps=%.0f decisions=%s",
+                    frameCount, elapsedNanos / 1_000_000.0, getFramesPerSecond(), decisions);
+        }
+    }
+
+    private final ByteBuffer buffer;
+    private final Header header;
+    private final int dataStart;
+
+    public FrameReplayer(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            // 매핑은 파일을 닫아도 유지됨
+            buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length()).order(FrameRecorder.BYTE_ORDER);
+        }
+        header = readHeader(buffer);
+        dataStart = buffer.position();
+    }
+
+    public Header getHeader() {
+        return header;
+    }
+
+    // 다음 프레임을 frame 에 채움, 끝이면 false
+    public boolean next(Frame frame) throws IOException {
+        if(buffer.remaining() < 4) {
+            return false;
+        }
+        int length = buffer.getInt();
+        if(length == 0) {
+            buffer.position(buffer.position() - 4);
+            return false;
+        }
+        if(length < FrameRecorder.FIXED_FRAME_BYTES || length > buffer.remaining()) {
+            throw new IOException("corrupt frame >> length " + length + " at " + (buffer.position() - 4));
+        }
+
+        int end = buffer.position() + length;
+        try {
+            frame.timestampMs = buffer.getLong();
+            frame.direction = FaceChecker.Direction.values()[buffer.get()];
+            int flags = buffer.get();
+            frame.rotationDegrees = buffer.getShort();
+
+            FaceObservation face = frame.face;
+            face.clear();
+            face.set(buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+            if((flags & FrameRecorder.FLAG_BOUNDS) != 0) {
+                face.setBounds(buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+            }
+            int pointCount = buffer.getShort();
+            float[] contour = face.obtainContour(pointCount);
+            for(int i = 0; i < pointCount * 2; i++) {
+                contour[i] = buffer.getFloat();
+            }
+        } catch (BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+            throw new IOException("corrupt frame at " + (end - length - 4), e);
+        }
+
+        if(buffer.position() != end) {
+            throw new IOException("corrupt frame >> length " + length + " at " + (end - length - 4));
+        }
+        return true;
+    }
+
+    public void rewind() {
+        buffer.position(dataStart);
+    }
+
+    // 기록 당시 목표영역과 기본 안정화 조건으로 재생
+    public Result replay(ThresholdTable table) throws IOException {
+        FaceChecker checker = new FaceChecker(header.targetLeft, header.targetTop, header.targetRight, header.targetBottom);
+        return replay(new CaptureGate(checker), table);
+    }
+
+    // 방향이 바뀌는 프레임에서 분석을 다시 시작하고, 판정 이후 같은 방향의 프레임은 무시 (분석기와 동일)
+    public Result replay(CaptureGate gate, ThresholdTable table) throws IOException {
+        rewind();
+        SessionMetrics metrics = new SessionMetrics();
+        List<Decision> decisions = new ArrayList<>();
+        Frame frame = new Frame();
+        FaceChecker.Direction current = null;
+        boolean isDetected = false;
+        int index = 0;
+
+        long startNs = System.nanoTime();
+        for(; next(frame); index++) {
+            if(frame.direction != current) {
+                current = frame.direction;
+                gate.start(current, table);
+                isDetected = false;
+            }
+            if(isDetected) {
+                continue;
+            }
+            if(gate.update(frame.face, frame.timestampMs, metrics)) {
+                isDetected = true;
+                decisions.add(new Decision(index, frame.timestampMs, current, gate.isRelaxed()));
+            }
+        }
+        long elapsedNs = System.nanoTime() - startNs;
+
+        return new Result(index, elapsedNs, decisions, metrics);
+    }
+
+    static Header readHeader(ByteBuffer buffer) throws IOException {
+        if(buffer.remaining() < FrameRecorder.HEADER_BYTES) {
+            throw new IOException("missing header");
+        }
+        int magic = buffer.getInt();
+        int version = buffer.getInt();
+        if(magic != FrameRecorder.MAGIC || version != FrameRecorder.VERSION) {
+            throw new IOException("unsupported file >> magic " + Integer.toHexString(magic) + " version " + version);
+        }
+        return new Header(buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+    }
+
+    // 끝(0 길이 또는 잘린 프레임) 까지 건너뛰고 프레임 수 반환, position 은 끝 위치
+    static int skipFrames(ByteBuffer buffer) {
+        int count = 0;
+        while(buffer.remaining() >= 4) {
+            int length = buffer.getInt(buffer.position());
+            if(length <= 0 || length > buffer.remaining() - 4) {
+                break;
+            }
+            buffer.position(buffer.position() + 4 + length);
+            count++;
+        }
+        return count;
+    }
+}
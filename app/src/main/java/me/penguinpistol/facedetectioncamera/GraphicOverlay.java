@@ -3,29 +3,29 @@ package me.penguinpistol.facedetectioncamera;
 import android.content.Context;
 import android.graphics.Canvas;
 import android.graphics.Color;
+import android.graphics.Matrix;
 import android.graphics.Paint;
 import android.graphics.Path;
-import android.graphics.Point;
-import android.graphics.PointF;
+import android.graphics.Picture;
 import android.graphics.RectF;
 import android.graphics.drawable.Drawable;
+import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.util.Size;
+import android.view.Choreographer;
 import android.view.View;
-import android.view.WindowManager;
 
 import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
 
-import com.google.mlkit.vision.face.FaceContour;
-
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class GraphicOverlay extends View {
     private static final String TAG = GraphicOverlay.class.getSimpleName();
 
-    private final Point displaySize;
+    // 윤곽선이 이 거리(px) 이상 움직였을 때만 다시 그림
+    private static final float REDRAW_THRESHOLD_DP = 1.5f;
 
     private final Paint faceAreaPaint;
     private final Path faceAreaPath;
@@ -34,17 +34,41 @@ public class GraphicOverlay extends View {
     private final RectF targetRectScaled;
 
     private final Drawable targetDrawable;
+    // 목표영역, 디버그 영역처럼 크기나 디버그 설정이 바뀔 때만 달라지는 도형은 Picture 에 기록해두고 재생
+    // (전체 화면 비트맵 대신 그리기 명령만 보관, 기록은 UI 스레드에서)
+    private final Picture staticLayer = new Picture();
+    private volatile boolean isStaticLayerDirty = true;
+
+    // 분석 이미지 좌표 -> 뷰 좌표 (크기가 바뀔 때만 계산, 전면카메라 좌우반전 포함)
+    private ViewportMapper.ScaleType scaleType = ViewportMapper.ScaleType.FILL_CENTER;
+    private ViewportMapper viewportMapper;
+    private final Matrix imageToView;
+    private final float[] matrixValues = new float[9];
+    private final float[] rectValues = new float[4];
+    private final ContourExchange contourExchange;
+    private float[] mappedContour;
+    private int mappedPointCount;
+    private boolean isPathDirty;
+    // 마지막으로 넘긴 윤곽선이 있는지 (윤곽선을 넘기는 스레드에서만 접근)
+    private boolean isContourShown;
+
+    // 다시 그리기 요청은 디스플레이 갱신 주기에 맞춰 한 번으로 합침
+    private final RedrawGate redrawGate;
+    private final Choreographer choreographer;
+    private final Choreographer.FrameCallback redrawCallback;
+    private final AtomicBoolean isFrameScheduled = new AtomicBoolean(false);
+    private final AtomicLong coalescedCount = new AtomicLong();
+    // 윤곽선이 그대로여도 디버그 텍스트는 갱신주기마다 다시 그림
+    private volatile long lastDebugRedrawMs = 0;
 
-    private List<PointF> landmark;
     private Size imageSize;
-    private PointF offset;
-    private float scale;
 
     // 디버그용
     private final Paint debugPaint;
     private final Paint debugTextPaint;
-    private RectF faceBound;
-    private boolean isDebug;
+    private final RectF faceBound;
+    private final float[] faceBoundValues = new float[4];
+    private volatile boolean isDebug;
 
     public GraphicOverlay(Context context) {
         this(context, null, 0);
@@ -57,9 +81,6 @@ public class GraphicOverlay extends View {
     public GraphicOverlay(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
 
-        displaySize = new Point();
-        ((WindowManager)context.getSystemService(Context.WINDOW_SERVICE)).getDefaultDisplay().getSize(displaySize);
-
         float density = context.getResources().getDisplayMetrics().density;
 
         faceAreaPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
@@ -70,6 +91,18 @@ public class GraphicOverlay extends View {
         faceAreaPath = new Path();
         faceBound = new RectF();
 
+        viewportMapper = new ViewportMapper(scaleType, true);
+        imageToView = new Matrix();
+        contourExchange = new ContourExchange(FaceObservation.DEFAULT_CONTOUR_POINTS);
+        mappedContour = new float[FaceObservation.DEFAULT_CONTOUR_POINTS * 2];
+
+        redrawGate = new RedrawGate(REDRAW_THRESHOLD_DP * density, FaceObservation.DEFAULT_CONTOUR_POINTS);
+        choreographer = Choreographer.getInstance();
+        redrawCallback = frameTimeNanos -> {
+            isFrameScheduled.set(false);
+            invalidate();
+        };
+
         targetRectOrigin = new RectF();
         targetRectScaled = new RectF();
 
@@ -95,27 +128,31 @@ public class GraphicOverlay extends View {
         int width = getMeasuredWidth();
         int height = getMeasuredHeight();
 
-        float scaleX = (float)width / imageSize.getWidth();
-        float scaleY = (float)height / imageSize.getHeight();
-        float subScale = scaleY - scaleX;
-
-        // 길이 변화가 더 큰 쪽에 맞춤
-        scale = Math.max(scaleX, scaleY);
+        // init 전이거나 크기가 같으면 그대로 사용
+        if(imageSize == null || width <= 0 || height <= 0
+                || !viewportMapper.configure(width, height, imageSize.getWidth(), imageSize.getHeight(), 0)) {
+            return;
+        }
 
-        // 화면 크기와 뷰 크기가 다른 경우 보정값
-        float xDiff = ((displaySize.x - width) >> 1) * scale;
-        float yDiff = ((displaySize.y - height) >> 1) * scale;
+        viewportMapper.getMatrixValues(matrixValues);
+        imageToView.setValues(matrixValues);
 
-        // scaleX > scaleY
-        if(subScale < 0) {
-            offset.y = ((height - imageSize.getHeight()) >> 1) * subScale + yDiff;
-        } else {
-            offset.x = ((width - imageSize.getHeight()) >> 1) * subScale + xDiff;
-        }
+        viewportMapper.mapRect(targetRectOrigin.left, targetRectOrigin.top, targetRectOrigin.right, targetRectOrigin.bottom, rectValues);
+        targetRectScaled.set(
+                rectValues[ContourUtils.LEFT],
+                rectValues[ContourUtils.TOP],
+                rectValues[ContourUtils.RIGHT],
+                rectValues[ContourUtils.BOTTOM]
+        );
 
-        targetRectScaled.set(0, 0, targetRectOrigin.width() * scale, targetRectOrigin.height() * scale);
-        targetRectScaled.offset((width - targetRectScaled.width()) * 0.5f, (height - targetRectScaled.height()) * 0.5f);
+        // 이미 받은 윤곽선도 새 기준으로 다시 변환
+        isPathDirty = true;
+        isStaticLayerDirty = true;
+        redrawGate.setScale(viewportMapper.getScale());
 
+        if(targetDrawable == null) {
+            return;
+        }
         targetDrawable.setBounds(
                 (int)targetRectScaled.left,
                 (int)targetRectScaled.top,
@@ -128,107 +165,219 @@ public class GraphicOverlay extends View {
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
 
+        // 새 윤곽선이 있을 때만 변환하고 Path 를 다시 만듦 (할당 없음)
+        if(contourExchange.acquire() || isPathDirty) {
+            isPathDirty = false;
+            updateFacePath(contourExchange.getPoints(), contourExchange.getPointCount());
+        }
+
+        if(isStaticLayerDirty) {
+            recordStaticLayer();
+        }
+        canvas.drawPicture(staticLayer);
+
         if(isDebug) {
             drawDebugInfo(canvas);
         }
 
+        if(mappedPointCount > 0) {
+            canvas.drawPath(faceAreaPath, faceAreaPaint);
+        }
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        isStaticLayerDirty = true;
+    }
+
+    // 변하지 않는 도형을 다시 기록 (UI 스레드)
+    private void recordStaticLayer() {
+        isStaticLayerDirty = false;
+        Canvas canvas = staticLayer.beginRecording(Math.max(1, getWidth()), Math.max(1, getHeight()));
+        if(isDebug) {
+            drawStaticDebugInfo(canvas);
+        }
         if(targetDrawable != null) {
             targetDrawable.draw(canvas);
         }
+        staticLayer.endRecording();
+    }
 
-        if(landmark != null) {
-            faceAreaPath.reset();
-            for(int i = 0; i < landmark.size(); i++) {
-                PointF p = landmark.get(i);
-                if(i == 0) {
-                    faceAreaPath.moveTo(p.x, p.y);
-                } else {
-                    faceAreaPath.lineTo(p.x, p.y);
-                }
-            }
-            faceAreaPath.close();
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        choreographer.removeFrameCallback(redrawCallback);
+        isFrameScheduled.set(false);
+    }
 
-            canvas.drawPath(faceAreaPath, faceAreaPaint);
+    private void updateFacePath(float[] points, int pointCount) {
+        if(isDebug) {
+            updateFaceBound(points, pointCount);
+        }
+
+        if(mappedContour.length < pointCount * 2) {
+            mappedContour = new float[pointCount * 2];
+        }
+        imageToView.mapPoints(mappedContour, 0, points, 0, pointCount);
+        mappedPointCount = pointCount;
+
+        faceAreaPath.rewind();
+        if(pointCount == 0) {
+            return;
+        }
+        faceAreaPath.moveTo(mappedContour[0], mappedContour[1]);
+        for(int i = 1; i < pointCount; i++) {
+            faceAreaPath.lineTo(mappedContour[i * 2], mappedContour[i * 2 + 1]);
         }
+        faceAreaPath.close();
     }
 
+    // imageSize: 정방향 분석 이미지 크기, targetRect: 이미지 좌표 기준 목표영역
     public void init(Size imageSize, RectF targetRect) {
         this.imageSize = new Size(imageSize.getWidth(), imageSize.getHeight());
         this.targetRectOrigin.set(targetRect);
-        this.offset = new PointF();
+        // 크기가 같아도 목표영역이 바뀔 수 있으므로 새로 계산
+        viewportMapper = new ViewportMapper(scaleType, true);
         requestLayout();
     }
 
-    public void setFaceContour(FaceContour contour) {
-        List<PointF> points = contour.getPoints();
-        faceBound = getFaceRect(points);
+    // 카메라 미리보기(PreviewView) 와 같은 배치로 맞춤
+    public void setScaleType(ViewportMapper.ScaleType type) {
+        scaleType = type;
+        viewportMapper = new ViewportMapper(scaleType, true);
+        requestLayout();
+    }
+
+    // points: x, y 순서로 packed 된 FACE 윤곽선 (분석 이미지 좌표)
+    // 어느 스레드에서나 호출 가능 (좌표 변환은 그릴 때 UI 스레드에서)
+    public void setFaceContour(float[] points, int pointCount) {
+        if(!redrawGate.shouldRedraw(points, pointCount)) {
+            if(isDebug && debugInfo != null) {
+                long now = SystemClock.uptimeMillis();
+                if(now - lastDebugRedrawMs >= FaceCheckDebugInfo.DEFAULT_FORMAT_INTERVAL_MS) {
+                    lastDebugRedrawMs = now;
+                    scheduleRedraw();
+                }
+            }
+            return;
+        }
+        contourExchange.publish(points, pointCount);
+        isContourShown = pointCount > 0;
+        scheduleRedraw();
+    }
+
+    // 얼굴이 화면을 벗어난 경우 마지막 윤곽선을 지움 (setFaceContour 와 같은 스레드에서 호출)
+    public void clearFaceContour() {
+        if(!isContourShown) {
+            return;
+        }
+        isContourShown = false;
+        // 다시 나타나면 움직임과 관계없이 바로 그림
+        redrawGate.forceNext();
+        contourExchange.publishEmpty();
+        scheduleRedraw();
+    }
 
-        landmark = new ArrayList<>();
-        for (PointF p : points) {
-            // 전면카메라의 경우 좌우반전
-            p.offset(offset.x, offset.y);
-            p.set(getMeasuredWidth() - (p.x * scale), p.y * scale);
-            landmark.add(p);
+    private void scheduleRedraw() {
+        if(isFrameScheduled.compareAndSet(false, true)) {
+            choreographer.postFrameCallback(redrawCallback);
+        } else {
+            coalescedCount.incrementAndGet();
         }
+    }
+
+    // 다시 그리기로 한 윤곽선 수
+    public long getRedrawCount() {
+        return redrawGate.getRedrawCount();
+    }
 
-        invalidate();
+    // 움직임이 작아서 건너뛴 윤곽선 수
+    public long getSkippedRedrawCount() {
+        return redrawGate.getSkippedCount();
+    }
+
+    // 같은 화면 갱신 주기 안에 들어와서 한 번으로 합친 윤곽선 수
+    public long getCoalescedRedrawCount() {
+        return coalescedCount.get();
     }
 
     //===============================================================================
     // 디버깅 관련
     //===============================================================================
 
-    private RectF getFaceRect(List<PointF> landmarks) {
-        return new RectF(
-                (float)landmarks.stream().mapToDouble(x -> x.x).max().orElse(0),
-                (float)landmarks.stream().mapToDouble(x -> x.y).min().orElse(0),
-                (float)landmarks.stream().mapToDouble(x -> x.x).min().orElse(0),
-                (float)landmarks.stream().mapToDouble(x -> x.y).max().orElse(0)
+    private void updateFaceBound(float[] points, int pointCount) {
+        ContourUtils.computeBounds(points, pointCount, faceBoundValues);
+
+        // 좌우반전 기준이므로 left/right 를 바꿔서 저장
+        faceBound.set(
+                faceBoundValues[ContourUtils.RIGHT],
+                faceBoundValues[ContourUtils.TOP],
+                faceBoundValues[ContourUtils.LEFT],
+                faceBoundValues[ContourUtils.BOTTOM]
         );
     }
 
-    private String debugText = "";
+    private volatile FaceCheckDebugInfo debugInfo;
 
+    // 어느 스레드에서나 호출 가능
     public void setDebug(boolean debug) {
         isDebug = debug;
+        isStaticLayerDirty = true;
+        redrawGate.forceNext();
+        postInvalidate();
     }
 
-    public void setDebugText(String text) {
-        debugText = text;
+    public void setDebugInfo(@Nullable FaceCheckDebugInfo info) {
+        debugInfo = info;
     }
 
-    private void drawDebugInfo(Canvas canvas) {
+    // 변하지 않는 디버그 영역
+    private void drawStaticDebugInfo(Canvas canvas) {
+        if(imageSize == null) {
+            return;
+        }
         float textSize = debugTextPaint.getTextSize() + 10;
-        int line = 1;
 
         // 실제 계산 영역 출력
         debugPaint.setColor(Color.BLACK);
         debugTextPaint.setColor(debugPaint.getColor());
-        canvas.drawText("*Analyzer Area", 10, textSize * line++, debugTextPaint);
+        canvas.drawText("*Analyzer Area", 10, textSize * 1, debugTextPaint);
         canvas.drawRect(0, 0, imageSize.getWidth(), imageSize.getHeight(), debugPaint);
 
-        // 계산 얼굴 영역(좌우반전 x) 출력
-        debugPaint.setColor(Color.MAGENTA);
-        debugTextPaint.setColor(debugPaint.getColor());
-        canvas.drawText("*Face Area Origin : " + faceBound.width(), 10, textSize * line++, debugTextPaint);
-        canvas.drawRect(faceBound, debugPaint);
-
         // 계산 목표 영역 출력
         debugPaint.setColor(Color.GREEN);
         debugTextPaint.setColor(debugPaint.getColor());
-        canvas.drawText("*Target Origin : " + targetRectOrigin.width(), 10, textSize * line++, debugTextPaint);
+        canvas.drawText("*Target Origin", 10, textSize * 3, debugTextPaint);
         canvas.drawRect(targetRectOrigin, debugPaint);
 
         // 그려지는 목표 영역 출력
         debugPaint.setColor(Color.BLUE);
         debugTextPaint.setColor(debugPaint.getColor());
-        canvas.drawText("*Target", 10, textSize * line++, debugTextPaint);
+        canvas.drawText("*Target", 10, textSize * 4, debugTextPaint);
         canvas.drawRect(targetRectScaled, debugPaint);
+    }
 
-        // 디버그 텍스트 출력
-        debugTextPaint.setColor(Color.RED);
-        for(String s : debugText.split("\n")) {
-            canvas.drawText(s, 10, textSize * line++, debugTextPaint);
+    private void drawDebugInfo(Canvas canvas) {
+        float textSize = debugTextPaint.getTextSize() + 10;
+        int line = 5;
+
+        // 계산 얼굴 영역(좌우반전 x) 출력
+        debugPaint.setColor(Color.MAGENTA);
+        debugTextPaint.setColor(debugPaint.getColor());
+        canvas.drawText("*Face Area Origin", 10, textSize * 2, debugTextPaint);
+        canvas.drawRect(faceBound, debugPaint);
+
+        // 디버그 텍스트 출력 (값이 바뀐 경우에만 최대 5Hz 로 다시 만듦)
+        FaceCheckDebugInfo info = debugInfo;
+        if(info != null) {
+            info.format(SystemClock.uptimeMillis());
+
+            debugTextPaint.setColor(Color.RED);
+            char[] chars = info.getChars();
+            for(int i = 0; i < info.getLineCount(); i++) {
+                canvas.drawText(chars, info.getLineStart(i), info.getLineLength(i), 10, textSize * line++, debugTextPaint);
+            }
         }
     }
 }
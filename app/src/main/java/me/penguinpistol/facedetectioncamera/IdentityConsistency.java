@@ -0,0 +1,127 @@
+package me.penguinpistol.facedetectioncamera;
+
+import java.util.Arrays;
+
+// 방향별 FaceSignature 를 모아서 새 촬영이 이전 촬영들과 같은 얼굴형인지 바로 판정
+// 받아들인 방향의 특징값만 보관 (Direction.ordinal() 위치의 고정 배열), 다른 방향 절반 이상과 멀면 반려
+// 메인 스레드에서만 접근
+public class IdentityConsistency {
+
+    // 다른 사람을 놓치더라도 같은 사람을 반려하지 않도록 넉넉하게 잡은 값
+    // 합성 윤곽선 기준 같은 얼굴 45도 회전이 0.03 정도, 타원/사각 얼굴형 차이가 0.17 정도 (FaceSignatureTest)
+    public static final float DEFAULT_MAX_DISTANCE = 0.15f;
+
+    private static final int DIRECTION_COUNT = FaceChecker.Direction.values().length;
+
+    private final float maxDistance;
+    private final float[] signatures = new float[DIRECTION_COUNT * FaceSignature.SIZE];
+    private final boolean[] hasSignature = new boolean[DIRECTION_COUNT];
+    private int count = 0;
+
+    // 마지막 check 결과 (다른 방향과의 평균 거리, 비교한 방향 수, 멀다고 판정한 방향 수)
+    private float lastMeanDistance = 0;
+    private int lastComparedCount = 0;
+    private int lastMismatchCount = 0;
+
+    public IdentityConsistency() {
+        this(DEFAULT_MAX_DISTANCE);
+    }
+
+    public IdentityConsistency(float maxDistance) {
+        if(maxDistance <= 0) {
+            throw new IllegalArgumentException("maxDistance must be > 0 : " + maxDistance);
+        }
+        this.maxDistance = maxDistance;
+    }
+
+    // 일치하면 보관하고 true, 아니면 보관하지 않고 false (이미 있던 방향은 교체)
+    public boolean add(FaceChecker.Direction dir, float[] signature) {
+        if(!check(dir, signature)) {
+            return false;
+        }
+        put(dir, signature);
+        return true;
+    }
+
+    // 자기 방향을 제외한 보관 중인 방향과 비교 (보관하지 않음), 비교할 방향이 없으면 true
+    public boolean check(FaceChecker.Direction dir, float[] signature) {
+        int compared = 0;
+        int mismatch = 0;
+        float sum = 0;
+        for(int i = 0; i < DIRECTION_COUNT; i++) {
+            if(!hasSignature[i] || i == dir.ordinal()) {
+                continue;
+            }
+            float distance = FaceSignature.distance(signature, 0, signatures, i * FaceSignature.SIZE);
+            sum += distance;
+            compared++;
+            if(distance > maxDistance) {
+                mismatch++;
+            }
+        }
+        lastMeanDistance = compared == 0 ? 0 : sum / compared;
+        lastComparedCount = compared;
+        lastMismatchCount = mismatch;
+        return mismatch * 2 < compared || compared == 0;
+    }
+
+    // 비교 없이 보관 (복원)
+    public void put(FaceChecker.Direction dir, float[] signature) {
+        int index = dir.ordinal();
+        System.arraycopy(signature, 0, signatures, index * FaceSignature.SIZE, FaceSignature.SIZE);
+        if(!hasSignature[index]) {
+            hasSignature[index] = true;
+            count++;
+        }
+    }
+
+    // 보관 중인 특징값 복사본 (없으면 null)
+    public float[] get(FaceChecker.Direction dir) {
+        int index = dir.ordinal();
+        if(!hasSignature[index]) {
+            return null;
+        }
+        return Arrays.copyOfRange(signatures, index * FaceSignature.SIZE, (index + 1) * FaceSignature.SIZE);
+    }
+
+    public boolean contains(FaceChecker.Direction dir) {
+        return hasSignature[dir.ordinal()];
+    }
+
+    // 촬영 실패 등으로 방향을 다시 촬영할 때
+    public void remove(FaceChecker.Direction dir) {
+        int index = dir.ordinal();
+        if(hasSignature[index]) {
+            hasSignature[index] = false;
+            count--;
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(hasSignature, false);
+        count = 0;
+        lastMeanDistance = 0;
+        lastComparedCount = 0;
+        lastMismatchCount = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public float getMaxDistance() {
+        return maxDistance;
+    }
+
+    public float getLastMeanDistance() {
+        return lastMeanDistance;
+    }
+
+    public int getLastComparedCount() {
+        return lastComparedCount;
+    }
+
+    public int getLastMismatchCount() {
+        return lastMismatchCount;
+    }
+}
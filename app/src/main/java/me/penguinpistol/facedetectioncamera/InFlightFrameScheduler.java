@@ -0,0 +1,171 @@
+package me.penguinpistol.facedetectioncamera;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// 동시에 검출 중인 프레임 수 제한
+// 제한을 넘는 프레임은 정책에 따라 버리고, 버린 프레임도 반드시 release 함
+// 완료 콜백(검출 결과 스레드) 에서 꺼낸 대기 프레임은 dispatchExecutor 에서 처리 시작
+public class InFlightFrameScheduler<T> {
+
+    public static final int MIN_DEPTH = 1;
+    public static final int MAX_DEPTH = 2;
+
+    public enum DropPolicy {
+        DROP_NEWEST,        // 처리 중이면 새 프레임을 바로 버림
+        KEEP_LATEST,        // 가장 최근 프레임 1개를 대기시켰다가 슬롯이 비면 처리
+    }
+
+    public interface FrameProcessor<T> {
+        // 처리가 끝나면 onComplete(sequence) 를 반드시 호출해야 함
+        void process(T frame, long sequence);
+
+        // 처리하지 않고 버리는 프레임 (ImageProxy.close 등)
+        void release(T frame);
+    }
+
+    private final int maxInFlight;
+    private final DropPolicy policy;
+    private final FrameProcessor<T> processor;
+    private final Executor dispatchExecutor;
+    private final Runnable drainTask = this::drainPending;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicReference<T> pending = new AtomicReference<>();
+    private final AtomicLong nextSequence = new AtomicLong();
+    private final AtomicLong lastResultSequence = new AtomicLong(-1);
+
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong processedCount = new AtomicLong();
+    private final AtomicLong staleCount = new AtomicLong();
+
+    // 대기 프레임을 완료 콜백을 호출한 스레드에서 바로 처리
+    public InFlightFrameScheduler(int maxInFlight, DropPolicy policy, FrameProcessor<T> processor) {
+        this(maxInFlight, policy, processor, Runnable::run);
+    }
+
+    // dispatchExecutor: 분석 스레드 (완료 콜백이 메인 스레드이면 다음 검출을 메인 스레드에서 시작하지 않도록)
+    public InFlightFrameScheduler(int maxInFlight, DropPolicy policy, FrameProcessor<T> processor, Executor dispatchExecutor) {
+        if(maxInFlight < MIN_DEPTH || maxInFlight > MAX_DEPTH) {
+            throw new IllegalArgumentException("maxInFlight must be in [" + MIN_DEPTH + ", " + MAX_DEPTH + "] : " + maxInFlight);
+        }
+        this.maxInFlight = maxInFlight;
+        this.policy = policy;
+        this.processor = processor;
+        this.dispatchExecutor = dispatchExecutor;
+    }
+
+    // 분석 스레드에서 호출
+    public void submit(T frame) {
+        if(tryAcquireSlot()) {
+            dispatch(frame);
+            return;
+        }
+
+        if(policy == DropPolicy.DROP_NEWEST) {
+            drop(frame);
+            return;
+        }
+
+        T old = pending.getAndSet(frame);
+        if(old != null) {
+            drop(old);
+        }
+        // 대기시키는 사이에 슬롯이 비었을 수 있음
+        drainPending();
+    }
+
+    // 처리하지 않고 버림
+    public void drop(T frame) {
+        droppedCount.incrementAndGet();
+        processor.release(frame);
+    }
+
+    // 결과 도착 시 호출, 이미 더 최근 프레임 결과가 전달된 경우(stale) false
+    public boolean onResult(long sequence) {
+        while(true) {
+            long last = lastResultSequence.get();
+            if(sequence <= last) {
+                staleCount.incrementAndGet();
+                return false;
+            }
+            if(lastResultSequence.compareAndSet(last, sequence)) {
+                return true;
+            }
+        }
+    }
+
+    // 프레임 처리 완료 (성공/실패 무관하게 1회)
+    public void onComplete(long sequence) {
+        processedCount.incrementAndGet();
+        inFlight.decrementAndGet();
+        if(pending.get() == null) {
+            return;
+        }
+        try {
+            dispatchExecutor.execute(drainTask);
+        } catch (RejectedExecutionException e) {
+            // 분석 스레드 종료 후
+            clearPending();
+        }
+    }
+
+    // 대기 중인 프레임 버림 (분석 중단 시)
+    public void clearPending() {
+        T old = pending.getAndSet(null);
+        if(old != null) {
+            drop(old);
+        }
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public int getInFlightCount() {
+        return inFlight.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getProcessedCount() {
+        return processedCount.get();
+    }
+
+    public long getStaleCount() {
+        return staleCount.get();
+    }
+
+    private void drainPending() {
+        while(pending.get() != null && tryAcquireSlot()) {
+            T frame = pending.getAndSet(null);
+            if(frame == null) {
+                // 다른 스레드가 먼저 가져감
+                inFlight.decrementAndGet();
+                continue;
+            }
+            dispatch(frame);
+        }
+    }
+
+    private boolean tryAcquireSlot() {
+        while(true) {
+            int current = inFlight.get();
+            if(current >= maxInFlight) {
+                return false;
+            }
+            if(inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void dispatch(T frame) {
+        processor.process(frame, nextSequence.getAndIncrement());
+    }
+}
@@ -0,0 +1,449 @@
+package me.penguinpistol.facedetectioncamera;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+// NV21 -> baseline JPEG (YCbCr 4:2:0, 표준 Huffman 테이블, android 비의존)
+// 작업 버퍼를 인스턴스에 보관하므로 한 번에 한 스레드에서만 사용
+public final class JpegEncoder {
+
+    private static final int[] ZIGZAG = {
+            0, 1, 8, 16, 9, 2, 3, 10,
+            17, 24, 32, 25, 18, 11, 4, 5,
+            12, 19, 26, 33, 40, 48, 41, 34,
+            27, 20, 13, 6, 7, 14, 21, 28,
+            35, 42, 49, 56, 57, 50, 43, 36,
+            29, 22, 15, 23, 30, 37, 44, 51,
+            58, 59, 52, 45, 38, 31, 39, 46,
+            53, 60, 61, 54, 47, 55, 62, 63,
+    };
+
+    // ITU T.81 Annex K 기본 양자화 테이블 (자연 순서)
+    private static final int[] LUMA_QUANT = {
+            16, 11, 10, 16, 24, 40, 51, 61,
+            12, 12, 14, 19, 26, 58, 60, 55,
+            14, 13, 16, 24, 40, 57, 69, 56,
+            14, 17, 22, 29, 51, 87, 80, 62,
+            18, 22, 37, 56, 68, 109, 103, 77,
+            24, 35, 55, 64, 81, 104, 113, 92,
+            49, 64, 78, 87, 103, 121, 120, 101,
+            72, 92, 95, 98, 112, 100, 103, 99,
+    };
+    private static final int[] CHROMA_QUANT = {
+            17, 18, 24, 47, 99, 99, 99, 99,
+            18, 21, 26, 66, 99, 99, 99, 99,
+            24, 26, 56, 99, 99, 99, 99, 99,
+            47, 66, 99, 99, 99, 99, 99, 99,
+            99, 99, 99, 99, 99, 99, 99, 99,
+            99, 99, 99, 99, 99, 99, 99, 99,
+            99, 99, 99, 99, 99, 99, 99, 99,
+            99, 99, 99, 99, 99, 99, 99, 99,
+    };
+
+    // Annex K 기본 Huffman 테이블 (길이별 코드 수, 심볼)
+    private static final int[] DC_LUMA_BITS = {0, 1, 5, 1, 1, 1, 1, 1, 1, 0, 0, 0, 0, 0, 0, 0};
+    private static final int[] DC_CHROMA_BITS = {0, 3, 1, 1, 1, 1, 1, 1, 1, 1, 1, 0, 0, 0, 0, 0};
+    private static final int[] DC_VALUES = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11};
+    private static final int[] AC_LUMA_BITS = {0, 2, 1, 3, 3, 2, 4, 3, 5, 5, 4, 4, 0, 0, 1, 0x7d};
+    private static final int[] AC_LUMA_VALUES = {
+            0x01, 0x02, 0x03, 0x00, 0x04, 0x11, 0x05, 0x12, 0x21, 0x31, 0x41, 0x06, 0x13, 0x51, 0x61, 0x07,
+            0x22, 0x71, 0x14, 0x32, 0x81, 0x91, 0xa1, 0x08, 0x23, 0x42, 0xb1, 0xc1, 0x15, 0x52, 0xd1, 0xf0,
+            0x24, 0x33, 0x62, 0x72, 0x82, 0x09, 0x0a, 0x16, 0x17, 0x18, 0x19, 0x1a, 0x25, 0x26, 0x27, 0x28,
+            0x29, 0x2a, 0x34, 0x35, 0x36, 0x37, 0x38, 0x39, 0x3a, 0x43, 0x44, 0x45, 0x46, 0x47, 0x48, 0x49,
+            0x4a, 0x53, 0x54, 0x55, 0x56, 0x57, 0x58, 0x59, 0x5a, 0x63, 0x64, 0x65, 0x66, 0x67, 0x68, 0x69,
+            0x6a, 0x73, 0x74, 0x75, 0x76, 0x77, 0x78, 0x79, 0x7a, 0x83, 0x84, 0x85, 0x86, 0x87, 0x88, 0x89,
+            0x8a, 0x92, 0x93, 0x94, 0x95, 0x96, 0x97, 0x98, 0x99, 0x9a, 0xa2, 0xa3, 0xa4, 0xa5, 0xa6, 0xa7,
+            0xa8, 0xa9, 0xaa, 0xb2, 0xb3, 0xb4, 0xb5, 0xb6, 0xb7, 0xb8, 0xb9, 0xba, 0xc2, 0xc3, 0xc4, 0xc5,
+            0xc6, 0xc7, 0xc8, 0xc9, 0xca, 0xd2, 0xd3, 0xd4, 0xd5, 0xd6, 0xd7, 0xd8, 0xd9, 0xda, 0xe1, 0xe2,
+            0xe3, 0xe4, 0xe5, 0xe6, 0xe7, 0xe8, 0xe9, 0xea, 0xf1, 0xf2, 0xf3, 0xf4, 0xf5, 0xf6, 0xf7, 0xf8,
+            0xf9, 0xfa,
+    };
+    private static final int[] AC_CHROMA_BITS = {0, 2, 1, 2, 4, 4, 3, 4, 7, 5, 4, 4, 0, 1, 2, 0x77};
+    private static final int[] AC_CHROMA_VALUES = {
+            0x00, 0x01, 0x02, 0x03, 0x11, 0x04, 0x05, 0x21, 0x31, 0x06, 0x12, 0x41, 0x51, 0x07, 0x61, 0x71,
+            0x13, 0x22, 0x32, 0x81, 0x08, 0x14, 0x42, 0x91, 0xa1, 0xb1, 0xc1, 0x09, 0x23, 0x33, 0x52, 0xf0,
+            0x15, 0x62, 0x72, 0xd1, 0x0a, 0x16, 0x24, 0x34, 0xe1, 0x25, 0xf1, 0x17, 0x18, 0x19, 0x1a, 0x26,
+            0x27, 0x28, 0x29, 0x2a, 0x35, 0x36, 0x37, 0x38, 0x39, 0x3a, 0x43, 0x44, 0x45, 0x46, 0x47, 0x48,
+            0x49, 0x4a, 0x53, 0x54, 0x55, 0x56, 0x57, 0x58, 0x59, 0x5a, 0x63, 0x64, 0x65, 0x66, 0x67, 0x68,
+            0x69, 0x6a, 0x73, 0x74, 0x75, 0x76, 0x77, 0x78, 0x79, 0x7a, 0x82, 0x83, 0x84, 0x85, 0x86, 0x87,
+            0x88, 0x89, 0x8a, 0x92, 0x93, 0x94, 0x95, 0x96, 0x97, 0x98, 0x99, 0x9a, 0xa2, 0xa3, 0xa4, 0xa5,
+            0xa6, 0xa7, 0xa8, 0xa9, 0xaa, 0xb2, 0xb3, 0xb4, 0xb5, 0xb6, 0xb7, 0xb8, 0xb9, 0xba, 0xc2, 0xc3,
+            0xc4, 0xc5, 0xc6, 0xc7, 0xc8, 0xc9, 0xca, 0xd2, 0xd3, 0xd4, 0xd5, 0xd6, 0xd7, 0xd8, 0xd9, 0xda,
+            0xe2, 0xe3, 0xe4, 0xe5, 0xe6, 0xe7, 0xe8, 0xe9, 0xea, 0xf2, 0xf3, 0xf4, 0xf5, 0xf6, 0xf7, 0xf8,
+            0xf9, 0xfa,
+    };
+
+    // AAN DCT 출력 배율
+    private static final double[] AAN_SCALE = {
+            1.0, 1.387039845, 1.306562965, 1.175875602, 1.0, 0.785694958, 0.541196100, 0.275899379,
+    };
+
+    private static final int OUTPUT_BUFFER_BYTES = 8 * 1024;
+
+    // 심볼 -> (코드, 길이), 모든 인스턴스가 공유
+    private static final HuffmanTable DC_LUMA = new HuffmanTable(DC_LUMA_BITS, DC_VALUES);
+    private static final HuffmanTable DC_CHROMA = new HuffmanTable(DC_CHROMA_BITS, DC_VALUES);
+    private static final HuffmanTable AC_LUMA = new HuffmanTable(AC_LUMA_BITS, AC_LUMA_VALUES);
+    private static final HuffmanTable AC_CHROMA = new HuffmanTable(AC_CHROMA_BITS, AC_CHROMA_VALUES);
+
+    private static final class HuffmanTable {
+        final int[] bits;
+        final int[] values;
+        final int[] codes = new int[256];
+        final int[] sizes = new int[256];
+
+        HuffmanTable(int[] bits, int[] values) {
+            this.bits = bits;
+            this.values = values;
+            int code = 0;
+            int k = 0;
+            for(int length = 1; length <= 16; length++) {
+                for(int i = 0; i < bits[length - 1]; i++) {
+                    codes[values[k]] = code;
+                    sizes[values[k]] = length;
+                    code++;
+                    k++;
+                }
+                code <<= 1;
+            }
+        }
+    }
+
+    private final int quality;
+    // 품질 적용한 양자화 테이블 (자연 순서), DCT 배율을 포함한 역수
+    private final int[] lumaQuant = new int[64];
+    private final int[] chromaQuant = new int[64];
+    private final float[] lumaDivisors = new float[64];
+    private final float[] chromaDivisors = new float[64];
+
+    // 작업 버퍼 (재사용)
+    private final float[] block = new float[64];
+    private final int[] quantized = new int[64];
+    private final byte[] output = new byte[OUTPUT_BUFFER_BYTES];
+    private int outputLength;
+    private OutputStream out;
+    private int bitBuffer;
+    private int bitCount;
+
+    // quality: 1 ~ 100 (IJG 배율)
+    public JpegEncoder(int quality) {
+        if(quality < 1 || quality > 100) {
+            throw new IllegalArgumentException("quality must be 1 ~ 100 : " + quality);
+        }
+        this.quality = quality;
+
+        int scale = quality < 50 ? 5000 / quality : 200 - quality * 2;
+        for(int i = 0; i < 64; i++) {
+            lumaQuant[i] = clampQuant((LUMA_QUANT[i] * scale + 50) / 100);
+            chromaQuant[i] = clampQuant((CHROMA_QUANT[i] * scale + 50) / 100);
+
+            double aan = AAN_SCALE[i / 8] * AAN_SCALE[i % 8] * 8;
+            lumaDivisors[i] = (float)(1.0 / (lumaQuant[i] * aan));
+            chromaDivisors[i] = (float)(1.0 / (chromaQuant[i] * aan));
+        }
+    }
+
+    public int getQuality() {
+        return quality;
+    }
+
+    // width x height NV21 (가로, 세로는 짝수), 16 배수가 아니면 가장자리 픽셀을 반복해서 채움
+    public void encodeNv21(byte[] nv21, int width, int height, OutputStream out) throws IOException {
+        if(width <= 0 || height <= 0 || (width & 1) != 0 || (height & 1) != 0 || width > 0xFFFF || height > 0xFFFF) {
+            throw new IllegalArgumentException("invalid size : " + width + "x" + height);
+        }
+        if(nv21.length < YuvConverter.nv21Size(width, height)) {
+            throw new IllegalArgumentException("nv21 too small : " + nv21.length + " < " + YuvConverter.nv21Size(width, height));
+        }
+
+        this.out = out;
+        outputLength = 0;
+        bitBuffer = 0;
+        bitCount = 0;
+        try {
+            writeHeaders(width, height);
+
+            int chromaOffset = width * height;
+            int chromaWidth = width / 2;
+            int chromaHeight = height / 2;
+            int dcY = 0;
+            int dcCb = 0;
+            int dcCr = 0;
+            for(int mcuY = 0; mcuY < height; mcuY += 16) {
+                for(int mcuX = 0; mcuX < width; mcuX += 16) {
+                    dcY = encodeBlock(loadLuma(nv21, width, height, mcuX, mcuY), lumaDivisors, dcY, DC_LUMA, AC_LUMA);
+                    dcY = encodeBlock(loadLuma(nv21, width, height, mcuX + 8, mcuY), lumaDivisors, dcY, DC_LUMA, AC_LUMA);
+                    dcY = encodeBlock(loadLuma(nv21, width, height, mcuX, mcuY + 8), lumaDivisors, dcY, DC_LUMA, AC_LUMA);
+                    dcY = encodeBlock(loadLuma(nv21, width, height, mcuX + 8, mcuY + 8), lumaDivisors, dcY, DC_LUMA, AC_LUMA);
+
+                    // NV21 색차는 V, U 순서
+                    dcCb = encodeBlock(loadChroma(nv21, chromaOffset + 1, chromaWidth, chromaHeight, mcuX / 2, mcuY / 2), chromaDivisors, dcCb, DC_CHROMA, AC_CHROMA);
+                    dcCr = encodeBlock(loadChroma(nv21, chromaOffset, chromaWidth, chromaHeight, mcuX / 2, mcuY / 2), chromaDivisors, dcCr, DC_CHROMA, AC_CHROMA);
+                }
+            }
+
+            flushBits();
+            writeMarker(0xD9);
+            flushOutput();
+        } finally {
+            this.out = null;
+        }
+    }
+
+    private float[] loadLuma(byte[] nv21, int width, int height, int left, int top) {
+        for(int y = 0; y < 8; y++) {
+            int row = Math.min(top + y, height - 1) * width;
+            for(int x = 0; x < 8; x++) {
+                block[y * 8 + x] = (nv21[row + Math.min(left + x, width - 1)] & 0xFF) - 128;
+            }
+        }
+        return block;
+    }
+
+    // offset: 첫 V (또는 U) 위치, 한 칸씩 건너뜀
+    private float[] loadChroma(byte[] nv21, int offset, int chromaWidth, int chromaHeight, int left, int top) {
+        for(int y = 0; y < 8; y++) {
+            int row = offset + Math.min(top + y, chromaHeight - 1) * chromaWidth * 2;
+            for(int x = 0; x < 8; x++) {
+                block[y * 8 + x] = (nv21[row + Math.min(left + x, chromaWidth - 1) * 2] & 0xFF) - 128;
+            }
+        }
+        return block;
+    }
+
+    // DCT -> 양자화 -> Huffman, 다음 블록 예측용 DC 반환
+    private int encodeBlock(float[] data, float[] divisors, int previousDc, HuffmanTable dcTable, HuffmanTable acTable) throws IOException {
+        forwardDct(data);
+        for(int i = 0; i < 64; i++) {
+            quantized[i] = Math.round(data[i] * divisors[i]);
+        }
+
+        int dc = quantized[0];
+        int diff = dc - previousDc;
+        int category = category(diff);
+        writeBits(dcTable.codes[category], dcTable.sizes[category]);
+        if(category > 0) {
+            writeBits(diff < 0 ? diff - 1 : diff, category);
+        }
+
+        int zeroRun = 0;
+        for(int k = 1; k < 64; k++) {
+            int value = quantized[ZIGZAG[k]];
+            if(value == 0) {
+                zeroRun++;
+                continue;
+            }
+            while(zeroRun > 15) {
+                // ZRL
+                writeBits(acTable.codes[0xF0], acTable.sizes[0xF0]);
+                zeroRun -= 16;
+            }
+            int size = category(value);
+            int symbol = (zeroRun << 4) | size;
+            writeBits(acTable.codes[symbol], acTable.sizes[symbol]);
+            writeBits(value < 0 ? value - 1 : value, size);
+            zeroRun = 0;
+        }
+        if(zeroRun > 0) {
+            // EOB
+            writeBits(acTable.codes[0x00], acTable.sizes[0x00]);
+        }
+        return dc;
+    }
+
+    // AAN float DCT (IJG jfdctflt), 출력에 AAN_SCALE 배율이 남아 있음
+    private static void forwardDct(float[] d) {
+        for(int pass = 0; pass < 2; pass++) {
+            // 0: 행, 1: 열
+            int step = pass == 0 ? 1 : 8;
+            int next = pass == 0 ? 8 : 1;
+            for(int line = 0; line < 8; line++) {
+                int p = line * next;
+                float d0 = d[p];
+                float d1 = d[p + step];
+                float d2 = d[p + step * 2];
+                float d3 = d[p + step * 3];
+                float d4 = d[p + step * 4];
+                float d5 = d[p + step * 5];
+                float d6 = d[p + step * 6];
+                float d7 = d[p + step * 7];
+
+                float tmp0 = d0 + d7;
+                float tmp7 = d0 - d7;
+                float tmp1 = d1 + d6;
+                float tmp6 = d1 - d6;
+                float tmp2 = d2 + d5;
+                float tmp5 = d2 - d5;
+                float tmp3 = d3 + d4;
+                float tmp4 = d3 - d4;
+
+                // 짝수
+                float tmp10 = tmp0 + tmp3;
+                float tmp13 = tmp0 - tmp3;
+                float tmp11 = tmp1 + tmp2;
+                float tmp12 = tmp1 - tmp2;
+
+                d[p] = tmp10 + tmp11;
+                d[p + step * 4] = tmp10 - tmp11;
+
+                float z1 = (tmp12 + tmp13) * 0.707106781f;
+                d[p + step * 2] = tmp13 + z1;
+                d[p + step * 6] = tmp13 - z1;
+
+                // 홀수
+                tmp10 = tmp4 + tmp5;
+                tmp11 = tmp5 + tmp6;
+                tmp12 = tmp6 + tmp7;
+
+                float z5 = (tmp10 - tmp12) * 0.382683433f;
+                float z2 = 0.541196100f * tmp10 + z5;
+                float z4 = 1.306562965f * tmp12 + z5;
+                float z3 = tmp11 * 0.707106781f;
+
+                float z11 = tmp7 + z3;
+                float z13 = tmp7 - z3;
+
+                d[p + step * 5] = z13 + z2;
+                d[p + step * 3] = z13 - z2;
+                d[p + step] = z11 + z4;
+                d[p + step * 7] = z11 - z4;
+            }
+        }
+    }
+
+    // 값을 표현하는 데 필요한 비트 수
+    private static int category(int value) {
+        return 32 - Integer.numberOfLeadingZeros(Math.abs(value));
+    }
+
+    private static int clampQuant(int value) {
+        return Math.max(1, Math.min(255, value));
+    }
+
+    private void writeHeaders(int width, int height) throws IOException {
+        writeMarker(0xD8);
+
+        // APP0 JFIF 1.01, 종횡비 1:1
+        writeMarker(0xE0);
+        writeShort(16);
+        writeByte('J');
+        writeByte('F');
+        writeByte('I');
+        writeByte('F');
+        writeByte(0);
+        writeShort(0x0101);
+        writeByte(0);
+        writeShort(1);
+        writeShort(1);
+        writeByte(0);
+        writeByte(0);
+
+        // DQT (지그재그 순서)
+        writeMarker(0xDB);
+        writeShort(2 + 65 * 2);
+        writeByte(0);
+        for(int k = 0; k < 64; k++) {
+            writeByte(lumaQuant[ZIGZAG[k]]);
+        }
+        writeByte(1);
+        for(int k = 0; k < 64; k++) {
+            writeByte(chromaQuant[ZIGZAG[k]]);
+        }
+
+        // SOF0: Y 2x2, Cb/Cr 1x1
+        writeMarker(0xC0);
+        writeShort(17);
+        writeByte(8);
+        writeShort(height);
+        writeShort(width);
+        writeByte(3);
+        writeByte(1);
+        writeByte(0x22);
+        writeByte(0);
+        writeByte(2);
+        writeByte(0x11);
+        writeByte(1);
+        writeByte(3);
+        writeByte(0x11);
+        writeByte(1);
+
+        // DHT
+        writeMarker(0xC4);
+        writeShort(2 + huffmanLength(DC_LUMA) + huffmanLength(AC_LUMA) + huffmanLength(DC_CHROMA) + huffmanLength(AC_CHROMA));
+        writeHuffman(0x00, DC_LUMA);
+        writeHuffman(0x10, AC_LUMA);
+        writeHuffman(0x01, DC_CHROMA);
+        writeHuffman(0x11, AC_CHROMA);
+
+        // SOS
+        writeMarker(0xDA);
+        writeShort(12);
+        writeByte(3);
+        writeByte(1);
+        writeByte(0x00);
+        writeByte(2);
+        writeByte(0x11);
+        writeByte(3);
+        writeByte(0x11);
+        writeByte(0);
+        writeByte(63);
+        writeByte(0);
+    }
+
+    private static int huffmanLength(HuffmanTable table) {
+        return 1 + 16 + table.values.length;
+    }
+
+    private void writeHuffman(int classAndId, HuffmanTable table) throws IOException {
+        writeByte(classAndId);
+        for(int count : table.bits) {
+            writeByte(count);
+        }
+        for(int value : table.values) {
+            writeByte(value);
+        }
+    }
+
+    // 엔트로피 코딩 구간 (0xFF 뒤에 0x00 삽입)
+    private void writeBits(int value, int length) throws IOException {
+        bitBuffer = (bitBuffer << length) | (value & ((1 << length) - 1));
+        bitCount += length;
+        while(bitCount >= 8) {
+            int b = (bitBuffer >> (bitCount - 8)) & 0xFF;
+            writeByte(b);
+            if(b == 0xFF) {
+                writeByte(0);
+            }
+            bitCount -= 8;
+        }
+    }
+
+    // 남은 비트는 1 로 채움
+    private void flushBits() throws IOException {
+        if(bitCount > 0) {
+            writeBits(0x7F, 8 - bitCount);
+        }
+    }
+
+    private void writeMarker(int marker) throws IOException {
+        writeByte(0xFF);
+        writeByte(marker);
+    }
+
+    private void writeShort(int value) throws IOException {
+        writeByte(value >> 8);
+        writeByte(value);
+    }
+
+    private void writeByte(int value) throws IOException {
+        if(outputLength == output.length) {
+            flushOutput();
+        }
+        output[outputLength++] = (byte)value;
+    }
+
+    private void flushOutput() throws IOException {
+        out.write(output, 0, outputLength);
+        outputLength = 0;
+    }
+}
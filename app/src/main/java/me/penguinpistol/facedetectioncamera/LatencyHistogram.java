@@ -0,0 +1,100 @@
+package me.penguinpistol.facedetectioncamera;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// 지연시간 히스토그램 (HdrHistogram 방식의 로그-선형 버킷)
+// 2의 거듭제곱 구간마다 SUB_BUCKET_COUNT 개로 나눔 -> 상대오차 약 3%
+// 버킷은 미리 할당하고 record 는 락 없이 기록 (할당 없음)
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;         // 32
+    private static final int MAX_VALUE_BITS = 40;                              // 약 1100초 (ns 기준)
+    public static final long MAX_VALUE = (1L << MAX_VALUE_BITS) - 1;
+    private static final int BUCKET_COUNT = (MAX_VALUE_BITS - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalValue = new AtomicLong();
+    private final AtomicLong maxValue = new AtomicLong();
+
+    // value: 0 이상 (음수는 0, MAX_VALUE 초과는 MAX_VALUE 로 기록)
+    public void record(long value) {
+        if(value < 0) {
+            value = 0;
+        } else if(value > MAX_VALUE) {
+            value = MAX_VALUE;
+        }
+
+        counts.incrementAndGet(indexOf(value));
+        totalCount.incrementAndGet();
+        totalValue.addAndGet(value);
+
+        long max;
+        while(value > (max = maxValue.get())) {
+            if(maxValue.compareAndSet(max, value)) {
+                break;
+            }
+        }
+    }
+
+    public void reset() {
+        for(int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        totalValue.set(0);
+        maxValue.set(0);
+    }
+
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    public long getMax() {
+        return maxValue.get();
+    }
+
+    public long getMean() {
+        long count = totalCount.get();
+        return count == 0 ? 0 : totalValue.get() / count;
+    }
+
+    // percentile: 0 ~ 100, 해당 버킷의 상한값 (기록이 없으면 0)
+    public long getValueAtPercentile(double percentile) {
+        long count = totalCount.get();
+        if(count == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long)Math.ceil(count * Math.min(100.0, Math.max(0.0, percentile)) / 100.0));
+        long seen = 0;
+        for(int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if(seen >= target) {
+                return Math.min(upperBoundOf(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    static int indexOf(long value) {
+        if(value < SUB_BUCKET_COUNT) {
+            return (int)value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int)(value >>> shift);         // SUB_BUCKET_COUNT ~ 2 * SUB_BUCKET_COUNT - 1
+        return (shift + 1) * SUB_BUCKET_COUNT + (subBucket - SUB_BUCKET_COUNT);
+    }
+
+    static long upperBoundOf(int index) {
+        if(index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long subBucket = SUB_BUCKET_COUNT + (index % SUB_BUCKET_COUNT);
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,50 @@
+package me.penguinpistol.facedetectioncamera;
+
+import android.graphics.PointF;
+import android.graphics.Rect;
+
+import androidx.annotation.NonNull;
+
+import com.google.mlkit.vision.face.Face;
+import com.google.mlkit.vision.face.FaceContour;
+
+import java.util.List;
+
+// ML Kit Face -> FaceObservation 변환
+public final class MlKitFaceAdapter {
+
+    private MlKitFaceAdapter() {
+    }
+
+    public static FaceObservation fill(@NonNull Face face, @NonNull FaceObservation out) {
+        Float leftEyeOpen = face.getLeftEyeOpenProbability();
+        Float rightEyeOpen = face.getRightEyeOpenProbability();
+
+        out.set(
+                face.getHeadEulerAngleX(),
+                face.getHeadEulerAngleY(),
+                face.getHeadEulerAngleZ(),
+                leftEyeOpen == null ? FaceObservation.UNKNOWN_EYE_OPEN : leftEyeOpen,
+                rightEyeOpen == null ? FaceObservation.UNKNOWN_EYE_OPEN : rightEyeOpen
+        );
+
+        Rect box = face.getBoundingBox();
+        out.setBounds(box.left, box.top, box.right, box.bottom);
+
+        FaceContour contour = face.getContour(FaceContour.FACE);
+        if(contour == null) {
+            out.obtainContour(0);
+        } else {
+            // iterator 생성 없이 index 접근
+            List<PointF> points = contour.getPoints();
+            int count = points.size();
+            float[] buffer = out.obtainContour(count);
+            for(int i = 0; i < count; i++) {
+                PointF p = points.get(i);
+                buffer[i * 2] = p.x;
+                buffer[i * 2 + 1] = p.y;
+            }
+        }
+        return out;
+    }
+}
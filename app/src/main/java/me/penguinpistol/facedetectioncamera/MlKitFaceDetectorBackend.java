@@ -0,0 +1,81 @@
+package me.penguinpistol.facedetectioncamera;
+
+import com.google.mlkit.vision.common.InputImage;
+import com.google.mlkit.vision.face.Face;
+import com.google.mlkit.vision.face.FaceDetection;
+import com.google.mlkit.vision.face.FaceDetector;
+import com.google.mlkit.vision.face.FaceDetectorOptions;
+
+import java.util.concurrent.CancellationException;
+
+// ML Kit 단계별 검출기
+public class MlKitFaceDetectorBackend implements FaceDetectorBackend<InputImage> {
+
+    private static final float FAST_MIN_FACE_SIZE = 0.35f;          // 목표영역(가로 48%) 근처 크기만 검출
+
+    // 예열용 빈 프레임 크기
+    private static final int WARM_UP_WIDTH = 480;
+    private static final int WARM_UP_HEIGHT = 640;
+
+    // 프로세스 전체에서 공유하는 검출기
+    public static final FaceDetectorProvider<InputImage> PROVIDER = new FaceDetectorProvider<>(
+            MlKitFaceDetectorBackend::new,
+            () -> InputImage.fromByteArray(
+                    new byte[WARM_UP_WIDTH * WARM_UP_HEIGHT * 3 / 2],
+                    WARM_UP_WIDTH,
+                    WARM_UP_HEIGHT,
+                    0,
+                    InputImage.IMAGE_FORMAT_NV21
+            )
+    );
+
+    private final FaceDetector fastDetector;
+    private final FaceDetector accurateDetector;
+
+    // 결과 콜백은 메인 스레드에서 순서대로 호출되므로 단계별로 하나씩 재사용
+    private final FaceObservation fastObservation = new FaceObservation();
+    private final FaceObservation accurateObservation = new FaceObservation();
+
+    public MlKitFaceDetectorBackend() {
+        FaceDetectorOptions fastOptions = new FaceDetectorOptions.Builder()
+                .setPerformanceMode(FaceDetectorOptions.PERFORMANCE_MODE_FAST)
+                .setClassificationMode(FaceDetectorOptions.CLASSIFICATION_MODE_NONE)
+                .setContourMode(FaceDetectorOptions.CONTOUR_MODE_NONE)
+                .setLandmarkMode(FaceDetectorOptions.LANDMARK_MODE_NONE)
+                .setMinFaceSize(FAST_MIN_FACE_SIZE)
+                .build();
+
+        FaceDetectorOptions accurateOptions = new FaceDetectorOptions.Builder()
+                .setClassificationMode(FaceDetectorOptions.CLASSIFICATION_MODE_ALL)
+                .setContourMode(FaceDetectorOptions.CONTOUR_MODE_ALL)
+                .setLandmarkMode(FaceDetectorOptions.LANDMARK_MODE_ALL)
+                .build();
+
+        fastDetector = FaceDetection.getClient(fastOptions);
+        accurateDetector = FaceDetection.getClient(accurateOptions);
+    }
+
+    @Override
+    public void process(DetectionTier tier, InputImage image, Callback callback) {
+        FaceDetector detector = tier == DetectionTier.FAST ? fastDetector : accurateDetector;
+        FaceObservation observation = tier == DetectionTier.FAST ? fastObservation : accurateObservation;
+
+        detector.process(image)
+                .addOnSuccessListener(faces -> {
+                    if(faces.size() > 0) {
+                        Face face = faces.get(0);
+                        callback.onResult(tier, MlKitFaceAdapter.fill(face, observation));
+                    } else {
+                        callback.onResult(tier, null);
+                    }
+                })
+                .addOnFailureListener(e -> callback.onError(tier, e))
+                .addOnCanceledListener(() -> callback.onError(tier, new CancellationException()));
+    }
+
+    @Override
+    public void close() {
+        fastDetector.close();
+        accurateDetector.close();
+    }
+}
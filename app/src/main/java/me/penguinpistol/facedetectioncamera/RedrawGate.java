@@ -0,0 +1,77 @@
+package me.penguinpistol.facedetectioncamera;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// 윤곽선이 화면에서 일정 픽셀 이상 움직였을 때만 다시 그림
+// shouldRedraw 는 한 스레드에서만 호출, 배율과 카운터는 어느 스레드에서나 접근 가능
+public final class RedrawGate {
+
+    private final float thresholdPx;
+
+    // 이미지 좌표 -> 화면 픽셀 배율
+    private volatile float scale = 1f;
+    private volatile boolean isForced = true;
+
+    // 마지막으로 그리기로 한 윤곽선
+    private float[] lastPoints;
+    private int lastPointCount = -1;
+
+    private final AtomicLong redrawCount = new AtomicLong();
+    private final AtomicLong skippedCount = new AtomicLong();
+
+    public RedrawGate(float thresholdPx, int pointCapacity) {
+        this.thresholdPx = thresholdPx;
+        this.lastPoints = new float[pointCapacity * 2];
+    }
+
+    public void setScale(float scale) {
+        this.scale = scale;
+        isForced = true;
+    }
+
+    // 다음 윤곽선은 움직임과 관계없이 그림
+    public void forceNext() {
+        isForced = true;
+    }
+
+    // points: x, y 순서로 packed 된 이미지 좌표
+    public boolean shouldRedraw(float[] points, int pointCount) {
+        boolean redraw = isForced || pointCount != lastPointCount || movedBeyondThreshold(points, pointCount);
+        if(!redraw) {
+            skippedCount.incrementAndGet();
+            return false;
+        }
+
+        isForced = false;
+        if(lastPoints.length < pointCount * 2) {
+            lastPoints = new float[pointCount * 2];
+        }
+        System.arraycopy(points, 0, lastPoints, 0, pointCount * 2);
+        lastPointCount = pointCount;
+        redrawCount.incrementAndGet();
+        return true;
+    }
+
+    private boolean movedBeyondThreshold(float[] points, int pointCount) {
+        float threshold = thresholdPx / scale;
+        float thresholdSq = threshold * threshold;
+        for(int i = 0; i < pointCount * 2; i += 2) {
+            float dx = points[i] - lastPoints[i];
+            float dy = points[i + 1] - lastPoints[i + 1];
+            if(dx * dx + dy * dy > thresholdSq) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 다시 그리기로 한 윤곽선 수
+    public long getRedrawCount() {
+        return redrawCount.get();
+    }
+
+    // 움직임이 작아서 건너뛴 윤곽선 수
+    public long getSkippedCount() {
+        return skippedCount.get();
+    }
+}
@@ -0,0 +1,226 @@
+package me.penguinpistol.facedetectioncamera;
+
+import java.nio.ByteBuffer;
+
+// 분석 프레임(YUV_420_888)에서 목표영역 주변만 잘라서 NV21 로 복사
+// 목표영역은 회전이 적용된(화면 기준) 좌표, 잘라내기는 회전 전 버퍼 좌표에서 수행
+public class RoiCropper {
+
+    private final float targetLeft;
+    private final float targetTop;
+    private final float targetRight;
+    private final float targetBottom;
+    private final float paddingRatio;
+    private final int downsample;
+
+    // configure 결과
+    private int bufferWidth = -1;
+    private int bufferHeight = -1;
+    private int rotationDegrees = -1;
+    private int cropLeft;
+    private int cropTop;
+    private int cropWidth;
+    private int cropHeight;
+    private int outputWidth;
+    private int outputHeight;
+    private RoiMapping mapping = RoiMapping.IDENTITY;
+
+    // paddingRatio: 목표영역 가로/세로 대비 각 방향 여백, downsample: 1(원본) 또는 2(1/2 축소)
+    public RoiCropper(float targetLeft, float targetTop, float targetRight, float targetBottom, float paddingRatio, int downsample) {
+        if(downsample != 1 && downsample != 2) {
+            throw new IllegalArgumentException("downsample must be 1 or 2 : " + downsample);
+        }
+        this.targetLeft = targetLeft;
+        this.targetTop = targetTop;
+        this.targetRight = targetRight;
+        this.targetBottom = targetBottom;
+        this.paddingRatio = paddingRatio;
+        this.downsample = downsample;
+    }
+
+    // 버퍼 크기, 회전값이 바뀐 경우에만 다시 계산, 다시 계산했으면 true
+    public boolean configure(int bufferWidth, int bufferHeight, int rotationDegrees) {
+        if(this.bufferWidth == bufferWidth && this.bufferHeight == bufferHeight && this.rotationDegrees == rotationDegrees) {
+            return false;
+        }
+        this.bufferWidth = bufferWidth;
+        this.bufferHeight = bufferHeight;
+        this.rotationDegrees = rotationDegrees;
+
+        boolean isRotated = rotationDegrees == 90 || rotationDegrees == 270;
+        int uprightWidth = isRotated ? bufferHeight : bufferWidth;
+        int uprightHeight = isRotated ? bufferWidth : bufferHeight;
+
+        // 여백을 포함한 화면 기준 영역
+        float padX = (targetRight - targetLeft) * paddingRatio;
+        float padY = (targetBottom - targetTop) * paddingRatio;
+        float uL = Math.max(0, targetLeft - padX);
+        float uT = Math.max(0, targetTop - padY);
+        float uR = Math.min(uprightWidth, targetRight + padX);
+        float uB = Math.min(uprightHeight, targetBottom + padY);
+
+        // 화면 기준 -> 버퍼 기준
+        float[] bufferRect = new float[4];
+        toBufferRect(uL, uT, uR, uB, bufferWidth, bufferHeight, rotationDegrees, bufferRect);
+        float bL = bufferRect[ContourUtils.LEFT];
+        float bT = bufferRect[ContourUtils.TOP];
+        float bR = bufferRect[ContourUtils.RIGHT];
+        float bB = bufferRect[ContourUtils.BOTTOM];
+
+        // YUV420 크로마 정렬 + 축소 후에도 짝수 크기 유지
+        int align = 2 * downsample;
+        cropLeft = floorTo(bL, align);
+        cropTop = floorTo(bT, align);
+        int right = Math.min(ceilTo(bR, align), floorTo(bufferWidth, align));
+        int bottom = Math.min(ceilTo(bB, align), floorTo(bufferHeight, align));
+        cropWidth = Math.max(align, right - cropLeft);
+        cropHeight = Math.max(align, bottom - cropTop);
+        outputWidth = cropWidth / downsample;
+        outputHeight = cropHeight / downsample;
+
+        // 잘라낸 영역의 화면 기준 원점
+        float offsetX, offsetY;
+        switch(rotationDegrees) {
+            case 90:
+                offsetX = bufferHeight - (cropTop + cropHeight);
+                offsetY = cropLeft;
+                break;
+            case 180:
+                offsetX = bufferWidth - (cropLeft + cropWidth);
+                offsetY = bufferHeight - (cropTop + cropHeight);
+                break;
+            case 270:
+                offsetX = cropTop;
+                offsetY = bufferWidth - (cropLeft + cropWidth);
+                break;
+            default:
+                offsetX = cropLeft;
+                offsetY = cropTop;
+                break;
+        }
+        mapping = new RoiMapping(offsetX, offsetY, downsample);
+        return true;
+    }
+
+    // 화면 기준(회전 적용) 사각형 -> 회전 전 버퍼 기준 [left, top, right, bottom]
+    static void toBufferRect(float uL, float uT, float uR, float uB, int bufferWidth, int bufferHeight, int rotationDegrees, float[] out) {
+        switch(rotationDegrees) {
+            case 90:
+                out[ContourUtils.LEFT] = uT;
+                out[ContourUtils.RIGHT] = uB;
+                out[ContourUtils.TOP] = bufferHeight - uR;
+                out[ContourUtils.BOTTOM] = bufferHeight - uL;
+                break;
+            case 180:
+                out[ContourUtils.LEFT] = bufferWidth - uR;
+                out[ContourUtils.RIGHT] = bufferWidth - uL;
+                out[ContourUtils.TOP] = bufferHeight - uB;
+                out[ContourUtils.BOTTOM] = bufferHeight - uT;
+                break;
+            case 270:
+                out[ContourUtils.LEFT] = bufferWidth - uB;
+                out[ContourUtils.RIGHT] = bufferWidth - uT;
+                out[ContourUtils.TOP] = uL;
+                out[ContourUtils.BOTTOM] = uR;
+                break;
+            default:
+                out[ContourUtils.LEFT] = uL;
+                out[ContourUtils.RIGHT] = uR;
+                out[ContourUtils.TOP] = uT;
+                out[ContourUtils.BOTTOM] = uB;
+                break;
+        }
+    }
+
+    // 잘라낸 영역을 NV21 (Y 평면 + VU interleave) 로 복사, 프레임 전체 복사 없이 필요한 부분만 읽음
+    public void crop(ByteBuffer yPlane, int yRowStride, int yPixelStride,
+                     ByteBuffer uPlane, ByteBuffer vPlane, int uvRowStride, int uvPixelStride,
+                     byte[] outNv21) {
+        if(outNv21.length < getOutputSize()) {
+            throw new IllegalArgumentException("output buffer too small : " + outNv21.length + " < " + getOutputSize());
+        }
+
+        int ds = downsample;
+        int outW = outputWidth;
+        int outH = outputHeight;
+
+        // Y
+        if(ds == 1 && yPixelStride == 1) {
+            int position = yPlane.position();
+            for(int row = 0; row < outH; row++) {
+                yPlane.position((cropTop + row) * yRowStride + cropLeft);
+                yPlane.get(outNv21, row * outW, outW);
+            }
+            yPlane.position(position);
+        } else {
+            int o = 0;
+            for(int row = 0; row < outH; row++) {
+                int base = (cropTop + row * ds) * yRowStride;
+                for(int col = 0; col < outW; col++) {
+                    outNv21[o++] = yPlane.get(base + (cropLeft + col * ds) * yPixelStride);
+                }
+            }
+        }
+
+        // VU
+        int o = outW * outH;
+        int chromaLeft = cropLeft / 2;
+        int chromaTop = cropTop / 2;
+        for(int row = 0; row < outH / 2; row++) {
+            int base = (chromaTop + row * ds) * uvRowStride;
+            for(int col = 0; col < outW / 2; col++) {
+                int index = base + (chromaLeft + col * ds) * uvPixelStride;
+                outNv21[o++] = vPlane.get(index);
+                outNv21[o++] = uPlane.get(index);
+            }
+        }
+    }
+
+    // NV21 가로 (버퍼 기준)
+    public int getOutputWidth() {
+        return outputWidth;
+    }
+
+    // NV21 세로 (버퍼 기준)
+    public int getOutputHeight() {
+        return outputHeight;
+    }
+
+    public int getOutputSize() {
+        return outputWidth * outputHeight * 3 / 2;
+    }
+
+    public int getCropLeft() {
+        return cropLeft;
+    }
+
+    public int getCropTop() {
+        return cropTop;
+    }
+
+    public int getCropWidth() {
+        return cropWidth;
+    }
+
+    public int getCropHeight() {
+        return cropHeight;
+    }
+
+    // 검출 결과 -> 전체 프레임 좌표
+    public RoiMapping getMapping() {
+        return mapping;
+    }
+
+    // 전체 프레임 대비 검출기에 넘기지 않는 픽셀 수 (Y 기준)
+    public long getPixelsSavedPerFrame() {
+        return (long)bufferWidth * bufferHeight - (long)outputWidth * outputHeight;
+    }
+
+    private static int floorTo(float value, int align) {
+        return ((int)Math.floor(value) / align) * align;
+    }
+
+    private static int ceilTo(float value, int align) {
+        return (((int)Math.ceil(value) + align - 1) / align) * align;
+    }
+}
@@ -0,0 +1,61 @@
+package me.penguinpistol.facedetectioncamera;
+
+// ROI(잘라낸 영역) 좌표 -> 전체 이미지 좌표 변환 (x' = offsetX + x * scale)
+public final class RoiMapping {
+
+    public static final RoiMapping IDENTITY = new RoiMapping(0, 0, 1);
+
+    private final float offsetX;
+    private final float offsetY;
+    private final float scale;
+
+    public RoiMapping(float offsetX, float offsetY, float scale) {
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+        this.scale = scale;
+    }
+
+    public float mapX(float x) {
+        return offsetX + x * scale;
+    }
+
+    public float mapY(float y) {
+        return offsetY + y * scale;
+    }
+
+    // 검출 사각형, 윤곽선을 전체 이미지 좌표로 변환 (제자리 변환)
+    public void apply(FaceObservation face) {
+        if(this == IDENTITY) {
+            return;
+        }
+
+        if(face.hasBounds()) {
+            float[] bounds = face.getBounds();
+            face.setBounds(
+                    mapX(bounds[ContourUtils.LEFT]),
+                    mapY(bounds[ContourUtils.TOP]),
+                    mapX(bounds[ContourUtils.RIGHT]),
+                    mapY(bounds[ContourUtils.BOTTOM])
+            );
+        }
+
+        float[] contour = face.getContour();
+        int count = face.getContourPointCount();
+        for(int i = 0; i < count; i++) {
+            contour[i * 2] = mapX(contour[i * 2]);
+            contour[i * 2 + 1] = mapY(contour[i * 2 + 1]);
+        }
+    }
+
+    public float getOffsetX() {
+        return offsetX;
+    }
+
+    public float getOffsetY() {
+        return offsetY;
+    }
+
+    public float getScale() {
+        return scale;
+    }
+}
@@ -0,0 +1,126 @@
+package me.penguinpistol.facedetectioncamera;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// 촬영 세션 파일 위치 (root/<id>/ 에 JPEG, root/<id>.manifest, 업로드 완료 표시 root/<id>.uploaded)
+// manifest 는 업로드를 시작할 때 만들어지므로 manifest 가 있고 완료 표시가 없으면 업로드가 끝나지 않은 세션
+// 파일 IO 를 하므로 메인 스레드에서 호출하지 않음
+public class SessionArchive {
+
+    // 업로드가 끝나지 않아 남겨둘 이전 세션 수 (오래된 세션부터 삭제)
+    public static final int DEFAULT_MAX_PENDING_SESSIONS = 3;
+
+    private static final String MANIFEST_EXTENSION = ".manifest";
+    private static final String UPLOADED_EXTENSION = ".uploaded";
+
+    private final File root;
+    private final int maxPendingSessions;
+
+    public SessionArchive(File root) {
+        this(root, DEFAULT_MAX_PENDING_SESSIONS);
+    }
+
+    public SessionArchive(File root, int maxPendingSessions) {
+        if(maxPendingSessions < 0) {
+            throw new IllegalArgumentException("maxPendingSessions must be >= 0 : " + maxPendingSessions);
+        }
+        this.root = root;
+        this.maxPendingSessions = maxPendingSessions;
+    }
+
+    public File getSessionDirectory(String sessionId) {
+        return new File(root, sessionId);
+    }
+
+    // 세션 디렉토리 옆에 저장 (세션과 함께 정리됨)
+    public File getManifestFile(String sessionId) {
+        return new File(root, sessionId + MANIFEST_EXTENSION);
+    }
+
+    // 서버가 모든 청크를 받은 뒤 호출
+    public void markUploaded(String sessionId) throws IOException {
+        File marker = getUploadedMarker(sessionId);
+        if(!marker.isFile() && !marker.createNewFile()) {
+            throw new IOException("cannot create " + marker);
+        }
+    }
+
+    public boolean isUploaded(String sessionId) {
+        return getUploadedMarker(sessionId).isFile();
+    }
+
+    public boolean isPendingUpload(String sessionId) {
+        return getManifestFile(sessionId).isFile() && !isUploaded(sessionId);
+    }
+
+    // 업로드할 내용이 바뀐 경우 (다음 업로드에서 manifest 를 새로 만듦), 삭제하지 못하면 false
+    public boolean invalidate(String sessionId) {
+        File manifest = getManifestFile(sessionId);
+        File marker = getUploadedMarker(sessionId);
+        boolean deleted = !manifest.isFile() || manifest.delete();
+        return (!marker.isFile() || marker.delete()) && deleted;
+    }
+
+    // keepSessionId 외의 세션 정리 (업로드가 끝나지 않은 세션은 최근 maxPendingSessions 개까지 남김)
+    // 남긴 세션 id 반환 (오래된 순)
+    public List<String> cleanUp(String keepSessionId) {
+        File[] files = root.listFiles();
+        if(files == null) {
+            return Collections.emptyList();
+        }
+
+        List<String> pending = new ArrayList<>();
+        for(File file : files) {
+            String sessionId = file.getName();
+            if(!file.isDirectory() || sessionId.equals(keepSessionId)) {
+                continue;
+            }
+            if(isPendingUpload(sessionId)) {
+                pending.add(sessionId);
+            } else {
+                delete(sessionId);
+            }
+        }
+        // id 는 시작 시각 (같은 자릿수) 이므로 문자열 순서가 시간 순서
+        Collections.sort(pending);
+        while(pending.size() > maxPendingSessions) {
+            delete(pending.remove(0));
+        }
+
+        // 세션 디렉토리 없이 남은 manifest, 완료 표시, 임시 파일
+        for(File file : files) {
+            String name = file.getName();
+            int dot = name.indexOf('.');
+            if(!file.isFile() || dot <= 0) {
+                continue;
+            }
+            String sessionId = name.substring(0, dot);
+            if(!sessionId.equals(keepSessionId) && !getSessionDirectory(sessionId).isDirectory()) {
+                file.delete();
+            }
+        }
+        return pending;
+    }
+
+    // 세션 파일 모두 삭제
+    public void delete(String sessionId) {
+        File session = getSessionDirectory(sessionId);
+        File[] files = session.listFiles();
+        if(files != null) {
+            for(File file : files) {
+                file.delete();
+            }
+        }
+        session.delete();
+        getManifestFile(sessionId).delete();
+        getUploadedMarker(sessionId).delete();
+    }
+
+    private File getUploadedMarker(String sessionId) {
+        return new File(root, sessionId + UPLOADED_EXTENSION);
+    }
+}
@@ -0,0 +1,77 @@
+package me.penguinpistol.facedetectioncamera;
+
+import java.util.Locale;
+
+// 촬영 세션 구간별 지연시간 (ns)
+public final class SessionMetrics {
+
+    public enum Metric {
+        DETECTOR_PROCESS,       // 검출기 process() 호출 ~ 결과 콜백
+        FIRST_RESULT_COLD,      // 첫 프레임 ~ 첫 검출 결과 (검출기 예열 전)
+        FIRST_RESULT_WARM,      // 첫 프레임 ~ 첫 검출 결과 (검출기 예열 후)
+        FACE_CHECK,             // FaceChecker.check
+        FRAME_QUALITY,          // 얼굴 영역 선명도, 노출 계산
+        ZSL_COPY,               // 분석 프레임 -> ZSL 링 NV21 복사
+        FRAME_TO_VERDICT,       // 분석 프레임 수신 ~ 판정 완료
+        VERDICT_TO_CAPTURE,     // onDetected ~ onCaptureSuccess
+        CAPTURE_COPY,           // 촬영 JPEG 복사
+        ZSL_ENCODE,             // ZSL 프레임 선택 ~ JPEG 인코딩 완료
+        CAPTURE_PROCESS,        // 후처리 대기열 등록 ~ 결과 전달
+        CAPTURE_STORE,          // CaptureStore 저장
+        TRIGGER_TO_SAVED_ZSL,       // onDetected ~ 저장 완료 (ZSL 프레임)
+        TRIGGER_TO_SAVED_CAPTURE,   // onDetected ~ 저장 완료 (ImageCapture)
+    }
+
+    private static final Metric[] METRICS = Metric.values();
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[METRICS.length];
+
+    public SessionMetrics() {
+        for(int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    // 어느 스레드에서나 호출 가능 (할당 없음)
+    public void record(Metric metric, long nanos) {
+        histograms[metric.ordinal()].record(nanos);
+    }
+
+    // startNanos: System.nanoTime() 기준 시작 시각
+    public void recordSince(Metric metric, long startNanos) {
+        histograms[metric.ordinal()].record(System.nanoTime() - startNanos);
+    }
+
+    public LatencyHistogram get(Metric metric) {
+        return histograms[metric.ordinal()];
+    }
+
+    public void reset() {
+        for(LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+
+    // 구간별 p50/p90/p99/max (ms), 기록 없는 구간은 생략
+    public String dump() {
+        StringBuilder sb = new StringBuilder();
+        for(Metric metric : METRICS) {
+            LatencyHistogram h = histograms[metric.ordinal()];
+            if(h.getCount() == 0) {
+                continue;
+            }
+            sb.append(String.format(Locale.US, "%s n=%d p50=%.2fms p90=%.2fms p99=%.2fms max=%.2fms%n",
+                    metric.name(),
+                    h.getCount(),
+                    toMillis(h.getValueAtPercentile(50)),
+                    toMillis(h.getValueAtPercentile(90)),
+                    toMillis(h.getValueAtPercentile(99)),
+                    toMillis(h.getMax())));
+        }
+        return sb.toString();
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
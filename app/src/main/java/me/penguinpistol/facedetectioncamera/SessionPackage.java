@@ -0,0 +1,199 @@
+package me.penguinpistol.facedetectioncamera;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.CRC32;
+
+// 촬영 세션 업로드용 컨테이너 (전체를 메모리에 만들지 않고 파일에서 필요한 구간만 읽음)
+// 구조: [헤더][엔트리 헤더 + 데이터]...
+//  헤더: MAGIC, VERSION, 엔트리 수, 세션 ID 길이 + 세션 ID (UTF-8)
+//  엔트리 헤더: 이름 길이 + 이름 (UTF-8), 데이터 길이, 데이터 CRC32
+// 이어 올리기는 같은 바이트열을 전제로 하므로 파일은 업로드가 끝날 때까지 바뀌지 않아야 함
+public final class SessionPackage {
+
+    static final int MAGIC = 0x46445350;            // "FDSP"
+    static final int VERSION = 1;
+    static final ByteOrder BYTE_ORDER = FrameRecorder.BYTE_ORDER;
+
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+
+    // 엔트리 헤더 또는 데이터 (파일이면 file, 아니면 bytes)
+    // offset 은 헤더를 제외한 위치 (헤더 길이는 엔트리 수가 정해진 뒤에 결정)
+    private static final class Part {
+        final long offset;
+        final long length;
+        final byte[] bytes;
+        final File file;
+
+        Part(long offset, byte[] bytes) {
+            this.offset = offset;
+            this.length = bytes.length;
+            this.bytes = bytes;
+            this.file = null;
+        }
+
+        Part(long offset, File file, long length) {
+            this.offset = offset;
+            this.length = length;
+            this.bytes = null;
+            this.file = file;
+        }
+    }
+
+    private final String sessionId;
+    private final List<Part> parts = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    private final CRC32 packageCrc = new CRC32();
+    // 헤더 이후 엔트리 크기 합
+    private long entryBytes = 0;
+    private byte[] header;
+
+    public SessionPackage(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    // 파일 엔트리 (CRC 계산을 위해 한 번 읽음), 읽기를 시작한 뒤에는 추가 불가
+    public synchronized SessionPackage addFile(String name, File file) throws IOException {
+        checkOpen();
+        long length = file.length();
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[(int)Math.min(READ_BUFFER_BYTES, Math.max(1, length))];
+        long total = 0;
+        try (InputStream in = new FileInputStream(file)) {
+            int read;
+            while((read = in.read(buffer)) > 0) {
+                crc.update(buffer, 0, read);
+                total += read;
+            }
+        }
+        if(total != length) {
+            throw new IOException("file changed while reading >> " + file);
+        }
+        addEntryHeader(name, length, (int)crc.getValue());
+        parts.add(new Part(entryBytes, file, length));
+        entryBytes += length;
+        return this;
+    }
+
+    // 메모리 엔트리 (작은 메타데이터)
+    public synchronized SessionPackage addBytes(String name, byte[] bytes) {
+        checkOpen();
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        addEntryHeader(name, bytes.length, (int)crc.getValue());
+        parts.add(new Part(entryBytes, bytes));
+        entryBytes += bytes.length;
+        return this;
+    }
+
+    // 전체 크기 (이후 엔트리 추가 불가)
+    public synchronized long getLength() {
+        return getHeader().length + entryBytes;
+    }
+
+    // 엔트리 이름, 길이, CRC 로 만든 값 (내용이 바뀌면 달라짐, 이어 올리기 전에 서버와 비교)
+    public synchronized String getPackageId() {
+        getHeader();
+        return String.format(Locale.US, "%08x%012x", packageCrc.getValue(), getLength());
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public synchronized List<String> getEntryNames() {
+        return new ArrayList<>(names);
+    }
+
+    // offset 부터 length 만큼 읽음 (끝을 넘으면 남은 만큼), 읽은 바이트 수 반환
+    public synchronized int read(long offset, byte[] out, int outOffset, int length) throws IOException {
+        byte[] head = getHeader();
+        long total = head.length + entryBytes;
+        if(offset < 0 || offset > total) {
+            throw new IndexOutOfBoundsException("offset " + offset + " of " + total);
+        }
+        int count = (int)Math.min(length, total - offset);
+        int done = 0;
+
+        // 헤더 구간
+        if(offset < head.length) {
+            int n = (int)Math.min(count, head.length - offset);
+            System.arraycopy(head, (int)offset, out, outOffset, n);
+            done += n;
+        }
+
+        // 엔트리 구간 (파트 offset 은 헤더 길이를 빼고 기록)
+        for(Part part : parts) {
+            if(done == count) {
+                break;
+            }
+            long position = offset + done - head.length;
+            if(position >= part.offset + part.length) {
+                continue;
+            }
+            long inPart = position - part.offset;
+            int n = (int)Math.min(count - done, part.length - inPart);
+            if(part.bytes != null) {
+                System.arraycopy(part.bytes, (int)inPart, out, outOffset + done, n);
+            } else {
+                readFile(part.file, inPart, out, outOffset + done, n);
+            }
+            done += n;
+        }
+        return done;
+    }
+
+    private void addEntryHeader(String name, long length, int crc) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        if(nameBytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("name too long : " + name);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(2 + nameBytes.length + 8 + 4).order(BYTE_ORDER);
+        buffer.putShort((short)nameBytes.length);
+        buffer.put(nameBytes);
+        buffer.putLong(length);
+        buffer.putInt(crc);
+        byte[] bytes = buffer.array();
+        parts.add(new Part(entryBytes, bytes));
+        entryBytes += bytes.length;
+        packageCrc.update(bytes, 0, bytes.length);
+        names.add(name);
+    }
+
+    private byte[] getHeader() {
+        if(header == null) {
+            byte[] id = sessionId.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.allocate(4 + 4 + 4 + 2 + id.length).order(BYTE_ORDER);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(names.size());
+            buffer.putShort((short)id.length);
+            buffer.put(id);
+            header = buffer.array();
+            packageCrc.update(header, 0, header.length);
+        }
+        return header;
+    }
+
+    private void checkOpen() {
+        if(header != null) {
+            throw new IllegalStateException("package already read");
+        }
+    }
+
+    private static void readFile(File file, long position, byte[] out, int offset, int length) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.seek(position);
+            raf.readFully(out, offset, length);
+        }
+    }
+}
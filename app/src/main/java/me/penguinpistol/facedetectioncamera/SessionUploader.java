@@ -0,0 +1,237 @@
+package me.penguinpistol.facedetectioncamera;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Locale;
+import java.util.zip.CRC32;
+
+// SessionPackage 를 고정 크기 청크로 나눠 업로드 (청크 버퍼 1개만 사용)
+// 끊겨도 서버가 받은 청크 다음부터 이어서 올림
+//  GET {base}/{sessionId}            X-Package-Id -> 200 + X-Next-Chunk (같은 패키지로 연속해서 받은 청크 수), 없으면 404
+//  PUT {base}/{sessionId}/{index}    X-Package-Id, X-Chunk-Count, X-Total-Length, X-Chunk-Crc32 (hex) -> 2xx 이면 수신 확인
+// 청크 하나가 maxAttempts 번 연속 실패하면 IOException (다음 upload 호출에서 이어 올림)
+// 호출한 스레드에서 네트워크 작업을 하므로 메인 스레드에서 호출하지 않음
+public class SessionUploader {
+
+    public static final int DEFAULT_CHUNK_BYTES = 256 * 1024;
+    public static final int DEFAULT_MAX_ATTEMPTS = 4;
+    public static final long DEFAULT_RETRY_DELAY_MS = 500;
+
+    static final String HEADER_PACKAGE_ID = "X-Package-Id";
+    static final String HEADER_NEXT_CHUNK = "X-Next-Chunk";
+    static final String HEADER_CHUNK_COUNT = "X-Chunk-Count";
+    static final String HEADER_TOTAL_LENGTH = "X-Total-Length";
+    static final String HEADER_CHUNK_CRC = "X-Chunk-Crc32";
+
+    private static final int CONNECT_TIMEOUT_MS = 10_000;
+    private static final int READ_TIMEOUT_MS = 20_000;
+
+    public interface Listener {
+        // 수신 확인된 청크 수 (이어 올리는 경우 시작할 때 한 번 호출)
+        void onProgress(int ackedChunks, int chunkCount);
+    }
+
+    private final String baseUrl;
+    private final int chunkBytes;
+    private final int maxAttempts;
+    private final long retryDelayMs;
+    private final byte[] chunk;
+
+    private volatile boolean isCancelled = false;
+
+    // 업로드 통계 (마지막 upload 호출 기준, 업로드 스레드에서만 기록)
+    private volatile int resumedChunks = 0;
+    private volatile int sentChunks = 0;
+    private volatile int retryCount = 0;
+
+    public SessionUploader(URL baseUrl) {
+        this(baseUrl, DEFAULT_CHUNK_BYTES, DEFAULT_MAX_ATTEMPTS, DEFAULT_RETRY_DELAY_MS);
+    }
+
+    public SessionUploader(URL baseUrl, int chunkBytes, int maxAttempts, long retryDelayMs) {
+        if(chunkBytes <= 0) {
+            throw new IllegalArgumentException("chunkBytes must be > 0 : " + chunkBytes);
+        }
+        if(maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be >= 1 : " + maxAttempts);
+        }
+        String url = baseUrl.toString();
+        this.baseUrl = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+        this.chunkBytes = chunkBytes;
+        this.maxAttempts = maxAttempts;
+        this.retryDelayMs = retryDelayMs;
+        chunk = new byte[chunkBytes];
+    }
+
+    // 모든 청크의 수신 확인을 받으면 반환, 취소되면 InterruptedIOException
+    public synchronized void upload(SessionPackage sessionPackage, Listener listener) throws IOException {
+        isCancelled = false;
+        resumedChunks = 0;
+        sentChunks = 0;
+        retryCount = 0;
+
+        long total = sessionPackage.getLength();
+        int chunkCount = getChunkCount(total);
+        String packageId = sessionPackage.getPackageId();
+        String sessionUrl = baseUrl + "/" + sessionPackage.getSessionId();
+
+        int next = Math.min(withRetry(() -> queryNextChunk(sessionUrl, packageId)), chunkCount);
+        resumedChunks = next;
+        if(listener != null) {
+            listener.onProgress(next, chunkCount);
+        }
+
+        CRC32 crc = new CRC32();
+        while(next < chunkCount) {
+            long offset = (long)next * chunkBytes;
+            int length = sessionPackage.read(offset, chunk, 0, chunkBytes);
+            crc.reset();
+            crc.update(chunk, 0, length);
+            String chunkCrc = String.format(Locale.US, "%08x", crc.getValue());
+
+            int index = next;
+            withRetry(() -> {
+                putChunk(sessionUrl + "/" + index, packageId, chunkCount, total, chunkCrc, length);
+                return index;
+            });
+            sentChunks++;
+            next++;
+            if(listener != null) {
+                listener.onProgress(next, chunkCount);
+            }
+        }
+    }
+
+    // 다른 스레드에서 호출, 진행 중인 요청이 끝난 뒤 멈춤
+    public void cancel() {
+        isCancelled = true;
+    }
+
+    public int getChunkCount(long totalLength) {
+        return (int)((totalLength + chunkBytes - 1) / chunkBytes);
+    }
+
+    // 서버에서 이미 받은 청크 수 (마지막 upload 호출)
+    public int getResumedChunks() {
+        return resumedChunks;
+    }
+
+    public int getSentChunks() {
+        return sentChunks;
+    }
+
+    // 실패 후 다시 보낸 요청 수
+    public int getRetryCount() {
+        return retryCount;
+    }
+
+    private interface Request {
+        int run() throws IOException;
+    }
+
+    // 실패하면 retryDelayMs * 2^n 만큼 기다렸다가 다시 요청
+    private int withRetry(Request request) throws IOException {
+        IOException last = null;
+        for(int attempt = 0; attempt < maxAttempts; attempt++) {
+            checkCancelled();
+            if(attempt > 0) {
+                retryCount++;
+                sleep(retryDelayMs << (attempt - 1));
+            }
+            try {
+                return request.run();
+            } catch (IOException e) {
+                last = e;
+            }
+        }
+        throw last;
+    }
+
+    private int queryNextChunk(String sessionUrl, String packageId) throws IOException {
+        HttpURLConnection connection = open(sessionUrl, "GET");
+        connection.setRequestProperty(HEADER_PACKAGE_ID, packageId);
+        int code = connection.getResponseCode();
+        drain(connection);
+        if(code == HttpURLConnection.HTTP_NOT_FOUND) {
+            return 0;
+        }
+        if(code / 100 != 2) {
+            throw new IOException("status HTTP " + code + " >> " + sessionUrl);
+        }
+        String next = connection.getHeaderField(HEADER_NEXT_CHUNK);
+        try {
+            return next == null ? 0 : Math.max(0, Integer.parseInt(next.trim()));
+        } catch (NumberFormatException e) {
+            throw new IOException("invalid " + HEADER_NEXT_CHUNK + " : " + next);
+        }
+    }
+
+    private void putChunk(String chunkUrl, String packageId, int chunkCount, long total, String chunkCrc, int length) throws IOException {
+        HttpURLConnection connection = open(chunkUrl, "PUT");
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(length);
+        connection.setRequestProperty("Content-Type", "application/octet-stream");
+        connection.setRequestProperty(HEADER_PACKAGE_ID, packageId);
+        connection.setRequestProperty(HEADER_CHUNK_COUNT, String.valueOf(chunkCount));
+        connection.setRequestProperty(HEADER_TOTAL_LENGTH, String.valueOf(total));
+        connection.setRequestProperty(HEADER_CHUNK_CRC, chunkCrc);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(chunk, 0, length);
+        }
+        int code = connection.getResponseCode();
+        drain(connection);
+        if(code / 100 != 2) {
+            throw new IOException("chunk HTTP " + code + " >> " + chunkUrl);
+        }
+    }
+
+    private static HttpURLConnection open(String url, String method) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection)new URL(url).openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+        connection.setReadTimeout(READ_TIMEOUT_MS);
+        connection.setUseCaches(false);
+        return connection;
+    }
+
+    // 연결 재사용(keep-alive)을 위해 응답 본문을 끝까지 읽고 닫음
+    private static void drain(HttpURLConnection connection) {
+        InputStream in = null;
+        try {
+            in = connection.getResponseCode() / 100 == 2 ? connection.getInputStream() : connection.getErrorStream();
+            if(in != null) {
+                byte[] buffer = new byte[256];
+                while(in.read(buffer) >= 0) {
+                    // 버림
+                }
+            }
+        } catch (IOException ignored) {
+        } finally {
+            if(in != null) {
+                try {
+                    in.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private void checkCancelled() throws IOException {
+        if(isCancelled || Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("upload cancelled");
+        }
+    }
+
+    private void sleep(long ms) throws IOException {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("upload cancelled");
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package me.penguinpistol.facedetectioncamera;
+
+// 자동촬영 안정화 판정
+// FaceChecker 를 통과한 프레임의 판정값이 일정 프레임 수(또는 시간) 동안 오차범위 안에서 유지될 때만 촬영
+public class StabilityFilter {
+
+    public static final int METRIC_ANGLE_X      = 0;
+    public static final int METRIC_ANGLE_Y      = 1;
+    public static final int METRIC_ANGLE_Z      = 2;
+    public static final int METRIC_OFFSET_X     = 3;        // 얼굴 중심 - 목표 중심 (거리 대신 성분별로 비교, 제곱근 없음)
+    public static final int METRIC_OFFSET_Y     = 4;
+    public static final int METRIC_WIDTH_RATIO  = 5;
+    public static final int METRIC_EYE_OPEN     = 6;
+    public static final int METRIC_COUNT        = 7;
+
+    // 기본 허용 변화량 (윈도우 내 최대 - 최소)
+    private static final float DEFAULT_ANGLE_TOLERANCE      = 3f;
+    private static final float DEFAULT_DISTANCE_TOLERANCE   = 10f;
+    private static final float DEFAULT_RATIO_TOLERANCE      = 0.05f;
+    private static final float DEFAULT_EYE_OPEN_TOLERANCE   = 0.25f;
+
+    private final int requiredFrames;
+    private final long requiredDurationMs;
+    private final float smoothingAlpha;
+
+    private final float[] tolerances = new float[METRIC_COUNT];
+
+    // 고정 크기 링버퍼
+    private final int capacity;
+    private final float[] values;
+    private final long[] timestamps;
+    private int head = 0;                   // 가장 오래된 프레임 위치
+    private int count = 0;
+
+    // 지수평활 (smoothingAlpha > 0 인 경우)
+    private final float[] smoothed = new float[METRIC_COUNT];
+    private final float[] frame = new float[METRIC_COUNT];
+    private boolean hasSmoothed = false;
+
+    // requiredFrames: 연속 안정 프레임 수, requiredDurationMs: 연속 안정 시간 (0 이면 사용 안 함)
+    // smoothingAlpha: 0 이면 원본값, (0, 1] 이면 새 값의 반영 비율
+    public StabilityFilter(int requiredFrames, long requiredDurationMs, float smoothingAlpha) {
+        if(requiredFrames < 1) {
+            throw new IllegalArgumentException("requiredFrames must be >= 1");
+        }
+        if(smoothingAlpha < 0 || smoothingAlpha > 1) {
+            throw new IllegalArgumentException("smoothingAlpha must be in [0, 1]");
+        }
+
+        this.requiredFrames = requiredFrames;
+        this.requiredDurationMs = requiredDurationMs;
+        this.smoothingAlpha = smoothingAlpha;
+
+        capacity = requiredFrames;
+        values = new float[capacity * METRIC_COUNT];
+        timestamps = new long[capacity];
+
+        tolerances[METRIC_ANGLE_X] = DEFAULT_ANGLE_TOLERANCE;
+        tolerances[METRIC_ANGLE_Y] = DEFAULT_ANGLE_TOLERANCE;
+        tolerances[METRIC_ANGLE_Z] = DEFAULT_ANGLE_TOLERANCE;
+        tolerances[METRIC_OFFSET_X] = DEFAULT_DISTANCE_TOLERANCE;
+        tolerances[METRIC_OFFSET_Y] = DEFAULT_DISTANCE_TOLERANCE;
+        tolerances[METRIC_WIDTH_RATIO] = DEFAULT_RATIO_TOLERANCE;
+        tolerances[METRIC_EYE_OPEN] = DEFAULT_EYE_OPEN_TOLERANCE;
+    }
+
+    public StabilityFilter setTolerance(int metric, float tolerance) {
+        tolerances[metric] = tolerance;
+        return this;
+    }
+
+    public void reset() {
+        head = 0;
+        count = 0;
+        hasSmoothed = false;
+    }
+
+    // 프레임 1개 반영, 안정 상태이면 true
+    // passed: 해당 프레임의 FaceChecker 판정결과 (false 이면 처음부터 다시)
+    public boolean update(long timestampMs, boolean passed, float angleX, float angleY, float angleZ, float offsetX, float offsetY, float widthRatio, float eyeOpen) {
+        if(!passed) {
+            reset();
+            return false;
+        }
+
+        frame[METRIC_ANGLE_X] = angleX;
+        frame[METRIC_ANGLE_Y] = angleY;
+        frame[METRIC_ANGLE_Z] = angleZ;
+        frame[METRIC_OFFSET_X] = offsetX;
+        frame[METRIC_OFFSET_Y] = offsetY;
+        frame[METRIC_WIDTH_RATIO] = widthRatio;
+        frame[METRIC_EYE_OPEN] = eyeOpen;
+
+        if(smoothingAlpha > 0) {
+            for(int m = 0; m < METRIC_COUNT; m++) {
+                smoothed[m] = hasSmoothed ? smoothed[m] + smoothingAlpha * (frame[m] - smoothed[m]) : frame[m];
+                frame[m] = smoothed[m];
+            }
+            hasSmoothed = true;
+        }
+
+        push(timestampMs, frame);
+
+        // 새 프레임과 맞지 않는 오래된 프레임 제거
+        while(count > 1 && !isWithinTolerance()) {
+            head = (head + 1) % capacity;
+            count--;
+        }
+
+        return isStable();
+    }
+
+    public boolean isStable() {
+        if(count >= requiredFrames) {
+            return true;
+        }
+        return requiredDurationMs > 0 && count > 1 && getStableDurationMs() >= requiredDurationMs;
+    }
+
+    public int getStableFrameCount() {
+        return count;
+    }
+
+    public long getStableDurationMs() {
+        if(count == 0) {
+            return 0;
+        }
+        return timestamps[(head + count - 1) % capacity] - timestamps[head];
+    }
+
+    private void push(long timestampMs, float[] metrics) {
+        if(count == capacity) {
+            head = (head + 1) % capacity;
+            count--;
+        }
+        int index = (head + count) % capacity;
+        timestamps[index] = timestampMs;
+        System.arraycopy(metrics, 0, values, index * METRIC_COUNT, METRIC_COUNT);
+        count++;
+    }
+
+    private boolean isWithinTolerance() {
+        for(int m = 0; m < METRIC_COUNT; m++) {
+            float min = Float.MAX_VALUE;
+            float max = -Float.MAX_VALUE;
+            for(int i = 0; i < count; i++) {
+                float v = values[((head + i) % capacity) * METRIC_COUNT + m];
+                if(v < min) min = v;
+                if(v > max) max = v;
+            }
+            if(max - min > tolerances[m]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -16,6 +16,13 @@ import me.penguinpistol.facedetectioncamera.databinding.ActivityTakePictureBindi
 public class TakePictureActivity extends AppCompatActivity {
     private static final String TAG = TakePictureActivity.class.getSimpleName();
     private static final int REQUEST_CODE_PERMISSION = 10;
+    // 촬영 계획 ("full": 전체 5방향, "express": 정면만)
+    public static final String EXTRA_CAPTURE_PLAN = "capture_plan";
+    public static final String PLAN_FULL = "full";
+    public static final String PLAN_EXPRESS = "express";
+    // 세션 업로드 서버 (없으면 업로드하지 않음)
+    public static final String EXTRA_UPLOAD_URL = "upload_url";
+
     private static final String[] REQUIRED_PERMISSIONS = new String[] {
             Manifest.permission.CAMERA
     };
@@ -27,6 +34,9 @@ public class TakePictureActivity extends AppCompatActivity {
         setContentView(mBinding.getRoot());
 
         CameraViewModel mViewModel = new ViewModelProvider(this).get(CameraViewModel.class);
+        if(savedInstanceState == null && PLAN_EXPRESS.equals(getIntent().getStringExtra(EXTRA_CAPTURE_PLAN))) {
+            mViewModel.setCapturePlan(CapturePlan.express());
+        }
         mViewModel.getIsFinished().observe(this, isFinished -> {
             if(isFinished) {
                 getSupportFragmentManager().beginTransaction()
@@ -35,6 +45,11 @@ public class TakePictureActivity extends AppCompatActivity {
             }
         });
 
+        // 복원된 세션의 촬영이 이미 끝난 경우 결과 화면만 표시
+        if(Boolean.TRUE.equals(mViewModel.getIsFinished().getValue())) {
+            return;
+        }
+
         if(allPermissionGranted()) {
             startCamera();
         } else {
@@ -55,7 +70,9 @@ public class TakePictureActivity extends AppCompatActivity {
         }
     }
 
+    // 권한을 받은 뒤 카메라 바인딩 동안 검출 모델을 미리 올림 (거부되면 올리지 않고 종료)
     private void startCamera() {
+        new ViewModelProvider(this).get(CameraViewModel.class).warmUpDetector();
         getSupportFragmentManager().beginTransaction()
                 .replace(R.id.container, new TakePictureFragment())
                 .commit();
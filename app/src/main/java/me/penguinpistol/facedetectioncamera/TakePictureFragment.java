@@ -1,9 +1,13 @@
 package me.penguinpistol.facedetectioncamera;
 
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.graphics.Matrix;
+import android.graphics.ImageFormat;
+import android.graphics.Rect;
+import android.graphics.YuvImage;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 import android.util.Size;
 import android.view.LayoutInflater;
@@ -27,16 +31,39 @@ import androidx.lifecycle.ViewModelProvider;
 
 import com.google.common.util.concurrent.ListenableFuture;
 
-import java.nio.ByteBuffer;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 import me.penguinpistol.facedetectioncamera.databinding.FragmentTakePictureBinding;
 
 public class TakePictureFragment extends Fragment {
     private static final String TAG = "TakePictureFragment";
     private static final Size IMAGE_SIZE = new Size(720, 1280);
+    // 후처리 대기열 크기 (촬영 방향 수)
+    private static final int CAPTURE_QUEUE_CAPACITY = FaceChecker.Direction.values().length;
+    // 검출 결과 기록 (FrameReplayer 로 재생), 최근 파일만 보관
+    // 윤곽선(생체정보) 이 기록되므로 디버그 빌드에서만 사용, 그 외에는 남은 기록을 삭제
+    private static final boolean RECORD_FRAMES = BuildConfig.DEBUG;
+    private static final String RECORDING_DIRECTORY = "recordings";
+    private static final int MAX_RECORDINGS = 5;
+    private static final long MAX_RECORDING_AGE_MS = 3 * 24 * 60 * 60 * 1000L;
+    // ZSL: 판정을 통과한 최근 분석 프레임 중 가장 좋은 프레임을 바로 인코딩 (없으면 ImageCapture 로 촬영)
+    // ImageCapture 도 IMAGE_SIZE 로 촬영하고 후처리에서 IMAGE_SIZE 로 줄이므로 분석 프레임이 IMAGE_SIZE 이상이면 해상도 손실 없음
+    // 카메라가 더 작은 분석 해상도를 고른 경우에는 ImageCapture 사용
+    private static final boolean ZSL_ENABLED = true;
+    private static final int ZSL_CANDIDATES = 4;
+    // 방향별 얼굴형 비교로 다른 사람 촬영을 재촬영 (기준 거리는 IdentityConsistency.DEFAULT_MAX_DISTANCE)
+    private static final boolean IDENTITY_CHECK_ENABLED = true;
+    // 후보 + 판정 대기 중인 프레임 + 인코딩 중인 프레임 1
+    private static final int ZSL_RING_CAPACITY = ZSL_CANDIDATES + FaceDetectionAnalyzer.IMAGE_QUEUE_DEPTH + 1;
+    private static final int ZSL_JPEG_QUALITY = 95;
 
     private FragmentTakePictureBinding mBinding;
     private CameraViewModel mViewModel;
@@ -45,6 +72,22 @@ public class TakePictureFragment extends Fragment {
     private ImageAnalysis imageAnalysis = null;
     private FaceDetectionAnalyzer faceDetectionAnalyzer = null;
     private ExecutorService analysisExecutor;
+    private CapturePipeline<Bitmap> capturePipeline;
+    private ZslFrameRing zslRing;
+
+    // 방향별 제한시간 (CapturePlan)
+    private final Handler timeoutHandler = new Handler(Looper.getMainLooper());
+    private FaceChecker.Direction currentDirection;
+    private long directionStartMs;
+    private final Runnable timeoutRunnable = this::onAnalysisTimeout;
+    // 판정 직전 얼굴형 특징값 (메인 스레드에서만 접근)
+    private final float[] signature = FaceSignature.create();
+
+    // 지연시간 측정 시작 시각 (System.nanoTime, 메인 스레드에서만 접근)
+    private long verdictNs;
+    private final long[] captureSubmitNs = new long[FaceChecker.Direction.values().length];
+    private final long[] triggerNs = new long[FaceChecker.Direction.values().length];
+    private final boolean[] isZslCapture = new boolean[FaceChecker.Direction.values().length];
 
     @Nullable
     @Override
@@ -52,6 +95,11 @@ public class TakePictureFragment extends Fragment {
         mBinding = FragmentTakePictureBinding.inflate(inflater, container, false);
         mViewModel = new ViewModelProvider(requireActivity()).get(CameraViewModel.class);
         analysisExecutor = Executors.newSingleThreadExecutor();
+        capturePipeline = new CapturePipeline<>(
+                new BitmapCaptureSteps(IMAGE_SIZE.getWidth(), IMAGE_SIZE.getHeight()),
+                ContextCompat.getMainExecutor(requireContext()),
+                CAPTURE_QUEUE_CAPACITY
+        );
 
         return mBinding.getRoot();
     }
@@ -60,28 +108,78 @@ public class TakePictureFragment extends Fragment {
     public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
         super.onViewCreated(view, savedInstanceState);
         startCamera();
+        // 마지막 방향까지 촬영한 뒤 후처리에 실패한 방향을 다시 촬영 (카메라 준비 전이면 준비 후 시작)
+        mViewModel.getIsRetakePending().observe(getViewLifecycleOwner(), isPending -> {
+            if(isPending && imageAnalysis != null) {
+                startAnalysis();
+            }
+        });
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        mBinding = null;
     }
 
     @Override
     public void onDestroy() {
         super.onDestroy();
+        timeoutHandler.removeCallbacks(timeoutRunnable);
+        if(faceDetectionAnalyzer != null) {
+            faceDetectionAnalyzer.close();
+        }
         if(analysisExecutor != null) {
             analysisExecutor.shutdown();
             analysisExecutor = null;
         }
+        if(capturePipeline != null) {
+            // 대기 중인 후처리는 끝까지 진행 (결과는 Activity 범위 ViewModel 로 전달)
+            capturePipeline.shutdown();
+            capturePipeline = null;
+        }
     }
 
     private void startCamera() {
         mBinding.viewFinder.setScaleType(PreviewView.ScaleType.FILL_CENTER);
+        mBinding.detectionGraphic.setScaleType(ViewportMapper.ScaleType.FILL_CENTER);
 
-        faceDetectionAnalyzer = new FaceDetectionAnalyzer(IMAGE_SIZE, mBinding.detectionGraphic, direction -> {
+        faceDetectionAnalyzer = new FaceDetectionAnalyzer(IMAGE_SIZE, analysisExecutor, mBinding.detectionGraphic, direction -> {
+            verdictNs = System.nanoTime();
             imageAnalysis.clearAnalyzer();
+            timeoutHandler.removeCallbacks(timeoutRunnable);
+            // 이전 방향과 다른 사람으로 보이면 촬영하지 않고 같은 방향 다시 분석 (꺼져 있으면 기록만 함)
+            if(faceDetectionAnalyzer.getSignature(signature)
+                    && !mViewModel.checkIdentity(direction, signature) && IDENTITY_CHECK_ENABLED) {
+                retryOrSkip(direction, "identity mismatch");
+                return;
+            }
+            mViewModel.recordTimeToCapture(direction, SystemClock.elapsedRealtime() - directionStartMs, faceDetectionAnalyzer.isRelaxed());
+            mViewModel.recordCaptureFace(direction, faceDetectionAnalyzer.getLastPassedFace(), faceDetectionAnalyzer.getLastPassedScore());
+            mViewModel.recordCaptureQuality(direction, faceDetectionAnalyzer.getLastPassedSharpness(), faceDetectionAnalyzer.getLastPassedMeanLuma());
             takePicture(direction);
         });
         faceDetectionAnalyzer.setDebug(true);
+        faceDetectionAnalyzer.setRoiEnabled(true);
+        faceDetectionAnalyzer.setSessionMetrics(mViewModel.getSessionMetrics());
+        faceDetectionAnalyzer.setLivenessDetector(mViewModel.getLivenessDetector());
+        if(ZSL_ENABLED) {
+            // 버퍼는 판정을 통과하기 시작한 뒤에 할당
+            zslRing = new ZslFrameRing(ZSL_RING_CAPACITY);
+            faceDetectionAnalyzer.setZslRing(zslRing);
+        }
+        if(RECORD_FRAMES) {
+            startRecording();
+        } else {
+            deleteRecordings();
+        }
 
         ListenableFuture<ProcessCameraProvider> cameraProviderFuture = ProcessCameraProvider.getInstance(requireActivity());
         cameraProviderFuture.addListener(() -> {
+            // 카메라 준비 전에 화면이 없어진 경우
+            if(mBinding == null) {
+                return;
+            }
             try {
                 Preview preview = new Preview.Builder()
                         .setTargetResolution(IMAGE_SIZE)
@@ -90,7 +188,9 @@ public class TakePictureFragment extends Fragment {
 
                 imageAnalysis = new ImageAnalysis.Builder()
                         .setTargetResolution(IMAGE_SIZE)
-                        .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST)
+                        // 프레임 버림 정책은 FaceDetectionAnalyzer 에서 처리
+                        .setBackpressureStrategy(ImageAnalysis.STRATEGY_BLOCK_PRODUCER)
+                        .setImageQueueDepth(FaceDetectionAnalyzer.IMAGE_QUEUE_DEPTH)
                         .build();
 
                 imageCapture = new ImageCapture.Builder()
@@ -109,57 +209,248 @@ public class TakePictureFragment extends Fragment {
         }, ContextCompat.getMainExecutor(requireActivity()));
     }
 
+    private void startRecording() {
+        File dir = new File(requireContext().getNoBackupFilesDir(), RECORDING_DIRECTORY);
+        if(!dir.isDirectory() && !dir.mkdirs()) {
+            Log.e(TAG, "startRecording ERROR >> " + dir);
+            return;
+        }
+
+        // 오래된 기록 삭제 (파일 이름이 생성 시각), 개수와 기간 모두 제한
+        File[] files = dir.listFiles();
+        if(files != null) {
+            Arrays.sort(files);
+            long expired = System.currentTimeMillis() - MAX_RECORDING_AGE_MS;
+            for(int i = 0; i < files.length; i++) {
+                if((i <= files.length - MAX_RECORDINGS || files[i].lastModified() < expired) && !files[i].delete()) {
+                    Log.e(TAG, "delete recording ERROR >> " + files[i]);
+                }
+            }
+        }
+
+        try {
+            faceDetectionAnalyzer.startRecording(new File(dir, System.currentTimeMillis() + ".fdfr"));
+        } catch (IOException e) {
+            Log.e(TAG, "startRecording ERROR >> " + e);
+        }
+    }
+
+    // 기록을 끈 빌드에서는 이전 기록을 남기지 않음
+    private void deleteRecordings() {
+        File[] files = new File(requireContext().getNoBackupFilesDir(), RECORDING_DIRECTORY).listFiles();
+        if(files == null) {
+            return;
+        }
+        for(File file : files) {
+            if(!file.delete()) {
+                Log.e(TAG, "delete recording ERROR >> " + file);
+            }
+        }
+    }
+
+    // 다음 방향 분석 (소요시간 측정 시작)
     private void startAnalysis() {
-        faceDetectionAnalyzer.startAnalysis(mViewModel.getNextOrder());
+        directionStartMs = SystemClock.elapsedRealtime();
+        startAnalysis(mViewModel.getNextOrder());
+    }
+
+    private void startAnalysis(FaceChecker.Direction direction) {
+        CapturePlan plan = mViewModel.getCapturePlan();
+        currentDirection = direction;
+        faceDetectionAnalyzer.startAnalysis(direction, mViewModel.getThresholdTable());
         imageAnalysis.setAnalyzer(analysisExecutor, faceDetectionAnalyzer);
+
+        timeoutHandler.removeCallbacks(timeoutRunnable);
+        timeoutHandler.postDelayed(timeoutRunnable, plan.getTimeoutMs(direction));
     }
 
+    // 제한시간 안에 촬영하지 못한 경우 재시도, 재시도 횟수를 모두 쓰면 다음 방향으로
+    private void onAnalysisTimeout() {
+        imageAnalysis.clearAnalyzer();
+        retryOrSkip(currentDirection, "analysis timeout");
+    }
+
+    // 같은 방향 다시 분석, 재시도 횟수를 모두 쓰면 다음 방향으로
+    private void retryOrSkip(FaceChecker.Direction direction, String reason) {
+        if(mViewModel.tryRetry(direction)) {
+            Log.d(TAG, reason + " >> retry " + direction + " (" + mViewModel.getRetryCount(direction) + ")");
+            startAnalysis(direction);
+            return;
+        }
+
+        Log.d(TAG, reason + " >> skip " + direction);
+        mViewModel.onCaptureSkipped(direction);
+        if(!mViewModel.isLastOrder()) {
+            startAnalysis();
+        }
+    }
+
+    // 판정 직후 호출 (메인 스레드)
     private void takePicture(FaceChecker.Direction direction) {
-        if(imageCapture != null) {
-            imageCapture.takePicture(ContextCompat.getMainExecutor(requireContext()), new ImageCapture.OnImageCapturedCallback() {
-                @OptIn(markerClass = androidx.camera.core.ExperimentalGetImage.class)
-                @Override
-                public void onCaptureSuccess(@NonNull ImageProxy imageProxy) {
-                    super.onCaptureSuccess(imageProxy);
-                    Bitmap bitmap = convertBitmap(imageProxy);
-                    mBinding.captureImage.setImageBitmap(bitmap);
-                    mViewModel.setPicture(direction, bitmap);
-                    imageProxy.close();
+        triggerNs[direction.ordinal()] = verdictNs;
+        ZslFrameRing.Frame frame = zslRing != null ? zslRing.selectBest(ZSL_CANDIDATES) : null;
+        if(frame != null && analysisExecutor != null && isZslResolution(frame)) {
+            takeZslPicture(direction, frame);
+        } else {
+            if(frame != null) {
+                zslRing.release(frame);
+            }
+            takeCapturePicture(direction);
+        }
+    }
 
-                    if(mViewModel.isLastOrder()) {
-                        mViewModel.setFinished(true);
-                    } else {
-                        startAnalysis();
-                    }
-                }
+    private static boolean isZslResolution(ZslFrameRing.Frame frame) {
+        int shortSide = Math.min(frame.getWidth(), frame.getHeight());
+        int longSide = Math.max(frame.getWidth(), frame.getHeight());
+        return shortSide >= Math.min(IMAGE_SIZE.getWidth(), IMAGE_SIZE.getHeight())
+                && longSide >= Math.max(IMAGE_SIZE.getWidth(), IMAGE_SIZE.getHeight());
+    }
+
+    // 보관 중인 분석 프레임을 분석 스레드에서 JPEG 으로 인코딩 (다음 방향 분석 시작 전이므로 비어 있음)
+    private void takeZslPicture(FaceChecker.Direction direction, ZslFrameRing.Frame frame) {
+        isZslCapture[direction.ordinal()] = true;
+        long selectNs = System.nanoTime();
+        Log.d(TAG, "zsl capture >> " + direction + " score=" + frame.getScore() + " candidates=" + zslRing.getCandidateCount());
 
-                @Override
-                public void onError(@NonNull ImageCaptureException exception) {
-                    super.onError(exception);
-                    Log.e(TAG, "takePicture ERROR >>" + exception);
+        ZslFrameRing ring = zslRing;
+        Executor mainExecutor = ContextCompat.getMainExecutor(requireContext());
+        try {
+            analysisExecutor.execute(() -> {
+                CapturedImage picture;
+                try {
+                    picture = encodeZslFrame(frame);
+                } finally {
+                    ring.release(frame);
                 }
+                mainExecutor.execute(() -> {
+                    // 인코딩 중 화면이 없어진 경우
+                    if(!isAdded() || mBinding == null) {
+                        return;
+                    }
+                    if(picture == null) {
+                        Log.e(TAG, "zsl encode ERROR >> fallback to ImageCapture");
+                        isZslCapture[direction.ordinal()] = false;
+                        takeCapturePicture(direction);
+                        return;
+                    }
+                    mViewModel.getSessionMetrics().recordSince(SessionMetrics.Metric.ZSL_ENCODE, selectNs);
+                    onPictureTaken(direction, picture);
+                });
             });
+        } catch (RejectedExecutionException e) {
+            ring.release(frame);
+            isZslCapture[direction.ordinal()] = false;
+            takeCapturePicture(direction);
+        }
+    }
+
+    // NV21 -> JPEG (회전, 좌우반전은 ImageCapture 결과와 같이 값으로만 기록), 실패하면 null
+    @Nullable
+    private static CapturedImage encodeZslFrame(ZslFrameRing.Frame frame) {
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+        YuvImage yuvImage = new YuvImage(frame.getData(), ImageFormat.NV21, width, height, null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(width * height / 4);
+        if(!yuvImage.compressToJpeg(new Rect(0, 0, width, height), ZSL_JPEG_QUALITY, out)) {
+            return null;
+        }
+        return new CapturedImage(out.toByteArray(), frame.getRotationDegrees(), true);
+    }
+
+    // 고해상도 촬영 (ZSL 후보가 없을 때)
+    private void takeCapturePicture(FaceChecker.Direction direction) {
+        isZslCapture[direction.ordinal()] = false;
+        if(imageCapture == null || !isAdded()) {
+            Log.e(TAG, "takePicture ERROR >> camera not ready");
+            onTakePictureFailed(direction);
+            return;
+        }
+        imageCapture.takePicture(ContextCompat.getMainExecutor(requireContext()), new ImageCapture.OnImageCapturedCallback() {
+            @OptIn(markerClass = androidx.camera.core.ExperimentalGetImage.class)
+            @Override
+            public void onCaptureSuccess(@NonNull ImageProxy imageProxy) {
+                super.onCaptureSuccess(imageProxy);
+                if(!isAdded() || mBinding == null) {
+                    imageProxy.close();
+                    return;
+                }
+                SessionMetrics metrics = mViewModel.getSessionMetrics();
+                long copyStartNs = System.nanoTime();
+                metrics.record(SessionMetrics.Metric.VERDICT_TO_CAPTURE, copyStartNs - verdictNs);
+                CapturedImage picture = toCapturedImage(imageProxy);
+                imageProxy.close();
+                metrics.recordSince(SessionMetrics.Metric.CAPTURE_COPY, copyStartNs);
+                onPictureTaken(direction, picture);
+            }
+
+            @Override
+            public void onError(@NonNull ImageCaptureException exception) {
+                super.onError(exception);
+                Log.e(TAG, "takePicture ERROR >>" + exception);
+                onTakePictureFailed(direction);
+            }
+        });
+    }
+
+    // 촬영 실패 (메인 스레드), 재촬영 대기열에 넣거나 건너뛰고 다음 방향 분석
+    // 마지막 방향이었으면 재촬영 신호(getIsRetakePending) 로 다시 시작하므로 여기서는 시작하지 않음
+    private void onTakePictureFailed(FaceChecker.Direction direction) {
+        boolean wasLastOrder = mViewModel.isLastOrder();
+        mViewModel.onCaptureTakeFailed(direction);
+        if(!wasLastOrder && isAdded() && mBinding != null && imageAnalysis != null) {
+            startAnalysis();
         }
     }
 
-    // Image -> Bitmap 변환
-    private Bitmap convertBitmap(ImageProxy image) {
-        ByteBuffer byteBuffer = image.getPlanes()[0].getBuffer();
-        byteBuffer.rewind();
-        byte[] bytes = new byte[byteBuffer.capacity()];
-        byteBuffer.get(bytes);
-        byte[] clonedBytes = bytes.clone();
-        Bitmap result = BitmapFactory.decodeByteArray(clonedBytes, 0, clonedBytes.length);
+    // 디코딩, 회전은 후처리 스레드에서 진행하고 다음 방향 분석은 바로 시작 (메인 스레드)
+    private void onPictureTaken(FaceChecker.Direction direction, CapturedImage picture) {
+        if(capturePipeline == null) {
+            return;
+        }
+        mViewModel.onCaptureQueued();
+        captureSubmitNs[direction.ordinal()] = System.nanoTime();
+        capturePipeline.submit(direction, picture, captureCallback);
+        if(!mViewModel.isLastOrder()) {
+            startAnalysis();
+        }
+    }
+
+    // 메인 스레드에서 호출
+    private final CapturePipeline.Callback<Bitmap> captureCallback = new CapturePipeline.Callback<Bitmap>() {
+        @Override
+        public void onProcessed(FaceChecker.Direction direction, CapturedImage stored, Bitmap image) {
+            mViewModel.getSessionMetrics().recordSince(SessionMetrics.Metric.CAPTURE_PROCESS, captureSubmitNs[direction.ordinal()]);
+            if(mBinding != null) {
+                mBinding.captureImage.setImageBitmap(image);
+            }
+            // 화면이 없어져도 기록되도록 값만 넘김
+            SessionMetrics metrics = mViewModel.getSessionMetrics();
+            SessionMetrics.Metric savedMetric = isZslCapture[direction.ordinal()]
+                    ? SessionMetrics.Metric.TRIGGER_TO_SAVED_ZSL : SessionMetrics.Metric.TRIGGER_TO_SAVED_CAPTURE;
+            long startNs = triggerNs[direction.ordinal()];
+            mViewModel.setPicture(direction, stored, () -> metrics.recordSince(savedMetric, startNs));
+            if(capturePipeline != null) {
+                Log.d(TAG, "capture processed >> " + direction
+                        + " decode=" + capturePipeline.getAverageNanos(CapturePipeline.Stage.DECODE) / 1000
+                        + "us orient=" + capturePipeline.getAverageNanos(CapturePipeline.Stage.ORIENT) / 1000
+                        + "us downscale=" + capturePipeline.getAverageNanos(CapturePipeline.Stage.DOWNSCALE) / 1000
+                        + "us encode=" + capturePipeline.getAverageNanos(CapturePipeline.Stage.ENCODE) / 1000 + "us");
+            }
+        }
 
-        int degrees = image.getImageInfo().getRotationDegrees();
-        if(degrees > 0) {
-            // 이미지 회전처리
-            Matrix matrix = new Matrix();
-            matrix.setScale(-1, 1);
-            matrix.postRotate(360 - degrees);
-            result = Bitmap.createBitmap(result, 0, 0, result.getWidth(), result.getHeight(), matrix, true);
+        @Override
+        public void onError(FaceChecker.Direction direction, Exception e) {
+            Log.e(TAG, "capture processing ERROR >> " + direction + " " + e);
+            mViewModel.onCaptureFailed(direction);
         }
+    };
 
-        return result;
+    // JPEG 을 디코딩하지 않고 그대로 보관 (전면 카메라이므로 좌우반전)
+    private CapturedImage toCapturedImage(ImageProxy image) {
+        return CapturedImage.fromBuffer(
+                image.getPlanes()[0].getBuffer(),
+                image.getImageInfo().getRotationDegrees(),
+                true
+        );
     }
 }
@@ -1,52 +1,115 @@
 package me.penguinpistol.facedetectioncamera;
 
-import android.graphics.Bitmap;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.ImageView;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.constraintlayout.widget.ConstraintLayout;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
 import me.penguinpistol.facedetectioncamera.databinding.FragmentTakePictureResultBinding;
 
 public class TakePictureResultFragment extends Fragment {
+    private static final String TAG = "TakePictureResultFragment";
 
     private FragmentTakePictureResultBinding mBinding;
+    private CameraViewModel mViewModel;
 
     @Nullable
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
         mBinding = FragmentTakePictureResultBinding.inflate(inflater, container, false);
-        CameraViewModel viewModel = new ViewModelProvider(requireActivity()).get(CameraViewModel.class);
+        mViewModel = new ViewModelProvider(requireActivity()).get(CameraViewModel.class);
 
-        for(FaceChecker.Direction dir : viewModel.getTakePictures().keySet()) {
-            setImage(dir, viewModel.getTakePictures().get(dir));
+        // 촬영 계획의 방향만 왼쪽 -> 오른쪽 각도 순으로 표시
+        List<FaceChecker.Direction> directions = getDisplayOrder(mViewModel.getCapturePlan());
+        int[] ids = new int[directions.size()];
+        for(int i = 0; i < ids.length; i++) {
+            ImageView imageView = createImageView();
+            mBinding.getRoot().addView(imageView);
+            ids[i] = imageView.getId();
+            setImage(directions.get(i), imageView);
         }
+        mBinding.flowPictures.setReferencedIds(ids);
 
         return mBinding.getRoot();
     }
 
-    private void setImage(FaceChecker.Direction dir, Bitmap bitmap) {
-        switch(dir) {
-            case FRONT:
-                mBinding.ivFront.setImageBitmap(bitmap);
-                break;
-            case LEFT_30:
-                mBinding.ivL30.setImageBitmap(bitmap);
-                break;
-            case LEFT_45:
-                mBinding.ivL45.setImageBitmap(bitmap);
-                break;
-            case RIGHT_30:
-                mBinding.ivR30.setImageBitmap(bitmap);
-                break;
-            case RIGHT_45:
-                mBinding.ivR45.setImageBitmap(bitmap);
-                break;
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+        // 업로드 서버는 호출하는 쪽에서 지정 (TakePictureActivity.EXTRA_UPLOAD_URL)
+        String uploadUrl = requireActivity().getIntent().getStringExtra(TakePictureActivity.EXTRA_UPLOAD_URL);
+        if(uploadUrl != null) {
+            startUpload(uploadUrl);
+        }
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        mBinding = null;
+    }
+
+    // 끊겼던 업로드도 다시 호출하면 서버가 받은 청크 다음부터 이어서 올림
+    private void startUpload(String uploadUrl) {
+        mViewModel.getUploadProgress().observe(getViewLifecycleOwner(), progress -> {
+            if(progress == CameraViewModel.UPLOAD_FAILED) {
+                Log.e(TAG, "upload failed >> retry on next visit");
+            } else if(progress >= 0) {
+                Log.d(TAG, "upload >> " + progress + "%");
+            }
+        });
+        try {
+            mViewModel.uploadSession(new URL(uploadUrl));
+        } catch (MalformedURLException e) {
+            Log.e(TAG, "upload ERROR >> " + e);
+        }
+    }
+
+    private ImageView createImageView() {
+        ImageView imageView = new ImageView(requireContext());
+        imageView.setId(View.generateViewId());
+
+        ConstraintLayout.LayoutParams params = new ConstraintLayout.LayoutParams(0, 0);
+        params.dimensionRatio = "9:16";
+        params.topToTop = ConstraintLayout.LayoutParams.PARENT_ID;
+        params.bottomToBottom = ConstraintLayout.LayoutParams.PARENT_ID;
+        imageView.setLayoutParams(params);
+        return imageView;
+    }
+
+    private void setImage(FaceChecker.Direction dir, ImageView imageView) {
+        if(!mViewModel.getTakePictureDirections().contains(dir)) {
+            return;
+        }
+        // 레이아웃이 끝난 뒤 ImageView 크기에 맞춰 디코딩 (IO 스레드), 그 사이 화면이 없어지면 버림
+        imageView.post(() -> mViewModel.loadThumbnail(dir, imageView.getWidth(), imageView.getHeight(), (direction, thumbnail) -> {
+            if(mBinding == null) {
+                return;
+            }
+            imageView.setImageBitmap(thumbnail);
+            Log.d(TAG, "capture footprint >> memory=" + mViewModel.getMemoryFootprintBytes() + " disk=" + mViewModel.getDiskFootprintBytes());
+        }));
+    }
+
+    private static List<FaceChecker.Direction> getDisplayOrder(CapturePlan plan) {
+        List<FaceChecker.Direction> directions = new ArrayList<>(plan.size());
+        for(int i = 0; i < plan.size(); i++) {
+            directions.add(plan.get(i));
         }
+        directions.sort((a, b) -> Float.compare(a.angle, b.angle));
+        return directions;
     }
-}
\ No newline at end of file
+}
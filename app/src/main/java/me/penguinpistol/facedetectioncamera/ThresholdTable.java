@@ -0,0 +1,46 @@
+package me.penguinpistol.facedetectioncamera;
+
+// 촬영 계획의 방향별 판정 기준표 (계획을 정할 때 한 번만 생성)
+// 일정 시간 동안 촬영하지 못하면 완화된 기준으로 전환
+// 방향별로 다른 값은 각도 오차값뿐 (CapturePlan 에 있는 값), 위치/가로비율/눈열림은 모든 방향이 FaceThresholds 기본값
+// 옆모습에서 가로비율, 눈열림이 달라지는지는 FrameRecorder 기록으로 확인한 뒤 방향별 값으로 나눔
+public final class ThresholdTable {
+
+    // 완화 기준
+    public static final float RELAX_EXTRA_ANGLE = 3f;
+    public static final float RELAX_POSITION_SCALE = 1.5f;
+    public static final float RELAX_EXTRA_RATIO = 0.1f;
+
+    private static final int DIRECTION_COUNT = FaceChecker.Direction.values().length;
+
+    // Direction.ordinal() 인덱스
+    private final FaceThresholds[] base = new FaceThresholds[DIRECTION_COUNT];
+    private final FaceThresholds[] relaxed = new FaceThresholds[DIRECTION_COUNT];
+    private final long[] relaxAfterMs = new long[DIRECTION_COUNT];
+
+    public ThresholdTable(CapturePlan plan) {
+        for(FaceChecker.Direction dir : FaceChecker.Direction.values()) {
+            int i = dir.ordinal();
+            FaceThresholds thresholds = plan.contains(dir)
+                    ? new FaceThresholds(dir, plan.getAngleTolerance(dir), FaceThresholds.DEFAULT_POSITION_ERROR, FaceThresholds.DEFAULT_RATIO_ERROR, FaceThresholds.DEFAULT_EYE_OPEN)
+                    : FaceThresholds.defaults(dir);
+            base[i] = thresholds;
+            relaxed[i] = thresholds.relax(RELAX_EXTRA_ANGLE, RELAX_POSITION_SCALE, RELAX_EXTRA_RATIO);
+            relaxAfterMs[i] = plan.contains(dir) ? plan.getRelaxAfterMs(dir) : 0;
+        }
+    }
+
+    public FaceThresholds get(FaceChecker.Direction dir) {
+        return base[dir.ordinal()];
+    }
+
+    public FaceThresholds getRelaxed(FaceChecker.Direction dir) {
+        return relaxed[dir.ordinal()];
+    }
+
+    // elapsedMs: 해당 방향 분석 시작 후 경과 시간
+    public boolean shouldRelax(FaceChecker.Direction dir, long elapsedMs) {
+        long after = relaxAfterMs[dir.ordinal()];
+        return after > 0 && elapsedMs >= after;
+    }
+}
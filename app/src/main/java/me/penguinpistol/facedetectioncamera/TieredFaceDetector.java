@@ -0,0 +1,127 @@
+package me.penguinpistol.facedetectioncamera;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// 2단계 얼굴 검출
+// FAST 단계를 계속 돌리다가 얼굴이 목표영역, 목표각도 근처에 오면 ACCURATE 단계로 전환
+public class TieredFaceDetector<I> {
+
+    public interface Listener {
+        // ACCURATE 단계 결과만 전달 (FAST 단계는 전환 판단에만 사용)
+        void onFace(FaceObservation face);
+
+        void onError(Exception e);
+
+        // 프레임 처리 완료 (결과와 상관없이 항상 호출)
+        void onComplete();
+    }
+
+    private static final float NEAR_POSITION_RATIO  = 0.25f;        // 목표 가로길이 대비 중심거리
+    private static final float NEAR_RATIO_ERROR     = 0.4f;         // 가로비율 오차값
+    private static final float NEAR_ANGLE_ERROR     = 15f;          // Y 각도 오차값
+    private static final int FALLBACK_MISS_COUNT    = 3;            // FAST 로 되돌아가기까지 연속 실패 횟수
+
+    private final FaceDetectorBackend<I> backend;
+
+    private final float targetCenterX;
+    private final float targetCenterY;
+    private final float targetWidth;
+
+    private final AtomicLongArray frameCounts = new AtomicLongArray(DetectionTier.values().length);
+
+    private volatile DetectionTier currentTier = DetectionTier.FAST;
+    private volatile FaceChecker.Direction direction;
+    private int missCount = 0;
+
+    public TieredFaceDetector(FaceDetectorBackend<I> backend, float targetLeft, float targetTop, float targetRight, float targetBottom) {
+        this.backend = backend;
+        targetCenterX = (targetLeft + targetRight) * 0.5f;
+        targetCenterY = (targetTop + targetBottom) * 0.5f;
+        targetWidth = targetRight - targetLeft;
+    }
+
+    // 촬영 방향이 바뀌면 FAST 단계부터 다시 시작
+    public void setDirection(FaceChecker.Direction direction) {
+        this.direction = direction;
+        currentTier = DetectionTier.FAST;
+        missCount = 0;
+    }
+
+    public void process(I image, Listener listener) {
+        process(image, RoiMapping.IDENTITY, listener);
+    }
+
+    // mapping: 잘라낸 이미지를 넘기는 경우 결과를 전체 프레임 좌표로 되돌리는 변환
+    public void process(I image, RoiMapping mapping, Listener listener) {
+        final DetectionTier tier = currentTier;
+        frameCounts.incrementAndGet(tier.ordinal());
+
+        backend.process(tier, image, new FaceDetectorBackend.Callback() {
+            @Override
+            public void onResult(DetectionTier tier, FaceObservation face) {
+                if(face != null) {
+                    mapping.apply(face);
+                }
+                boolean isNear = face != null && isNearTarget(face);
+                if(tier == DetectionTier.FAST) {
+                    if(isNear) {
+                        missCount = 0;
+                        currentTier = DetectionTier.ACCURATE;
+                    }
+                } else {
+                    missCount = isNear ? 0 : missCount + 1;
+                    if(missCount >= FALLBACK_MISS_COUNT) {
+                        missCount = 0;
+                        currentTier = DetectionTier.FAST;
+                    }
+                    if(face != null) {
+                        listener.onFace(face);
+                    }
+                }
+                listener.onComplete();
+            }
+
+            @Override
+            public void onError(DetectionTier tier, Exception e) {
+                listener.onError(e);
+                listener.onComplete();
+            }
+        });
+    }
+
+    public DetectionTier getCurrentTier() {
+        return currentTier;
+    }
+
+    // 단계별 처리 프레임 수
+    public long getFrameCount(DetectionTier tier) {
+        return frameCounts.get(tier.ordinal());
+    }
+
+    public void close() {
+        backend.close();
+    }
+
+    // 검출 사각형, Y 각도가 대략 목표 근처인지 (FaceChecker 보다 느슨한 기준)
+    boolean isNearTarget(FaceObservation face) {
+        FaceChecker.Direction dir = direction;
+        if(dir == null || !face.hasBounds()) {
+            return false;
+        }
+
+        float[] bounds = face.getBounds();
+        float dx = (bounds[ContourUtils.LEFT] + bounds[ContourUtils.RIGHT]) * 0.5f - targetCenterX;
+        float dy = (bounds[ContourUtils.TOP] + bounds[ContourUtils.BOTTOM]) * 0.5f - targetCenterY;
+        float maxDistance = targetWidth * NEAR_POSITION_RATIO;
+        if(dx * dx + dy * dy > maxDistance * maxDistance) {
+            return false;
+        }
+
+        float ratio = (bounds[ContourUtils.RIGHT] - bounds[ContourUtils.LEFT]) / targetWidth;
+        if(ratio < 1 - NEAR_RATIO_ERROR || ratio > 1 + NEAR_RATIO_ERROR) {
+            return false;
+        }
+
+        return dir.check(face.getEulerY(), NEAR_ANGLE_ERROR);
+    }
+}
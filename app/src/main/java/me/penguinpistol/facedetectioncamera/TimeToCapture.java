@@ -0,0 +1,66 @@
+package me.penguinpistol.facedetectioncamera;
+
+import java.util.Arrays;
+
+// 방향별 촬영 소요시간 (분석 시작 ~ 자동촬영 판정, 재시도 포함)
+public final class TimeToCapture {
+
+    private static final int DIRECTION_COUNT = FaceChecker.Direction.values().length;
+
+    // Direction.ordinal() 인덱스, 기록 없으면 -1
+    private final long[] elapsedMs = new long[DIRECTION_COUNT];
+    private final boolean[] relaxed = new boolean[DIRECTION_COUNT];
+
+    public TimeToCapture() {
+        clear();
+    }
+
+    public void record(FaceChecker.Direction dir, long ms, boolean isRelaxed) {
+        elapsedMs[dir.ordinal()] = ms;
+        relaxed[dir.ordinal()] = isRelaxed;
+    }
+
+    public void clear() {
+        Arrays.fill(elapsedMs, -1);
+        Arrays.fill(relaxed, false);
+    }
+
+    // 기록 없으면 -1
+    public long get(FaceChecker.Direction dir) {
+        return elapsedMs[dir.ordinal()];
+    }
+
+    // 완화된 기준으로 촬영했는지
+    public boolean isRelaxed(FaceChecker.Direction dir) {
+        return relaxed[dir.ordinal()];
+    }
+
+    // 기록된 방향 전체 소요시간
+    public long getTotalMs() {
+        long total = 0;
+        for(long ms : elapsedMs) {
+            if(ms > 0) {
+                total += ms;
+            }
+        }
+        return total;
+    }
+
+    public String format() {
+        StringBuilder sb = new StringBuilder();
+        for(FaceChecker.Direction dir : FaceChecker.Direction.values()) {
+            long ms = get(dir);
+            if(ms < 0) {
+                continue;
+            }
+            if(sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(dir.name()).append('=').append(ms).append("ms");
+            if(isRelaxed(dir)) {
+                sb.append("(relaxed)");
+            }
+        }
+        return sb.toString();
+    }
+}
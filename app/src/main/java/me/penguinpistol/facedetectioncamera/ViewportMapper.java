@@ -0,0 +1,175 @@
+package me.penguinpistol.facedetectioncamera;
+
+// 분석 이미지 좌표 -> 뷰 좌표 변환 (PreviewView 의 FILL_CENTER / FIT_CENTER 와 동일한 배치)
+// 이미지 좌표는 ML Kit 결과처럼 회전이 적용된 정방향 기준, 전면카메라는 좌우반전
+// 같은 (뷰 크기, 이미지 크기, 회전) 으로 다시 configure 하면 계산하지 않음
+public final class ViewportMapper {
+
+    public enum ScaleType {
+        FILL_CENTER,        // 뷰를 가득 채움 (이미지 일부가 잘림)
+        FIT_CENTER,         // 이미지 전체가 보임 (여백 생김)
+    }
+
+    // 목표영역: 정방향 이미지 가로 대비 너비, 너비 대비 높이 (이미지 중앙)
+    public static final float TARGET_WIDTH_RATIO = 0.48f;
+    public static final float TARGET_HEIGHT_RATIO = 1.4f;
+
+    private final ScaleType scaleType;
+    private final boolean isMirrored;
+
+    private int viewWidth = -1;
+    private int viewHeight = -1;
+    private int imageWidth = -1;
+    private int imageHeight = -1;
+    private int rotationDegrees = -1;
+
+    // 정방향 이미지 크기
+    private int uprightWidth;
+    private int uprightHeight;
+
+    // x' = translateX + x * scaleX, y' = translateY + y * scale (반전 시 scaleX < 0)
+    private float scale;
+    private float scaleX;
+    private float translateX;
+    private float translateY;
+
+    public ViewportMapper(ScaleType scaleType, boolean isMirrored) {
+        this.scaleType = scaleType;
+        this.isMirrored = isMirrored;
+    }
+
+    // 정방향 이미지 기준 목표영역 [left, top, right, bottom] (ContourUtils 인덱스)
+    public static void computeTargetRect(int uprightWidth, int uprightHeight, float[] out) {
+        float width = uprightWidth * TARGET_WIDTH_RATIO;
+        float height = width * TARGET_HEIGHT_RATIO;
+        out[ContourUtils.LEFT] = (uprightWidth - width) * 0.5f;
+        out[ContourUtils.TOP] = (uprightHeight - height) * 0.5f;
+        out[ContourUtils.RIGHT] = out[ContourUtils.LEFT] + width;
+        out[ContourUtils.BOTTOM] = out[ContourUtils.TOP] + height;
+    }
+
+    // imageWidth, imageHeight: 카메라 버퍼 크기, rotationDegrees: 0, 90, 180, 270
+    // 값이 바뀌어서 다시 계산했으면 true
+    public boolean configure(int viewWidth, int viewHeight, int imageWidth, int imageHeight, int rotationDegrees) {
+        if(viewWidth <= 0 || viewHeight <= 0 || imageWidth <= 0 || imageHeight <= 0) {
+            throw new IllegalArgumentException("invalid size >> view " + viewWidth + "x" + viewHeight + " image " + imageWidth + "x" + imageHeight);
+        }
+        if(rotationDegrees != 0 && rotationDegrees != 90 && rotationDegrees != 180 && rotationDegrees != 270) {
+            throw new IllegalArgumentException("invalid rotation >> " + rotationDegrees);
+        }
+        if(viewWidth == this.viewWidth && viewHeight == this.viewHeight
+                && imageWidth == this.imageWidth && imageHeight == this.imageHeight
+                && rotationDegrees == this.rotationDegrees) {
+            return false;
+        }
+
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+        this.imageWidth = imageWidth;
+        this.imageHeight = imageHeight;
+        this.rotationDegrees = rotationDegrees;
+
+        boolean isRotated = rotationDegrees == 90 || rotationDegrees == 270;
+        uprightWidth = isRotated ? imageHeight : imageWidth;
+        uprightHeight = isRotated ? imageWidth : imageHeight;
+
+        float sx = (float)viewWidth / uprightWidth;
+        float sy = (float)viewHeight / uprightHeight;
+        scale = scaleType == ScaleType.FILL_CENTER ? Math.max(sx, sy) : Math.min(sx, sy);
+
+        float offsetX = (viewWidth - uprightWidth * scale) * 0.5f;
+        translateY = (viewHeight - uprightHeight * scale) * 0.5f;
+        if(isMirrored) {
+            // x' = viewWidth - (offsetX + x * scale)
+            scaleX = -scale;
+            translateX = viewWidth - offsetX;
+        } else {
+            scaleX = scale;
+            translateX = offsetX;
+        }
+        return true;
+    }
+
+    public boolean isConfigured() {
+        return viewWidth > 0;
+    }
+
+    public float mapX(float x) {
+        return translateX + x * scaleX;
+    }
+
+    public float mapY(float y) {
+        return translateY + y * scale;
+    }
+
+    // 뷰 좌표 -> 이미지 좌표
+    public float unmapX(float viewX) {
+        return (viewX - translateX) / scaleX;
+    }
+
+    public float unmapY(float viewY) {
+        return (viewY - translateY) / scale;
+    }
+
+    // x, y 순서로 packed 된 좌표 count 개 변환 (src == dst 가능)
+    public void mapPoints(float[] src, int srcOffset, float[] dst, int dstOffset, int count) {
+        for(int i = 0; i < count * 2; i += 2) {
+            float x = src[srcOffset + i];
+            float y = src[srcOffset + i + 1];
+            dst[dstOffset + i] = mapX(x);
+            dst[dstOffset + i + 1] = mapY(y);
+        }
+    }
+
+    // 사각형 변환 [left, top, right, bottom], 반전되어도 left <= right 유지
+    public void mapRect(float left, float top, float right, float bottom, float[] out) {
+        float x1 = mapX(left);
+        float x2 = mapX(right);
+        out[ContourUtils.LEFT] = Math.min(x1, x2);
+        out[ContourUtils.TOP] = mapY(top);
+        out[ContourUtils.RIGHT] = Math.max(x1, x2);
+        out[ContourUtils.BOTTOM] = mapY(bottom);
+    }
+
+    // android.graphics.Matrix.setValues 순서의 3x3 행렬
+    public void getMatrixValues(float[] out) {
+        out[0] = scaleX;
+        out[1] = 0;
+        out[2] = translateX;
+        out[3] = 0;
+        out[4] = scale;
+        out[5] = translateY;
+        out[6] = 0;
+        out[7] = 0;
+        out[8] = 1;
+    }
+
+    // 이미지 1px 당 뷰 픽셀 수
+    public float getScale() {
+        return scale;
+    }
+
+    public float getTranslateX() {
+        return translateX;
+    }
+
+    public float getTranslateY() {
+        return translateY;
+    }
+
+    public int getUprightWidth() {
+        return uprightWidth;
+    }
+
+    public int getUprightHeight() {
+        return uprightHeight;
+    }
+
+    public ScaleType getScaleType() {
+        return scaleType;
+    }
+
+    public boolean isMirrored() {
+        return isMirrored;
+    }
+}
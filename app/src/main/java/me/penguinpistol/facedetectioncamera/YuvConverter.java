@@ -0,0 +1,229 @@
+package me.penguinpistol.facedetectioncamera;
+
+import java.nio.ByteBuffer;
+
+// YUV_420_888 평면 -> NV21 / ARGB 변환 (android 비의존, 출력 배열은 호출하는 쪽에서 재사용)
+// rowStride, pixelStride 를 그대로 따라가므로 planar (I420), interleave (NV21/NV12) 버퍼 모두 처리
+// 회전(시계방향), 좌우반전은 변환과 같은 루프에서 적용 (회전 후 반전, CapturedImage 와 같은 순서)
+public final class YuvConverter {
+
+    // 출력 좌표 (ox, oy) -> 원본 좌표 (sx, sy) 변환, 프레임마다 할당하지 않도록 회전 4 x 반전 2 가지를 미리 만들어 둠
+    // sx = originX + xx * ox + xy * oy, sy = originY + yx * ox + yy * oy
+    private static final class Orientation {
+        final int xx;
+        final int xy;
+        final int yx;
+        final int yy;
+        // 원점이 원본의 끝 (가로 - 1, 세로 - 1) 인지
+        final boolean isXFromEnd;
+        final boolean isYFromEnd;
+
+        Orientation(int xx, int xy, int yx, int yy, boolean isXFromEnd, boolean isYFromEnd) {
+            this.xx = xx;
+            this.xy = xy;
+            this.yx = yx;
+            this.yy = yy;
+            this.isXFromEnd = isXFromEnd;
+            this.isYFromEnd = isYFromEnd;
+        }
+
+        int originX(int width) {
+            return isXFromEnd ? width - 1 : 0;
+        }
+
+        int originY(int height) {
+            return isYFromEnd ? height - 1 : 0;
+        }
+    }
+
+    private static final Orientation[] ORIENTATIONS = new Orientation[8];
+
+    static {
+        for(int rotation = 0; rotation < 360; rotation += 90) {
+            ORIENTATIONS[index(rotation, false)] = createOrientation(rotation, false);
+            ORIENTATIONS[index(rotation, true)] = createOrientation(rotation, true);
+        }
+    }
+
+    // BT.601 full range (JFIF) 고정소수점 계수 (<< 16)
+    private static final int CR_R = 91881;          // 1.402
+    private static final int CB_G = 22554;          // 0.344136
+    private static final int CR_G = 46802;          // 0.714136
+    private static final int CB_B = 116130;         // 1.772
+    private static final int HALF = 1 << 15;
+
+    private YuvConverter() {
+    }
+
+    // width x height NV21 크기 (가로, 세로는 짝수)
+    public static int nv21Size(int width, int height) {
+        return width * height * 3 / 2;
+    }
+
+    // 회전 후 가로 (90/270 이면 가로세로가 바뀜)
+    public static int rotatedWidth(int width, int height, int rotationDegrees) {
+        return isRotated(rotationDegrees) ? height : width;
+    }
+
+    public static int rotatedHeight(int width, int height, int rotationDegrees) {
+        return isRotated(rotationDegrees) ? width : height;
+    }
+
+    // 프레임 전체를 NV21 (Y 평면 + VU interleave) 로 복사, 평면 버퍼 position 은 유지
+    public static void toNv21(ByteBuffer yPlane, int yRowStride, int yPixelStride,
+                              ByteBuffer uPlane, ByteBuffer vPlane, int uvRowStride, int uvPixelStride,
+                              int width, int height, byte[] outNv21) {
+        toNv21(yPlane, yRowStride, yPixelStride, uPlane, vPlane, uvRowStride, uvPixelStride, width, height, 0, false, outNv21);
+    }
+
+    // 회전, 반전을 적용한 NV21 (rotatedWidth x rotatedHeight)
+    public static void toNv21(ByteBuffer yPlane, int yRowStride, int yPixelStride,
+                              ByteBuffer uPlane, ByteBuffer vPlane, int uvRowStride, int uvPixelStride,
+                              int width, int height, int rotationDegrees, boolean mirror, byte[] outNv21) {
+        checkSize(width, height);
+        if(outNv21.length < nv21Size(width, height)) {
+            throw new IllegalArgumentException("output buffer too small : " + outNv21.length + " < " + nv21Size(width, height));
+        }
+        int rotation = normalize(rotationDegrees);
+        int outW = rotatedWidth(width, height, rotation);
+        int outH = rotatedHeight(width, height, rotation);
+        Orientation t = ORIENTATIONS[index(rotation, mirror)];
+
+        // Y
+        int yBase = yPlane.position();
+        if(rotation == 0 && !mirror && yPixelStride == 1) {
+            ByteBuffer y = yPlane.duplicate();
+            for(int row = 0; row < height; row++) {
+                y.position(yBase + row * yRowStride);
+                y.get(outNv21, row * width, width);
+            }
+        } else {
+            int x0 = t.originX(width);
+            int y0 = t.originY(height);
+            int stepX = t.xx * yPixelStride + t.yx * yRowStride;
+            int o = 0;
+            for(int oy = 0; oy < outH; oy++) {
+                int index = yBase + (x0 + t.xy * oy) * yPixelStride + (y0 + t.yy * oy) * yRowStride;
+                for(int ox = 0; ox < outW; ox++) {
+                    outNv21[o++] = yPlane.get(index);
+                    index += stepX;
+                }
+            }
+        }
+
+        // VU (색차 평면도 같은 방식으로 회전)
+        int chromaW = width / 2;
+        int chromaH = height / 2;
+        int x0 = t.originX(chromaW);
+        int y0 = t.originY(chromaH);
+        int stepX = t.xx * uvPixelStride + t.yx * uvRowStride;
+        int uBase = uPlane.position();
+        int vBase = vPlane.position();
+        int o = outW * outH;
+        for(int oy = 0; oy < outH / 2; oy++) {
+            int index = (x0 + t.xy * oy) * uvPixelStride + (y0 + t.yy * oy) * uvRowStride;
+            for(int ox = 0; ox < outW / 2; ox++) {
+                outNv21[o++] = vPlane.get(vBase + index);
+                outNv21[o++] = uPlane.get(uBase + index);
+                index += stepX;
+            }
+        }
+    }
+
+    // 회전, 반전을 적용한 ARGB_8888 (rotatedWidth x rotatedHeight, Bitmap.setPixels 순서)
+    public static void toArgb(ByteBuffer yPlane, int yRowStride, int yPixelStride,
+                              ByteBuffer uPlane, ByteBuffer vPlane, int uvRowStride, int uvPixelStride,
+                              int width, int height, int rotationDegrees, boolean mirror, int[] outArgb) {
+        checkSize(width, height);
+        if(outArgb.length < width * height) {
+            throw new IllegalArgumentException("output buffer too small : " + outArgb.length + " < " + width * height);
+        }
+        int rotation = normalize(rotationDegrees);
+        int outW = rotatedWidth(width, height, rotation);
+        int outH = rotatedHeight(width, height, rotation);
+        Orientation t = ORIENTATIONS[index(rotation, mirror)];
+        int x0 = t.originX(width);
+        int y0 = t.originY(height);
+
+        int yBase = yPlane.position();
+        int uBase = uPlane.position();
+        int vBase = vPlane.position();
+        int o = 0;
+        for(int oy = 0; oy < outH; oy++) {
+            int sx = x0 + t.xy * oy;
+            int sy = y0 + t.yy * oy;
+            for(int ox = 0; ox < outW; ox++) {
+                int y = yPlane.get(yBase + sy * yRowStride + sx * yPixelStride) & 0xFF;
+                int chroma = (sy >> 1) * uvRowStride + (sx >> 1) * uvPixelStride;
+                int u = (uPlane.get(uBase + chroma) & 0xFF) - 128;
+                int v = (vPlane.get(vBase + chroma) & 0xFF) - 128;
+                outArgb[o++] = argb(y, u, v);
+                sx += t.xx;
+                sy += t.yx;
+            }
+        }
+    }
+
+    // NV21 배열 -> ARGB_8888 (ZSL 프레임 썸네일 등)
+    public static void nv21ToArgb(byte[] nv21, int width, int height, int rotationDegrees, boolean mirror, int[] outArgb) {
+        ByteBuffer buffer = ByteBuffer.wrap(nv21);
+        int chroma = width * height;
+        ByteBuffer vPlane = ByteBuffer.wrap(nv21, chroma, nv21.length - chroma).slice();
+        ByteBuffer uPlane = ByteBuffer.wrap(nv21, chroma + 1, nv21.length - chroma - 1).slice();
+        toArgb(buffer, width, 1, uPlane, vPlane, width, 2, width, height, rotationDegrees, mirror, outArgb);
+    }
+
+    // y: 0 ~ 255, u, v: -128 ~ 127
+    static int argb(int y, int u, int v) {
+        int base = (y << 16) + HALF;
+        int r = (base + CR_R * v) >> 16;
+        int g = (base - CB_G * u - CR_G * v) >> 16;
+        int b = (base + CB_B * u) >> 16;
+        return 0xFF000000 | (clamp(r) << 16) | (clamp(g) << 8) | clamp(b);
+    }
+
+    private static int clamp(int value) {
+        return value < 0 ? 0 : (value > 255 ? 255 : value);
+    }
+
+    // 반전은 회전 후 출력 가로 방향으로 적용 (x = 반전 적용한 출력 가로 좌표)
+    private static Orientation createOrientation(int rotation, boolean mirror) {
+        int ms = mirror ? -1 : 1;
+        switch(rotation) {
+            case 90:
+                // sx = oy, sy = h - 1 - x
+                return new Orientation(0, 1, -ms, 0, false, !mirror);
+            case 180:
+                // sx = w - 1 - x, sy = h - 1 - oy
+                return new Orientation(-ms, 0, 0, -1, !mirror, true);
+            case 270:
+                // sx = w - 1 - oy, sy = x
+                return new Orientation(0, -1, ms, 0, true, mirror);
+            default:
+                // sx = x, sy = oy
+                return new Orientation(ms, 0, 0, 1, mirror, false);
+        }
+    }
+
+    private static int index(int rotation, boolean mirror) {
+        return rotation / 90 * 2 + (mirror ? 1 : 0);
+    }
+
+    private static boolean isRotated(int rotationDegrees) {
+        int rotation = normalize(rotationDegrees);
+        return rotation == 90 || rotation == 270;
+    }
+
+    private static int normalize(int rotationDegrees) {
+        if(rotationDegrees % 90 != 0) {
+            throw new IllegalArgumentException("rotationDegrees must be a multiple of 90 : " + rotationDegrees);
+        }
+        return ((rotationDegrees % 360) + 360) % 360;
+    }
+
+    private static void checkSize(int width, int height) {
+        if(width <= 0 || height <= 0 || (width & 1) != 0 || (height & 1) != 0) {
+            throw new IllegalArgumentException("width, height must be positive and even : " + width + "x" + height);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package me.penguinpistol.facedetectioncamera;
+
+// 최근 분석 프레임을 NV21 로 보관하는 고정 크기 링 (ZSL 촬영용)
+// 프레임 복사 후 검출 결과가 나오면 점수를 기록하고, 촬영 시점에 최근 N개 중 점수가 가장 높은 프레임을 선택
+// 버퍼는 처음 쓰는 슬롯에서 할당해서 재사용 (크기가 바뀔 때만 다시 할당), 모든 메소드는 스레드 안전
+// 슬롯이 모자라면 빈 슬롯 -> 판정 대기 중인 오래된 프레임 -> 점수가 낮은 후보 순으로 덮어씀
+public final class ZslFrameRing {
+
+    public static final class Frame {
+        private static final int EMPTY = 0;
+        private static final int WRITING = 1;       // 복사 중
+        private static final int READY = 2;         // 복사 완료, 판정 대기
+        private static final int SCORED = 3;        // 판정 기준 만족 (선택 후보)
+        private static final int LOCKED = 4;        // 선택되어 인코딩 중
+
+        private byte[] data;
+        private int state = EMPTY;
+        private long sequence;
+        private long timestampMs;
+        private int width;
+        private int height;
+        private int rotationDegrees;
+        private float score;
+
+        // NV21 (getWidth x getHeight, 앞쪽 YuvConverter.nv21Size 만큼만 유효)
+        public byte[] getData() {
+            return data;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public long getTimestampMs() {
+            return timestampMs;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        public int getRotationDegrees() {
+            return rotationDegrees;
+        }
+
+        public float getScore() {
+            return score;
+        }
+    }
+
+    private final Frame[] frames;
+    private long nextSequence = 1;
+
+    private long droppedCount = 0;
+
+    // 버퍼는 obtain 에서 필요할 때 할당
+    public ZslFrameRing(int capacity) {
+        if(capacity < 1) {
+            throw new IllegalArgumentException("capacity must be >= 1 : " + capacity);
+        }
+        frames = new Frame[capacity];
+        for(int i = 0; i < capacity; i++) {
+            frames[i] = new Frame();
+        }
+    }
+
+    // 복사할 슬롯, 복사 중/인코딩 중인 슬롯은 건너뜀
+    // 빈 슬롯 (할당된 버퍼 우선) -> 가장 오래된 판정 대기 프레임 -> 점수가 가장 낮은 후보 (같으면 오래된 것)
+    // 쓸 수 있는 슬롯이 없으면 null
+    public synchronized Frame obtain(long timestampMs, int width, int height, int rotationDegrees) {
+        Frame target = null;
+        for(Frame frame : frames) {
+            if(frame.state == Frame.WRITING || frame.state == Frame.LOCKED) {
+                continue;
+            }
+            if(target == null || isBetterSlot(frame, target)) {
+                target = frame;
+            }
+        }
+        if(target == null) {
+            droppedCount++;
+            return null;
+        }
+
+        int size = YuvConverter.nv21Size(width, height);
+        if(target.data == null || target.data.length < size) {
+            target.data = new byte[size];
+        }
+        target.state = Frame.WRITING;
+        target.sequence = nextSequence++;
+        target.timestampMs = timestampMs;
+        target.width = width;
+        target.height = height;
+        target.rotationDegrees = rotationDegrees;
+        target.score = 0f;
+        return target;
+    }
+
+    // 복사 완료
+    public synchronized void commit(Frame frame) {
+        if(frame.state == Frame.WRITING) {
+            frame.state = Frame.READY;
+        }
+    }
+
+    // 복사 실패, 슬롯 반환
+    public synchronized void abort(Frame frame) {
+        if(frame.state == Frame.WRITING) {
+            frame.state = Frame.EMPTY;
+        }
+    }
+
+    // 판정 기준을 만족하지 못한 프레임 (또는 얼굴이 없던 프레임) 반환, 이미 후보이거나 덮어쓴 경우 무시
+    public synchronized void discard(long sequence) {
+        for(Frame frame : frames) {
+            if(frame.sequence == sequence && frame.state == Frame.READY) {
+                frame.state = Frame.EMPTY;
+                return;
+            }
+        }
+    }
+
+    // 판정 기준을 만족한 프레임의 점수 기록, 이미 다른 프레임으로 덮어쓴 경우 false
+    public synchronized boolean score(long sequence, float score) {
+        for(Frame frame : frames) {
+            if(frame.sequence == sequence && frame.state == Frame.READY) {
+                frame.score = score;
+                frame.state = Frame.SCORED;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 최근 후보 maxCandidates 개 중 점수가 가장 높은 프레임 (release 전까지 덮어쓰지 않음)
+    // 후보가 없으면 null
+    public synchronized Frame selectBest(int maxCandidates) {
+        Frame best = null;
+        long bound = Long.MAX_VALUE;
+        for(int n = 0; n < maxCandidates; n++) {
+            // bound 보다 오래된 후보 중 가장 최근 것
+            Frame latest = null;
+            for(Frame frame : frames) {
+                if(frame.state == Frame.SCORED && frame.sequence < bound
+                        && (latest == null || frame.sequence > latest.sequence)) {
+                    latest = frame;
+                }
+            }
+            if(latest == null) {
+                break;
+            }
+            bound = latest.sequence;
+            // 점수가 같으면 더 최근 프레임
+            if(best == null || latest.score > best.score) {
+                best = latest;
+            }
+        }
+        if(best != null) {
+            best.state = Frame.LOCKED;
+        }
+        return best;
+    }
+
+    // selectBest 로 받은 프레임 반환
+    public synchronized void release(Frame frame) {
+        if(frame.state == Frame.LOCKED) {
+            frame.state = Frame.EMPTY;
+        }
+    }
+
+    // 후보, 판정 대기 프레임 모두 버림 (방향이 바뀔 때), 복사 중/인코딩 중인 프레임은 유지
+    public synchronized void clear() {
+        for(Frame frame : frames) {
+            if(frame.state == Frame.READY || frame.state == Frame.SCORED) {
+                frame.state = Frame.EMPTY;
+            }
+        }
+    }
+
+    public synchronized int getCandidateCount() {
+        int count = 0;
+        for(Frame frame : frames) {
+            if(frame.state == Frame.SCORED) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int getCapacity() {
+        return frames.length;
+    }
+
+    // 할당된 버퍼 크기 합
+    public synchronized long getAllocatedBytes() {
+        long total = 0;
+        for(Frame frame : frames) {
+            if(frame.data != null) {
+                total += frame.data.length;
+            }
+        }
+        return total;
+    }
+
+    // a 를 b 보다 먼저 덮어쓰는지 (EMPTY < READY < SCORED, 같은 상태면 오래된 것 / 점수가 낮은 것)
+    private static boolean isBetterSlot(Frame a, Frame b) {
+        if(a.state != b.state) {
+            return a.state < b.state;
+        }
+        if(a.state == Frame.EMPTY) {
+            return a.data != null && b.data == null;
+        }
+        if(a.state == Frame.SCORED && a.score != b.score) {
+            return a.score < b.score;
+        }
+        return a.sequence < b.sequence;
+    }
+
+    // 쓸 수 있는 슬롯이 없어서 보관하지 못한 프레임 수
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+}
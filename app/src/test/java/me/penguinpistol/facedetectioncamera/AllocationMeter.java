@@ -0,0 +1,38 @@
+package me.penguinpistol.facedetectioncamera;
+
+import org.junit.Assume;
+
+import java.lang.management.ManagementFactory;
+
+// 현재 스레드가 start ~ stop 사이에 할당한 바이트 (할당 없는 경로 검증용)
+// com.sun.management.ThreadMXBean 을 지원하지 않는 JVM 이면 테스트를 건너뜀
+final class AllocationMeter {
+
+    private final com.sun.management.ThreadMXBean bean;
+    private final long threadId;
+    private long startBytes;
+
+    private AllocationMeter(com.sun.management.ThreadMXBean bean, long threadId) {
+        this.bean = bean;
+        this.threadId = threadId;
+    }
+
+    // 측정할 스레드에서 호출
+    static AllocationMeter forCurrentThread() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean)bean).isThreadAllocatedMemorySupported());
+        com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean)bean;
+        sunBean.setThreadAllocatedMemoryEnabled(true);
+        return new AllocationMeter(sunBean, Thread.currentThread().getId());
+    }
+
+    void start() {
+        startBytes = bean.getThreadAllocatedBytes(threadId);
+    }
+
+    // start 이후 할당한 바이트
+    long stop() {
+        return bean.getThreadAllocatedBytes(threadId) - startBytes;
+    }
+}
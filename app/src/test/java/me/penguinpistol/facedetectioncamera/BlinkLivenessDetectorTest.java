@@ -0,0 +1,177 @@
+package me.penguinpistol.facedetectioncamera;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BlinkLivenessDetectorTest {
+
+    private static final long FRAME_MS = 33;        // 30fps
+
+    @Test
+    public void normalBlink_detectedOnReopen() {
+        BlinkLivenessDetector detector = new BlinkLivenessDetector();
+        long t = feed(detector, 0, 0.95f, 10);
+        t = feed(detector, t, 0.05f, 4);            // 약 130ms 감음
+        assertEquals(BlinkLivenessDetector.State.CLOSED, detector.getState());
+        assertFalse(detector.isLive());
+
+        assertTrue(detector.update(t, 0.9f, 0.92f));
+        assertTrue(detector.isLive());
+        assertEquals(1, detector.getBlinkCount());
+        assertEquals(t, detector.getLastBlinkMs());
+        assertEquals(4 * FRAME_MS, detector.getLastClosedDurationMs());
+        assertEquals(BlinkLivenessDetector.State.OPEN, detector.getState());
+    }
+
+    @Test
+    public void oneEyeClosed_countsAsClosed() {
+        // 두 눈 중 작은 값 기준
+        BlinkLivenessDetector detector = new BlinkLivenessDetector();
+        long t = feed(detector, 0, 0.9f, 3);
+        for(int i = 0; i < 3; i++, t += FRAME_MS) {
+            detector.update(t, 0.9f, 0.1f);
+        }
+        assertEquals(BlinkLivenessDetector.State.CLOSED, detector.getState());
+        assertEquals(0.1f, detector.getLastOpenness(), 0f);
+        assertTrue(detector.update(t, 0.9f, 0.9f));
+    }
+
+    @Test
+    public void singleFrameGlitch_rejected() {
+        BlinkLivenessDetector detector = new BlinkLivenessDetector();
+        long t = feed(detector, 0, 0.9f, 5);
+        detector.update(t, 0.1f, 0.1f);
+        assertFalse(detector.update(t + 20, 0.9f, 0.9f));       // 20ms < 40ms
+        assertFalse(detector.isLive());
+        assertEquals(BlinkLivenessDetector.State.OPEN, detector.getState());
+    }
+
+    @Test
+    public void longClosure_rejected() {
+        BlinkLivenessDetector detector = new BlinkLivenessDetector();
+        long t = feed(detector, 0, 0.9f, 5);
+        t = feed(detector, t, 0.1f, 20);            // 약 660ms
+        assertFalse(detector.update(t, 0.9f, 0.9f));
+        assertFalse(detector.isLive());
+    }
+
+    @Test
+    public void hysteresis_keepsPreviousState() {
+        BlinkLivenessDetector detector = new BlinkLivenessDetector();
+        long t = feed(detector, 0, 0.9f, 3);
+        // 중간 값은 뜸 유지
+        t = feed(detector, t, 0.4f, 3);
+        assertEquals(BlinkLivenessDetector.State.OPEN, detector.getState());
+        t = feed(detector, t, 0.1f, 2);
+        // 중간 값은 감음 유지, 깜빡임 아님
+        t = feed(detector, t, 0.5f, 2);
+        assertEquals(BlinkLivenessDetector.State.CLOSED, detector.getState());
+        assertFalse(detector.isLive());
+        // 감음 구간은 중간 값까지 포함 (4 프레임)
+        assertTrue(detector.update(t, 0.7f, 0.7f));
+        assertEquals(4 * FRAME_MS, detector.getLastClosedDurationMs());
+    }
+
+    @Test
+    public void closedBeforeOpen_ignored() {
+        // 처음부터 눈을 감고 있던 경우는 깜빡임이 아님
+        BlinkLivenessDetector detector = new BlinkLivenessDetector();
+        long t = feed(detector, 0, 0.05f, 4);
+        assertEquals(BlinkLivenessDetector.State.WAITING, detector.getState());
+        assertFalse(detector.update(t, 0.9f, 0.9f));
+        assertEquals(BlinkLivenessDetector.State.OPEN, detector.getState());
+        assertFalse(detector.isLive());
+    }
+
+    @Test
+    public void unknownEye_ignored() {
+        BlinkLivenessDetector detector = new BlinkLivenessDetector();
+        long t = feed(detector, 0, 0.9f, 3);
+        assertFalse(detector.update(t, FaceObservation.UNKNOWN_EYE_OPEN, FaceObservation.UNKNOWN_EYE_OPEN));
+        assertFalse(detector.update(t + FRAME_MS, 0.9f, FaceObservation.UNKNOWN_EYE_OPEN));
+        assertEquals(3, detector.getSampleCount());
+        assertEquals(BlinkLivenessDetector.State.OPEN, detector.getState());
+    }
+
+    @Test
+    public void openBeforeOutsideWindow_rejected() {
+        // 뜸 -> (얼굴 놓침) -> 감음 -> 뜸, 앞의 뜸이 window 밖
+        BlinkLivenessDetector detector = new BlinkLivenessDetector();
+        long t = feed(detector, 0, 0.9f, 1);
+        t = feed(detector, t + 2000, 0.1f, 4);
+        assertFalse(detector.update(t, 0.9f, 0.9f));
+        assertFalse(detector.isLive());
+
+        // 이어지는 정상 깜빡임은 인정
+        t = feed(detector, t + FRAME_MS, 0.9f, 2);
+        t = feed(detector, t, 0.1f, 3);
+        assertTrue(detector.update(t, 0.9f, 0.9f));
+    }
+
+    @Test
+    public void closedRunLongerThanRing_rejected() {
+        // 감음 구간이 링버퍼를 넘어가면 앞의 뜸을 확인할 수 없음
+        BlinkLivenessDetector detector = new BlinkLivenessDetector(0.6f, 0.25f, 20, 500, 1500, 3);
+        long t = feed(detector, 0, 0.9f, 2);
+        t = feed(detector, t, 0.1f, 3);
+        assertEquals(3, detector.getSampleCount());
+        assertFalse(detector.update(t, 0.9f, 0.9f));
+
+        // 뜸 - 감음 - 뜸 이 모두 들어가는 짧은 깜빡임은 인정
+        t = feed(detector, t + FRAME_MS, 0.9f, 1);
+        t = feed(detector, t, 0.1f, 1);
+        assertTrue(detector.update(t, 0.9f, 0.9f));
+        assertEquals(3, detector.getSampleCount());
+    }
+
+    @Test
+    public void multipleBlinks_counted() {
+        BlinkLivenessDetector detector = new BlinkLivenessDetector();
+        long t = 0;
+        for(int i = 0; i < 3; i++) {
+            t = feed(detector, t, 0.9f, 5);
+            t = feed(detector, t, 0.1f, 3);
+        }
+        detector.update(t, 0.9f, 0.9f);
+        assertEquals(3, detector.getBlinkCount());
+    }
+
+    @Test
+    public void reset_clearsSession() {
+        BlinkLivenessDetector detector = new BlinkLivenessDetector();
+        long t = feed(detector, 0, 0.9f, 3);
+        t = feed(detector, t, 0.1f, 3);
+        detector.update(t, 0.9f, 0.9f);
+        assertTrue(detector.isLive());
+
+        detector.reset();
+        assertFalse(detector.isLive());
+        assertEquals(0, detector.getBlinkCount());
+        assertEquals(0, detector.getSampleCount());
+        assertEquals(-1, detector.getLastBlinkMs());
+        assertEquals(-1, detector.getLastClosedDurationMs());
+        assertEquals(-1f, detector.getLastOpenness(), 0f);
+        assertEquals(BlinkLivenessDetector.State.WAITING, detector.getState());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invertedThresholds_rejected() {
+        new BlinkLivenessDetector(0.3f, 0.5f, 40, 500, 1500, 64);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tinyCapacity_rejected() {
+        new BlinkLivenessDetector(0.6f, 0.25f, 40, 500, 1500, 2);
+    }
+
+    // 같은 값으로 count 프레임, 다음 프레임 시각 반환
+    private static long feed(BlinkLivenessDetector detector, long startMs, float value, int count) {
+        long t = startMs;
+        for(int i = 0; i < count; i++) {
+            detector.update(t, value, value);
+            t += FRAME_MS;
+        }
+        return t;
+    }
+}
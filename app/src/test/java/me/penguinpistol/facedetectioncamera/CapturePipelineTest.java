@@ -0,0 +1,178 @@
+package me.penguinpistol.facedetectioncamera;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class CapturePipelineTest {
+
+    // 단계 호출 순서를 문자열로 기록하는 가짜 구현
+    private static class FakeSteps implements CapturePipeline.Steps<String> {
+        final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch started = new CountDownLatch(1);
+        volatile CountDownLatch gate;
+        volatile boolean failDecode;
+        volatile boolean keepSource;
+
+        @Override
+        public String decode(CapturedImage image) throws Exception {
+            started.countDown();
+            if(gate != null) {
+                gate.await();
+            }
+            if(failDecode) {
+                throw new IllegalStateException("decode");
+            }
+            calls.add("decode");
+            return "d";
+        }
+
+        @Override
+        public String orient(String decoded, CapturedImage image) {
+            calls.add("orient" + image.getRotationDegrees());
+            return decoded + "o";
+        }
+
+        @Override
+        public String downscale(String oriented) {
+            calls.add("downscale");
+            return oriented + "s";
+        }
+
+        @Override
+        public CapturedImage encode(String image, CapturedImage source) {
+            calls.add("encode");
+            return keepSource ? source : new CapturedImage(image.getBytes(), 0, false);
+        }
+    }
+
+    private static class RecordingCallback implements CapturePipeline.Callback<String> {
+        final List<String> results = Collections.synchronizedList(new ArrayList<>());
+        final List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch done;
+
+        RecordingCallback(int expected) {
+            done = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void onProcessed(FaceChecker.Direction direction, CapturedImage stored, String image) {
+            threads.add(Thread.currentThread());
+            results.add(direction + ":" + new String(stored.getJpeg()) + ":" + stored.getRotationDegrees() + ":" + stored.isMirrored());
+            done.countDown();
+        }
+
+        @Override
+        public void onError(FaceChecker.Direction direction, Exception e) {
+            threads.add(Thread.currentThread());
+            results.add(direction + ":" + e.getClass().getSimpleName());
+            done.countDown();
+        }
+    }
+
+    private CapturePipeline<String> pipeline;
+
+    @After
+    public void tearDown() throws InterruptedException {
+        if(pipeline != null) {
+            pipeline.shutdown();
+            pipeline.awaitTermination(1, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void submit_runsStagesOffCallerThread() throws InterruptedException {
+        FakeSteps steps = new FakeSteps();
+        pipeline = new CapturePipeline<>(steps, Runnable::run, 5);
+        RecordingCallback callback = new RecordingCallback(1);
+
+        pipeline.submit(FaceChecker.Direction.FRONT, new CapturedImage(new byte[] {1}, 270, true), callback);
+        assertTrue(callback.done.await(1, TimeUnit.SECONDS));
+
+        assertEquals(listOf("decode", "orient270", "downscale", "encode"), steps.calls);
+        assertEquals(listOf("FRONT:dos:0:false"), callback.results);
+        assertNotSame(Thread.currentThread(), callback.threads.get(0));
+        for(CapturePipeline.Stage stage : CapturePipeline.Stage.values()) {
+            assertEquals(stage.name(), 1, pipeline.getCount(stage));
+        }
+    }
+
+    @Test
+    public void submit_doesNotBlockCaller() throws InterruptedException {
+        FakeSteps steps = new FakeSteps();
+        steps.gate = new CountDownLatch(1);
+        pipeline = new CapturePipeline<>(steps, Runnable::run, 5);
+        RecordingCallback callback = new RecordingCallback(2);
+
+        // 첫 촬영의 디코딩이 끝나지 않아도 다음 촬영을 바로 넘길 수 있음
+        pipeline.submit(FaceChecker.Direction.FRONT, new CapturedImage(new byte[0], 0, false), callback);
+        pipeline.submit(FaceChecker.Direction.LEFT_30, new CapturedImage(new byte[0], 0, false), callback);
+        assertEquals(2, pipeline.getPendingCount());
+        assertTrue(callback.results.isEmpty());
+
+        steps.gate.countDown();
+        assertTrue(callback.done.await(1, TimeUnit.SECONDS));
+        assertEquals(listOf("FRONT:dos:0:false", "LEFT_30:dos:0:false"), callback.results);
+    }
+
+    @Test
+    public void submit_rejectsBeyondCapacity() throws InterruptedException {
+        FakeSteps steps = new FakeSteps();
+        steps.gate = new CountDownLatch(1);
+        pipeline = new CapturePipeline<>(steps, Runnable::run, 1);
+        RecordingCallback callback = new RecordingCallback(3);
+
+        pipeline.submit(FaceChecker.Direction.FRONT, new CapturedImage(new byte[0], 0, false), callback);
+        // 처리 스레드가 첫 작업을 가져갈 때까지 대기
+        assertTrue(steps.started.await(1, TimeUnit.SECONDS));
+        pipeline.submit(FaceChecker.Direction.LEFT_30, new CapturedImage(new byte[0], 0, false), callback);
+        pipeline.submit(FaceChecker.Direction.LEFT_45, new CapturedImage(new byte[0], 0, false), callback);
+
+        assertEquals(listOf("LEFT_45:" + RejectedExecutionException.class.getSimpleName()), callback.results);
+        steps.gate.countDown();
+        assertTrue(callback.done.await(1, TimeUnit.SECONDS));
+        assertEquals(3, callback.results.size());
+    }
+
+    @Test
+    public void unchangedPixels_storeSource() throws InterruptedException {
+        FakeSteps steps = new FakeSteps();
+        steps.keepSource = true;
+        pipeline = new CapturePipeline<>(steps, Runnable::run, 5);
+        RecordingCallback callback = new RecordingCallback(1);
+
+        // 재인코딩하지 않으면 회전, 반전 값이 그대로 저장됨
+        pipeline.submit(FaceChecker.Direction.FRONT, new CapturedImage("jpeg".getBytes(), 270, true), callback);
+        assertTrue(callback.done.await(1, TimeUnit.SECONDS));
+
+        assertEquals(listOf("FRONT:jpeg:270:true"), callback.results);
+    }
+
+    @Test
+    public void stageFailure_reportsError() throws InterruptedException {
+        FakeSteps steps = new FakeSteps();
+        steps.failDecode = true;
+        pipeline = new CapturePipeline<>(steps, Runnable::run, 5);
+        RecordingCallback callback = new RecordingCallback(1);
+
+        pipeline.submit(FaceChecker.Direction.RIGHT_30, new CapturedImage(new byte[0], 0, false), callback);
+        assertTrue(callback.done.await(1, TimeUnit.SECONDS));
+
+        assertEquals(listOf("RIGHT_30:IllegalStateException"), callback.results);
+        assertEquals(0, pipeline.getCount(CapturePipeline.Stage.DECODE));
+    }
+
+    private static List<String> listOf(String... values) {
+        List<String> list = new ArrayList<>();
+        Collections.addAll(list, values);
+        return list;
+    }
+}
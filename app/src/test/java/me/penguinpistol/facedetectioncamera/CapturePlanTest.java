@@ -0,0 +1,93 @@
+package me.penguinpistol.facedetectioncamera;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CapturePlanTest {
+
+    @Test
+    public void full_containsAllDirectionsInOrder() {
+        CapturePlan plan = CapturePlan.full();
+        FaceChecker.Direction[] values = FaceChecker.Direction.values();
+
+        assertEquals(values.length, plan.size());
+        for(int i = 0; i < values.length; i++) {
+            assertEquals(values[i], plan.get(i));
+            assertEquals(i, plan.indexOf(values[i]));
+            assertEquals(CapturePlan.DEFAULT_ANGLE_TOLERANCE, plan.getAngleTolerance(values[i]), 0f);
+        }
+    }
+
+    @Test
+    public void express_frontOnly() {
+        CapturePlan plan = CapturePlan.express();
+
+        assertEquals(1, plan.size());
+        assertEquals(FaceChecker.Direction.FRONT, plan.get(0));
+        assertTrue(plan.contains(FaceChecker.Direction.FRONT));
+        assertFalse(plan.contains(FaceChecker.Direction.LEFT_45));
+        assertEquals(-1, plan.indexOf(FaceChecker.Direction.RIGHT_30));
+    }
+
+    @Test
+    public void builder_perDirectionOptions() {
+        CapturePlan plan = new CapturePlan.Builder("custom")
+                .add(FaceChecker.Direction.RIGHT_45, 10f, 0, 5_000)
+                .add(FaceChecker.Direction.FRONT)
+                .build();
+
+        assertEquals(FaceChecker.Direction.RIGHT_45, plan.get(0));
+        assertEquals(10f, plan.getAngleTolerance(FaceChecker.Direction.RIGHT_45), 0f);
+        assertEquals(0, plan.getMaxRetries(FaceChecker.Direction.RIGHT_45));
+        assertEquals(5_000, plan.getTimeoutMs(FaceChecker.Direction.RIGHT_45));
+        assertEquals(CapturePlan.DEFAULT_MAX_RETRIES, plan.getMaxRetries(FaceChecker.Direction.FRONT));
+        assertEquals(CapturePlan.DEFAULT_TIMEOUT_MS, plan.getTimeoutMs(FaceChecker.Direction.FRONT));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void builder_rejectsDuplicate() {
+        new CapturePlan.Builder("dup")
+                .add(FaceChecker.Direction.FRONT)
+                .add(FaceChecker.Direction.FRONT);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void builder_rejectsEmpty() {
+        new CapturePlan.Builder("empty").build();
+    }
+
+    @Test
+    public void state_roundTrip() {
+        CapturePlan plan = new CapturePlan.Builder("custom")
+                .add(FaceChecker.Direction.LEFT_30, 9.5f, 1, 12_000)
+                .add(FaceChecker.Direction.FRONT)
+                .build();
+
+        CapturePlan restored = CapturePlan.fromState(plan.toState());
+
+        assertEquals("custom", restored.getName());
+        assertEquals(2, restored.size());
+        assertEquals(FaceChecker.Direction.LEFT_30, restored.get(0));
+        assertEquals(FaceChecker.Direction.FRONT, restored.get(1));
+        assertEquals(9.5f, restored.getAngleTolerance(FaceChecker.Direction.LEFT_30), 0f);
+        assertEquals(1, restored.getMaxRetries(FaceChecker.Direction.LEFT_30));
+        assertEquals(12_000, restored.getTimeoutMs(FaceChecker.Direction.LEFT_30));
+        assertEquals(CapturePlan.DEFAULT_RELAX_AFTER_MS, restored.getRelaxAfterMs(FaceChecker.Direction.LEFT_30));
+    }
+
+    @Test
+    public void angleTolerance_appliesToChecker() {
+        // 정면 목표에서 Y 각도 9도 -> 기본 오차(7도) 는 실패, 10도 오차는 통과
+        float[] contour = FaceCheckerTest.ellipse(360, 640, 345.6f, 420f);
+        FaceChecker checker = new FaceChecker(187.2f, 398.08f, 532.8f, 881.92f);
+        checker.setDirection(FaceChecker.Direction.FRONT);
+        assertFalse(checker.check(contour, contour.length / 2, 0, 9, 0, 0.9f, 0.9f));
+
+        CapturePlan plan = new CapturePlan.Builder("custom")
+                .add(FaceChecker.Direction.FRONT, 10f, 0, 5_000)
+                .build();
+        checker.setThresholds(new ThresholdTable(plan).get(FaceChecker.Direction.FRONT));
+        assertTrue(checker.check(contour, contour.length / 2, 0, 9, 0, 0.9f, 0.9f));
+    }
+}
@@ -0,0 +1,127 @@
+package me.penguinpistol.facedetectioncamera;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.EnumSet;
+
+import static org.junit.Assert.*;
+
+public class CaptureStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static CapturedImage image(int size, int seed, int rotation, boolean mirrored) {
+        byte[] jpeg = new byte[size];
+        for(int i = 0; i < size; i++) {
+            jpeg[i] = (byte)(i * 31 + seed);
+        }
+        return new CapturedImage(jpeg, rotation, mirrored);
+    }
+
+    @Test
+    public void putAndGet_roundTrip() throws IOException {
+        CaptureStore store = new CaptureStore(folder.newFolder("session"), 1024);
+        store.put(FaceChecker.Direction.LEFT_30, image(100, 1, 270, true));
+
+        CapturedImage loaded = store.get(FaceChecker.Direction.LEFT_30);
+        assertArrayEquals(image(100, 1, 270, true).getJpeg(), loaded.getJpeg());
+        assertEquals(270, loaded.getRotationDegrees());
+        assertTrue(loaded.isMirrored());
+        assertNull(store.get(FaceChecker.Direction.FRONT));
+        assertEquals(EnumSet.of(FaceChecker.Direction.LEFT_30), store.getDirections());
+    }
+
+    @Test
+    public void memoryBudget_spillsOldestToDisk() throws IOException {
+        CaptureStore store = new CaptureStore(folder.newFolder("session"), 250);
+        store.put(FaceChecker.Direction.FRONT, image(100, 1, 0, false));
+        store.put(FaceChecker.Direction.LEFT_30, image(100, 2, 0, false));
+        store.put(FaceChecker.Direction.LEFT_45, image(100, 3, 0, false));
+
+        // 예산 250 -> 최근 2개만 메모리에 유지
+        assertEquals(200, store.getMemoryBytes());
+        assertEquals(300, store.getDiskBytes());
+
+        assertArrayEquals(image(100, 1, 0, false).getJpeg(), store.get(FaceChecker.Direction.FRONT).getJpeg());
+        assertEquals(1, store.getDiskReadCount());
+        assertTrue(store.getMemoryBytes() <= 250);
+
+        // 예산보다 큰 결과는 메모리에 두지 않음
+        store.put(FaceChecker.Direction.RIGHT_30, image(400, 4, 0, false));
+        assertTrue(store.getMemoryBytes() <= 250);
+        assertEquals(400, store.get(FaceChecker.Direction.RIGHT_30).getByteCount());
+    }
+
+    @Test
+    public void restore_afterProcessDeath() throws IOException {
+        File dir = folder.newFolder("session");
+        CaptureStore store = new CaptureStore(dir, 1024);
+        store.put(FaceChecker.Direction.RIGHT_45, image(64, 7, 90, true));
+        store.put(FaceChecker.Direction.FRONT, image(32, 8, 0, false));
+        // 저장 중에 종료된 임시 파일
+        try (FileOutputStream out = new FileOutputStream(new File(dir, "LEFT_45_0_n.jpg.tmp"))) {
+            out.write(1);
+        }
+
+        CaptureStore restored = new CaptureStore(dir, 1024);
+        assertEquals(EnumSet.of(FaceChecker.Direction.FRONT, FaceChecker.Direction.RIGHT_45), restored.getDirections());
+        CapturedImage right = restored.get(FaceChecker.Direction.RIGHT_45);
+        assertArrayEquals(image(64, 7, 90, true).getJpeg(), right.getJpeg());
+        assertEquals(90, right.getRotationDegrees());
+        assertTrue(right.isMirrored());
+        assertEquals(96, restored.getDiskBytes());
+        assertFalse(new File(dir, "LEFT_45_0_n.jpg.tmp").exists());
+    }
+
+    @Test
+    public void put_replacesPreviousFile() throws IOException {
+        File dir = folder.newFolder("session");
+        CaptureStore store = new CaptureStore(dir, 1024);
+        store.put(FaceChecker.Direction.FRONT, image(10, 1, 270, true));
+        store.put(FaceChecker.Direction.FRONT, image(20, 2, 0, false));
+
+        assertEquals(1, dir.listFiles().length);
+        assertEquals(20, store.getDiskBytes());
+        assertEquals(20, store.getMemoryBytes());
+        assertEquals(0, store.get(FaceChecker.Direction.FRONT).getRotationDegrees());
+    }
+
+    @Test
+    public void clear_deletesFiles() throws IOException {
+        File dir = folder.newFolder("session");
+        CaptureStore store = new CaptureStore(dir, 1024);
+        store.put(FaceChecker.Direction.FRONT, image(10, 1, 0, false));
+        store.put(FaceChecker.Direction.RIGHT_30, image(10, 1, 0, false));
+        store.clear();
+
+        assertTrue(store.getDirections().isEmpty());
+        assertEquals(0, store.getMemoryBytes());
+        assertEquals(0, store.getDiskBytes());
+        assertEquals(0, dir.listFiles().length);
+    }
+
+    @Test
+    public void deferredOpen_touchesNoFilesUntilOpened() throws IOException {
+        File dir = new File(folder.getRoot(), "session");
+        CaptureStore store = new CaptureStore(dir, 1024);
+        store.put(FaceChecker.Direction.FRONT, image(100, 1, 0, false));
+
+        File other = new File(folder.getRoot(), "other");
+        assertFalse(new CaptureStore(other, 1024, false).getDirectory().exists());
+        assertFalse(other.exists());
+
+        CaptureStore deferred = new CaptureStore(dir, 1024, false);
+        assertTrue(deferred.getDirections().isEmpty());
+        deferred.open();
+        assertEquals(EnumSet.of(FaceChecker.Direction.FRONT), deferred.getDirections());
+        // 두 번 열어도 그대로
+        deferred.open();
+        assertEquals(100, deferred.getDiskBytes());
+    }
+}
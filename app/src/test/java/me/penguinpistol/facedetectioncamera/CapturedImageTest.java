@@ -0,0 +1,105 @@
+package me.penguinpistol.facedetectioncamera;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class CapturedImageTest {
+
+    @Test
+    public void fromBuffer_copiesRemainingOnly() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        for(int i = 0; i < 64; i++) {
+            buffer.put((byte)i);
+        }
+        buffer.position(8);
+        buffer.limit(40);
+
+        CapturedImage image = CapturedImage.fromBuffer(buffer, 270, true);
+
+        assertEquals(32, image.getByteCount());
+        assertEquals(8, image.getJpeg()[0]);
+        assertEquals(39, image.getJpeg()[31]);
+        // 원본 버퍼 상태는 그대로
+        assertEquals(8, buffer.position());
+        assertEquals(40, buffer.limit());
+    }
+
+    @Test
+    public void fromBuffer_peakAllocationIsEncodedSize() {
+        AllocationMeter meter = AllocationMeter.forCurrentThread();
+
+        // JPEG 평면 버퍼는 capacity 가 실제 데이터보다 훨씬 큼
+        int capacity = 4 * 1024 * 1024;
+        int encoded = 600 * 1024;
+        ByteBuffer buffer = ByteBuffer.allocateDirect(capacity);
+        buffer.limit(encoded);
+
+        // 클래스 로딩, JIT 영향 제거
+        CapturedImage.fromBuffer(buffer, 0, false);
+
+        meter.start();
+        CapturedImage image = CapturedImage.fromBuffer(buffer, 270, true);
+        long allocated = meter.stop();
+
+        assertEquals(encoded, image.getByteCount());
+        // 기존 방식은 capacity 크기 배열 2개 (8MB) + 디코딩 Bitmap 2개
+        assertTrue("allocated " + allocated + " bytes", allocated < encoded + 1024);
+    }
+
+    @Test
+    public void computeSampleSize_keepsAtLeastRequestedSize() {
+        // 1280x720 버퍼, 270 회전 -> 화면 기준 720x1280
+        assertEquals(1, CapturedImage.computeSampleSize(1280, 720, 270, 720, 1280));
+        assertEquals(2, CapturedImage.computeSampleSize(1280, 720, 270, 270, 480));
+        assertEquals(4, CapturedImage.computeSampleSize(1280, 720, 270, 180, 320));
+        assertEquals(2, CapturedImage.computeSampleSize(1280, 720, 270, 181, 320));
+        // 회전을 고려하지 않으면 세로 기준으로 샘플링이 부족함
+        assertEquals(1, CapturedImage.computeSampleSize(1280, 720, 0, 400, 400));
+        assertEquals(1, CapturedImage.computeSampleSize(1280, 720, 270, 0, 0));
+    }
+
+    @Test
+    public void computeSampleSize_thumbnailViewSizes() {
+        // 1280x720 촬영 (270 회전), 9:16 썸네일 ImageView 크기별 {width, height, 기대 sampleSize}
+        int[][] cases = {
+                {90, 160, 8},           // mdpi 90dp x 160dp
+                {135, 240, 4},          // hdpi
+                {270, 480, 2},          // xxhdpi
+                {360, 640, 2},          // xxxhdpi
+                {720, 1280, 1},         // 전체 화면
+                {100, 100, 4},          // 비율이 다른 경우 짧은 쪽 기준
+        };
+        for(int[] c : cases) {
+            int sampleSize = CapturedImage.computeSampleSize(1280, 720, 270, c[0], c[1]);
+            String label = c[0] + "x" + c[1];
+            assertEquals(label, c[2], sampleSize);
+
+            // 디코딩 결과는 ImageView 보다 작지 않고, 한 단계 더 줄이면 작아짐
+            int width = 720 / sampleSize;
+            int height = 1280 / sampleSize;
+            assertTrue(label, width >= c[0] && height >= c[1]);
+            assertTrue(label, width / 2 < c[0] || height / 2 < c[1]);
+        }
+    }
+
+    @Test
+    public void exifOrientation() {
+        assertEquals(CapturedImage.ORIENTATION_NORMAL, new CapturedImage(new byte[0], 0, false).getExifOrientation());
+        assertEquals(CapturedImage.ORIENTATION_ROTATE_90, new CapturedImage(new byte[0], 90, false).getExifOrientation());
+        assertEquals(CapturedImage.ORIENTATION_ROTATE_180, new CapturedImage(new byte[0], 180, false).getExifOrientation());
+        assertEquals(CapturedImage.ORIENTATION_ROTATE_270, new CapturedImage(new byte[0], 270, false).getExifOrientation());
+        assertEquals(CapturedImage.ORIENTATION_FLIP_HORIZONTAL, new CapturedImage(new byte[0], 0, true).getExifOrientation());
+        assertEquals(CapturedImage.ORIENTATION_TRANSPOSE, new CapturedImage(new byte[0], 90, true).getExifOrientation());
+        assertEquals(CapturedImage.ORIENTATION_FLIP_VERTICAL, new CapturedImage(new byte[0], 180, true).getExifOrientation());
+        assertEquals(CapturedImage.ORIENTATION_TRANSVERSE, new CapturedImage(new byte[0], 270, true).getExifOrientation());
+        assertEquals(270, new CapturedImage(new byte[0], -90, false).getRotationDegrees());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rotation_mustBeRightAngle() {
+        new CapturedImage(new byte[0], 45, false);
+    }
+}
@@ -0,0 +1,100 @@
+package me.penguinpistol.facedetectioncamera;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class ContourExchangeTest {
+
+    @Test
+    public void acquire_onlyWhenPublished() {
+        ContourExchange exchange = new ContourExchange(4);
+        assertFalse(exchange.acquire());
+        assertEquals(0, exchange.getPointCount());
+
+        exchange.publish(new float[] {1, 2, 3, 4}, 2);
+        assertTrue(exchange.acquire());
+        assertEquals(2, exchange.getPointCount());
+        assertEquals(3f, exchange.getPoints()[2], 0f);
+
+        // 새 데이터 없음 -> 이전 값 유지
+        assertFalse(exchange.acquire());
+        assertEquals(4f, exchange.getPoints()[3], 0f);
+    }
+
+    @Test
+    public void acquire_returnsLatest() {
+        ContourExchange exchange = new ContourExchange(1);
+        exchange.publish(new float[] {1, 1}, 1);
+        exchange.publish(new float[] {2, 2}, 1);
+        exchange.publish(new float[] {3, 3}, 1);
+
+        assertTrue(exchange.acquire());
+        assertEquals(3f, exchange.getPoints()[0], 0f);
+        assertFalse(exchange.acquire());
+
+        exchange.publishEmpty();
+        assertTrue(exchange.acquire());
+        assertEquals(0, exchange.getPointCount());
+    }
+
+    @Test
+    public void publish_growsBuffer() {
+        ContourExchange exchange = new ContourExchange(1);
+        float[] points = new float[] {1, 2, 3, 4, 5, 6};
+        exchange.publish(points, 3);
+
+        assertTrue(exchange.acquire());
+        assertEquals(3, exchange.getPointCount());
+        assertEquals(6f, exchange.getPoints()[5], 0f);
+    }
+
+    @Test
+    public void concurrent_neverTorn() throws InterruptedException {
+        int pointCount = FaceObservation.DEFAULT_CONTOUR_POINTS;
+        ContourExchange exchange = new ContourExchange(pointCount);
+        AtomicReference<String> failure = new AtomicReference<>();
+        int frames = 200_000;
+
+        // 프레임마다 모든 좌표를 같은 값으로 채움 -> 읽는 쪽에서 값이 섞이면 실패
+        Thread producer = new Thread(() -> {
+            float[] points = new float[pointCount * 2];
+            for(int i = 1; i <= frames; i++) {
+                Arrays.fill(points, i);
+                exchange.publish(points, pointCount);
+            }
+        });
+        Thread consumer = new Thread(() -> {
+            float last = 0;
+            while(last < frames && failure.get() == null) {
+                if(!exchange.acquire()) {
+                    continue;
+                }
+                float[] points = exchange.getPoints();
+                float value = points[0];
+                for(int i = 1; i < pointCount * 2; i++) {
+                    if(points[i] != value) {
+                        failure.set("torn frame " + value + " / " + points[i]);
+                        return;
+                    }
+                }
+                if(value < last) {
+                    failure.set("out of order " + value + " < " + last);
+                    return;
+                }
+                last = value;
+            }
+        });
+
+        consumer.start();
+        producer.start();
+        producer.join();
+        consumer.join(10_000);
+
+        assertNull(failure.get(), failure.get());
+        assertFalse(consumer.isAlive());
+    }
+}
@@ -0,0 +1,104 @@
+package me.penguinpistol.facedetectioncamera;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FaceCheckDebugInfoTest {
+
+    @Test
+    public void appendFixed() {
+        assertEquals("12.35", FaceCheckDebugInfo.appendFixed(new StringBuilder(), 12.345f).toString());
+        assertEquals("-0.50", FaceCheckDebugInfo.appendFixed(new StringBuilder(), -0.5f).toString());
+        assertEquals("3.05", FaceCheckDebugInfo.appendFixed(new StringBuilder(), 3.05f).toString());
+        assertEquals("0.00", FaceCheckDebugInfo.appendFixed(new StringBuilder(), 0f).toString());
+    }
+
+    @Test
+    public void format_linesWithoutSplit() {
+        FaceCheckDebugInfo info = new FaceCheckDebugInfo();
+        info.setDirection(FaceChecker.Direction.LEFT_30);
+        info.setAngle(1f, -30.25f, 2f);
+        info.setEyesOpen(0.9f, 0.8f);
+        // publish 전에는 반영되지 않음
+        assertFalse(info.format(0));
+
+        info.publish();
+        assertTrue(info.format(0));
+        assertEquals(9, info.getLineCount());
+        assertEquals("current dir: LEFT_30", line(info, 0));
+        assertEquals("Angle[1.00, -30.25, 2.00]", line(info, 1));
+        assertEquals("eyes open[0.90, 0.80]", line(info, 8));
+    }
+
+    @Test
+    public void format_onlyWhenDirtyAndThrottled() {
+        FaceCheckDebugInfo info = new FaceCheckDebugInfo(200);
+        assertFalse(info.format(0));
+
+        info.setAngle(1f, 2f, 3f);
+        info.publish();
+        assertTrue(info.format(1000));
+        assertFalse(info.format(1001));
+
+        info.setAngle(4f, 5f, 6f);
+        info.publish();
+        assertFalse(info.format(1100));
+        assertEquals("Angle[1.00, 2.00, 3.00]", line(info, 1));
+
+        assertTrue(info.format(1200));
+        assertEquals("Angle[4.00, 5.00, 6.00]", line(info, 1));
+    }
+
+    @Test
+    public void check_recordsDebugValues() {
+        FaceChecker checker = new FaceChecker(0, 0, 100, 140);
+        checker.setDirection(FaceChecker.Direction.FRONT);
+        checker.setDebug(true);
+        checker.check(new float[] { 10, 10, 90, 130 }, 2, 0, 3f, 0, 0.9f, 0.7f);
+
+        FaceCheckDebugInfo info = checker.getDebugInfo();
+        assertTrue(info.format(0));
+        assertEquals("face width: 80.00", line(info, 5));
+        assertEquals("face ratio:0.80", line(info, 7));
+    }
+
+    @Test
+    public void format_seesWholeFrames() throws InterruptedException {
+        // 판정 스레드가 계속 기록하는 동안 읽은 줄은 모두 같은 프레임 값
+        FaceCheckDebugInfo info = new FaceCheckDebugInfo(0);
+        final int frames = 20000;
+        Thread writer = new Thread(() -> {
+            for(int i = 1; i <= frames; i++) {
+                info.setAngle(i, i, i);
+                info.setPosition(i, i, i, i, i);
+                info.setWidthRatio(i, i, i);
+                info.setEyesOpen(i, i);
+                info.publish();
+            }
+        });
+        writer.start();
+        long now = 0;
+        int formatted = 0;
+        while(writer.isAlive() || formatted == 0) {
+            if(!info.format(now++)) {
+                continue;
+            }
+            formatted++;
+            String angle = line(info, 1);
+            String value = angle.substring("Angle[".length(), angle.indexOf(','));
+            assertEquals("Angle[" + value + ", " + value + ", " + value + "]", angle);
+            assertEquals("distance: " + value, line(info, 2));
+            assertEquals("face width: " + value, line(info, 5));
+            assertEquals("eyes open[" + value + ", " + value + "]", line(info, 8));
+        }
+        writer.join();
+        // 마지막 값은 반드시 전달됨
+        info.format(now);
+        assertEquals("face ratio:" + frames + ".00", line(info, 7));
+    }
+
+    private static String line(FaceCheckDebugInfo info, int line) {
+        return new String(info.getChars(), info.getLineStart(line), info.getLineLength(line));
+    }
+}
@@ -0,0 +1,102 @@
+package me.penguinpistol.facedetectioncamera;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FaceCheckerTest {
+
+    // 720x1280 기준 목표영역 (FaceDetectionAnalyzer 와 동일한 비율)
+    private static final float TARGET_LEFT = 187.2f;
+    private static final float TARGET_TOP = 398.08f;
+    private static final float TARGET_RIGHT = 532.8f;
+    private static final float TARGET_BOTTOM = 881.92f;
+
+    private static final int POINT_COUNT = 36;
+
+    private FaceChecker checker;
+    private float[] contour;
+
+    @Before
+    public void setUp() {
+        checker = new FaceChecker(TARGET_LEFT, TARGET_TOP, TARGET_RIGHT, TARGET_BOTTOM);
+        checker.setDirection(FaceChecker.Direction.FRONT);
+        contour = ellipse(360, 640, TARGET_RIGHT - TARGET_LEFT, TARGET_BOTTOM - TARGET_TOP);
+    }
+
+    @Test
+    public void computeBounds_singlePass() {
+        float[] bounds = new float[4];
+        ContourUtils.computeBounds(new float[] { 3, 8, -1, 2, 5, -4 }, 3, bounds);
+        assertArrayEquals(new float[] { -1, -4, 5, 8 }, bounds, 0f);
+
+        ContourUtils.computeBounds(new float[0], 0, bounds);
+        assertArrayEquals(new float[] { 0, 0, 0, 0 }, bounds, 0f);
+    }
+
+    @Test
+    public void check_centeredFace() {
+        assertTrue(checker.check(contour, POINT_COUNT, 0, 0, 0, 0.9f, 0.9f));
+    }
+
+    @Test
+    public void check_rejectsWrongDirection() {
+        checker.setDirection(FaceChecker.Direction.LEFT_45);
+        assertFalse(checker.check(contour, POINT_COUNT, 0, 0, 0, 0.9f, 0.9f));
+        assertTrue(checker.check(contour, POINT_COUNT, 0, -45, 0, 0.9f, 0.9f));
+    }
+
+    @Test
+    public void check_rejectsOffCenterOrClosedEyes() {
+        float[] shifted = ellipse(360 + 60, 640, TARGET_RIGHT - TARGET_LEFT, TARGET_BOTTOM - TARGET_TOP);
+        assertFalse(checker.check(shifted, POINT_COUNT, 0, 0, 0, 0.9f, 0.9f));
+        assertFalse(checker.check(contour, POINT_COUNT, 0, 0, 0, 0.9f, 0.1f));
+    }
+
+    @Test
+    public void check_observation() {
+        FaceObservation observation = new FaceObservation().set(0, 0, 0, 0.9f, 0.9f);
+        assertFalse(checker.check(observation));
+
+        observation.setContour(contour, POINT_COUNT);
+        assertTrue(checker.check(observation));
+
+        observation.set(0, 0, 0, 0.9f, 0.1f);
+        assertFalse(checker.check(observation));
+    }
+
+    @Test
+    public void check_doesNotAllocateInSteadyState() {
+        AllocationMeter meter = AllocationMeter.forCurrentThread();
+
+        boolean result = false;
+
+        // JIT 안정화
+        for(int i = 0; i < 20_000; i++) {
+            result |= checker.check(contour, POINT_COUNT, 0, 0, 0, 0.9f, 0.9f);
+        }
+
+        int iterations = 100_000;
+        meter.start();
+        for(int i = 0; i < iterations; i++) {
+            result |= checker.check(contour, POINT_COUNT, 0, i % 10, 0, 0.9f, 0.9f);
+        }
+        long allocated = meter.stop();
+
+        assertTrue(result);
+        // 측정 호출 자체의 오버헤드만 허용 (프레임당 0 byte)
+        assertTrue("allocated " + allocated + " bytes", allocated < iterations / 100);
+    }
+
+    // 중심(cx, cy), 가로 w, 세로 h 타원 형태의 FACE 윤곽선
+    static float[] ellipse(float cx, float cy, float w, float h) {
+        float[] points = new float[POINT_COUNT * 2];
+        for(int i = 0; i < POINT_COUNT; i++) {
+            double t = 2 * Math.PI * i / POINT_COUNT;
+            points[i * 2] = cx + (float)(Math.sin(t) * w * 0.5);
+            points[i * 2 + 1] = cy - (float)(Math.cos(t) * h * 0.5);
+        }
+        return points;
+    }
+}
@@ -0,0 +1,176 @@
+package me.penguinpistol.facedetectioncamera;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FaceDetectorProviderTest {
+
+    private static final String WARM_UP_IMAGE = "blank";
+
+    // 콜백을 모아뒀다가 테스트에서 직접 완료시키는 가짜 검출기
+    private static class DeferredBackend implements FaceDetectorBackend<String> {
+        final List<String> images = new ArrayList<>();
+        final List<DetectionTier> tiers = new ArrayList<>();
+        final List<Callback> pending = new ArrayList<>();
+        final List<DetectionTier> pendingTiers = new ArrayList<>();
+        boolean isClosed = false;
+
+        @Override
+        public void process(DetectionTier tier, String image, Callback callback) {
+            assertFalse("process after close", isClosed);
+            images.add(image);
+            tiers.add(tier);
+            pending.add(callback);
+            pendingTiers.add(tier);
+        }
+
+        @Override
+        public void close() {
+            isClosed = true;
+        }
+
+        void completeAll() {
+            List<Callback> callbacks = new ArrayList<>(pending);
+            List<DetectionTier> calledTiers = new ArrayList<>(pendingTiers);
+            pending.clear();
+            pendingTiers.clear();
+            for(int i = 0; i < callbacks.size(); i++) {
+                callbacks.get(i).onResult(calledTiers.get(i), null);
+            }
+        }
+    }
+
+    private static class RecordingCallback implements FaceDetectorBackend.Callback {
+        int results;
+        int errors;
+
+        @Override
+        public void onResult(DetectionTier tier, FaceObservation face) {
+            results++;
+        }
+
+        @Override
+        public void onError(DetectionTier tier, Exception e) {
+            errors++;
+        }
+    }
+
+    private List<DeferredBackend> created;
+    private FaceDetectorProvider<String> provider;
+
+    @Before
+    public void setUp() {
+        created = new ArrayList<>();
+        provider = new FaceDetectorProvider<>(() -> {
+            DeferredBackend backend = new DeferredBackend();
+            created.add(backend);
+            return backend;
+        }, () -> WARM_UP_IMAGE);
+    }
+
+    @Test
+    public void acquire_sharesOneBackendUntilLastRelease() {
+        FaceDetectorBackend<String> a = provider.acquire();
+        FaceDetectorBackend<String> b = provider.acquire();
+        assertEquals(1, created.size());
+        assertEquals(2, provider.getRefCount());
+
+        a.close();
+        assertFalse(created.get(0).isClosed);
+        b.close();
+        assertTrue(created.get(0).isClosed);
+        assertEquals(0, provider.getRefCount());
+
+        // 다시 받으면 새 검출기
+        provider.acquire().close();
+        assertEquals(2, created.size());
+    }
+
+    @Test
+    public void leaseClose_idempotent() {
+        FaceDetectorBackend<String> a = provider.acquire();
+        FaceDetectorBackend<String> b = provider.acquire();
+        a.close();
+        a.close();
+        assertEquals(1, provider.getRefCount());
+        assertFalse(created.get(0).isClosed);
+        b.close();
+    }
+
+    @Test
+    public void warmUp_runsEveryTierAndMarksWarm() {
+        FaceDetectorBackend<String> lease = provider.warmUp();
+        DeferredBackend backend = created.get(0);
+
+        assertEquals(DetectionTier.values().length, backend.images.size());
+        assertTrue(backend.images.stream().allMatch(WARM_UP_IMAGE::equals));
+        assertFalse(provider.isWarm());
+        assertEquals(-1, provider.getWarmUpNanos());
+
+        backend.completeAll();
+        assertTrue(provider.isWarm());
+        assertTrue(provider.getWarmUpNanos() >= 0);
+
+        // 이미 예열된 상태면 다시 보내지 않음
+        provider.warmUp().close();
+        assertEquals(DetectionTier.values().length, backend.images.size());
+        lease.close();
+    }
+
+    @Test
+    public void warmUp_partialResultsNotWarm() {
+        FaceDetectorBackend<String> lease = provider.warmUp();
+        DeferredBackend backend = created.get(0);
+        backend.pendingTiers.remove(0);
+        backend.pending.remove(0).onError(DetectionTier.FAST, new RuntimeException("model"));
+
+        assertFalse(provider.isWarm());
+        lease.close();
+    }
+
+    @Test
+    public void firstRealResult_marksWarm() {
+        FaceDetectorBackend<String> lease = provider.acquire();
+        RecordingCallback callback = new RecordingCallback();
+        lease.process(DetectionTier.FAST, "frame", callback);
+        assertFalse(provider.isWarm());
+
+        created.get(0).completeAll();
+        assertTrue(provider.isWarm());
+        assertEquals(1, callback.results);
+        // 예열로 준비된 것이 아니므로 시간은 없음
+        assertEquals(-1, provider.getWarmUpNanos());
+        lease.close();
+    }
+
+    @Test
+    public void staleWarmUp_ignoredAfterRecreate() {
+        FaceDetectorBackend<String> first = provider.warmUp();
+        DeferredBackend oldBackend = created.get(0);
+        first.close();
+
+        FaceDetectorBackend<String> second = provider.acquire();
+        oldBackend.completeAll();
+
+        assertFalse(provider.isWarm());
+        second.close();
+    }
+
+    @Test
+    public void releasedLease_doesNotReachBackend() {
+        FaceDetectorBackend<String> keep = provider.acquire();
+        FaceDetectorBackend<String> lease = provider.acquire();
+        lease.close();
+
+        RecordingCallback callback = new RecordingCallback();
+        lease.process(DetectionTier.ACCURATE, "late", callback);
+        assertEquals(1, callback.errors);
+        assertTrue(created.get(0).images.isEmpty());
+        keep.close();
+    }
+}
@@ -0,0 +1,216 @@
+package me.penguinpistol.facedetectioncamera;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FaceSignatureTest {
+
+    private static final int POINTS = FaceObservation.DEFAULT_CONTOUR_POINTS;
+
+    // 갸름한 얼굴 (타원), 각진 얼굴 (초타원)
+    private static final float[] OVAL = shape(60, 82, 2);
+    private static final float[] SQUARE = shape(70, 72, 4);
+
+    @Test
+    public void widths_normalizedToWidestRow() {
+        float[] signature = signature(OVAL, 0, 0, 0);
+        float max = 0;
+        for(int i = 0; i < FaceSignature.ROWS; i++) {
+            assertTrue(signature[i] > 0 && signature[i] <= 1f);
+            max = Math.max(max, signature[i]);
+        }
+        assertEquals(1f, max, 1e-6f);
+        // 위아래 대칭 타원
+        assertEquals(signature[0], signature[FaceSignature.ROWS - 1], 1e-3f);
+        assertEquals(82f / 60f, signature[FaceSignature.ASPECT], 0.05f);
+    }
+
+    @Test
+    public void scaleAndTranslation_invariant() {
+        float[] moved = transform(OVAL, 2.5f, 1f, 0, 400, 300);
+        assertEquals(0f, FaceSignature.distance(signature(OVAL, 0, 0, 0), signature(moved, 0, 0, 0)), 1e-4f);
+    }
+
+    @Test
+    public void roll_compensated() {
+        // 화면에서 반시계 방향 20도 기울어진 윤곽선 + eulerZ 20
+        float[] rolled = transform(OVAL, 1f, 1f, 20, 0, 0);
+        float[] upright = signature(OVAL, 0, 0, 0);
+        assertEquals(0f, FaceSignature.distance(upright, signature(rolled, 0, 0, 20)), 1e-4f);
+        // 보정하지 않으면 차이가 남
+        assertTrue(FaceSignature.distance(upright, signature(rolled, 0, 0, 0)) > 0.005f);
+    }
+
+    @Test
+    public void uniformSqueeze_cancelledByNormalization() {
+        // 가로로 고르게 눌린 윤곽선은 폭 비율에서 상쇄됨 (세로/가로 비율만 남음)
+        float[] front = signature(OVAL, 0, 0, 0);
+        float[] squeezed = signature(transform(OVAL, 1f, (float)Math.cos(Math.toRadians(30)), 0, 0, 0), 0, 30, 0);
+        for(int i = 0; i < FaceSignature.ROWS; i++) {
+            assertEquals(front[i], squeezed[i], 1e-4f);
+        }
+    }
+
+    @Test
+    public void asymmetricYaw_notCancelled() {
+        // 옆모습 근사: 먼 쪽 볼만 눌리고 턱 쪽으로 갈수록 더 가려짐 (합성 모델, 실측 보정 아님)
+        // 폭 비율로 상쇄되지 않고 각도가 클수록 거리가 커짐
+        float[] front = signature(OVAL, 0, 0, 0);
+        float previous = 0;
+        for(float yaw : new float[] {15, 30, 45}) {
+            float distance = FaceSignature.distance(front, signature(turn(OVAL, yaw), 0, yaw, 0));
+            assertTrue(yaw + " distance=" + distance, distance > previous + 1e-3f);
+            // 기준 거리에 충분한 여유 (같은 사람을 반려하지 않도록)
+            assertTrue(yaw + " distance=" + distance, distance < IdentityConsistency.DEFAULT_MAX_DISTANCE / 4);
+            previous = distance;
+        }
+        // 반대 방향도 같은 크기
+        assertEquals(FaceSignature.distance(front, signature(turn(OVAL, 30), 0, 30, 0)),
+                FaceSignature.distance(front, signature(turn(OVAL, -30), 0, -30, 0)), 1e-4f);
+    }
+
+    @Test
+    public void differentShape_beyondDefaultDistance() {
+        float distance = FaceSignature.distance(signature(OVAL, 0, 0, 0), signature(SQUARE, 0, 0, 0));
+        assertTrue("distance=" + distance, distance > IdentityConsistency.DEFAULT_MAX_DISTANCE);
+
+        distance = FaceSignature.distance(signature(OVAL, 0, 0, 0), signature(turn(SQUARE, 30), 0, 30, 0));
+        assertTrue("distance=" + distance, distance > IdentityConsistency.DEFAULT_MAX_DISTANCE);
+    }
+
+    @Test
+    public void missingContour_rejected() {
+        float[] out = FaceSignature.create();
+        assertFalse(FaceSignature.compute(new FaceObservation(), out));
+        assertFalse(FaceSignature.compute(OVAL, 4, 0, 0, 0, out));
+        // 한 줄로 겹친 윤곽선
+        assertFalse(FaceSignature.compute(new float[POINTS * 2], POINTS, 0, 0, 0, out));
+
+        FaceObservation face = new FaceObservation().setContour(OVAL, POINTS);
+        assertTrue(FaceSignature.compute(face, out));
+    }
+
+    @Test
+    public void consistency_acceptsSamePerson() {
+        IdentityConsistency consistency = new IdentityConsistency();
+        assertTrue(consistency.add(FaceChecker.Direction.FRONT, signature(OVAL, 0, 0, 0)));
+        assertEquals(0, consistency.getLastComparedCount());
+
+        float[] left = transform(turn(OVAL, -30), 1.2f, 1f, 3, 10, 0);
+        assertTrue(consistency.add(FaceChecker.Direction.LEFT_30, signature(left, 0, -30, 3)));
+        assertEquals(1, consistency.getLastComparedCount());
+        assertEquals(0, consistency.getLastMismatchCount());
+        assertEquals(2, consistency.size());
+    }
+
+    @Test
+    public void consistency_rejectsSwappedPerson() {
+        IdentityConsistency consistency = new IdentityConsistency();
+        consistency.add(FaceChecker.Direction.FRONT, signature(OVAL, 0, 0, 0));
+        consistency.add(FaceChecker.Direction.LEFT_30, signature(OVAL, 0, 0, 0));
+
+        float[] other = signature(SQUARE, 0, 0, 0);
+        assertFalse(consistency.add(FaceChecker.Direction.RIGHT_30, other));
+        assertEquals(2, consistency.getLastMismatchCount());
+        assertTrue(consistency.getLastMeanDistance() > IdentityConsistency.DEFAULT_MAX_DISTANCE);
+        // 반려된 방향은 보관하지 않음
+        assertFalse(consistency.contains(FaceChecker.Direction.RIGHT_30));
+        assertEquals(2, consistency.size());
+
+        // 같은 방향을 다시 촬영
+        assertTrue(consistency.add(FaceChecker.Direction.RIGHT_30, signature(OVAL, 0, 0, 0)));
+    }
+
+    @Test
+    public void consistency_majorityOfOtherDirections() {
+        // 처음 한 방향만 다른 사람이면 다수 쪽으로 판정
+        IdentityConsistency consistency = new IdentityConsistency();
+        consistency.put(FaceChecker.Direction.FRONT, signature(SQUARE, 0, 0, 0));
+        consistency.put(FaceChecker.Direction.LEFT_30, signature(OVAL, 0, 0, 0));
+        consistency.put(FaceChecker.Direction.LEFT_45, signature(OVAL, 0, 0, 0));
+        assertTrue(consistency.check(FaceChecker.Direction.RIGHT_30, signature(OVAL, 0, 0, 0)));
+        assertEquals(1, consistency.getLastMismatchCount());
+
+        // 반반이면 반려
+        consistency.remove(FaceChecker.Direction.LEFT_45);
+        assertFalse(consistency.check(FaceChecker.Direction.RIGHT_30, signature(OVAL, 0, 0, 0)));
+    }
+
+    @Test
+    public void consistency_replacesOwnDirection() {
+        // 자기 방향의 이전 값과는 비교하지 않음
+        IdentityConsistency consistency = new IdentityConsistency();
+        consistency.add(FaceChecker.Direction.FRONT, signature(OVAL, 0, 0, 0));
+        float[] square = signature(SQUARE, 0, 0, 0);
+        assertTrue(consistency.add(FaceChecker.Direction.FRONT, square));
+        assertEquals(1, consistency.size());
+        assertArrayEquals(square, consistency.get(FaceChecker.Direction.FRONT), 0f);
+
+        consistency.remove(FaceChecker.Direction.FRONT);
+        assertNull(consistency.get(FaceChecker.Direction.FRONT));
+        assertEquals(0, consistency.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidDistance_rejected() {
+        new IdentityConsistency(0);
+    }
+
+    private static float[] signature(float[] contour, float eulerX, float eulerY, float eulerZ) {
+        float[] out = FaceSignature.create();
+        assertTrue(FaceSignature.compute(contour, POINTS, eulerX, eulerY, eulerZ, out));
+        return out;
+    }
+
+    // 위쪽 가운데부터 시계 방향 초타원 (exponent 2 이면 타원), 이미지 좌표 (y 아래로)
+    private static float[] shape(float halfWidth, float halfHeight, float exponent) {
+        float[] points = new float[POINTS * 2];
+        for(int i = 0; i < POINTS; i++) {
+            double t = 2 * Math.PI * i / POINTS - Math.PI / 2;
+            double c = Math.cos(t);
+            double s = Math.sin(t);
+            points[i * 2] = (float)(halfWidth * Math.signum(c) * Math.pow(Math.abs(c), 2 / exponent));
+            points[i * 2 + 1] = (float)(halfHeight * Math.signum(s) * Math.pow(Math.abs(s), 2 / exponent));
+        }
+        return points;
+    }
+
+    // yaw 만큼 돌린 옆모습 근사 (yaw > 0 이면 x < 0 쪽이 먼 쪽)
+    // 먼 쪽은 cos(yaw) 만큼 눌리고, 아래로 갈수록 sin(yaw) / 2 비율까지 더 가려짐, 가까운 쪽 윤곽선은 그대로
+    private static float[] turn(float[] points, float yaw) {
+        double rad = Math.toRadians(yaw);
+        float cos = (float)Math.cos(rad);
+        float hide = 0.5f * (float)Math.abs(Math.sin(rad));
+        float top = Float.MAX_VALUE;
+        float bottom = -Float.MAX_VALUE;
+        for(int i = 0; i < points.length / 2; i++) {
+            top = Math.min(top, points[i * 2 + 1]);
+            bottom = Math.max(bottom, points[i * 2 + 1]);
+        }
+        float[] out = points.clone();
+        for(int i = 0; i < points.length / 2; i++) {
+            float x = points[i * 2];
+            if(yaw > 0 ? x < 0 : x > 0) {
+                float t = (points[i * 2 + 1] - top) / (bottom - top);
+                out[i * 2] = x * cos * (1f - hide * t);
+            }
+        }
+        return out;
+    }
+
+    // 확대, 가로 압축 후 화면에서 반시계 방향 회전, 이동
+    private static float[] transform(float[] points, float scale, float squeezeX, float rollDegrees, float dx, float dy) {
+        double rad = Math.toRadians(rollDegrees);
+        float cos = (float)Math.cos(rad);
+        float sin = (float)Math.sin(rad);
+        float[] out = new float[points.length];
+        for(int i = 0; i < points.length / 2; i++) {
+            float x = points[i * 2] * scale * squeezeX;
+            float y = points[i * 2 + 1] * scale;
+            out[i * 2] = x * cos + y * sin + dx;
+            out[i * 2 + 1] = -x * sin + y * cos + dy;
+        }
+        return out;
+    }
+}
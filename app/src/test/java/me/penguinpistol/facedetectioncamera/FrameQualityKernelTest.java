@@ -0,0 +1,176 @@
+package me.penguinpistol.facedetectioncamera;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FrameQualityKernelTest {
+
+    private static final int WIDTH = 320;
+    private static final int HEIGHT = 240;
+
+    @Test
+    public void flatGray_notSharpButExposed() {
+        FrameQualityKernel kernel = new FrameQualityKernel(2);
+        kernel.compute(plane(fill(128)), WIDTH, HEIGHT, WIDTH, 1, 0, 0, WIDTH, HEIGHT);
+
+        assertEquals(0f, kernel.getSharpness(), 0f);
+        assertEquals(128f, kernel.getMeanLuma(), 0f);
+        assertFalse(kernel.isSharp(FrameQualityKernel.DEFAULT_MIN_SHARPNESS));
+        assertTrue(kernel.isExposed(FrameQualityKernel.DEFAULT_MIN_MEAN_LUMA, FrameQualityKernel.DEFAULT_MAX_MEAN_LUMA, FrameQualityKernel.DEFAULT_MAX_CLIPPED_RATIO));
+        assertFalse(kernel.passes());
+    }
+
+    @Test
+    public void texture_sharpUntilBlurred() {
+        byte[] sharp = texture(new Random(7));
+        byte[] blurred = boxBlur(boxBlur(sharp));
+        FrameQualityKernel kernel = new FrameQualityKernel(2);
+
+        kernel.compute(plane(sharp), WIDTH, HEIGHT, WIDTH, 1, 0, 0, WIDTH, HEIGHT);
+        float sharpScore = kernel.getSharpness();
+        assertTrue(kernel.passes());
+
+        kernel.compute(plane(blurred), WIDTH, HEIGHT, WIDTH, 1, 0, 0, WIDTH, HEIGHT);
+        float blurredScore = kernel.getSharpness();
+
+        assertTrue(sharpScore + " vs " + blurredScore, blurredScore * 10 < sharpScore);
+        assertFalse(kernel.isSharp(FrameQualityKernel.DEFAULT_MIN_SHARPNESS));
+    }
+
+    @Test
+    public void exposure_darkAndBright() {
+        FrameQualityKernel kernel = new FrameQualityKernel(4);
+
+        kernel.compute(plane(fill(10)), WIDTH, HEIGHT, WIDTH, 1, 0, 0, WIDTH, HEIGHT);
+        assertEquals(1f, kernel.getDarkRatio(), 0f);
+        assertFalse(kernel.isExposed(0, 255, FrameQualityKernel.DEFAULT_MAX_CLIPPED_RATIO));
+
+        kernel.compute(plane(fill(250)), WIDTH, HEIGHT, WIDTH, 1, 0, 0, WIDTH, HEIGHT);
+        assertEquals(1f, kernel.getBrightRatio(), 0f);
+        assertEquals(0f, kernel.getDarkRatio(), 0f);
+        assertFalse(kernel.isExposed(0, 255, FrameQualityKernel.DEFAULT_MAX_CLIPPED_RATIO));
+    }
+
+    @Test
+    public void histogram_countsSamples() {
+        FrameQualityKernel kernel = new FrameQualityKernel(3);
+        kernel.compute(plane(texture(new Random(1))), WIDTH, HEIGHT, WIDTH, 1, 40, 30, 200, 150);
+
+        int total = 0;
+        for(int count : kernel.getHistogram()) {
+            total += count;
+        }
+        assertEquals(kernel.getSampleCount(), total);
+        // 40 ~ 199 중 3 간격 54개, 30 ~ 149 중 3 간격 40개
+        assertEquals(54 * 40, kernel.getSampleCount());
+    }
+
+    @Test
+    public void strides_sameResultAsPacked() {
+        byte[] packed = texture(new Random(3));
+        int rowStride = WIDTH * 2 + 64;
+        byte[] strided = new byte[rowStride * HEIGHT];
+        for(int y = 0; y < HEIGHT; y++) {
+            for(int x = 0; x < WIDTH; x++) {
+                strided[y * rowStride + x * 2] = packed[y * WIDTH + x];
+            }
+        }
+
+        FrameQualityKernel a = new FrameQualityKernel(2);
+        FrameQualityKernel b = new FrameQualityKernel(2);
+        a.compute(plane(packed), WIDTH, HEIGHT, WIDTH, 1, 10, 10, 300, 200);
+        b.compute(plane(strided), WIDTH, HEIGHT, rowStride, 2, 10, 10, 300, 200);
+
+        assertEquals(a.getSharpness(), b.getSharpness(), 0f);
+        assertEquals(a.getMeanLuma(), b.getMeanLuma(), 0f);
+    }
+
+    @Test
+    public void roi_clampedToBuffer() {
+        FrameQualityKernel kernel = new FrameQualityKernel(1);
+        kernel.compute(plane(fill(100)), WIDTH, HEIGHT, WIDTH, 1, -50, -50, WIDTH + 50, HEIGHT + 50);
+        assertEquals((WIDTH - 2) * (HEIGHT - 2), kernel.getSampleCount());
+
+        kernel.compute(plane(fill(100)), WIDTH, HEIGHT, WIDTH, 1, 200, 200, 100, 100);
+        assertEquals(0, kernel.getSampleCount());
+        assertFalse(kernel.passes());
+    }
+
+    @Test
+    public void bufferPosition_usedAsOrigin() {
+        byte[] data = texture(new Random(5));
+        byte[] shifted = new byte[data.length + 16];
+        System.arraycopy(data, 0, shifted, 16, data.length);
+        ByteBuffer buffer = ByteBuffer.wrap(shifted);
+        buffer.position(16);
+
+        FrameQualityKernel a = new FrameQualityKernel(2);
+        FrameQualityKernel b = new FrameQualityKernel(2);
+        a.compute(plane(data), WIDTH, HEIGHT, WIDTH, 1, 0, 0, WIDTH, HEIGHT);
+        b.compute(buffer, WIDTH, HEIGHT, WIDTH, 1, 0, 0, WIDTH, HEIGHT);
+
+        assertEquals(a.getSharpness(), b.getSharpness(), 0f);
+        assertEquals(16, buffer.position());
+    }
+
+    @Test
+    public void toBufferRect_roundTripsRotation() {
+        // 정방향 720x1280 -> 버퍼 1280x720, 270도
+        float[] out = new float[4];
+        RoiCropper.toBufferRect(100, 200, 300, 600, 1280, 720, 270, out);
+
+        assertEquals(1280 - 600, out[ContourUtils.LEFT], 0f);
+        assertEquals(1280 - 200, out[ContourUtils.RIGHT], 0f);
+        assertEquals(100, out[ContourUtils.TOP], 0f);
+        assertEquals(300, out[ContourUtils.BOTTOM], 0f);
+    }
+
+    private static byte[] fill(int value) {
+        byte[] data = new byte[WIDTH * HEIGHT];
+        Arrays.fill(data, (byte)value);
+        return data;
+    }
+
+    // 피부 밝기 근처의 잡음 텍스처
+    private static byte[] texture(Random random) {
+        byte[] data = new byte[WIDTH * HEIGHT];
+        for(int i = 0; i < data.length; i++) {
+            data[i] = (byte)(90 + random.nextInt(80));
+        }
+        return data;
+    }
+
+    private static byte[] boxBlur(byte[] src) {
+        byte[] dst = new byte[src.length];
+        for(int y = 0; y < HEIGHT; y++) {
+            for(int x = 0; x < WIDTH; x++) {
+                int sum = 0;
+                int count = 0;
+                for(int dy = -2; dy <= 2; dy++) {
+                    for(int dx = -2; dx <= 2; dx++) {
+                        int sx = x + dx;
+                        int sy = y + dy;
+                        if(sx >= 0 && sx < WIDTH && sy >= 0 && sy < HEIGHT) {
+                            sum += src[sy * WIDTH + sx] & 0xFF;
+                            count++;
+                        }
+                    }
+                }
+                dst[y * WIDTH + x] = (byte)(sum / count);
+            }
+        }
+        return dst;
+    }
+
+    private static ByteBuffer plane(byte[] data) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(data.length);
+        buffer.put(data);
+        buffer.rewind();
+        return buffer;
+    }
+}
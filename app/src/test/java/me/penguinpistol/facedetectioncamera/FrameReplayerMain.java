@@ -0,0 +1,21 @@
+package me.penguinpistol.facedetectioncamera;
+
+import java.io.File;
+import java.io.IOException;
+
+// 기록 파일 재생 도구 (테스트 소스, 앱에는 포함되지 않음)
+// 사용법: FrameReplayerMain <파일>... (전체방향 기본 계획으로 재생)
+public final class FrameReplayerMain {
+
+    private FrameReplayerMain() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        ThresholdTable table = new ThresholdTable(CapturePlan.full());
+        for(String path : args) {
+            FrameReplayer.Result result = new FrameReplayer(new File(path)).replay(table);
+            System.out.println(path + " >> " + result.format());
+            System.out.print(result.getMetrics().dump());
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package me.penguinpistol.facedetectioncamera;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FrameReplayerTest {
+
+    private static final float TARGET_LEFT = 187.2f;
+    private static final float TARGET_TOP = 398.08f;
+    private static final float TARGET_RIGHT = 532.8f;
+    private static final float TARGET_BOTTOM = 881.92f;
+    private static final float TARGET_CX = (TARGET_LEFT + TARGET_RIGHT) * 0.5f;
+    private static final float TARGET_CY = (TARGET_TOP + TARGET_BOTTOM) * 0.5f;
+    private static final long FRAME_INTERVAL_MS = 33;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void recordAndRead_roundTrip() throws IOException {
+        File file = folder.newFile("frames.fdfr");
+        FaceObservation face = face(1f, -2f, 3f);
+        face.setBounds(10, 20, 30, 40);
+
+        try (FrameRecorder recorder = newRecorder(file)) {
+            recorder.record(1000, 270, FaceChecker.Direction.RIGHT_30, face);
+            recorder.record(1033, 270, FaceChecker.Direction.RIGHT_30, new FaceObservation().set(4, 5, 6, 0.1f, 0.2f));
+            assertEquals(2, recorder.getFrameCount());
+        }
+
+        FrameReplayer replayer = new FrameReplayer(file);
+        assertEquals(TARGET_LEFT, replayer.getHeader().targetLeft, 0f);
+        assertEquals(TARGET_BOTTOM, replayer.getHeader().targetBottom, 0f);
+
+        FrameReplayer.Frame frame = new FrameReplayer.Frame();
+        assertTrue(replayer.next(frame));
+        assertEquals(1000, frame.getTimestampMs());
+        assertEquals(270, frame.getRotationDegrees());
+        assertEquals(FaceChecker.Direction.RIGHT_30, frame.getDirection());
+        assertEquals(-2f, frame.getFace().getEulerY(), 0f);
+        assertTrue(frame.getFace().hasBounds());
+        assertEquals(30f, frame.getFace().getBounds()[ContourUtils.RIGHT], 0f);
+        assertEquals(face.getContourPointCount(), frame.getFace().getContourPointCount());
+        assertEquals(face.getContour()[7], frame.getFace().getContour()[7], 0f);
+
+        assertTrue(replayer.next(frame));
+        assertEquals(1033, frame.getTimestampMs());
+        assertFalse(frame.getFace().hasBounds());
+        assertFalse(frame.getFace().hasContour());
+        assertEquals(0.2f, frame.getFace().getRightEyeOpen(), 0f);
+
+        assertFalse(replayer.next(frame));
+    }
+
+    @Test
+    public void recorder_appendsToExistingFile() throws IOException {
+        File file = folder.newFile("append.fdfr");
+        try (FrameRecorder recorder = newRecorder(file)) {
+            recorder.record(1, 0, FaceChecker.Direction.FRONT, face(0, 0, 0));
+        }
+        try (FrameRecorder recorder = newRecorder(file)) {
+            assertEquals(1, recorder.getFrameCount());
+            recorder.record(2, 0, FaceChecker.Direction.FRONT, face(0, 0, 0));
+        }
+
+        assertEquals(2, countFrames(file));
+    }
+
+    @Test(expected = IOException.class)
+    public void recorder_rejectsDifferentTarget() throws IOException {
+        File file = folder.newFile("target.fdfr");
+        newRecorder(file).close();
+        new FrameRecorder(file, 0, 0, 100, 100).close();
+    }
+
+    @Test
+    public void recorder_growsPastMappedChunk() throws IOException {
+        File file = folder.newFile("large.fdfr");
+        int frames = 5_000;     // 약 1.6MB
+        // 디스크 반영은 기록하는 스레드에서 실행하지 않음
+        List<Runnable> flushes = new ArrayList<>();
+        try (FrameRecorder recorder = new FrameRecorder(file, TARGET_LEFT, TARGET_TOP, TARGET_RIGHT, TARGET_BOTTOM, flushes::add)) {
+            FaceObservation face = face(0, 0, 0);
+            for(int i = 0; i < frames; i++) {
+                recorder.record(i, 0, FaceChecker.Direction.FRONT, face);
+            }
+            assertEquals(1, flushes.size());
+            flushes.get(0).run();
+        }
+
+        assertEquals(frames, countFrames(file));
+    }
+
+    @Test
+    public void reader_stopsAtUnfinishedFrame() throws IOException {
+        File file = folder.newFile("crash.fdfr");
+        try (FrameRecorder recorder = newRecorder(file)) {
+            recorder.record(1, 0, FaceChecker.Direction.FRONT, face(0, 0, 0));
+        }
+        // 비정상 종료: 길이를 기록하기 전의 프레임이 0 으로 남아 있음
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() + 4096);
+        }
+
+        assertEquals(1, countFrames(file));
+        try (FrameRecorder recorder = newRecorder(file)) {
+            assertEquals(1, recorder.getFrameCount());
+        }
+    }
+
+    @Test
+    public void replay_reproducesCaptureDecisions() throws IOException {
+        File file = folder.newFile("session.fdfr");
+        long ts = 0;
+        try (FrameRecorder recorder = newRecorder(file)) {
+            // 정면: 처음부터 통과 -> 5프레임째 판정, 이후 프레임은 무시
+            for(int i = 0; i < 10; i++, ts += FRAME_INTERVAL_MS) {
+                recorder.record(ts, 270, FaceChecker.Direction.FRONT, face(0, 0, 0));
+            }
+            // 왼쪽 45도: Y -36도 -> 기본 기준은 실패, 완화 이후 판정
+            long start = ts;
+            while(ts - start < CapturePlan.DEFAULT_RELAX_AFTER_MS + 1_000) {
+                recorder.record(ts, 270, FaceChecker.Direction.LEFT_45, face(0, -36, 0));
+                ts += FRAME_INTERVAL_MS;
+            }
+        }
+
+        FrameReplayer.Result result = new FrameReplayer(file).replay(new ThresholdTable(CapturePlan.full()));
+        List<FrameReplayer.Decision> decisions = result.getDecisions();
+
+        assertEquals(2, decisions.size());
+        assertEquals(FaceChecker.Direction.FRONT, decisions.get(0).direction);
+        assertEquals(CaptureGate.STABLE_FRAME_COUNT - 1, decisions.get(0).frameIndex);
+        assertFalse(decisions.get(0).isRelaxed);
+
+        FrameReplayer.Decision left = decisions.get(1);
+        assertEquals(FaceChecker.Direction.LEFT_45, left.direction);
+        assertTrue(left.isRelaxed);
+        assertTrue(left.timestampMs - 10 * FRAME_INTERVAL_MS >= CapturePlan.DEFAULT_RELAX_AFTER_MS);
+
+        assertTrue(result.getFrameCount() > 10);
+        assertTrue(result.getFramesPerSecond() > 0);
+        assertTrue(result.getMetrics().get(SessionMetrics.Metric.FACE_CHECK).getCount() > 0);
+        assertTrue(result.format(), result.format().startsWith("frames=" + result.getFrameCount()));
+    }
+
+    @Test
+    public void replay_isRepeatable() throws IOException {
+        File file = folder.newFile("repeat.fdfr");
+        try (FrameRecorder recorder = newRecorder(file)) {
+            for(int i = 0; i < 20; i++) {
+                recorder.record(i * FRAME_INTERVAL_MS, 270, FaceChecker.Direction.FRONT, face(0, 0, 0));
+            }
+        }
+
+        FrameReplayer replayer = new FrameReplayer(file);
+        FrameReplayer.Result first = replayer.replay(null);
+        FrameReplayer.Result second = replayer.replay(null);
+
+        assertEquals(20, second.getFrameCount());
+        assertEquals(first.getDecisions().toString(), second.getDecisions().toString());
+    }
+
+    private static FrameRecorder newRecorder(File file) throws IOException {
+        return new FrameRecorder(file, TARGET_LEFT, TARGET_TOP, TARGET_RIGHT, TARGET_BOTTOM);
+    }
+
+    // 목표영역 중앙의 얼굴
+    private static FaceObservation face(float x, float y, float z) {
+        float[] contour = FaceCheckerTest.ellipse(TARGET_CX, TARGET_CY, TARGET_RIGHT - TARGET_LEFT, TARGET_BOTTOM - TARGET_TOP);
+        return new FaceObservation()
+                .set(x, y, z, 0.9f, 0.9f)
+                .setContour(contour, contour.length / 2);
+    }
+
+    private static int countFrames(File file) throws IOException {
+        FrameReplayer replayer = new FrameReplayer(file);
+        FrameReplayer.Frame frame = new FrameReplayer.Frame();
+        int count = 0;
+        while(replayer.next(frame)) {
+            count++;
+        }
+        return count;
+    }
+}
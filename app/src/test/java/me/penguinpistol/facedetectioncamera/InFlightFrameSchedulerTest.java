@@ -0,0 +1,233 @@
+package me.penguinpistol.facedetectioncamera;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class InFlightFrameSchedulerTest {
+
+    // 작업을 쌓아두고 테스트에서 원하는 순서로 완료시키는 가짜 검출기
+    private static class FakeDetector implements InFlightFrameScheduler.FrameProcessor<String> {
+        final Map<String, Long> running = new HashMap<>();
+        final List<String> processed = new ArrayList<>();
+        final List<String> released = new ArrayList<>();
+        final List<String> delivered = new ArrayList<>();
+        InFlightFrameScheduler<String> scheduler;
+
+        @Override
+        public void process(String frame, long sequence) {
+            running.put(frame, sequence);
+            processed.add(frame);
+        }
+
+        @Override
+        public void release(String frame) {
+            released.add(frame);
+        }
+
+        void complete(String frame) {
+            long sequence = running.remove(frame);
+            if(scheduler.onResult(sequence)) {
+                delivered.add(frame);
+            }
+            released.add(frame);
+            scheduler.onComplete(sequence);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void depth_mustBeOneOrTwo() {
+        new InFlightFrameScheduler<>(3, InFlightFrameScheduler.DropPolicy.DROP_NEWEST, new FakeDetector());
+    }
+
+    @Test
+    public void dropNewest_dropsBeyondDepth() {
+        FakeDetector detector = new FakeDetector();
+        InFlightFrameScheduler<String> scheduler = new InFlightFrameScheduler<>(1, InFlightFrameScheduler.DropPolicy.DROP_NEWEST, detector);
+        detector.scheduler = scheduler;
+
+        scheduler.submit("f0");
+        scheduler.submit("f1");
+        scheduler.submit("f2");
+        assertEquals(1, scheduler.getInFlightCount());
+        assertEquals(2, scheduler.getDroppedCount());
+
+        detector.complete("f0");
+        scheduler.submit("f3");
+        detector.complete("f3");
+
+        assertEquals(listOf("f0", "f3"), detector.processed);
+        assertEquals(2, scheduler.getProcessedCount());
+        assertEquals(0, scheduler.getInFlightCount());
+        assertReleasedOnce(detector, "f0", "f1", "f2", "f3");
+    }
+
+    @Test
+    public void keepLatest_outOfOrderCompletion() {
+        FakeDetector detector = new FakeDetector();
+        InFlightFrameScheduler<String> scheduler = new InFlightFrameScheduler<>(2, InFlightFrameScheduler.DropPolicy.KEEP_LATEST, detector);
+        detector.scheduler = scheduler;
+
+        scheduler.submit("f0");
+        scheduler.submit("f1");
+        scheduler.submit("f2");         // 대기
+        scheduler.submit("f3");         // f2 를 밀어내고 대기
+        assertEquals(2, scheduler.getInFlightCount());
+        assertEquals(1, scheduler.getDroppedCount());
+        assertEquals(listOf("f0", "f1"), detector.processed);
+
+        // f1 이 먼저 끝나고 f0 이 나중에 끝남 -> f0 결과는 stale
+        detector.complete("f1");
+        assertEquals(listOf("f0", "f1", "f3"), detector.processed);
+        detector.complete("f0");
+        detector.complete("f3");
+
+        assertEquals(listOf("f1", "f3"), detector.delivered);
+        assertEquals(1, scheduler.getStaleCount());
+        assertEquals(3, scheduler.getProcessedCount());
+        assertEquals(0, scheduler.getInFlightCount());
+        assertReleasedOnce(detector, "f0", "f1", "f2", "f3");
+    }
+
+    @Test
+    public void clearPending_releasesWaitingFrame() {
+        FakeDetector detector = new FakeDetector();
+        InFlightFrameScheduler<String> scheduler = new InFlightFrameScheduler<>(1, InFlightFrameScheduler.DropPolicy.KEEP_LATEST, detector);
+        detector.scheduler = scheduler;
+
+        scheduler.submit("f0");
+        scheduler.submit("f1");
+        scheduler.clearPending();
+        detector.complete("f0");
+
+        assertEquals(listOf("f0"), detector.processed);
+        assertEquals(1, scheduler.getDroppedCount());
+        assertReleasedOnce(detector, "f0", "f1");
+    }
+
+    @Test
+    public void concurrentSubmitAndComplete_neverExceedsDepth() throws InterruptedException {
+        final int frames = 20_000;
+        final int[] maxSeen = new int[1];
+        final BlockingQueue<Long> running = new LinkedBlockingQueue<>();
+        final AtomicInteger released = new AtomicInteger();
+        final AtomicReference<InFlightFrameScheduler<Integer>> holder = new AtomicReference<>();
+
+        holder.set(new InFlightFrameScheduler<>(2, InFlightFrameScheduler.DropPolicy.KEEP_LATEST, new InFlightFrameScheduler.FrameProcessor<Integer>() {
+            @Override
+            public void process(Integer frame, long sequence) {
+                synchronized (maxSeen) {
+                    maxSeen[0] = Math.max(maxSeen[0], holder.get().getInFlightCount());
+                }
+                running.add(sequence);
+            }
+
+            @Override
+            public void release(Integer frame) {
+                released.incrementAndGet();
+            }
+        }));
+        InFlightFrameScheduler<Integer> scheduler = holder.get();
+
+        Thread completer = new Thread(() -> {
+            try {
+                while(true) {
+                    long sequence = running.take();
+                    if(sequence < 0) {
+                        return;
+                    }
+                    scheduler.onResult(sequence);
+                    released.incrementAndGet();
+                    scheduler.onComplete(sequence);
+                }
+            } catch (InterruptedException ignored) {
+            }
+        });
+        completer.start();
+
+        for(int i = 0; i < frames; i++) {
+            scheduler.submit(i);
+        }
+        while(scheduler.getInFlightCount() > 0) {
+            Thread.yield();
+        }
+        scheduler.clearPending();
+        while(scheduler.getInFlightCount() > 0) {
+            Thread.yield();
+        }
+        running.add(-1L);
+        completer.join();
+
+        assertTrue(maxSeen[0] <= 2);
+        assertEquals(frames, scheduler.getProcessedCount() + scheduler.getDroppedCount());
+        assertEquals(frames, released.get());
+    }
+
+    @Test
+    public void pendingAfterComplete_dispatchedOnExecutor() {
+        FakeDetector detector = new FakeDetector();
+        List<Runnable> tasks = new ArrayList<>();
+        InFlightFrameScheduler<String> scheduler = new InFlightFrameScheduler<>(1, InFlightFrameScheduler.DropPolicy.KEEP_LATEST, detector, tasks::add);
+        detector.scheduler = scheduler;
+
+        // 분석 스레드에서 제출한 프레임은 바로 처리
+        scheduler.submit("f0");
+        scheduler.submit("f1");
+        assertTrue(tasks.isEmpty());
+
+        // 완료 콜백에서는 대기 프레임을 꺼내지 않고 실행기로 넘김
+        detector.complete("f0");
+        assertEquals(listOf("f0"), detector.processed);
+        assertEquals(1, tasks.size());
+
+        tasks.get(0).run();
+        assertEquals(listOf("f0", "f1"), detector.processed);
+        assertEquals(1, scheduler.getInFlightCount());
+
+        // 대기 프레임이 없으면 넘기지 않음
+        detector.complete("f1");
+        assertEquals(1, tasks.size());
+    }
+
+    @Test
+    public void rejectedExecutor_releasesPending() {
+        FakeDetector detector = new FakeDetector();
+        InFlightFrameScheduler<String> scheduler = new InFlightFrameScheduler<>(1, InFlightFrameScheduler.DropPolicy.KEEP_LATEST, detector, task -> {
+            throw new RejectedExecutionException();
+        });
+        detector.scheduler = scheduler;
+
+        scheduler.submit("f0");
+        scheduler.submit("f1");
+        detector.complete("f0");
+
+        assertEquals(0, scheduler.getInFlightCount());
+        assertEquals(1, scheduler.getDroppedCount());
+        assertReleasedOnce(detector, "f0", "f1");
+    }
+
+    private static void assertReleasedOnce(FakeDetector detector, String... frames) {
+        assertEquals(frames.length, detector.released.size());
+        for(String f : frames) {
+            assertTrue(f, detector.released.contains(f));
+        }
+    }
+
+    private static List<String> listOf(String... values) {
+        List<String> list = new ArrayList<>();
+        for(String v : values) {
+            list.add(v);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,173 @@
+package me.penguinpistol.facedetectioncamera;
+
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import javax.imageio.ImageIO;
+
+import static org.junit.Assert.*;
+
+public class JpegEncoderTest {
+
+    @Test
+    public void gradient_decodesCloseToSource() throws IOException {
+        // 16 배수 크기, 16 배수가 아닌 크기 모두 확인
+        int[][] sizes = {{64, 48}, {50, 38}, {720 / 8, 1280 / 8}};
+        for(int[] size : sizes) {
+            int width = size[0];
+            int height = size[1];
+            byte[] nv21 = gradient(width, height);
+
+            BufferedImage decoded = decode(encode(new JpegEncoder(90), nv21, width, height));
+            assertEquals(width, decoded.getWidth());
+            assertEquals(height, decoded.getHeight());
+
+            int[] expected = new int[width * height];
+            YuvConverter.nv21ToArgb(nv21, width, height, 0, false, expected);
+            double psnr = psnr(expected, decoded);
+            assertTrue(width + "x" + height + " psnr=" + psnr, psnr > 35);
+        }
+    }
+
+    @Test
+    public void flatGray_exact() throws IOException {
+        int width = 32;
+        int height = 32;
+        byte[] nv21 = new byte[YuvConverter.nv21Size(width, height)];
+        Arrays.fill(nv21, (byte)128);
+
+        BufferedImage decoded = decode(encode(new JpegEncoder(75), nv21, width, height));
+        for(int y = 0; y < height; y++) {
+            for(int x = 0; x < width; x++) {
+                YuvConverterTest.assertColor("gray", 0xFF808080, decoded.getRGB(x, y), 1);
+            }
+        }
+    }
+
+    @Test
+    public void markers_andDeterministicReuse() throws IOException {
+        int width = 48;
+        int height = 32;
+        byte[] nv21 = gradient(width, height);
+        JpegEncoder encoder = new JpegEncoder(85);
+
+        byte[] first = encode(encoder, nv21, width, height);
+        byte[] second = encode(encoder, nv21, width, height);
+        assertArrayEquals(first, second);
+
+        assertEquals((byte)0xFF, first[0]);
+        assertEquals((byte)0xD8, first[1]);
+        assertEquals((byte)0xFF, first[first.length - 2]);
+        assertEquals((byte)0xD9, first[first.length - 1]);
+    }
+
+    @Test
+    public void quality_tradesSizeForError() throws IOException {
+        int width = 96;
+        int height = 64;
+        byte[] nv21 = gradient(width, height);
+        int[] expected = new int[width * height];
+        YuvConverter.nv21ToArgb(nv21, width, height, 0, false, expected);
+
+        byte[] low = encode(new JpegEncoder(20), nv21, width, height);
+        byte[] high = encode(new JpegEncoder(95), nv21, width, height);
+        assertTrue(low.length < high.length);
+        assertTrue(psnr(expected, decode(low)) < psnr(expected, decode(high)));
+    }
+
+    @Test
+    public void orientedFrame_keepsRotatedSize() throws IOException {
+        // 전면 카메라 버퍼 (가로) -> 회전, 반전 적용한 정방향 NV21 -> JPEG
+        int width = 80;
+        int height = 48;
+        byte[] source = gradient(width, height);
+        byte[] upright = new byte[source.length];
+        ByteBuffer y = ByteBuffer.wrap(source, 0, width * height).slice();
+        ByteBuffer v = ByteBuffer.wrap(source, width * height, width * height / 2).slice();
+        ByteBuffer u = ByteBuffer.wrap(source, width * height + 1, width * height / 2 - 1).slice();
+        YuvConverter.toNv21(y, width, 1, u, v, width, 2, width, height, 270, true, upright);
+
+        BufferedImage decoded = decode(encode(new JpegEncoder(90), upright, height, width));
+        assertEquals(height, decoded.getWidth());
+        assertEquals(width, decoded.getHeight());
+
+        int[] expected = new int[width * height];
+        YuvConverter.nv21ToArgb(source, width, height, 270, true, expected);
+        assertTrue(psnr(expected, decoded) > 35);
+    }
+
+    @Test
+    public void golden_paddedRotatedFrame() throws IOException {
+        // 회전 후 12x20 (16 배수 아님), 저장된 JPEG 과 바이트 단위로 같아야 함
+        for(int i = 0; i < YuvConverterTest.GOLDEN_CASES.length; i++) {
+            String name = YuvConverterTest.GOLDEN_CASES[i];
+            byte[] upright = YuvConverterTest.goldenNv21(YuvConverterTest.GOLDEN_ROTATIONS[i], YuvConverterTest.GOLDEN_MIRRORS[i]);
+            byte[] jpeg = encode(new JpegEncoder(90), upright, YuvConverterTest.GOLDEN_HEIGHT, YuvConverterTest.GOLDEN_WIDTH);
+            assertArrayEquals(name, YuvConverterTest.readFixture(name + "_q90.jpg"), jpeg);
+
+            BufferedImage decoded = decode(jpeg);
+            assertEquals(name, YuvConverterTest.GOLDEN_HEIGHT, decoded.getWidth());
+            assertEquals(name, YuvConverterTest.GOLDEN_WIDTH, decoded.getHeight());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidQuality_rejected() {
+        new JpegEncoder(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void oddSize_rejected() throws IOException {
+        new JpegEncoder(90).encodeNv21(new byte[100], 5, 4, new ByteArrayOutputStream());
+    }
+
+    // 가로/세로 그라데이션 + 완만한 색차 변화
+    private static byte[] gradient(int width, int height) {
+        byte[] nv21 = new byte[YuvConverter.nv21Size(width, height)];
+        for(int y = 0; y < height; y++) {
+            for(int x = 0; x < width; x++) {
+                nv21[y * width + x] = (byte)(40 + 170 * (x + y) / (width + height));
+            }
+        }
+        int o = width * height;
+        for(int y = 0; y < height / 2; y++) {
+            for(int x = 0; x < width / 2; x++) {
+                nv21[o++] = (byte)(128 + 40 * x / width);       // V
+                nv21[o++] = (byte)(128 - 40 * y / height);      // U
+            }
+        }
+        return nv21;
+    }
+
+    private static byte[] encode(JpegEncoder encoder, byte[] nv21, int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.encodeNv21(nv21, width, height, out);
+        return out.toByteArray();
+    }
+
+    private static BufferedImage decode(byte[] jpeg) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(jpeg));
+        assertNotNull("ImageIO could not decode", image);
+        return image;
+    }
+
+    private static double psnr(int[] expected, BufferedImage actual) {
+        int width = actual.getWidth();
+        double sum = 0;
+        for(int i = 0; i < expected.length; i++) {
+            int a = actual.getRGB(i % width, i / width);
+            for(int shift = 0; shift <= 16; shift += 8) {
+                int d = ((expected[i] >> shift) & 0xFF) - ((a >> shift) & 0xFF);
+                sum += d * d;
+            }
+        }
+        double mse = sum / (expected.length * 3);
+        return mse == 0 ? Double.POSITIVE_INFINITY : 10 * Math.log10(255 * 255 / mse);
+    }
+}
@@ -0,0 +1,118 @@
+package me.penguinpistol.facedetectioncamera;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucket_boundsContainValue() {
+        // 모든 구간에서 값이 자기 버킷 상한 이하, 상대오차 1/32 이내
+        for(long v = 0; v < LatencyHistogram.MAX_VALUE; v = v * 3 / 2 + 1) {
+            int index = LatencyHistogram.indexOf(v);
+            long upper = LatencyHistogram.upperBoundOf(index);
+            assertTrue(v + " > " + upper, v <= upper);
+            assertTrue(v + " vs " + upper, upper - v <= Math.max(0, v / 32));
+            assertEquals(index, LatencyHistogram.indexOf(upper));
+        }
+    }
+
+    @Test
+    public void percentile_uniformValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        // 1ms ~ 100ms
+        for(int i = 1; i <= 100; i++) {
+            histogram.record(i * 1_000_000L);
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(100_000_000L, histogram.getMax());
+        assertEquals(50_500_000L, histogram.getMean());
+        assertEquals(50_000_000L, histogram.getValueAtPercentile(50), 50_000_000L / 32.0);
+        assertEquals(90_000_000L, histogram.getValueAtPercentile(90), 90_000_000L / 32.0);
+        assertEquals(99_000_000L, histogram.getValueAtPercentile(99), 99_000_000L / 32.0);
+        assertEquals(100_000_000L, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void record_clampsOutOfRange() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals(LatencyHistogram.MAX_VALUE, histogram.getMax());
+    }
+
+    @Test
+    public void reset_clearsAll() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1234);
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+
+    @Test
+    public void record_concurrentThreads() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        int threads = 4;
+        int perThread = 50_000;
+        CountDownLatch done = new CountDownLatch(threads);
+        for(int t = 0; t < threads; t++) {
+            final long base = (t + 1) * 1_000L;
+            new Thread(() -> {
+                for(int i = 0; i < perThread; i++) {
+                    histogram.record(base);
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+
+        assertEquals(threads * perThread, histogram.getCount());
+        assertEquals(threads * 1_000L, histogram.getMax());
+    }
+
+    @Test
+    public void sessionMetrics_dumpsRecordedOnly() {
+        SessionMetrics metrics = new SessionMetrics();
+        metrics.record(SessionMetrics.Metric.FACE_CHECK, 2_000_000L);
+
+        String dump = metrics.dump();
+        assertTrue(dump, dump.startsWith("FACE_CHECK n=1 p50=2.00ms"));
+        assertFalse(dump, dump.contains("DETECTOR_PROCESS"));
+
+        metrics.reset();
+        assertEquals("", metrics.dump());
+    }
+
+    @Test
+    public void record_doesNotAllocate() {
+        AllocationMeter meter = AllocationMeter.forCurrentThread();
+
+        SessionMetrics metrics = new SessionMetrics();
+
+        // JIT 안정화
+        for(int i = 0; i < 20_000; i++) {
+            metrics.record(SessionMetrics.Metric.DETECTOR_PROCESS, i * 1_000L);
+        }
+
+        int iterations = 100_000;
+        meter.start();
+        for(int i = 0; i < iterations; i++) {
+            metrics.record(SessionMetrics.Metric.FACE_CHECK, i * 37L);
+            metrics.recordSince(SessionMetrics.Metric.FRAME_TO_VERDICT, System.nanoTime() - i);
+        }
+        long allocated = meter.stop();
+
+        assertEquals(iterations, metrics.get(SessionMetrics.Metric.FACE_CHECK).getCount());
+        // 측정 호출 자체의 오버헤드만 허용 (기록당 0 byte)
+        assertTrue("allocated " + allocated + " bytes", allocated < iterations / 100);
+    }
+}
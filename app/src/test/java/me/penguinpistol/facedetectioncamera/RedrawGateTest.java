@@ -0,0 +1,61 @@
+package me.penguinpistol.facedetectioncamera;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RedrawGateTest {
+
+    @Test
+    public void firstContour_alwaysRedraws() {
+        RedrawGate gate = new RedrawGate(2f, 2);
+        assertTrue(gate.shouldRedraw(new float[] {10, 10, 20, 20}, 2));
+        assertEquals(1, gate.getRedrawCount());
+    }
+
+    @Test
+    public void smallMovement_skipped() {
+        RedrawGate gate = new RedrawGate(2f, 2);
+        gate.shouldRedraw(new float[] {10, 10, 20, 20}, 2);
+
+        assertFalse(gate.shouldRedraw(new float[] {11, 11, 20, 20}, 2));      // 1.41px
+        assertTrue(gate.shouldRedraw(new float[] {10, 10, 22.5f, 20}, 2));    // 2.5px
+        assertEquals(2, gate.getRedrawCount());
+        assertEquals(1, gate.getSkippedCount());
+    }
+
+    @Test
+    public void movement_comparedToLastDrawn() {
+        // 조금씩 움직여도 마지막으로 그린 위치 기준으로 누적되면 다시 그림
+        RedrawGate gate = new RedrawGate(2f, 1);
+        gate.shouldRedraw(new float[] {0, 0}, 1);
+
+        assertFalse(gate.shouldRedraw(new float[] {1, 0}, 1));
+        assertFalse(gate.shouldRedraw(new float[] {1.9f, 0}, 1));
+        assertTrue(gate.shouldRedraw(new float[] {2.1f, 0}, 1));
+    }
+
+    @Test
+    public void scale_convertsToScreenPixels() {
+        // 이미지 1px = 화면 3px
+        RedrawGate gate = new RedrawGate(2f, 1);
+        gate.setScale(3f);
+        gate.shouldRedraw(new float[] {0, 0}, 1);
+
+        assertFalse(gate.shouldRedraw(new float[] {0.6f, 0}, 1));
+        assertTrue(gate.shouldRedraw(new float[] {0.7f, 0}, 1));
+    }
+
+    @Test
+    public void pointCountChange_orForce_redraws() {
+        RedrawGate gate = new RedrawGate(2f, 2);
+        float[] points = new float[] {10, 10, 20, 20};
+        gate.shouldRedraw(points, 2);
+
+        assertTrue(gate.shouldRedraw(points, 1));
+        assertFalse(gate.shouldRedraw(points, 1));
+        gate.forceNext();
+        assertTrue(gate.shouldRedraw(points, 1));
+        assertTrue(gate.shouldRedraw(points, 0));
+    }
+}
@@ -0,0 +1,241 @@
+package me.penguinpistol.facedetectioncamera;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class RoiCropperTest {
+
+    // 720x1280 화면 기준 목표영역 (FaceDetectionAnalyzer 와 같은 비율)
+    private static final float TARGET_LEFT = 187.2f;
+    private static final float TARGET_TOP = 398.08f;
+    private static final float TARGET_RIGHT = 532.8f;
+    private static final float TARGET_BOTTOM = 881.92f;
+
+    private static final int BUFFER_W = 1280;
+    private static final int BUFFER_H = 720;
+    private static final int Y_ROW_STRIDE = 1280 + 64;
+    private static final int UV_ROW_STRIDE = 1280 + 64;
+    private static final int UV_PIXEL_STRIDE = 2;
+
+    private static int yValue(int x, int y) {
+        return (x * 7 + y * 13) & 0xFF;
+    }
+
+    private static int uValue(int cx, int cy) {
+        return (cx * 3 + cy * 5) & 0xFF;
+    }
+
+    private static int vValue(int cx, int cy) {
+        return (cx * 11 + cy) & 0xFF;
+    }
+
+    private static ByteBuffer yPlane() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(Y_ROW_STRIDE * BUFFER_H);
+        for(int y = 0; y < BUFFER_H; y++) {
+            for(int x = 0; x < BUFFER_W; x++) {
+                buffer.put(y * Y_ROW_STRIDE + x, (byte)yValue(x, y));
+            }
+        }
+        return buffer;
+    }
+
+    // 반평면 (pixelStride 2) 크로마
+    private static ByteBuffer chromaPlane(boolean isU) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(UV_ROW_STRIDE * BUFFER_H / 2);
+        for(int cy = 0; cy < BUFFER_H / 2; cy++) {
+            for(int cx = 0; cx < BUFFER_W / 2; cx++) {
+                int value = isU ? uValue(cx, cy) : vValue(cx, cy);
+                buffer.put(cy * UV_ROW_STRIDE + cx * UV_PIXEL_STRIDE, (byte)value);
+            }
+        }
+        return buffer;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void downsample_mustBeOneOrTwo() {
+        new RoiCropper(0, 0, 10, 10, 0, 3);
+    }
+
+    @Test
+    public void configure_onlyRecomputesWhenChanged() {
+        RoiCropper cropper = new RoiCropper(TARGET_LEFT, TARGET_TOP, TARGET_RIGHT, TARGET_BOTTOM, 0.35f, 1);
+        assertTrue(cropper.configure(BUFFER_W, BUFFER_H, 270));
+        assertFalse(cropper.configure(BUFFER_W, BUFFER_H, 270));
+        assertTrue(cropper.configure(BUFFER_W, BUFFER_H, 90));
+    }
+
+    @Test
+    public void crop_copiesYAndVu() {
+        ByteBuffer y = yPlane();
+        ByteBuffer u = chromaPlane(true);
+        ByteBuffer v = chromaPlane(false);
+
+        for(int ds = 1; ds <= 2; ds++) {
+            for(int rotation = 0; rotation < 360; rotation += 90) {
+                String label = "ds=" + ds + " rotation=" + rotation;
+                RoiCropper cropper = new RoiCropper(0.25f * uprightW(rotation), 0.25f * uprightH(rotation), 0.75f * uprightW(rotation), 0.75f * uprightH(rotation), 0.1f, ds);
+                cropper.configure(BUFFER_W, BUFFER_H, rotation);
+
+                int outW = cropper.getOutputWidth();
+                int outH = cropper.getOutputHeight();
+                byte[] nv21 = new byte[cropper.getOutputSize()];
+                cropper.crop(y, Y_ROW_STRIDE, 1, u, v, UV_ROW_STRIDE, UV_PIXEL_STRIDE, nv21);
+                assertEquals(label, 0, y.position());
+
+                assertEquals(label, 0, cropper.getCropLeft() % (2 * ds));
+                assertEquals(label, 0, cropper.getCropTop() % (2 * ds));
+                assertEquals(label, 0, outW % 2);
+                assertEquals(label, 0, outH % 2);
+
+                for(int oy = 0; oy < outH; oy++) {
+                    for(int ox = 0; ox < outW; ox++) {
+                        int bx = cropper.getCropLeft() + ox * ds;
+                        int by = cropper.getCropTop() + oy * ds;
+                        assertEquals(label, yValue(bx, by), nv21[oy * outW + ox] & 0xFF);
+                    }
+                }
+                int o = outW * outH;
+                for(int oy = 0; oy < outH / 2; oy++) {
+                    for(int ox = 0; ox < outW / 2; ox++) {
+                        int cx = cropper.getCropLeft() / 2 + ox * ds;
+                        int cy = cropper.getCropTop() / 2 + oy * ds;
+                        assertEquals(label, vValue(cx, cy), nv21[o++] & 0xFF);
+                        assertEquals(label, uValue(cx, cy), nv21[o++] & 0xFF);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void crop_withPixelStride() {
+        // Y pixelStride 2 인 경우 (일반 복사 경로)
+        int w = 64, h = 32, rowStride = w * 2;
+        ByteBuffer y = ByteBuffer.allocate(rowStride * h);
+        for(int by = 0; by < h; by++) {
+            for(int bx = 0; bx < w; bx++) {
+                y.put(by * rowStride + bx * 2, (byte)yValue(bx, by));
+            }
+        }
+        ByteBuffer uv = ByteBuffer.allocate(rowStride * h / 2);
+
+        RoiCropper cropper = new RoiCropper(16, 8, 48, 24, 0, 1);
+        cropper.configure(w, h, 0);
+        byte[] nv21 = new byte[cropper.getOutputSize()];
+        cropper.crop(y, rowStride, 2, uv, uv, rowStride, 2, nv21);
+
+        assertEquals(32, cropper.getOutputWidth());
+        assertEquals(16, cropper.getOutputHeight());
+        assertEquals(yValue(16, 8), nv21[0] & 0xFF);
+        assertEquals(yValue(47, 23), nv21[32 * 16 - 1] & 0xFF);
+    }
+
+    @Test
+    public void mapping_roundTripsToFullFrame() {
+        for(int ds = 1; ds <= 2; ds++) {
+            for(int rotation = 0; rotation < 360; rotation += 90) {
+                String label = "ds=" + ds + " rotation=" + rotation;
+                RoiCropper cropper = new RoiCropper(TARGET_LEFT, TARGET_TOP, TARGET_RIGHT, TARGET_BOTTOM, 0.35f, ds);
+                if(rotation == 0 || rotation == 180) {
+                    cropper = new RoiCropper(TARGET_TOP, TARGET_LEFT, TARGET_BOTTOM, TARGET_RIGHT, 0.35f, ds);
+                }
+                cropper.configure(BUFFER_W, BUFFER_H, rotation);
+                RoiMapping mapping = cropper.getMapping();
+
+                int outW = cropper.getOutputWidth();
+                int outH = cropper.getOutputHeight();
+                // 잘라낸 영역 안의 버퍼 좌표 몇 개
+                int[][] points = {
+                        {cropper.getCropLeft(), cropper.getCropTop()},
+                        {cropper.getCropLeft() + cropper.getCropWidth(), cropper.getCropTop() + cropper.getCropHeight()},
+                        {cropper.getCropLeft() + 10, cropper.getCropTop() + cropper.getCropHeight() / 2},
+                };
+                for(int[] p : points) {
+                    float rx = (p[0] - cropper.getCropLeft()) / (float)ds;
+                    float ry = (p[1] - cropper.getCropTop()) / (float)ds;
+                    float[] roi = rotate(rx, ry, outW, outH, rotation);
+                    float[] full = rotate(p[0], p[1], BUFFER_W, BUFFER_H, rotation);
+                    assertEquals(label, full[0], mapping.mapX(roi[0]), 0.001f);
+                    assertEquals(label, full[1], mapping.mapY(roi[1]), 0.001f);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void crop_containsTargetRect() {
+        for(int rotation : new int[] {90, 270}) {
+            RoiCropper cropper = new RoiCropper(TARGET_LEFT, TARGET_TOP, TARGET_RIGHT, TARGET_BOTTOM, 0.35f, 1);
+            cropper.configure(BUFFER_W, BUFFER_H, rotation);
+            RoiMapping mapping = cropper.getMapping();
+
+            // 잘라낸 영역(화면 기준)이 목표영역을 포함
+            float left = mapping.mapX(0);
+            float top = mapping.mapY(0);
+            float right = mapping.mapX(cropper.getOutputHeight());
+            float bottom = mapping.mapY(cropper.getOutputWidth());
+            assertTrue(left <= TARGET_LEFT);
+            assertTrue(top <= TARGET_TOP);
+            assertTrue(right >= TARGET_RIGHT);
+            assertTrue(bottom >= TARGET_BOTTOM);
+
+            // 목표영역의 1.7배 (가로, 세로) 만큼만 남으므로 전체의 40% 이상 절약
+            assertTrue(cropper.getPixelsSavedPerFrame() > BUFFER_W * BUFFER_H * 4 / 10);
+        }
+    }
+
+    @Test
+    public void mapping_appliesToObservation() {
+        RoiMapping mapping = new RoiMapping(100, 200, 2);
+        FaceObservation face = new FaceObservation();
+        face.setBounds(10, 20, 30, 40);
+        face.setContour(new float[] {1, 2, 3, 4}, 2);
+        mapping.apply(face);
+
+        assertArrayEquals(new float[] {120, 240, 160, 280}, face.getBounds(), 0f);
+        assertEquals(102, face.getContour()[0], 0f);
+        assertEquals(204, face.getContour()[1], 0f);
+        assertEquals(106, face.getContour()[2], 0f);
+        assertEquals(208, face.getContour()[3], 0f);
+    }
+
+    @Test
+    public void bufferPool_reusesBuffers() {
+        FrameBufferPool pool = new FrameBufferPool(2, 16);
+        byte[] a = pool.acquire();
+        byte[] b = pool.acquire();
+        assertNotNull(a);
+        assertNotNull(b);
+        assertNull(pool.acquire());
+
+        pool.release(new byte[8]);       // 크기가 다른 버퍼는 받지 않음
+        assertEquals(0, pool.getAvailableCount());
+        pool.release(a);
+        assertSame(a, pool.acquire());
+    }
+
+    private static int uprightW(int rotation) {
+        return rotation == 90 || rotation == 270 ? BUFFER_H : BUFFER_W;
+    }
+
+    private static int uprightH(int rotation) {
+        return rotation == 90 || rotation == 270 ? BUFFER_W : BUFFER_H;
+    }
+
+    // 버퍼 좌표 -> 시계방향 rotation 만큼 회전한 화면 좌표
+    private static float[] rotate(float x, float y, float w, float h, int rotation) {
+        switch(rotation) {
+            case 90:
+                return new float[] {h - y, x};
+            case 180:
+                return new float[] {w - x, h - y};
+            case 270:
+                return new float[] {y, w - x};
+            default:
+                return new float[] {x, y};
+        }
+    }
+}
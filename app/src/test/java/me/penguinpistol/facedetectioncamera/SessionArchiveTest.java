@@ -0,0 +1,85 @@
+package me.penguinpistol.facedetectioncamera;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class SessionArchiveTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // 세션 디렉토리에 JPEG 하나, uploadStarted 면 manifest 도 만듦
+    private static void session(SessionArchive archive, String sessionId, boolean uploadStarted) throws IOException {
+        File dir = archive.getSessionDirectory(sessionId);
+        assertTrue(dir.mkdirs());
+        assertTrue(new File(dir, "FRONT_270_m.jpg").createNewFile());
+        if(uploadStarted) {
+            assertTrue(archive.getManifestFile(sessionId).createNewFile());
+        }
+    }
+
+    @Test
+    public void cleanUp_keepsSessionsNotFullyUploaded() throws IOException {
+        SessionArchive archive = new SessionArchive(folder.getRoot());
+        session(archive, "1000", false);
+        session(archive, "2000", true);
+        session(archive, "3000", true);
+        archive.markUploaded("3000");
+        session(archive, "4000", false);
+
+        assertEquals(Collections.singletonList("2000"), archive.cleanUp("4000"));
+        // 업로드를 시작하지 않은 세션, 업로드가 끝난 세션은 삭제
+        assertFalse(archive.getSessionDirectory("1000").exists());
+        assertFalse(archive.getSessionDirectory("3000").exists());
+        assertFalse(archive.isUploaded("3000"));
+        assertTrue(archive.isPendingUpload("2000"));
+        assertTrue(new File(archive.getSessionDirectory("2000"), "FRONT_270_m.jpg").isFile());
+        // 현재 세션은 그대로
+        assertTrue(archive.getSessionDirectory("4000").isDirectory());
+    }
+
+    @Test
+    public void cleanUp_limitsPendingSessions() throws IOException {
+        SessionArchive archive = new SessionArchive(folder.getRoot(), 2);
+        session(archive, "1000", true);
+        session(archive, "2000", true);
+        session(archive, "3000", true);
+
+        assertEquals(Arrays.asList("2000", "3000"), archive.cleanUp("4000"));
+        assertFalse(archive.getSessionDirectory("1000").exists());
+        assertFalse(archive.getManifestFile("1000").exists());
+    }
+
+    @Test
+    public void cleanUp_removesOrphanFiles() throws IOException {
+        SessionArchive archive = new SessionArchive(folder.getRoot());
+        assertTrue(archive.getManifestFile("1000").createNewFile());
+        assertTrue(new File(folder.getRoot(), "1000.manifest.tmp").createNewFile());
+        assertTrue(archive.getManifestFile("4000").createNewFile());
+
+        assertTrue(archive.cleanUp("4000").isEmpty());
+        assertArrayEquals(new String[] {"4000.manifest"}, folder.getRoot().list());
+    }
+
+    @Test
+    public void invalidate_clearsManifestAndUploadedMarker() throws IOException {
+        SessionArchive archive = new SessionArchive(folder.getRoot());
+        session(archive, "1000", true);
+        archive.markUploaded("1000");
+        assertFalse(archive.isPendingUpload("1000"));
+
+        assertTrue(archive.invalidate("1000"));
+        assertFalse(archive.getManifestFile("1000").exists());
+        assertFalse(archive.isUploaded("1000"));
+        // 없는 파일은 그대로 성공
+        assertTrue(archive.invalidate("1000"));
+    }
+}
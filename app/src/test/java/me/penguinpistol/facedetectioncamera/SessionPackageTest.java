@@ -0,0 +1,135 @@
+package me.penguinpistol.facedetectioncamera;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.*;
+
+public class SessionPackageTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void entries_roundTrip() throws IOException {
+        byte[] manifest = "session.id=1\n".getBytes(StandardCharsets.UTF_8);
+        byte[] front = random(70_000, 1);
+        byte[] left = random(1, 2);
+        SessionPackage sessionPackage = new SessionPackage("1234")
+                .addBytes("manifest.txt", manifest)
+                .addFile("FRONT_270_m.jpg", write("front", front))
+                .addFile("LEFT_30_270_m.jpg", write("left", left));
+
+        Map<String, byte[]> entries = parse(readAll(sessionPackage, 4096), "1234");
+        assertEquals(Arrays.asList("manifest.txt", "FRONT_270_m.jpg", "LEFT_30_270_m.jpg"), Arrays.asList(entries.keySet().toArray()));
+        assertArrayEquals(manifest, entries.get("manifest.txt"));
+        assertArrayEquals(front, entries.get("FRONT_270_m.jpg"));
+        assertArrayEquals(left, entries.get("LEFT_30_270_m.jpg"));
+        assertEquals(sessionPackage.getEntryNames(), Arrays.asList(entries.keySet().toArray()));
+    }
+
+    @Test
+    public void read_anyChunkSizeSameBytes() throws IOException {
+        SessionPackage sessionPackage = new SessionPackage("s")
+                .addBytes("a", random(10, 3))
+                .addFile("b", write("b", random(5000, 4)))
+                .addFile("c", write("c", random(3, 5)));
+        byte[] expected = readAll(sessionPackage, (int)sessionPackage.getLength());
+        for(int chunk : new int[] {1, 7, 64, 4999, 5001}) {
+            assertArrayEquals("chunk=" + chunk, expected, readAll(sessionPackage, chunk));
+        }
+
+        // 끝에서 읽으면 남은 만큼
+        byte[] buffer = new byte[100];
+        long length = sessionPackage.getLength();
+        assertEquals(10, sessionPackage.read(length - 10, buffer, 0, 100));
+        assertEquals(0, sessionPackage.read(length, buffer, 0, 100));
+    }
+
+    @Test
+    public void packageId_followsContent() throws IOException {
+        File file = write("x", random(1000, 6));
+        String id = new SessionPackage("s").addFile("x", file).getPackageId();
+        assertEquals(id, new SessionPackage("s").addFile("x", file).getPackageId());
+
+        byte[] changed = random(1000, 6);
+        changed[500] ^= 1;
+        assertNotEquals(id, new SessionPackage("s").addFile("x", write("x", changed)).getPackageId());
+        assertNotEquals(id, new SessionPackage("t").addFile("x", write("x", random(1000, 6))).getPackageId());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void addAfterRead_rejected() {
+        SessionPackage sessionPackage = new SessionPackage("s").addBytes("a", new byte[1]);
+        sessionPackage.getLength();
+        sessionPackage.addBytes("b", new byte[1]);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void readPastEnd_rejected() throws IOException {
+        SessionPackage sessionPackage = new SessionPackage("s").addBytes("a", new byte[1]);
+        sessionPackage.read(sessionPackage.getLength() + 1, new byte[1], 0, 1);
+    }
+
+    // chunk 크기로 나눠 읽어서 이어붙임
+    static byte[] readAll(SessionPackage sessionPackage, int chunk) throws IOException {
+        byte[] out = new byte[(int)sessionPackage.getLength()];
+        int offset = 0;
+        while(offset < out.length) {
+            offset += sessionPackage.read(offset, out, offset, Math.min(chunk, out.length - offset));
+        }
+        return out;
+    }
+
+    // 컨테이너 구조 확인 (엔트리 CRC 포함), 이름 -> 데이터
+    static Map<String, byte[]> parse(byte[] bytes, String sessionId) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(SessionPackage.BYTE_ORDER);
+        assertEquals(SessionPackage.MAGIC, buffer.getInt());
+        assertEquals(SessionPackage.VERSION, buffer.getInt());
+        int count = buffer.getInt();
+        byte[] id = new byte[buffer.getShort()];
+        buffer.get(id);
+        assertEquals(sessionId, new String(id, StandardCharsets.UTF_8));
+
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        for(int i = 0; i < count; i++) {
+            byte[] name = new byte[buffer.getShort()];
+            buffer.get(name);
+            byte[] data = new byte[(int)buffer.getLong()];
+            int crc = buffer.getInt();
+            buffer.get(data);
+            CRC32 actual = new CRC32();
+            actual.update(data, 0, data.length);
+            assertEquals(crc, (int)actual.getValue());
+            entries.put(new String(name, StandardCharsets.UTF_8), data);
+        }
+        assertFalse(buffer.hasRemaining());
+        return entries;
+    }
+
+    static byte[] random(int length, long seed) {
+        byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    private File write(String name, byte[] bytes) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(bytes);
+        }
+        return file;
+    }
+}
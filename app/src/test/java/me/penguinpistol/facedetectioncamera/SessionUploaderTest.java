@@ -0,0 +1,286 @@
+package me.penguinpistol.facedetectioncamera;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.*;
+
+public class SessionUploaderTest {
+
+    private static final int CHUNK_BYTES = 1000;
+
+    private StandInServer server;
+    private URL baseUrl;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StandInServer();
+        baseUrl = new URL("http://127.0.0.1:" + server.getPort() + "/upload/");
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void upload_assemblesPackage() throws IOException {
+        SessionPackage sessionPackage = createPackage("1", 12_345, 1);
+        SessionUploader uploader = new SessionUploader(baseUrl, CHUNK_BYTES, 2, 1);
+        List<Integer> progress = new ArrayList<>();
+
+        uploader.upload(sessionPackage, (acked, count) -> {
+            assertEquals(13, count);
+            progress.add(acked);
+        });
+
+        assertEquals(14, progress.size());
+        assertEquals(0, (int)progress.get(0));
+        assertEquals(13, (int)progress.get(13));
+        assertEquals(0, uploader.getResumedChunks());
+        assertEquals(13, uploader.getSentChunks());
+        assertEquals(0, uploader.getRetryCount());
+        assertArrayEquals(SessionPackageTest.readAll(sessionPackage, 1 << 16), server.assembled("1"));
+        SessionPackageTest.parse(server.assembled("1"), "1");
+    }
+
+    @Test
+    public void transientFailures_retried() throws IOException {
+        SessionPackage sessionPackage = createPackage("2", 5_500, 2);
+        server.failChunk(2, 2);
+        server.corruptChunk(4);
+        SessionUploader uploader = new SessionUploader(baseUrl, CHUNK_BYTES, 4, 1);
+
+        uploader.upload(sessionPackage, null);
+
+        assertEquals(3, uploader.getRetryCount());
+        assertArrayEquals(SessionPackageTest.readAll(sessionPackage, 1 << 16), server.assembled("2"));
+    }
+
+    @Test
+    public void resume_fromLastAcknowledgedChunk() throws IOException {
+        SessionPackage sessionPackage = createPackage("3", 8_000, 3);
+        server.failChunk(3, Integer.MAX_VALUE);
+        SessionUploader uploader = new SessionUploader(baseUrl, CHUNK_BYTES, 2, 1);
+        try {
+            uploader.upload(sessionPackage, null);
+            fail();
+        } catch (IOException expected) {
+            assertEquals(3, server.acknowledged("3"));
+        }
+
+        // 연결 복구 후 다시 호출 (앱 재시작과 같이 새 패키지 객체)
+        server.failChunk(-1, 0);
+        server.clearLog();
+        SessionPackage restarted = createPackage("3", 8_000, 3);
+        List<Integer> progress = new ArrayList<>();
+        uploader.upload(restarted, (acked, count) -> progress.add(acked));
+
+        assertEquals(3, uploader.getResumedChunks());
+        assertEquals(3, (int)progress.get(0));
+        assertEquals(sessionPackage.getLength() / CHUNK_BYTES + 1 - 3, uploader.getSentChunks());
+        for(String request : server.log()) {
+            assertFalse(request, request.matches("PUT /upload/3/[012]"));
+        }
+        assertArrayEquals(SessionPackageTest.readAll(restarted, 1 << 16), server.assembled("3"));
+    }
+
+    @Test
+    public void changedPackage_uploadedFromStart() throws IOException {
+        SessionUploader uploader = new SessionUploader(baseUrl, CHUNK_BYTES, 2, 1);
+        uploader.upload(createPackage("4", 3_000, 4), null);
+
+        // 같은 세션이지만 내용이 다르면 서버가 받은 청크를 쓰지 않음
+        SessionPackage changed = createPackage("4", 3_000, 5);
+        uploader.upload(changed, null);
+        assertEquals(0, uploader.getResumedChunks());
+        assertArrayEquals(SessionPackageTest.readAll(changed, 1 << 16), server.assembled("4"));
+
+        // 이미 모두 받은 패키지는 보내지 않음
+        uploader.upload(changed, null);
+        assertEquals(0, uploader.getSentChunks());
+        assertEquals(uploader.getChunkCount(changed.getLength()), uploader.getResumedChunks());
+    }
+
+    @Test
+    public void cancel_stopsAndResumes() throws IOException {
+        SessionPackage sessionPackage = createPackage("5", 6_000, 6);
+        SessionUploader uploader = new SessionUploader(baseUrl, CHUNK_BYTES, 2, 1);
+        try {
+            uploader.upload(sessionPackage, (acked, count) -> {
+                if(acked == 2) {
+                    uploader.cancel();
+                }
+            });
+            fail();
+        } catch (InterruptedIOException expected) {
+            assertEquals(2, server.acknowledged("5"));
+        }
+
+        uploader.upload(sessionPackage, null);
+        assertEquals(2, uploader.getResumedChunks());
+        assertArrayEquals(SessionPackageTest.readAll(sessionPackage, 1 << 16), server.assembled("5"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidChunkSize_rejected() {
+        new SessionUploader(baseUrl, 0, 1, 1);
+    }
+
+    private static SessionPackage createPackage(String sessionId, int jpegBytes, long seed) {
+        return new SessionPackage(sessionId)
+                .addBytes("manifest.txt", ("session.id=" + sessionId + "\n").getBytes())
+                .addBytes("FRONT_270_m.jpg", SessionPackageTest.random(jpegBytes, seed));
+    }
+
+    // 업로드 서버 대역 (SessionUploader 프로토콜, 청크를 메모리에 보관)
+    private static final class StandInServer {
+
+        private static final class Session {
+            String packageId;
+            final Map<Integer, byte[]> chunks = new TreeMap<>();
+        }
+
+        private final HttpServer server;
+        private final Map<String, Session> sessions = new TreeMap<>();
+        private final List<String> log = Collections.synchronizedList(new ArrayList<>());
+        private int failChunk = -1;
+        private int failRemaining = 0;
+        private int corruptChunk = -1;
+
+        StandInServer() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext("/upload/", this::handle);
+            server.start();
+        }
+
+        int getPort() {
+            return server.getAddress().getPort();
+        }
+
+        void stop() {
+            server.stop(0);
+        }
+
+        // index 청크를 times 번 500 으로 응답
+        synchronized void failChunk(int index, int times) {
+            failChunk = index;
+            failRemaining = times;
+        }
+
+        // index 청크를 한 번 손상된 것으로 받음 (CRC 불일치)
+        synchronized void corruptChunk(int index) {
+            corruptChunk = index;
+        }
+
+        synchronized int acknowledged(String sessionId) {
+            Session session = sessions.get(sessionId);
+            return session == null ? 0 : contiguous(session);
+        }
+
+        synchronized byte[] assembled(String sessionId) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            for(byte[] chunk : sessions.get(sessionId).chunks.values()) {
+                out.write(chunk, 0, chunk.length);
+            }
+            return out.toByteArray();
+        }
+
+        List<String> log() {
+            return new ArrayList<>(log);
+        }
+
+        void clearLog() {
+            log.clear();
+        }
+
+        private synchronized void handle(HttpExchange exchange) throws IOException {
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            String method = exchange.getRequestMethod();
+            log.add(method + " " + exchange.getRequestURI().getPath());
+            String packageId = exchange.getRequestHeaders().getFirst(SessionUploader.HEADER_PACKAGE_ID);
+            byte[] body = readBody(exchange.getRequestBody());
+
+            Session session = sessions.get(path[2]);
+            if("GET".equals(method) && path.length == 3) {
+                if(session == null || !session.packageId.equals(packageId)) {
+                    respond(exchange, 404);
+                    return;
+                }
+                exchange.getResponseHeaders().set(SessionUploader.HEADER_NEXT_CHUNK, String.valueOf(contiguous(session)));
+                respond(exchange, 200);
+                return;
+            }
+            if(!"PUT".equals(method) || path.length != 4) {
+                respond(exchange, 405);
+                return;
+            }
+
+            int index = Integer.parseInt(path[3]);
+            if(index == failChunk && failRemaining > 0) {
+                failRemaining--;
+                respond(exchange, 500);
+                return;
+            }
+            if(index == corruptChunk) {
+                corruptChunk = -1;
+                body[0] ^= 1;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(body, 0, body.length);
+            if(!String.format(Locale.US, "%08x", crc.getValue()).equals(exchange.getRequestHeaders().getFirst(SessionUploader.HEADER_CHUNK_CRC))) {
+                respond(exchange, 400);
+                return;
+            }
+            if(session == null || !session.packageId.equals(packageId)) {
+                // 새 세션이거나 패키지가 바뀜
+                session = new Session();
+                session.packageId = packageId;
+                sessions.put(path[2], session);
+            }
+            session.chunks.put(index, body);
+            respond(exchange, 204);
+        }
+
+        private static int contiguous(Session session) {
+            int next = 0;
+            while(session.chunks.containsKey(next)) {
+                next++;
+            }
+            return next;
+        }
+
+        private static byte[] readBody(InputStream in) throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while((read = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+
+        private static void respond(HttpExchange exchange, int code) throws IOException {
+            exchange.sendResponseHeaders(code, -1);
+            exchange.close();
+        }
+    }
+}
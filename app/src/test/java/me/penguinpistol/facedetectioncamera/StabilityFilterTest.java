@@ -0,0 +1,107 @@
+package me.penguinpistol.facedetectioncamera;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StabilityFilterTest {
+
+    // 기록된 프레임: {timestampMs, passed(0/1), angleX, angleY, angleZ, offsetX, widthRatio, eyeOpen} (offsetY 는 0)
+    private static final float[][] STEADY = {
+            {   0, 1, 1.0f, 0.5f, 0.2f, 5f, 1.00f, 0.90f },
+            {  33, 1, 1.2f, 0.7f, 0.1f, 6f, 1.01f, 0.92f },
+            {  66, 1, 0.9f, 0.4f, 0.3f, 4f, 0.99f, 0.88f },
+            { 100, 1, 1.1f, 0.6f, 0.2f, 5f, 1.00f, 0.91f },
+            { 133, 1, 1.0f, 0.5f, 0.2f, 5f, 1.02f, 0.90f },
+    };
+
+    // 중간에 고개를 크게 돌림 (판정은 통과)
+    private static final float[][] JERK = {
+            {   0, 1, 1.0f, 0.5f, 0.2f, 5f, 1.00f, 0.90f },
+            {  33, 1, 1.0f, 0.5f, 0.2f, 5f, 1.00f, 0.90f },
+            {  66, 1, 1.0f, 5.5f, 0.2f, 5f, 1.00f, 0.90f },
+            { 100, 1, 1.0f, 5.6f, 0.2f, 5f, 1.00f, 0.90f },
+            { 133, 1, 1.0f, 5.4f, 0.2f, 5f, 1.00f, 0.90f },
+            { 166, 1, 1.0f, 5.5f, 0.2f, 5f, 1.00f, 0.90f },
+            { 200, 1, 1.0f, 5.5f, 0.2f, 5f, 1.00f, 0.90f },
+    };
+
+    @Test
+    public void steadySequence_triggersOnNthFrame() {
+        StabilityFilter filter = new StabilityFilter(5, 0, 0f);
+        assertEquals(4, firstTrigger(filter, STEADY));
+    }
+
+    @Test
+    public void failedFrame_resets() {
+        StabilityFilter filter = new StabilityFilter(3, 0, 0f);
+        float[][] frames = {
+                {  0, 1, 0, 0, 0, 5f, 1f, 0.9f },
+                { 33, 1, 0, 0, 0, 5f, 1f, 0.9f },
+                { 66, 0, 0, 0, 0, 5f, 1f, 0.9f },
+                { 100, 1, 0, 0, 0, 5f, 1f, 0.9f },
+                { 133, 1, 0, 0, 0, 5f, 1f, 0.9f },
+                { 166, 1, 0, 0, 0, 5f, 1f, 0.9f },
+        };
+        assertEquals(5, firstTrigger(filter, frames));
+    }
+
+    @Test
+    public void jerk_restartsWindowFromNewPose() {
+        StabilityFilter filter = new StabilityFilter(5, 0, 0f);
+        assertEquals(6, firstTrigger(filter, JERK));
+        assertEquals(5, filter.getStableFrameCount());
+    }
+
+    @Test
+    public void duration_triggersBeforeFrameCountOnSlowFrames() {
+        StabilityFilter filter = new StabilityFilter(10, 300, 0f);
+        float[][] frames = {
+                {   0, 1, 0, 0, 0, 5f, 1f, 0.9f },
+                { 125, 1, 0, 0, 0, 5f, 1f, 0.9f },
+                { 250, 1, 0, 0, 0, 5f, 1f, 0.9f },
+                { 375, 1, 0, 0, 0, 5f, 1f, 0.9f },
+        };
+        assertEquals(3, firstTrigger(filter, frames));
+        assertEquals(375, filter.getStableDurationMs());
+    }
+
+    @Test
+    public void smoothing_absorbsSingleOutlier() {
+        float[][] frames = {
+                {   0, 1, 0, 0.0f, 0, 5f, 1f, 0.9f },
+                {  33, 1, 0, 0.0f, 0, 5f, 1f, 0.9f },
+                {  66, 1, 0, 4.0f, 0, 5f, 1f, 0.9f },
+                { 100, 1, 0, 0.0f, 0, 5f, 1f, 0.9f },
+                { 133, 1, 0, 0.0f, 0, 5f, 1f, 0.9f },
+        };
+        assertEquals(-1, firstTrigger(new StabilityFilter(5, 0, 0f), frames));
+        assertEquals(4, firstTrigger(new StabilityFilter(5, 0, 0.5f), frames));
+    }
+
+    @Test
+    public void offset_comparedPerAxis() {
+        // 목표 중심에서 같은 거리를 유지해도 위치가 바뀌면 안정 상태가 아님
+        StabilityFilter filter = new StabilityFilter(3, 0, 0f);
+        assertFalse(filter.update(0, true, 0, 0, 0, 20f, 0f, 1f, 0.9f));
+        assertFalse(filter.update(33, true, 0, 0, 0, 0f, 20f, 1f, 0.9f));
+        assertFalse(filter.update(66, true, 0, 0, 0, -20f, 0f, 1f, 0.9f));
+        assertEquals(1, filter.getStableFrameCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidSmoothing() {
+        new StabilityFilter(5, 0, 1.5f);
+    }
+
+    // 처음 안정 판정된 프레임 index (없으면 -1)
+    private static int firstTrigger(StabilityFilter filter, float[][] frames) {
+        for(int i = 0; i < frames.length; i++) {
+            float[] f = frames[i];
+            if(filter.update((long)f[0], f[1] > 0, f[2], f[3], f[4], f[5], 0f, f[6], f[7])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,168 @@
+package me.penguinpistol.facedetectioncamera;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ThresholdTableTest {
+
+    private static final float TARGET_LEFT = 187.2f;
+    private static final float TARGET_TOP = 398.08f;
+    private static final float TARGET_RIGHT = 532.8f;
+    private static final float TARGET_BOTTOM = 881.92f;
+    private static final float TARGET_CX = (TARGET_LEFT + TARGET_RIGHT) * 0.5f;
+    private static final float TARGET_CY = (TARGET_TOP + TARGET_BOTTOM) * 0.5f;
+
+    @Test
+    public void thresholds_precomputedRanges() {
+        FaceThresholds t = new FaceThresholds(FaceChecker.Direction.LEFT_45, 7f, 35f, 0.2f, 0.65f);
+
+        assertEquals(-52f, t.minAngleY, 0f);
+        assertEquals(-38f, t.maxAngleY, 0f);
+        assertEquals(7f, t.maxAngleXZ, 0f);
+        assertEquals(35f * 35f, t.maxDistanceSq, 0f);
+        assertEquals(0.8f, t.minWidthRatio, 1e-6f);
+        assertEquals(1.2f, t.maxWidthRatio, 1e-6f);
+    }
+
+    @Test
+    public void thresholds_matchDirectionCheck() {
+        // 미리 계산한 범위와 Direction.check 결과가 같음
+        for(FaceChecker.Direction dir : FaceChecker.Direction.values()) {
+            FaceThresholds t = FaceThresholds.defaults(dir);
+            for(float y = -60; y <= 60; y += 0.25f) {
+                boolean expected = dir.check(y, FaceThresholds.DEFAULT_ANGLE_ERROR);
+                assertEquals(dir + " " + y, expected, t.minAngleY < y && y < t.maxAngleY);
+            }
+        }
+    }
+
+    @Test
+    public void table_usesPlanTolerances() {
+        CapturePlan plan = new CapturePlan.Builder("custom")
+                .add(FaceChecker.Direction.LEFT_45, 10f, 1, 10_000, 4_000)
+                .add(FaceChecker.Direction.FRONT, 7f, 1, 10_000, 0)
+                .build();
+        ThresholdTable table = new ThresholdTable(plan);
+
+        assertEquals(10f, table.get(FaceChecker.Direction.LEFT_45).getAngleError(), 0f);
+        assertEquals(10f + ThresholdTable.RELAX_EXTRA_ANGLE, table.getRelaxed(FaceChecker.Direction.LEFT_45).getAngleError(), 0f);
+        assertEquals(35f * ThresholdTable.RELAX_POSITION_SCALE, table.getRelaxed(FaceChecker.Direction.LEFT_45).getPositionError(), 1e-4f);
+        // 계획에 없는 방향은 기본값
+        assertEquals(FaceThresholds.DEFAULT_ANGLE_ERROR, table.get(FaceChecker.Direction.RIGHT_30).getAngleError(), 0f);
+    }
+
+    @Test
+    public void table_relaxesAfterDelay() {
+        CapturePlan plan = new CapturePlan.Builder("custom")
+                .add(FaceChecker.Direction.LEFT_45, 7f, 1, 10_000, 4_000)
+                .add(FaceChecker.Direction.FRONT, 7f, 1, 10_000, 0)
+                .build();
+        ThresholdTable table = new ThresholdTable(plan);
+
+        assertFalse(table.shouldRelax(FaceChecker.Direction.LEFT_45, 3_999));
+        assertTrue(table.shouldRelax(FaceChecker.Direction.LEFT_45, 4_000));
+        // 0 이면 완화하지 않음
+        assertFalse(table.shouldRelax(FaceChecker.Direction.FRONT, 60_000));
+    }
+
+    @Test
+    public void gate_relaxTimerStartsAtFirstAnalyzedFrame() {
+        CapturePlan plan = new CapturePlan.Builder("custom")
+                .add(FaceChecker.Direction.LEFT_45, 7f, 1, 10_000, 4_000)
+                .build();
+        ThresholdTable table = new ThresholdTable(plan);
+        CaptureGate gate = new CaptureGate(new FaceChecker(TARGET_LEFT, TARGET_TOP, TARGET_RIGHT, TARGET_BOTTOM));
+        float[] contour = FaceCheckerTest.ellipse(TARGET_CX, TARGET_CY, TARGET_RIGHT - TARGET_LEFT, TARGET_BOTTOM - TARGET_TOP);
+        FaceObservation face = new FaceObservation().set(0, -36, 0, 0.9f, 0.9f).setContour(contour, contour.length / 2);
+        SessionMetrics metrics = new SessionMetrics();
+
+        // 얼굴이 없는 프레임만 4초 동안 분석한 뒤 처음 얼굴이 들어오면 바로 완화된 기준
+        gate.start(FaceChecker.Direction.LEFT_45, table);
+        for(long t = 1_000; t < 5_000; t += 100) {
+            gate.onFrame(t);
+        }
+        gate.update(face, 5_000, metrics);
+        assertTrue(gate.isRelaxed());
+        assertTrue(gate.isLastPassed());
+
+        // 다시 시작하면 시간도 다시 측정
+        gate.start(FaceChecker.Direction.LEFT_45, table);
+        gate.update(face, 5_100, metrics);
+        assertFalse(gate.isRelaxed());
+        assertFalse(gate.isLastPassed());
+    }
+
+    @Test
+    public void gate_noFaceFrameRestartsStability() {
+        ThresholdTable table = new ThresholdTable(CapturePlan.express());
+        CaptureGate gate = new CaptureGate(new FaceChecker(TARGET_LEFT, TARGET_TOP, TARGET_RIGHT, TARGET_BOTTOM));
+        float[] contour = FaceCheckerTest.ellipse(TARGET_CX, TARGET_CY, TARGET_RIGHT - TARGET_LEFT, TARGET_BOTTOM - TARGET_TOP);
+        FaceObservation face = new FaceObservation().set(0, 0, 0, 0.9f, 0.9f).setContour(contour, contour.length / 2);
+        SessionMetrics metrics = new SessionMetrics();
+        gate.start(FaceChecker.Direction.FRONT, table);
+
+        // 얼굴이 잠깐 사라지면 그 전까지의 연속 프레임은 사용하지 않음
+        long t = 0;
+        for(int i = 0; i < CaptureGate.STABLE_FRAME_COUNT - 1; i++, t += 33) {
+            assertFalse(gate.update(face, t, metrics));
+        }
+        gate.onNoFace(t);
+        assertFalse(gate.isLastPassed());
+        t += 33;
+        for(int i = 0; i < CaptureGate.STABLE_FRAME_COUNT - 1; i++, t += 33) {
+            assertFalse(gate.update(face, t, metrics));
+        }
+        assertTrue(gate.update(face, t, metrics));
+    }
+
+    @Test
+    public void checker_relaxedThresholdAcceptsLooserPose() {
+        CapturePlan plan = CapturePlan.full();
+        ThresholdTable table = new ThresholdTable(plan);
+        FaceChecker checker = new FaceChecker(TARGET_LEFT, TARGET_TOP, TARGET_RIGHT, TARGET_BOTTOM);
+        float[] contour = FaceCheckerTest.ellipse(TARGET_CX, TARGET_CY, TARGET_RIGHT - TARGET_LEFT, TARGET_BOTTOM - TARGET_TOP);
+
+        // 45도 목표에서 Y 각도 -36도
+        checker.setThresholds(table.get(FaceChecker.Direction.LEFT_45));
+        assertFalse(checker.check(contour, contour.length / 2, 0, -36, 0, 0.9f, 0.9f));
+        checker.setThresholds(table.getRelaxed(FaceChecker.Direction.LEFT_45));
+        assertTrue(checker.check(contour, contour.length / 2, 0, -36, 0, 0.9f, 0.9f));
+        assertEquals(FaceChecker.Direction.LEFT_45, checker.getDirection());
+    }
+
+    @Test
+    public void checker_squaredDistanceBoundary() {
+        FaceChecker checker = new FaceChecker(TARGET_LEFT, TARGET_TOP, TARGET_RIGHT, TARGET_BOTTOM);
+        checker.setDirection(FaceChecker.Direction.FRONT);
+        float w = TARGET_RIGHT - TARGET_LEFT;
+        float h = TARGET_BOTTOM - TARGET_TOP;
+
+        // 대각선 거리 34.6 (통과), 35.4 (실패)
+        float[] inside = FaceCheckerTest.ellipse(TARGET_CX + 24.5f, TARGET_CY + 24.5f, w, h);
+        float[] outside = FaceCheckerTest.ellipse(TARGET_CX + 25f, TARGET_CY + 25f, w, h);
+        assertTrue(checker.check(inside, inside.length / 2, 0, 0, 0, 0.9f, 0.9f));
+        assertEquals(24.5f * Math.sqrt(2), checker.getLastDistance(), 0.01f);
+        assertEquals(2 * 24.5f * 24.5f, checker.getLastDistanceSq(), 0.5f);
+        assertEquals(24.5f, checker.getLastOffsetX(), 0.01f);
+        assertEquals(24.5f, checker.getLastOffsetY(), 0.01f);
+        assertFalse(checker.check(outside, outside.length / 2, 0, 0, 0, 0.9f, 0.9f));
+    }
+
+    @Test
+    public void timeToCapture_recordsPerDirection() {
+        TimeToCapture metric = new TimeToCapture();
+        assertEquals(-1, metric.get(FaceChecker.Direction.FRONT));
+
+        metric.record(FaceChecker.Direction.FRONT, 1_200, false);
+        metric.record(FaceChecker.Direction.LEFT_45, 7_300, true);
+
+        assertEquals(1_200, metric.get(FaceChecker.Direction.FRONT));
+        assertTrue(metric.isRelaxed(FaceChecker.Direction.LEFT_45));
+        assertEquals(8_500, metric.getTotalMs());
+        assertEquals("FRONT=1200ms, LEFT_45=7300ms(relaxed)", metric.format());
+
+        metric.clear();
+        assertEquals(0, metric.getTotalMs());
+    }
+}
@@ -0,0 +1,129 @@
+package me.penguinpistol.facedetectioncamera;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TieredFaceDetectorTest {
+
+    // 목표영역 중심 (360, 640), 가로 345.6
+    private static final float TARGET_LEFT = 187.2f;
+    private static final float TARGET_TOP = 398.08f;
+    private static final float TARGET_RIGHT = 532.8f;
+    private static final float TARGET_BOTTOM = 881.92f;
+
+    // 프레임(= 이미지) 별로 미리 정해둔 결과를 돌려주는 가짜 검출기
+    private static class FakeBackend implements FaceDetectorBackend<FaceObservation> {
+        final List<DetectionTier> calls = new ArrayList<>();
+
+        @Override
+        public void process(DetectionTier tier, FaceObservation image, Callback callback) {
+            calls.add(tier);
+            callback.onResult(tier, image);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class RecordingListener implements TieredFaceDetector.Listener {
+        int faces;
+        int completes;
+
+        @Override
+        public void onFace(FaceObservation face) {
+            faces++;
+        }
+
+        @Override
+        public void onError(Exception e) {
+            fail(e.toString());
+        }
+
+        @Override
+        public void onComplete() {
+            completes++;
+        }
+    }
+
+    private FakeBackend backend;
+    private TieredFaceDetector<FaceObservation> detector;
+    private RecordingListener listener;
+
+    @Before
+    public void setUp() {
+        backend = new FakeBackend();
+        detector = new TieredFaceDetector<>(backend, TARGET_LEFT, TARGET_TOP, TARGET_RIGHT, TARGET_BOTTOM);
+        detector.setDirection(FaceChecker.Direction.FRONT);
+        listener = new RecordingListener();
+    }
+
+    @Test
+    public void staysFast_whileFaceIsFar() {
+        for(int i = 0; i < 5; i++) {
+            detector.process(face(100, 200, 0), listener);
+        }
+        detector.process(null, listener);
+
+        assertEquals(DetectionTier.FAST, detector.getCurrentTier());
+        assertEquals(6, detector.getFrameCount(DetectionTier.FAST));
+        assertEquals(0, detector.getFrameCount(DetectionTier.ACCURATE));
+        assertEquals(0, listener.faces);
+        assertEquals(6, listener.completes);
+    }
+
+    @Test
+    public void staysFast_whenAngleIsFarFromDirection() {
+        detector.setDirection(FaceChecker.Direction.RIGHT_45);
+        detector.process(face(360, 640, 0), listener);
+        assertEquals(DetectionTier.FAST, detector.getCurrentTier());
+
+        detector.process(face(360, 640, 40), listener);
+        assertEquals(DetectionTier.ACCURATE, detector.getCurrentTier());
+    }
+
+    @Test
+    public void escalates_thenFallsBackAfterMisses() {
+        detector.process(face(360, 640, 2), listener);
+        assertEquals(DetectionTier.ACCURATE, detector.getCurrentTier());
+
+        detector.process(face(360, 640, 2), listener);
+        detector.process(face(365, 645, 1), listener);
+        assertEquals(2, listener.faces);
+
+        // 연속 3회 벗어나면 FAST 로 복귀
+        detector.process(face(100, 200, 0), listener);
+        detector.process(null, listener);
+        assertEquals(DetectionTier.ACCURATE, detector.getCurrentTier());
+        detector.process(face(100, 200, 0), listener);
+        assertEquals(DetectionTier.FAST, detector.getCurrentTier());
+
+        assertEquals(1, detector.getFrameCount(DetectionTier.FAST));
+        assertEquals(5, detector.getFrameCount(DetectionTier.ACCURATE));
+        assertEquals(DetectionTier.ACCURATE, backend.calls.get(1));
+        assertEquals(6, listener.completes);
+    }
+
+    @Test
+    public void setDirection_resetsToFast() {
+        detector.process(face(360, 640, 0), listener);
+        assertEquals(DetectionTier.ACCURATE, detector.getCurrentTier());
+
+        detector.setDirection(FaceChecker.Direction.LEFT_30);
+        assertEquals(DetectionTier.FAST, detector.getCurrentTier());
+    }
+
+    // 목표영역 크기의 검출 사각형
+    private static FaceObservation face(float cx, float cy, float angleY) {
+        float halfW = (TARGET_RIGHT - TARGET_LEFT) * 0.5f;
+        float halfH = (TARGET_BOTTOM - TARGET_TOP) * 0.5f;
+        return new FaceObservation()
+                .set(0, angleY, 0, 0.9f, 0.9f)
+                .setBounds(cx - halfW, cy - halfH, cx + halfW, cy + halfH);
+    }
+}
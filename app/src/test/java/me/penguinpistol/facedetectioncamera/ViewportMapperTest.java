@@ -0,0 +1,173 @@
+package me.penguinpistol.facedetectioncamera;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ViewportMapperTest {
+
+    private static final float EPSILON = 1e-3f;
+
+    private static final int[][] VIEW_SIZES = {
+            {1080, 2340}, {1080, 1920}, {720, 1280}, {1440, 1080}, {500, 500}, {1, 3000},
+    };
+    private static final int[][] IMAGE_SIZES = {
+            {1280, 720}, {720, 1280}, {640, 480}, {1920, 1080}, {100, 100},
+    };
+    private static final int[] ROTATIONS = {0, 90, 180, 270};
+
+    @Test
+    public void targetRect_matchesAnalyzerDefinition() {
+        float[] rect = new float[4];
+        ViewportMapper.computeTargetRect(720, 1280, rect);
+
+        assertEquals(187.2f, rect[ContourUtils.LEFT], EPSILON);
+        assertEquals(398.08f, rect[ContourUtils.TOP], EPSILON);
+        assertEquals(532.8f, rect[ContourUtils.RIGHT], EPSILON);
+        assertEquals(881.92f, rect[ContourUtils.BOTTOM], EPSILON);
+    }
+
+    @Test
+    public void fillCenter_frontCameraPortrait() {
+        // 1280x720 버퍼, 270도 회전 -> 정방향 720x1280
+        ViewportMapper mapper = new ViewportMapper(ViewportMapper.ScaleType.FILL_CENTER, true);
+        assertTrue(mapper.configure(1080, 2340, 1280, 720, 270));
+
+        assertEquals(720, mapper.getUprightWidth());
+        assertEquals(1280, mapper.getUprightHeight());
+        assertEquals(2340f / 1280f, mapper.getScale(), EPSILON);
+        // 이미지 가로 1316.25 -> 양쪽 118.125 잘림, 좌우반전
+        assertEquals(1080 + 118.125f, mapper.mapX(0), EPSILON);
+        assertEquals(-118.125f, mapper.mapX(720), EPSILON);
+        assertEquals(0f, mapper.mapY(0), EPSILON);
+        assertEquals(2340f, mapper.mapY(1280), EPSILON);
+    }
+
+    @Test
+    public void fitCenter_letterbox() {
+        ViewportMapper mapper = new ViewportMapper(ViewportMapper.ScaleType.FIT_CENTER, false);
+        mapper.configure(1080, 2340, 720, 1280, 0);
+
+        assertEquals(1.5f, mapper.getScale(), EPSILON);
+        assertEquals(0f, mapper.mapX(0), EPSILON);
+        assertEquals(1080f, mapper.mapX(720), EPSILON);
+        // 세로 1920 -> 위아래 210 여백
+        assertEquals(210f, mapper.mapY(0), EPSILON);
+        assertEquals(2130f, mapper.mapY(1280), EPSILON);
+    }
+
+    @Test
+    public void allCombinations_invariants() {
+        float[] rect = new float[4];
+        float[] matrix = new float[9];
+        float[] points = new float[4];
+
+        for(ViewportMapper.ScaleType type : ViewportMapper.ScaleType.values()) {
+            for(boolean mirrored : new boolean[] {false, true}) {
+                for(int[] view : VIEW_SIZES) {
+                    for(int[] image : IMAGE_SIZES) {
+                        for(int rotation : ROTATIONS) {
+                            String name = type + " mirrored=" + mirrored + " view=" + view[0] + "x" + view[1]
+                                    + " image=" + image[0] + "x" + image[1] + " rot=" + rotation;
+                            ViewportMapper mapper = new ViewportMapper(type, mirrored);
+                            assertTrue(name, mapper.configure(view[0], view[1], image[0], image[1], rotation));
+
+                            boolean rotated = rotation % 180 != 0;
+                            int w = rotated ? image[1] : image[0];
+                            int h = rotated ? image[0] : image[1];
+                            assertEquals(name, w, mapper.getUprightWidth());
+                            assertEquals(name, h, mapper.getUprightHeight());
+
+                            mapper.mapRect(0, 0, w, h, rect);
+                            float mappedW = rect[ContourUtils.RIGHT] - rect[ContourUtils.LEFT];
+                            float mappedH = rect[ContourUtils.BOTTOM] - rect[ContourUtils.TOP];
+                            float tolerance = Math.max(view[0], view[1]) * 1e-5f;
+
+                            // 비율 유지
+                            assertEquals(name, (float)w / h, mappedW / mappedH, 1e-4f * Math.max(1f, (float)w / h));
+                            // 중앙 정렬
+                            assertEquals(name, view[0] * 0.5f, (rect[ContourUtils.LEFT] + rect[ContourUtils.RIGHT]) * 0.5f, tolerance + EPSILON);
+                            assertEquals(name, view[1] * 0.5f, (rect[ContourUtils.TOP] + rect[ContourUtils.BOTTOM]) * 0.5f, tolerance + EPSILON);
+
+                            boolean widthFits = Math.abs(mappedW - view[0]) <= tolerance + EPSILON;
+                            boolean heightFits = Math.abs(mappedH - view[1]) <= tolerance + EPSILON;
+                            assertTrue(name, widthFits || heightFits);
+                            if(type == ViewportMapper.ScaleType.FILL_CENTER) {
+                                assertTrue(name, mappedW >= view[0] - tolerance - EPSILON && mappedH >= view[1] - tolerance - EPSILON);
+                            } else {
+                                assertTrue(name, mappedW <= view[0] + tolerance + EPSILON && mappedH <= view[1] + tolerance + EPSILON);
+                            }
+
+                            // 반전 방향
+                            assertEquals(name, mirrored, mapper.mapX(0) > mapper.mapX(w));
+                            assertTrue(name, mapper.mapY(0) < mapper.mapY(h));
+
+                            // 역변환, 행렬, 일괄 변환이 같은 결과
+                            mapper.getMatrixValues(matrix);
+                            float x = w * 0.3f;
+                            float y = h * 0.7f;
+                            assertEquals(name, x, mapper.unmapX(mapper.mapX(x)), Math.max(w, h) * 1e-4f);
+                            assertEquals(name, y, mapper.unmapY(mapper.mapY(y)), Math.max(w, h) * 1e-4f);
+                            assertEquals(name, mapper.mapX(x), matrix[0] * x + matrix[1] * y + matrix[2], EPSILON);
+                            assertEquals(name, mapper.mapY(y), matrix[3] * x + matrix[4] * y + matrix[5], EPSILON);
+
+                            points[0] = x;
+                            points[1] = y;
+                            mapper.mapPoints(points, 0, points, 2, 1);
+                            assertEquals(name, mapper.mapX(x), points[2], 0f);
+                            assertEquals(name, mapper.mapY(y), points[3], 0f);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void configure_memoized() {
+        ViewportMapper mapper = new ViewportMapper(ViewportMapper.ScaleType.FILL_CENTER, true);
+        assertFalse(mapper.isConfigured());
+
+        assertTrue(mapper.configure(1080, 1920, 1280, 720, 270));
+        assertFalse(mapper.configure(1080, 1920, 1280, 720, 270));
+        assertTrue(mapper.configure(1080, 1920, 1280, 720, 90));
+        assertTrue(mapper.configure(1080, 2340, 1280, 720, 90));
+        assertTrue(mapper.configure(1080, 2340, 640, 480, 90));
+        assertTrue(mapper.isConfigured());
+    }
+
+    @Test
+    public void rotation180_sameAsUpright() {
+        ViewportMapper upright = new ViewportMapper(ViewportMapper.ScaleType.FILL_CENTER, false);
+        ViewportMapper flipped = new ViewportMapper(ViewportMapper.ScaleType.FILL_CENTER, false);
+        upright.configure(1080, 1920, 720, 1280, 0);
+        flipped.configure(1080, 1920, 720, 1280, 180);
+
+        assertEquals(upright.getScale(), flipped.getScale(), 0f);
+        assertEquals(upright.mapX(100), flipped.mapX(100), 0f);
+        assertEquals(upright.mapY(100), flipped.mapY(100), 0f);
+    }
+
+    @Test
+    public void mapRect_keepsOrderWhenMirrored() {
+        ViewportMapper mapper = new ViewportMapper(ViewportMapper.ScaleType.FILL_CENTER, true);
+        mapper.configure(720, 1280, 720, 1280, 0);
+        float[] rect = new float[4];
+        mapper.mapRect(100, 200, 300, 400, rect);
+
+        assertEquals(420f, rect[ContourUtils.LEFT], EPSILON);
+        assertEquals(200f, rect[ContourUtils.TOP], EPSILON);
+        assertEquals(620f, rect[ContourUtils.RIGHT], EPSILON);
+        assertEquals(400f, rect[ContourUtils.BOTTOM], EPSILON);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void configure_rejectsInvalidRotation() {
+        new ViewportMapper(ViewportMapper.ScaleType.FILL_CENTER, false).configure(100, 100, 100, 100, 45);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void configure_rejectsEmptySize() {
+        new ViewportMapper(ViewportMapper.ScaleType.FIT_CENTER, false).configure(0, 100, 100, 100, 0);
+    }
+}
@@ -0,0 +1,409 @@
+package me.penguinpistol.facedetectioncamera;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class YuvConverterTest {
+
+    private static final int WIDTH = 16;
+    private static final int HEIGHT = 8;
+
+    // 저장된 카메라 버퍼 (src/test/resources/golden)
+    // 20x12, Y 다음에 U/V 교차 평면, 두 평면 모두 rowStride 32 이고 행 끝 여백은 0xEE
+    static final String GOLDEN_INPUT = "camera_20x12_stride32.yuv";
+    static final int GOLDEN_WIDTH = 20;
+    static final int GOLDEN_HEIGHT = 12;
+    static final int GOLDEN_ROW_STRIDE = 32;
+    // 결과 파일 이름 (.nv21, .argb, _q90.jpg), 후면 카메라 90 회전과 전면 카메라 270 회전 + 좌우반전
+    static final String[] GOLDEN_CASES = {"camera_20x12_rot90", "camera_20x12_rot270_mirror"};
+    static final int[] GOLDEN_ROTATIONS = {90, 270};
+    static final boolean[] GOLDEN_MIRRORS = {false, true};
+
+    @Test
+    public void toNv21_packedPlanar() {
+        // Y = x + y * 16, U = 100 + i, V = 200 + i
+        byte[] y = new byte[WIDTH * HEIGHT];
+        for(int i = 0; i < y.length; i++) {
+            y[i] = (byte)i;
+        }
+        byte[] u = new byte[WIDTH * HEIGHT / 4];
+        byte[] v = new byte[WIDTH * HEIGHT / 4];
+        for(int i = 0; i < u.length; i++) {
+            u[i] = (byte)(100 + i);
+            v[i] = (byte)(200 + i);
+        }
+
+        byte[] out = new byte[YuvConverter.nv21Size(WIDTH, HEIGHT)];
+        YuvConverter.toNv21(ByteBuffer.wrap(y), WIDTH, 1, ByteBuffer.wrap(u), ByteBuffer.wrap(v), WIDTH / 2, 1, WIDTH, HEIGHT, out);
+
+        for(int i = 0; i < y.length; i++) {
+            assertEquals(y[i], out[i]);
+        }
+        for(int i = 0; i < u.length; i++) {
+            assertEquals(v[i], out[y.length + i * 2]);
+            assertEquals(u[i], out[y.length + i * 2 + 1]);
+        }
+    }
+
+    @Test
+    public void toNv21_paddedRowsAndInterleavedChroma() {
+        // 카메라 버퍼와 같은 형태: 행 끝 여백, U/V 가 한 버퍼에서 교차 (pixelStride 2)
+        int rowStride = WIDTH + 8;
+        byte[] y = new byte[rowStride * HEIGHT];
+        for(int row = 0; row < HEIGHT; row++) {
+            for(int col = 0; col < WIDTH; col++) {
+                y[row * rowStride + col] = (byte)(row * WIDTH + col);
+            }
+        }
+        byte[] uv = new byte[rowStride * HEIGHT / 2];
+        for(int row = 0; row < HEIGHT / 2; row++) {
+            for(int col = 0; col < WIDTH / 2; col++) {
+                uv[row * rowStride + col * 2] = (byte)(100 + row * 8 + col);
+                uv[row * rowStride + col * 2 + 1] = (byte)(200 + row * 8 + col);
+            }
+        }
+        ByteBuffer uPlane = ByteBuffer.wrap(uv);
+        ByteBuffer vPlane = ByteBuffer.wrap(uv, 1, uv.length - 1).slice();
+
+        byte[] out = new byte[YuvConverter.nv21Size(WIDTH, HEIGHT)];
+        YuvConverter.toNv21(ByteBuffer.wrap(y), rowStride, 1, uPlane, vPlane, rowStride, 2, WIDTH, HEIGHT, out);
+
+        for(int i = 0; i < WIDTH * HEIGHT; i++) {
+            assertEquals((byte)i, out[i]);
+        }
+        int o = WIDTH * HEIGHT;
+        for(int i = 0; i < WIDTH * HEIGHT / 4; i++) {
+            assertEquals((byte)(200 + i), out[o + i * 2]);
+            assertEquals((byte)(100 + i), out[o + i * 2 + 1]);
+        }
+        assertEquals(0, uPlane.position());
+    }
+
+    @Test
+    public void toNv21_rotationAndMirror_matchReference() {
+        int width = 12;
+        int height = 8;
+        Random random = new Random(3);
+        Planes planes = Planes.interleaved(width, height, width + 4, random);
+
+        for(int rotation = 0; rotation < 360; rotation += 90) {
+            for(boolean mirror : new boolean[] {false, true}) {
+                String name = "rot=" + rotation + " mirror=" + mirror;
+                int outW = YuvConverter.rotatedWidth(width, height, rotation);
+                int outH = YuvConverter.rotatedHeight(width, height, rotation);
+                byte[] out = new byte[YuvConverter.nv21Size(width, height)];
+                planes.toNv21(rotation, mirror, out);
+
+                int[][] y = orient(planes.y, rotation, mirror);
+                int[][] u = orient(planes.u, rotation, mirror);
+                int[][] v = orient(planes.v, rotation, mirror);
+                assertEquals(name, outH, y.length);
+                assertEquals(name, outW, y[0].length);
+                for(int row = 0; row < outH; row++) {
+                    for(int col = 0; col < outW; col++) {
+                        assertEquals(name, y[row][col], out[row * outW + col] & 0xFF);
+                    }
+                }
+                int o = outW * outH;
+                for(int row = 0; row < outH / 2; row++) {
+                    for(int col = 0; col < outW / 2; col++) {
+                        assertEquals(name, v[row][col], out[o++] & 0xFF);
+                        assertEquals(name, u[row][col], out[o++] & 0xFF);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void toArgb_planarAndInterleaved_matchReference() {
+        int width = 10;
+        int height = 6;
+        Random random = new Random(9);
+        Planes planar = Planes.planar(width, height, random);
+        Planes interleaved = planar.toInterleaved(width + 6);
+        int[] a = new int[width * height];
+        int[] b = new int[width * height];
+
+        for(int rotation = 0; rotation < 360; rotation += 90) {
+            for(boolean mirror : new boolean[] {false, true}) {
+                String name = "rot=" + rotation + " mirror=" + mirror;
+                planar.toArgb(rotation, mirror, a);
+                interleaved.toArgb(rotation, mirror, b);
+                assertArrayEquals(name, a, b);
+
+                // 색차를 원본 해상도로 늘린 뒤 회전한 값과 비교 (부동소수 계산 기준 ±1)
+                int[][] y = orient(planar.y, rotation, mirror);
+                int[][] u = orient(upsample(planar.u), rotation, mirror);
+                int[][] v = orient(upsample(planar.v), rotation, mirror);
+                int outW = y[0].length;
+                for(int row = 0; row < y.length; row++) {
+                    for(int col = 0; col < outW; col++) {
+                        assertColor(name, referenceArgb(y[row][col], u[row][col], v[row][col]), a[row * outW + col], 1);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void argb_knownColors() {
+        assertEquals(0xFF808080, YuvConverter.argb(128, 0, 0));
+        assertEquals(0xFFFFFFFF, YuvConverter.argb(255, 0, 0));
+        assertEquals(0xFF000000, YuvConverter.argb(0, 0, 0));
+        // JFIF 빨강 (Y 76, Cb 85, Cr 255)
+        assertColor("red", 0xFFFE0000, YuvConverter.argb(76, 85 - 128, 255 - 128), 1);
+        // JFIF 파랑 (Y 29, Cb 255, Cr 107)
+        assertColor("blue", 0xFF0000FF, YuvConverter.argb(29, 255 - 128, 107 - 128), 1);
+    }
+
+    @Test
+    public void nv21ToArgb_sameAsPlanes() {
+        int width = 8;
+        int height = 4;
+        Planes planes = Planes.planar(width, height, new Random(4));
+        byte[] nv21 = new byte[YuvConverter.nv21Size(width, height)];
+        planes.toNv21(0, false, nv21);
+
+        int[] expected = new int[width * height];
+        int[] actual = new int[width * height];
+        planes.toArgb(90, true, expected);
+        YuvConverter.nv21ToArgb(nv21, width, height, 90, true, actual);
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void golden_paddedRotatedFrame() throws IOException {
+        for(int i = 0; i < GOLDEN_CASES.length; i++) {
+            String name = GOLDEN_CASES[i];
+            byte[] nv21 = goldenNv21(GOLDEN_ROTATIONS[i], GOLDEN_MIRRORS[i]);
+            assertArrayEquals(name, readFixture(name + ".nv21"), nv21);
+
+            byte[] input = readFixture(GOLDEN_INPUT);
+            int ySize = GOLDEN_ROW_STRIDE * GOLDEN_HEIGHT;
+            int[] argb = new int[GOLDEN_WIDTH * GOLDEN_HEIGHT];
+            YuvConverter.toArgb(ByteBuffer.wrap(input, 0, ySize).slice(), GOLDEN_ROW_STRIDE, 1,
+                    ByteBuffer.wrap(input, ySize, input.length - ySize).slice(), ByteBuffer.wrap(input, ySize + 1, input.length - ySize - 1).slice(),
+                    GOLDEN_ROW_STRIDE, 2, GOLDEN_WIDTH, GOLDEN_HEIGHT, GOLDEN_ROTATIONS[i], GOLDEN_MIRRORS[i], argb);
+            int[] expected = new int[argb.length];
+            ByteBuffer.wrap(readFixture(name + ".argb")).asIntBuffer().get(expected);
+            assertArrayEquals(name, expected, argb);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void toArgb_rejectsOddSize() {
+        Planes planes = Planes.planar(4, 4, new Random(1));
+        YuvConverter.toArgb(ByteBuffer.wrap(planes.yBytes), 4, 1, ByteBuffer.wrap(planes.uBytes), ByteBuffer.wrap(planes.vBytes), 2, 1, 3, 4, 0, false, new int[16]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void toNv21_rejectsSmallOutput() {
+        byte[] y = new byte[WIDTH * HEIGHT];
+        byte[] c = new byte[WIDTH * HEIGHT / 4];
+        YuvConverter.toNv21(ByteBuffer.wrap(y), WIDTH, 1, ByteBuffer.wrap(c), ByteBuffer.wrap(c), WIDTH / 2, 1, WIDTH, HEIGHT, new byte[10]);
+    }
+
+    // 저장된 카메라 버퍼를 회전, 반전한 NV21
+    static byte[] goldenNv21(int rotation, boolean mirror) throws IOException {
+        byte[] input = readFixture(GOLDEN_INPUT);
+        int ySize = GOLDEN_ROW_STRIDE * GOLDEN_HEIGHT;
+        byte[] out = new byte[YuvConverter.nv21Size(GOLDEN_WIDTH, GOLDEN_HEIGHT)];
+        YuvConverter.toNv21(ByteBuffer.wrap(input, 0, ySize).slice(), GOLDEN_ROW_STRIDE, 1,
+                ByteBuffer.wrap(input, ySize, input.length - ySize).slice(), ByteBuffer.wrap(input, ySize + 1, input.length - ySize - 1).slice(),
+                GOLDEN_ROW_STRIDE, 2, GOLDEN_WIDTH, GOLDEN_HEIGHT, rotation, mirror, out);
+        return out;
+    }
+
+    static byte[] readFixture(String name) throws IOException {
+        try (InputStream in = YuvConverterTest.class.getResourceAsStream("/golden/" + name)) {
+            assertNotNull("missing fixture " + name, in);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while((read = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    // 시계방향 회전 후 좌우반전 (단순 구현)
+    static int[][] orient(int[][] src, int rotation, boolean mirror) {
+        int[][] result = src;
+        for(int r = 0; r < rotation; r += 90) {
+            int rows = result.length;
+            int cols = result[0].length;
+            int[][] rotated = new int[cols][rows];
+            for(int row = 0; row < cols; row++) {
+                for(int col = 0; col < rows; col++) {
+                    rotated[row][col] = result[rows - 1 - col][row];
+                }
+            }
+            result = rotated;
+        }
+        if(mirror) {
+            int[][] mirrored = new int[result.length][];
+            for(int row = 0; row < result.length; row++) {
+                int cols = result[row].length;
+                mirrored[row] = new int[cols];
+                for(int col = 0; col < cols; col++) {
+                    mirrored[row][col] = result[row][cols - 1 - col];
+                }
+            }
+            result = mirrored;
+        }
+        return result;
+    }
+
+    private static int[][] upsample(int[][] chroma) {
+        int[][] result = new int[chroma.length * 2][chroma[0].length * 2];
+        for(int row = 0; row < result.length; row++) {
+            for(int col = 0; col < result[0].length; col++) {
+                result[row][col] = chroma[row / 2][col / 2];
+            }
+        }
+        return result;
+    }
+
+    // JFIF 변환식 (부동소수)
+    static int referenceArgb(int y, int cb, int cr) {
+        double u = cb - 128;
+        double v = cr - 128;
+        int r = clamp(Math.round(y + 1.402 * v));
+        int g = clamp(Math.round(y - 0.344136 * u - 0.714136 * v));
+        int b = clamp(Math.round(y + 1.772 * u));
+        return 0xFF000000 | (r << 16) | (g << 8) | b;
+    }
+
+    private static int clamp(long value) {
+        return (int)Math.max(0, Math.min(255, value));
+    }
+
+    static void assertColor(String name, int expected, int actual, int tolerance) {
+        for(int shift = 0; shift <= 24; shift += 8) {
+            int e = (expected >> shift) & 0xFF;
+            int a = (actual >> shift) & 0xFF;
+            assertTrue(name + " expected " + Integer.toHexString(expected) + " but " + Integer.toHexString(actual), Math.abs(e - a) <= tolerance);
+        }
+    }
+
+    // 테스트용 YUV_420_888 평면 (2차원 값 + 실제 버퍼 배치)
+    private static final class Planes {
+        final int width;
+        final int height;
+        final int[][] y;
+        final int[][] u;
+        final int[][] v;
+
+        byte[] yBytes;
+        byte[] uBytes;
+        byte[] vBytes;
+        int yRowStride;
+        int uvRowStride;
+        int uvPixelStride;
+        int vOffset;
+
+        private Planes(int width, int height, Random random) {
+            this.width = width;
+            this.height = height;
+            y = new int[height][width];
+            u = new int[height / 2][width / 2];
+            v = new int[height / 2][width / 2];
+            for(int row = 0; row < height; row++) {
+                for(int col = 0; col < width; col++) {
+                    y[row][col] = random.nextInt(256);
+                }
+            }
+            for(int row = 0; row < height / 2; row++) {
+                for(int col = 0; col < width / 2; col++) {
+                    u[row][col] = random.nextInt(256);
+                    v[row][col] = random.nextInt(256);
+                }
+            }
+        }
+
+        // I420: 여백 없는 Y, U, V 평면
+        static Planes planar(int width, int height, Random random) {
+            Planes planes = new Planes(width, height, random);
+            planes.layout(width, false);
+            return planes;
+        }
+
+        // 카메라 버퍼: 행 끝 여백, U/V 한 버퍼에서 교차
+        static Planes interleaved(int width, int height, int rowStride, Random random) {
+            Planes planes = new Planes(width, height, random);
+            planes.layout(rowStride, true);
+            return planes;
+        }
+
+        Planes toInterleaved(int rowStride) {
+            Planes planes = new Planes(width, height, new Random(0));
+            for(int row = 0; row < height; row++) {
+                planes.y[row] = y[row].clone();
+            }
+            for(int row = 0; row < height / 2; row++) {
+                planes.u[row] = u[row].clone();
+                planes.v[row] = v[row].clone();
+            }
+            planes.layout(rowStride, true);
+            return planes;
+        }
+
+        private void layout(int rowStride, boolean isInterleaved) {
+            yRowStride = rowStride;
+            yBytes = new byte[rowStride * height];
+            for(int row = 0; row < height; row++) {
+                for(int col = 0; col < width; col++) {
+                    yBytes[row * rowStride + col] = (byte)y[row][col];
+                }
+            }
+            if(isInterleaved) {
+                uvRowStride = rowStride;
+                uvPixelStride = 2;
+                uBytes = new byte[rowStride * height / 2];
+                for(int row = 0; row < height / 2; row++) {
+                    for(int col = 0; col < width / 2; col++) {
+                        uBytes[row * rowStride + col * 2] = (byte)u[row][col];
+                        uBytes[row * rowStride + col * 2 + 1] = (byte)v[row][col];
+                    }
+                }
+                vBytes = uBytes;
+                vOffset = 1;
+            } else {
+                uvRowStride = width / 2;
+                uvPixelStride = 1;
+                uBytes = new byte[width * height / 4];
+                vBytes = new byte[width * height / 4];
+                for(int row = 0; row < height / 2; row++) {
+                    for(int col = 0; col < width / 2; col++) {
+                        uBytes[row * uvRowStride + col] = (byte)u[row][col];
+                        vBytes[row * uvRowStride + col] = (byte)v[row][col];
+                    }
+                }
+                vOffset = 0;
+            }
+        }
+
+        private ByteBuffer vBuffer() {
+            return ByteBuffer.wrap(vBytes, vOffset, vBytes.length - vOffset).slice();
+        }
+
+        void toNv21(int rotation, boolean mirror, byte[] out) {
+            YuvConverter.toNv21(ByteBuffer.wrap(yBytes), yRowStride, 1, ByteBuffer.wrap(uBytes), vBuffer(), uvRowStride, uvPixelStride,
+                    width, height, rotation, mirror, out);
+        }
+
+        void toArgb(int rotation, boolean mirror, int[] out) {
+            YuvConverter.toArgb(ByteBuffer.wrap(yBytes), yRowStride, 1, ByteBuffer.wrap(uBytes), vBuffer(), uvRowStride, uvPixelStride,
+                    width, height, rotation, mirror, out);
+        }
+    }
+}
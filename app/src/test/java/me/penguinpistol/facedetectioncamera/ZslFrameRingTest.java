@@ -0,0 +1,219 @@
+package me.penguinpistol.facedetectioncamera;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ZslFrameRingTest {
+
+    private static final int WIDTH = 64;
+    private static final int HEIGHT = 48;
+
+    @Test
+    public void selectBest_highestScoreAmongLatestCandidates() {
+        ZslFrameRing ring = new ZslFrameRing(8);
+        float[] scores = {0.95f, 0.4f, 0.7f, 0.6f, 0.5f};
+        long[] sequences = new long[scores.length];
+        for(int i = 0; i < scores.length; i++) {
+            sequences[i] = store(ring, i * 33L);
+            assertTrue(ring.score(sequences[i], scores[i]));
+        }
+
+        // 최근 3개 (0.7, 0.6, 0.5) 중에서만 선택
+        ZslFrameRing.Frame best = ring.selectBest(3);
+        assertNotNull(best);
+        assertEquals(sequences[2], best.getSequence());
+        assertEquals(0.7f, best.getScore(), 0f);
+        assertEquals(66L, best.getTimestampMs());
+    }
+
+    @Test
+    public void selectBest_tieKeepsLatest() {
+        ZslFrameRing ring = new ZslFrameRing(4);
+        long first = store(ring, 0);
+        long second = store(ring, 33);
+        ring.score(first, 0.8f);
+        ring.score(second, 0.8f);
+
+        assertEquals(second, ring.selectBest(4).getSequence());
+    }
+
+    @Test
+    public void unscoredFrames_notCandidates() {
+        ZslFrameRing ring = new ZslFrameRing(4);
+        store(ring, 0);
+        store(ring, 33);
+
+        assertEquals(0, ring.getCandidateCount());
+        assertNull(ring.selectBest(4));
+    }
+
+    @Test
+    public void lockedFrame_notOverwrittenUntilRelease() {
+        ZslFrameRing ring = new ZslFrameRing(2);
+        long sequence = store(ring, 0);
+        ring.score(sequence, 1f);
+        ZslFrameRing.Frame locked = ring.selectBest(1);
+        locked.getData()[0] = 42;
+
+        // 나머지 한 슬롯만 계속 재사용
+        for(int i = 1; i <= 5; i++) {
+            ZslFrameRing.Frame frame = ring.obtain(i * 33L, WIDTH, HEIGHT, 270);
+            assertNotSame(locked, frame);
+            frame.getData()[0] = (byte)i;
+            ring.commit(frame);
+        }
+        assertEquals(42, locked.getData()[0]);
+        assertEquals(sequence, locked.getSequence());
+
+        ring.release(locked);
+        assertNotNull(ring.obtain(999, WIDTH, HEIGHT, 270));
+    }
+
+    @Test
+    public void obtain_nullWhenAllSlotsBusy() {
+        ZslFrameRing ring = new ZslFrameRing(2);
+        ZslFrameRing.Frame writing = ring.obtain(0, WIDTH, HEIGHT, 0);
+        long sequence = store(ring, 33);
+        ring.score(sequence, 1f);
+        ring.selectBest(1);
+
+        assertNull(ring.obtain(66, WIDTH, HEIGHT, 0));
+        assertEquals(1, ring.getDroppedCount());
+
+        ring.abort(writing);
+        assertNotNull(ring.obtain(66, WIDTH, HEIGHT, 0));
+    }
+
+    @Test
+    public void score_ignoredAfterOverwrite() {
+        ZslFrameRing ring = new ZslFrameRing(2);
+        long oldest = store(ring, 0);
+        store(ring, 33);
+        store(ring, 66);
+
+        // 가장 오래된 슬롯을 덮어썼으므로 늦게 도착한 판정은 무시
+        assertFalse(ring.score(oldest, 1f));
+        assertEquals(0, ring.getCandidateCount());
+    }
+
+    @Test
+    public void obtain_evictsOldestCandidate() {
+        ZslFrameRing ring = new ZslFrameRing(3);
+        long[] sequences = new long[3];
+        for(int i = 0; i < 3; i++) {
+            sequences[i] = store(ring, i * 33L);
+            ring.score(sequences[i], 0.5f);
+        }
+
+        ZslFrameRing.Frame frame = ring.obtain(99, WIDTH, HEIGHT, 0);
+        ring.commit(frame);
+        assertFalse(ring.score(sequences[0], 1f));
+        assertEquals(2, ring.getCandidateCount());
+    }
+
+    @Test
+    public void obtain_evictsUnscoredBeforeCandidate() {
+        ZslFrameRing ring = new ZslFrameRing(2);
+        long scored = store(ring, 0);
+        ring.score(scored, 0.9f);
+        store(ring, 33);
+
+        // 판정 전 프레임이 계속 들어와도 후보는 유지
+        for(int i = 2; i < 6; i++) {
+            store(ring, i * 33L);
+        }
+        assertEquals(1, ring.getCandidateCount());
+        assertEquals(scored, ring.selectBest(2).getSequence());
+    }
+
+    @Test
+    public void obtain_evictsLowestScoredCandidate() {
+        ZslFrameRing ring = new ZslFrameRing(3);
+        long high = store(ring, 0);
+        long low = store(ring, 33);
+        long middle = store(ring, 66);
+        ring.score(high, 0.9f);
+        ring.score(low, 0.3f);
+        ring.score(middle, 0.6f);
+
+        long next = store(ring, 99);
+        assertFalse(ring.score(low, 1f));
+        assertTrue(ring.score(next, 0.5f));
+        assertEquals(high, ring.selectBest(3).getSequence());
+    }
+
+    @Test
+    public void discard_freesUnscoredSlotOnly() {
+        ZslFrameRing ring = new ZslFrameRing(2);
+        long scored = store(ring, 0);
+        ring.score(scored, 0.5f);
+        long unscored = store(ring, 33);
+
+        ring.discard(scored);
+        ring.discard(unscored);
+        assertFalse(ring.score(unscored, 1f));
+        assertEquals(1, ring.getCandidateCount());
+
+        // 비운 슬롯부터 재사용
+        store(ring, 66);
+        assertEquals(1, ring.getCandidateCount());
+    }
+
+    @Test
+    public void buffers_allocatedOnFirstUse() {
+        ZslFrameRing ring = new ZslFrameRing(4);
+        assertEquals(0, ring.getAllocatedBytes());
+
+        long sequence = store(ring, 0);
+        ring.discard(sequence);
+        store(ring, 33);
+        // 비운 슬롯의 버퍼를 다시 사용
+        assertEquals(YuvConverter.nv21Size(WIDTH, HEIGHT), ring.getAllocatedBytes());
+    }
+
+    @Test
+    public void clear_dropsCandidatesButKeepsLocked() {
+        ZslFrameRing ring = new ZslFrameRing(4);
+        long a = store(ring, 0);
+        long b = store(ring, 33);
+        ring.score(a, 1f);
+        ring.score(b, 0.5f);
+        ZslFrameRing.Frame locked = ring.selectBest(1);
+
+        ring.clear();
+        assertEquals(0, ring.getCandidateCount());
+        assertNull(ring.selectBest(4));
+        assertEquals(b, locked.getSequence());
+    }
+
+    @Test
+    public void obtain_growsBufferForLargerFrame() {
+        ZslFrameRing ring = new ZslFrameRing(1);
+        ZslFrameRing.Frame frame = ring.obtain(0, WIDTH * 2, HEIGHT * 2, 90);
+        assertTrue(frame.getData().length >= YuvConverter.nv21Size(WIDTH * 2, HEIGHT * 2));
+        assertEquals(90, frame.getRotationDegrees());
+    }
+
+    @Test
+    public void captureGateScore_prefersFrameCloserToTarget() {
+        FaceThresholds thresholds = FaceThresholds.defaults(FaceChecker.Direction.FRONT);
+
+        float centered = CaptureGate.computeScore(thresholds, 0f, 0f, 0f, 0f, 1f, 1f);
+        float offset = CaptureGate.computeScore(thresholds, 3f, -2f, 1f, 20f * 20f, 1.1f, 0.8f);
+        float edge = CaptureGate.computeScore(thresholds, 6.9f, 0f, 0f, 34f * 34f, 1.19f, 0.66f);
+
+        assertEquals(1f, centered, 1e-6f);
+        assertTrue(centered > offset);
+        assertTrue(offset > edge);
+        assertTrue(edge > 0f);
+        assertEquals(0f, CaptureGate.computeScore(null, 0f, 0f, 0f, 0f, 1f, 1f), 0f);
+    }
+
+    private static long store(ZslFrameRing ring, long timestampMs) {
+        ZslFrameRing.Frame frame = ring.obtain(timestampMs, WIDTH, HEIGHT, 270);
+        assertNotNull(frame);
+        ring.commit(frame);
+        return frame.getSequence();
+    }
+}
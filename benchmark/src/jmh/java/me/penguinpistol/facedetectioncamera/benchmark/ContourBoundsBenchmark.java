@@ -0,0 +1,29 @@
+package me.penguinpistol.facedetectioncamera.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import me.penguinpistol.facedetectioncamera.ContourUtils;
+
+// FaceChecker, GraphicOverlay 공통 윤곽선 -> 사각형 계산 비용
+@State(Scope.Thread)
+public class ContourBoundsBenchmark {
+
+    private float[][] contours;
+    private final float[] bounds = new float[4];
+    private int index;
+
+    @Setup
+    public void setUp() {
+        contours = ContourDatasets.contours(7);
+    }
+
+    @Benchmark
+    public float[] computeBounds() {
+        float[] contour = contours[index++ & (ContourDatasets.FRAME_COUNT - 1)];
+        ContourUtils.computeBounds(contour, ContourDatasets.POINT_COUNT, bounds);
+        return bounds;
+    }
+}
@@ -0,0 +1,77 @@
+package me.penguinpistol.facedetectioncamera.benchmark;
+
+import java.util.Random;
+
+import me.penguinpistol.facedetectioncamera.FaceObservation;
+
+// 벤치마크용 합성 데이터 (720x1280 분석 이미지 기준)
+final class ContourDatasets {
+
+    static final int IMAGE_WIDTH = 720;
+    static final int IMAGE_HEIGHT = 1280;
+
+    // FaceDetectionAnalyzer 의 목표영역과 동일
+    static final float TARGET_WIDTH = IMAGE_WIDTH * 0.48f;
+    static final float TARGET_HEIGHT = TARGET_WIDTH * 1.4f;
+    static final float TARGET_LEFT = (IMAGE_WIDTH - TARGET_WIDTH) * 0.5f;
+    static final float TARGET_TOP = (IMAGE_HEIGHT - TARGET_HEIGHT) * 0.5f;
+    static final float TARGET_RIGHT = TARGET_LEFT + TARGET_WIDTH;
+    static final float TARGET_BOTTOM = TARGET_TOP + TARGET_HEIGHT;
+
+    static final int POINT_COUNT = FaceObservation.DEFAULT_CONTOUR_POINTS;
+    static final int FRAME_COUNT = 1024;                            // 2의 거듭제곱 (index mask 용)
+
+    private ContourDatasets() {
+    }
+
+    // 목표영역 주변에서 흔들리는 얼굴 윤곽선 (일부는 판정 통과, 일부는 실패)
+    static float[][] contours(long seed) {
+        Random random = new Random(seed);
+        float[][] frames = new float[FRAME_COUNT][];
+        for(int i = 0; i < FRAME_COUNT; i++) {
+            float cx = IMAGE_WIDTH * 0.5f + (float)random.nextGaussian() * 30f;
+            float cy = IMAGE_HEIGHT * 0.5f + (float)random.nextGaussian() * 30f;
+            float scale = 1f + (float)random.nextGaussian() * 0.15f;
+            frames[i] = contour(random, cx, cy, TARGET_WIDTH * scale, TARGET_HEIGHT * scale);
+        }
+        return frames;
+    }
+
+    static FaceObservation[] observations(long seed) {
+        Random random = new Random(seed);
+        float[][] contours = contours(seed);
+        FaceObservation[] frames = new FaceObservation[FRAME_COUNT];
+        for(int i = 0; i < FRAME_COUNT; i++) {
+            frames[i] = new FaceObservation()
+                    .set(
+                            (float)random.nextGaussian() * 5f,
+                            (float)random.nextGaussian() * 20f,
+                            (float)random.nextGaussian() * 5f,
+                            random.nextFloat(),
+                            random.nextFloat()
+                    )
+                    .setContour(contours[i], POINT_COUNT);
+        }
+        return frames;
+    }
+
+    // -60 ~ 60 도 범위의 Y 각도
+    static float[] anglesY(long seed) {
+        Random random = new Random(seed);
+        float[] angles = new float[FRAME_COUNT];
+        for(int i = 0; i < FRAME_COUNT; i++) {
+            angles[i] = random.nextFloat() * 120f - 60f;
+        }
+        return angles;
+    }
+
+    private static float[] contour(Random random, float cx, float cy, float w, float h) {
+        float[] points = new float[POINT_COUNT * 2];
+        for(int i = 0; i < POINT_COUNT; i++) {
+            double t = 2 * Math.PI * i / POINT_COUNT;
+            points[i * 2] = cx + (float)(Math.sin(t) * w * 0.5) + random.nextFloat() * 2f;
+            points[i * 2 + 1] = cy - (float)(Math.cos(t) * h * 0.5) + random.nextFloat() * 2f;
+        }
+        return points;
+    }
+}
@@ -0,0 +1,31 @@
+package me.penguinpistol.facedetectioncamera.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import me.penguinpistol.facedetectioncamera.FaceChecker;
+
+// 방향별 Y 각도 판정 비용
+@State(Scope.Thread)
+public class DirectionBenchmark {
+
+    private static final float ANGLE_ERROR_VALUE = 7f;
+
+    private final FaceChecker.Direction[] directions = FaceChecker.Direction.values();
+    private float[] anglesY;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        anglesY = ContourDatasets.anglesY(3);
+    }
+
+    @Benchmark
+    public boolean check() {
+        int i = index++;
+        FaceChecker.Direction direction = directions[i % directions.length];
+        return direction.check(anglesY[i & (ContourDatasets.FRAME_COUNT - 1)], ANGLE_ERROR_VALUE);
+    }
+}
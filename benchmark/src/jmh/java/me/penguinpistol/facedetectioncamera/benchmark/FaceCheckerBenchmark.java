@@ -0,0 +1,41 @@
+package me.penguinpistol.facedetectioncamera.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import me.penguinpistol.facedetectioncamera.FaceChecker;
+import me.penguinpistol.facedetectioncamera.FaceObservation;
+
+// 프레임당 자동촬영 판정 비용
+@State(Scope.Thread)
+public class FaceCheckerBenchmark {
+
+    @Param({"false", "true"})
+    public boolean debug;
+
+    private FaceChecker checker;
+    private FaceObservation[] frames;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        checker = new FaceChecker(
+                ContourDatasets.TARGET_LEFT,
+                ContourDatasets.TARGET_TOP,
+                ContourDatasets.TARGET_RIGHT,
+                ContourDatasets.TARGET_BOTTOM
+        );
+        checker.setDirection(FaceChecker.Direction.FRONT);
+        checker.setDebug(debug);
+        frames = ContourDatasets.observations(42);
+    }
+
+    @Benchmark
+    public boolean check() {
+        FaceObservation frame = frames[index++ & (ContourDatasets.FRAME_COUNT - 1)];
+        return checker.check(frame);
+    }
+}
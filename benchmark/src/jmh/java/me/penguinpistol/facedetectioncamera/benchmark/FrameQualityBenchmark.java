@@ -0,0 +1,48 @@
+package me.penguinpistol.facedetectioncamera.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import me.penguinpistol.facedetectioncamera.FrameQualityKernel;
+
+// 1280x720 Y 평면(전면카메라, 270도) 에서 목표영역(약 484x346) 화질 검사 비용
+@State(Scope.Thread)
+public class FrameQualityBenchmark {
+
+    private static final int WIDTH = 1280;
+    private static final int HEIGHT = 720;
+    // 정방향 720x1280 목표영역을 버퍼 좌표로 변환한 값
+    private static final int ROI_LEFT = 398;
+    private static final int ROI_TOP = 187;
+    private static final int ROI_RIGHT = 882;
+    private static final int ROI_BOTTOM = 533;
+
+    @Param({"1", "2", "4"})
+    public int step;
+
+    private ByteBuffer yPlane;
+    private FrameQualityKernel kernel;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(11);
+        yPlane = ByteBuffer.allocateDirect(WIDTH * HEIGHT);
+        for(int i = 0; i < WIDTH * HEIGHT; i++) {
+            yPlane.put((byte)(90 + random.nextInt(80)));
+        }
+        yPlane.rewind();
+        kernel = new FrameQualityKernel(step);
+    }
+
+    @Benchmark
+    public boolean compute() {
+        kernel.compute(yPlane, WIDTH, HEIGHT, WIDTH, 1, ROI_LEFT, ROI_TOP, ROI_RIGHT, ROI_BOTTOM);
+        return kernel.passes();
+    }
+}
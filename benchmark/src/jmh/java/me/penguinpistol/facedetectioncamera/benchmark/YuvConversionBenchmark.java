@@ -0,0 +1,99 @@
+package me.penguinpistol.facedetectioncamera.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import me.penguinpistol.facedetectioncamera.JpegEncoder;
+import me.penguinpistol.facedetectioncamera.YuvConverter;
+
+// 전면카메라 분석 프레임 (가로 버퍼, 270도, 좌우반전) 변환 비용
+// 카메라 버퍼와 같이 행 끝 여백이 있고 U/V 가 한 버퍼에서 교차하는 형태
+@State(Scope.Thread)
+public class YuvConversionBenchmark {
+
+    private static final int ROW_PADDING = 64;
+    private static final int ROTATION = 270;
+    private static final int JPEG_QUALITY = 95;
+
+    // 정방향 크기 (가로x세로)
+    @Param({"720x1280", "1080x1920"})
+    public String uprightSize;
+
+    private int width;
+    private int height;
+    private ByteBuffer yPlane;
+    private ByteBuffer uPlane;
+    private ByteBuffer vPlane;
+    private int rowStride;
+
+    private byte[] nv21;
+    private int[] argb;
+    private JpegEncoder encoder;
+    private ByteArrayOutputStream jpeg;
+
+    @Setup
+    public void setUp() throws IOException {
+        String[] size = uprightSize.split("x");
+        // 버퍼는 가로로 누운 상태
+        width = Integer.parseInt(size[1]);
+        height = Integer.parseInt(size[0]);
+        rowStride = width + ROW_PADDING;
+
+        Random random = new Random(5);
+        yPlane = ByteBuffer.allocateDirect(rowStride * height);
+        for(int i = 0; i < yPlane.capacity(); i++) {
+            yPlane.put((byte)(90 + random.nextInt(80)));
+        }
+        yPlane.rewind();
+
+        ByteBuffer uv = ByteBuffer.allocateDirect(rowStride * height / 2);
+        for(int i = 0; i < uv.capacity(); i++) {
+            uv.put((byte)(118 + random.nextInt(20)));
+        }
+        uv.rewind();
+        uPlane = uv.duplicate();
+        uv.position(1);
+        vPlane = uv.slice();
+
+        nv21 = new byte[YuvConverter.nv21Size(width, height)];
+        argb = new int[width * height];
+        encoder = new JpegEncoder(JPEG_QUALITY);
+        jpeg = new ByteArrayOutputStream(width * height / 2);
+
+        // JPEG 측정용 정방향 NV21
+        toNv21Upright();
+    }
+
+    @Benchmark
+    public byte[] toNv21Copy() {
+        YuvConverter.toNv21(yPlane, rowStride, 1, uPlane, vPlane, rowStride, 2, width, height, nv21);
+        return nv21;
+    }
+
+    @Benchmark
+    public byte[] toNv21Upright() {
+        YuvConverter.toNv21(yPlane, rowStride, 1, uPlane, vPlane, rowStride, 2, width, height, ROTATION, true, nv21);
+        return nv21;
+    }
+
+    @Benchmark
+    public int[] toArgbUpright() {
+        YuvConverter.toArgb(yPlane, rowStride, 1, uPlane, vPlane, rowStride, 2, width, height, ROTATION, true, argb);
+        return argb;
+    }
+
+    @Benchmark
+    public int encodeJpeg() throws IOException {
+        jpeg.reset();
+        encoder.encodeNv21(nv21, height, width, jpeg);
+        return jpeg.size();
+    }
+}